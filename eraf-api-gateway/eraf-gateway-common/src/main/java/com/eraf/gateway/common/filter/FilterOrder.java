@@ -23,6 +23,7 @@ public final class FilterOrder {
     public static final int OAUTH2 = HIGHEST + 32;
     public static final int JWT_VALIDATION = HIGHEST + 35;
     public static final int CIRCUIT_BREAKER = HIGHEST + 40;
+    public static final int LOAD_BALANCER = HIGHEST + 45;
     public static final int RESPONSE_CACHE = HIGHEST + 50;
     public static final int REQUEST_TRANSFORM = HIGHEST + 60;
     public static final int RESPONSE_TRANSFORM = LOWEST - 20;
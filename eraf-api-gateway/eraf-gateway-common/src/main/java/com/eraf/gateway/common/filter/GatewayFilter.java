@@ -1,12 +1,11 @@
 package com.eraf.gateway.common.filter;
 
-import org.springframework.util.AntPathMatcher;
+import com.eraf.gateway.common.path.PathPatternIndex;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -16,14 +15,24 @@ import java.util.List;
 @Slf4j
 public abstract class GatewayFilter implements Filter {
 
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
-    private List<String> excludePatterns = Collections.emptyList();
+    /**
+     * 게이트웨이가 스스로 다시 보내는 요청 표시 (예: 캐시 갱신, 값: Boolean.TRUE)
+     * 클라이언트 요청으로 세지 않는 필터는 {@link #skipsInternalRequests()}로 건너뜁니다.
+     */
+    public static final String INTERNAL_REQUEST_ATTRIBUTE = "eraf.gateway.internal-request";
+
+    /**
+     * 컴파일된 제외 패턴 (설정 변경 시 통째로 교체)
+     */
+    private volatile PathPatternIndex<String> excludePatterns = PathPatternIndex.empty();
 
     /**
      * 제외 패턴 설정
      */
     public void setExcludePatterns(List<String> excludePatterns) {
-        this.excludePatterns = excludePatterns != null ? excludePatterns : Collections.emptyList();
+        this.excludePatterns = excludePatterns != null
+                ? PathPatternIndex.of(excludePatterns)
+                : PathPatternIndex.empty();
     }
 
     @Override
@@ -44,6 +53,13 @@ public abstract class GatewayFilter implements Filter {
             return;
         }
 
+        // 내부 요청 체크
+        if (skipsInternalRequests() && isInternalRequest(httpRequest)) {
+            log.debug("Internal request {} skipped by {} filter", requestPath, getFilterName());
+            chain.doFilter(request, response);
+            return;
+        }
+
         // 필터 활성화 여부 체크
         if (!isEnabled()) {
             log.debug("{} filter is disabled, skipping", getFilterName());
@@ -59,12 +75,7 @@ public abstract class GatewayFilter implements Filter {
      * 경로가 제외 패턴에 매칭되는지 확인
      */
     protected boolean shouldExclude(String path) {
-        for (String pattern : excludePatterns) {
-            if (pathMatcher.match(pattern, path)) {
-                return true;
-            }
-        }
-        return false;
+        return excludePatterns.matches(path);
     }
 
     /**
@@ -75,6 +86,21 @@ public abstract class GatewayFilter implements Filter {
         return true;
     }
 
+    /**
+     * 내부 요청을 건너뛸지 여부 (기본값: false)
+     * 요청 수를 세거나 기록하는 필터 (rate limit, 통계)는 true로 오버라이드
+     */
+    protected boolean skipsInternalRequests() {
+        return false;
+    }
+
+    /**
+     * 게이트웨이가 스스로 보낸 요청인지 확인
+     */
+    public static boolean isInternalRequest(ServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(INTERNAL_REQUEST_ATTRIBUTE));
+    }
+
     /**
      * 필터 이름 반환
      */
@@ -0,0 +1,486 @@
+package com.eraf.gateway.common.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 컴파일된 경로 패턴 인덱스
+ * 여러 Ant 스타일 패턴을 세그먼트 단위 트라이로 한 번 컴파일해두고, 요청 경로를 한 번 순회하여
+ * 매칭되는 모든 패턴의 값을 반환합니다. 규칙 수와 무관하게 경로 길이에 비례하는 비용으로 매칭합니다.
+ *
+ * 지원 패턴 (AntPathMatcher 호환):
+ * - "**" : 0개 이상의 세그먼트 (예: /api/** → /api, /api/users, /api/users/1)
+ * - "*"  : 세그먼트 내 0개 이상의 문자 (예: /api/*.json)
+ * - "?"  : 세그먼트 내 한 문자
+ * - "{name}", "{name:regex}" : 세그먼트 내 변수
+ *
+ * 인스턴스는 불변이며 여러 스레드에서 동시에 사용할 수 있습니다.
+ * 규칙이 변경되면 새 인덱스를 빌드하여 volatile 필드에 교체하는 방식으로 사용합니다.
+ *
+ * @param <T> 패턴에 연결된 값 타입 (규칙 등)
+ */
+public final class PathPatternIndex<T> {
+
+    private static final String SEPARATOR = "/";
+    private static final String GLOBSTAR = "**";
+    private static final int[] NO_IDS = new int[0];
+    private static final PathPatternIndex<?> EMPTY = new PathPatternIndex<>(new Node(false), List.of());
+
+    private final Node root;
+    private final List<T> values;
+
+    private PathPatternIndex(Node root, List<T> values) {
+        this.root = root;
+        this.values = values;
+    }
+
+    /**
+     * 빈 인덱스 (어떤 경로에도 매칭되지 않음)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PathPatternIndex<T> empty() {
+        return (PathPatternIndex<T>) EMPTY;
+    }
+
+    /**
+     * 패턴 자체를 값으로 하는 인덱스 생성
+     */
+    public static PathPatternIndex<String> of(Collection<String> patterns) {
+        Builder<String> builder = builder();
+        for (String pattern : patterns) {
+            builder.add(pattern, pattern);
+        }
+        return builder.build();
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * 등록된 패턴 수
+     */
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * 경로에 매칭되는 모든 값 조회
+     *
+     * @param path 요청 경로
+     * @return 매칭된 값 목록 (등록 순서), 없으면 빈 목록
+     */
+    public List<T> match(String path) {
+        if (values.isEmpty() || path == null) {
+            return Collections.emptyList();
+        }
+
+        List<Node> states = walk(path);
+        if (states.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        boolean trailingSlash = path.endsWith(SEPARATOR);
+        IdCollector ids = new IdCollector();
+        for (Node node : states) {
+            ids.addAll(node.terminals(trailingSlash));
+            if (trailingSlash) {
+                ids.addAll(node.emptyStarTerminals);
+            }
+        }
+
+        if (ids.count == 0) {
+            return Collections.emptyList();
+        }
+        if (ids.count == 1) {
+            return Collections.singletonList(values.get(ids.ids[0]));
+        }
+
+        int count = ids.sortDistinct();
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(values.get(ids.ids[i]));
+        }
+        return result;
+    }
+
+    /**
+     * 경로에 매칭되는 첫 번째 값 조회 (등록 순서 기준)
+     *
+     * @return 매칭된 값, 없으면 null
+     */
+    public T matchFirst(String path) {
+        List<T> matched = match(path);
+        return matched.isEmpty() ? null : matched.get(0);
+    }
+
+    /**
+     * 경로가 패턴 중 하나라도 매칭되는지 확인
+     */
+    public boolean matches(String path) {
+        if (values.isEmpty() || path == null) {
+            return false;
+        }
+
+        boolean trailingSlash = path.endsWith(SEPARATOR);
+        for (Node node : walk(path)) {
+            if (node.terminals(trailingSlash).length > 0
+                    || (trailingSlash && node.emptyStarTerminals.length > 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 경로의 세그먼트를 따라 트라이를 순회하고, 마지막 세그먼트까지 도달한 노드 목록을 반환
+     * "**" 노드는 세그먼트를 소비하며 자기 자신에 머무를 수 있으므로 여러 노드를 동시에 추적합니다.
+     */
+    private List<Node> walk(String path) {
+        List<Node> current = new ArrayList<>(4);
+        List<Node> next = new ArrayList<>(4);
+        addWithGlobstar(current, root);
+
+        int length = path.length();
+        int start = 0;
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                String segment = path.substring(start, end);
+                for (Node node : current) {
+                    node.step(segment, next);
+                }
+                if (next.isEmpty()) {
+                    return next;
+                }
+                List<Node> swap = current;
+                current = next;
+                next = swap;
+                next.clear();
+            }
+            start = end + 1;
+        }
+        return current;
+    }
+
+    /**
+     * 노드와, "**"가 0개 세그먼트에 매칭되는 경우의 후속 노드를 함께 추가
+     */
+    private static void addWithGlobstar(List<Node> states, Node node) {
+        for (Node state : states) {
+            if (state == node) {
+                return;
+            }
+        }
+        states.add(node);
+        if (node.globstar != null) {
+            addWithGlobstar(states, node.globstar);
+        }
+    }
+
+    private static List<String> tokenize(String pattern) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int length = pattern.length();
+        while (start < length) {
+            int end = pattern.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                segments.add(pattern.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    private static boolean isWildcard(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    /**
+     * 세그먼트 패턴을 정규식으로 변환 ("*" 단독은 null: 모든 세그먼트에 매칭)
+     */
+    private static Pattern compileSegment(String segment) {
+        if ("*".equals(segment)) {
+            return null;
+        }
+
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < segment.length()) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (c == '*') {
+                    regex.append(".*");
+                    i++;
+                } else if (c == '?') {
+                    regex.append('.');
+                    i++;
+                } else {
+                    int close = findClosingBrace(segment, i);
+                    String variable = segment.substring(i + 1, close);
+                    int colon = variable.indexOf(':');
+                    regex.append('(').append(colon < 0 ? ".*" : variable.substring(colon + 1)).append(')');
+                    i = close + 1;
+                }
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static int findClosingBrace(String segment, int open) {
+        int depth = 0;
+        for (int i = open; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unclosed variable in path pattern segment: " + segment);
+    }
+
+    /**
+     * 경로 패턴 인덱스 빌더
+     */
+    public static final class Builder<T> {
+        private final Node root = new Node(false);
+        private final List<T> values = new ArrayList<>();
+        private boolean built;
+
+        private Builder() {
+        }
+
+        /**
+         * 패턴과 값 등록
+         * 하나의 경로에 여러 패턴이 매칭되면 등록 순서대로 반환됩니다.
+         *
+         * @param pattern Ant 스타일 경로 패턴
+         * @param value   패턴에 연결할 값
+         */
+        public Builder<T> add(String pattern, T value) {
+            if (built) {
+                throw new IllegalStateException("Path pattern index already built");
+            }
+            if (pattern == null) {
+                throw new IllegalArgumentException("Path pattern cannot be null");
+            }
+
+            Node parent = null;
+            Node node = root;
+            String last = null;
+            boolean hasGlobstar = false;
+            for (String segment : tokenize(pattern)) {
+                parent = node;
+                last = segment;
+                if (GLOBSTAR.equals(segment)) {
+                    hasGlobstar = true;
+                    node = node.globstarChild();
+                } else if (isWildcard(segment)) {
+                    node = node.wildcardChild(segment);
+                } else {
+                    node = node.literalChild(segment);
+                }
+            }
+
+            int id = values.size();
+            values.add(value);
+            if (hasGlobstar) {
+                // AntPathMatcher 호환: "**"를 포함한 패턴은 후행 슬래시와 무관하게 매칭
+                node.terminals = Node.append(node.terminals, id);
+                node.slashTerminals = Node.append(node.slashTerminals, id);
+            } else {
+                if (pattern.endsWith(SEPARATOR)) {
+                    node.slashTerminals = Node.append(node.slashTerminals, id);
+                } else {
+                    node.terminals = Node.append(node.terminals, id);
+                }
+                if ("*".equals(last)) {
+                    // AntPathMatcher 호환: 후행 슬래시 경로는 마지막 "*"에 매칭 (/api/* → /api/)
+                    parent.emptyStarTerminals = Node.append(parent.emptyStarTerminals, id);
+                }
+            }
+            return this;
+        }
+
+        public PathPatternIndex<T> build() {
+            built = true;
+            if (values.isEmpty()) {
+                return empty();
+            }
+            return new PathPatternIndex<>(root.freeze(), List.copyOf(values));
+        }
+    }
+
+    /**
+     * 트라이 노드 (경로 세그먼트 하나에 대응)
+     * 빌드가 끝난 뒤에는 변경되지 않습니다.
+     */
+    private static final class Node {
+        private final boolean globstarNode;
+        private Map<String, Node> literals;
+        private List<WildcardEdge> wildcards;
+        private WildcardEdge[] wildcardEdges = new WildcardEdge[0];
+        private Node globstar;
+        private int[] terminals = NO_IDS;
+        private int[] slashTerminals = NO_IDS;
+        private int[] emptyStarTerminals = NO_IDS;
+
+        Node(boolean globstarNode) {
+            this.globstarNode = globstarNode;
+        }
+
+        /**
+         * 세그먼트 하나를 소비하여 도달하는 노드를 추가
+         */
+        void step(String segment, List<Node> next) {
+            if (literals != null) {
+                Node child = literals.get(segment);
+                if (child != null) {
+                    addWithGlobstar(next, child);
+                }
+            }
+            for (WildcardEdge edge : wildcardEdges) {
+                if (edge.matches(segment)) {
+                    addWithGlobstar(next, edge.target);
+                }
+            }
+            if (globstarNode) {
+                addWithGlobstar(next, this);
+            }
+        }
+
+        int[] terminals(boolean trailingSlash) {
+            return trailingSlash ? slashTerminals : terminals;
+        }
+
+        Node literalChild(String segment) {
+            if (literals == null) {
+                literals = new HashMap<>();
+            }
+            return literals.computeIfAbsent(segment, key -> new Node(false));
+        }
+
+        Node wildcardChild(String segment) {
+            if (wildcards == null) {
+                wildcards = new ArrayList<>();
+            }
+            for (WildcardEdge edge : wildcards) {
+                if (edge.source.equals(segment)) {
+                    return edge.target;
+                }
+            }
+            WildcardEdge edge = new WildcardEdge(segment, compileSegment(segment), new Node(false));
+            wildcards.add(edge);
+            return edge.target;
+        }
+
+        Node globstarChild() {
+            if (globstar == null) {
+                globstar = new Node(true);
+            }
+            return globstar;
+        }
+
+        Node freeze() {
+            if (literals != null) {
+                literals.values().forEach(Node::freeze);
+            }
+            if (wildcards != null) {
+                wildcards.forEach(edge -> edge.target.freeze());
+                wildcardEdges = wildcards.toArray(new WildcardEdge[0]);
+                wildcards = null;
+            }
+            if (globstar != null) {
+                globstar.freeze();
+            }
+            return this;
+        }
+
+        static int[] append(int[] ids, int id) {
+            int[] copy = Arrays.copyOf(ids, ids.length + 1);
+            copy[ids.length] = id;
+            return copy;
+        }
+    }
+
+    /**
+     * 매칭된 패턴 ID 수집 버퍼
+     */
+    private static final class IdCollector {
+        private int[] ids = NO_IDS;
+        private int count;
+
+        void addAll(int[] terminals) {
+            if (terminals.length == 0) {
+                return;
+            }
+            if (count + terminals.length > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(count + terminals.length, ids.length * 2));
+            }
+            System.arraycopy(terminals, 0, ids, count, terminals.length);
+            count += terminals.length;
+        }
+
+        /**
+         * 등록 순서로 정렬하고 중복을 제거, 남은 개수 반환
+         */
+        int sortDistinct() {
+            Arrays.sort(ids, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            count = distinct;
+            return distinct;
+        }
+    }
+
+    /**
+     * 와일드카드 세그먼트 간선
+     */
+    private static final class WildcardEdge {
+        private final String source;
+        private final Pattern pattern;
+        private final Node target;
+
+        WildcardEdge(String source, Pattern pattern, Node target) {
+            this.source = source;
+            this.pattern = pattern;
+            this.target = target;
+        }
+
+        boolean matches(String segment) {
+            return pattern == null || pattern.matcher(segment).matches();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.eraf.gateway.common.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * 만료 타이머 휠
+ * 만료 시각을 틱 단위 슬롯에 배치해두고, 시간이 지나면 지나간 틱의 슬롯만 처리합니다.
+ * 저장소 전체를 주기적으로 스캔하지 않으므로 정리 비용은 만료되는 항목 수에만 비례합니다.
+ * 휠 한 바퀴보다 먼 만료 시각은 해당 슬롯에서 다음 바퀴까지 대기합니다.
+ *
+ * @param <E> 만료 대상 타입
+ */
+@Slf4j
+public final class ExpiryTimerWheel<E> {
+
+    private final long tickMillis;
+    private final Queue<Timeout<E>>[] slots;
+    private final int mask;
+    private final Consumer<E> onExpired;
+
+    /**
+     * 처리가 끝난 마지막 틱
+     */
+    private volatile long processedTick;
+
+    /**
+     * @param slotCount  슬롯 수 (2의 거듭제곱으로 올림)
+     * @param tickMillis 틱 간격 (밀리초)
+     * @param nowMillis  현재 시각 (밀리초)
+     * @param onExpired  만료 시각이 지난 항목 처리
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiryTimerWheel(int slotCount, long tickMillis, long nowMillis, Consumer<E> onExpired) {
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.slots = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+        this.onExpired = onExpired;
+        this.processedTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * 만료 예약
+     * 이미 지난 시각이면 다음 틱에 처리됩니다.
+     */
+    public void schedule(E element, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), processedTick + 1);
+        slots[(int) (tick & mask)].add(new Timeout<>(element, tick));
+    }
+
+    /**
+     * 현재 시각까지 지나간 틱의 만료 항목 처리
+     *
+     * @return 만료 처리된 항목 수
+     */
+    public synchronized int advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        int expired = 0;
+
+        while (processedTick < targetTick) {
+            long tick = processedTick + 1;
+            Queue<Timeout<E>> slot = slots[(int) (tick & mask)];
+            List<Timeout<E>> later = null;
+
+            Timeout<E> timeout;
+            while ((timeout = slot.poll()) != null) {
+                if (timeout.tick > tick) {
+                    // 다음 바퀴 이후 만료: 슬롯 처리가 끝난 뒤 다시 넣음
+                    if (later == null) {
+                        later = new ArrayList<>();
+                    }
+                    later.add(timeout);
+                    continue;
+                }
+                try {
+                    onExpired.accept(timeout.element);
+                    expired++;
+                } catch (Exception e) {
+                    log.warn("Failed to expire entry: {}", e.getMessage());
+                }
+            }
+
+            if (later != null) {
+                slot.addAll(later);
+            }
+            processedTick = tick;
+        }
+        return expired;
+    }
+
+    private static final class Timeout<E> {
+        private final E element;
+        private final long tick;
+
+        Timeout(E element, long tick) {
+            this.element = element;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.eraf.gateway.common.path;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathPatternIndexTest {
+
+    private static final List<String> PATTERNS = List.of(
+            "/api/**",
+            "/api/users/*",
+            "/api/users/{id:\\d+}",
+            "/**/health",
+            "/static/*.js",
+            "/exact",
+            "/dir/",
+            "/api/v?/orders",
+            "/files/**/*.txt",
+            "/**");
+
+    private static final List<String> PATHS = List.of(
+            "/", "/api", "/api/", "/api/users/12", "/api/users/ab", "/api/users/12/", "/api/users/",
+            "/files/a/b.txt", "/files/b.txt/", "/a/b/health", "/health", "/static/app.js", "/static/app.css",
+            "/exact", "/exact/", "/dir", "/dir/", "/api/v1/orders", "/api/v12/orders", "//api//users/7");
+
+    @Test
+    void testMatchesAllPatternsInInsertionOrder() {
+        PathPatternIndex<String> index = PathPatternIndex.of(PATTERNS);
+
+        assertEquals(List.of("/api/**", "/api/users/*", "/api/users/{id:\\d+}", "/**"),
+                index.match("/api/users/12"));
+        assertEquals(List.of("/api/**", "/api/users/*", "/**"), index.match("/api/users/ab"));
+        assertEquals(List.of("/**/health", "/**"), index.match("/a/b/health"));
+        assertEquals("/api/**", index.matchFirst("/api"));
+    }
+
+    @Test
+    void testConsistentWithAntPathMatcher() {
+        PathPatternIndex<String> index = PathPatternIndex.of(PATTERNS);
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+        for (String path : PATHS) {
+            List<String> expected = new ArrayList<>();
+            for (String pattern : PATTERNS) {
+                if (antPathMatcher.match(pattern, path)) {
+                    expected.add(pattern);
+                }
+            }
+            assertEquals(expected, index.match(path), "Path " + path);
+            assertEquals(!expected.isEmpty(), index.matches(path), "Path " + path);
+        }
+    }
+
+    @Test
+    void testTrailingSlash() {
+        PathPatternIndex<String> index = PathPatternIndex.of(List.of("/exact", "/dir/", "/api/**", "/users/*"));
+
+        assertTrue(index.matches("/exact"));
+        assertFalse(index.matches("/exact/"));
+        assertFalse(index.matches("/dir"));
+        assertTrue(index.matches("/dir/"));
+        assertTrue(index.matches("/api/users/"));
+        assertTrue(index.matches("/users/"));
+        assertFalse(index.matches("/users/1/"));
+    }
+
+    @Test
+    void testEmptyIndex() {
+        PathPatternIndex<String> index = PathPatternIndex.of(List.of());
+
+        assertTrue(index.isEmpty());
+        assertFalse(index.matches("/api"));
+        assertTrue(index.match("/api").isEmpty());
+        assertNull(index.matchFirst("/api"));
+    }
+
+    @Test
+    void testBuilderIsSingleUse() {
+        PathPatternIndex.Builder<Integer> builder = PathPatternIndex.<Integer>builder().add("/a", 1);
+        PathPatternIndex<Integer> index = builder.build();
+
+        assertEquals(List.of(1), index.match("/a"));
+        assertThrows(IllegalStateException.class, () -> builder.add("/b", 2));
+    }
+}
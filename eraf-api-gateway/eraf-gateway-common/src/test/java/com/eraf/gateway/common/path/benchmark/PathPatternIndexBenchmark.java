@@ -0,0 +1,103 @@
+package com.eraf.gateway.common.path.benchmark;
+
+import com.eraf.gateway.common.path.PathPatternIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 규칙 수에 따른 경로 매칭 비용 비교
+ * 컴파일된 {@link PathPatternIndex} 한 번 순회와, 규칙마다 {@link AntPathMatcher#match}를 호출하는
+ * 기존 방식을 비교합니다. 인덱스는 규칙 수와 무관하게 경로 길이에 비례하는 비용을 보여야 합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathPatternIndexBenchmark {
+
+    private static final int PATH_COUNT = 1024;
+
+    @Param({"10", "1000", "10000"})
+    private int ruleCount;
+
+    private List<String> patterns;
+    private PathPatternIndex<String> index;
+    private AntPathMatcher antPathMatcher;
+    private String[] paths;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> list = new ArrayList<>(ruleCount);
+        list.add("/**/health");
+        for (int i = 1; i < ruleCount; i++) {
+            int service = i / 4;
+            switch (i % 4) {
+                case 0 -> list.add("/api/service" + service + "/**");
+                case 1 -> list.add("/api/service" + service + "/items/*");
+                case 2 -> list.add("/api/service" + service + "/items/{id:\\d+}/detail");
+                default -> list.add("/api/v?/service" + service + "/orders/*.json");
+            }
+        }
+        patterns = List.copyOf(list);
+        index = PathPatternIndex.of(patterns);
+        antPathMatcher = new AntPathMatcher();
+
+        // 매칭되는 경로와 매칭되지 않는 경로를 섞어서 사용
+        int services = Math.max(1, ruleCount / 4);
+        paths = new String[PATH_COUNT];
+        for (int i = 0; i < PATH_COUNT; i++) {
+            int service = random.nextInt(services);
+            switch (random.nextInt(5)) {
+                case 0 -> paths[i] = "/api/service" + service + "/items/" + random.nextInt(100000) + "/detail";
+                case 1 -> paths[i] = "/api/service" + service + "/items/abc";
+                case 2 -> paths[i] = "/api/v1/service" + service + "/orders/" + random.nextInt(1000) + ".json";
+                case 3 -> paths[i] = "/internal/service" + service + "/health";
+                default -> paths[i] = "/static/assets/app" + random.nextInt(100) + ".js";
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> pathPatternIndex() {
+        return index.match(nextPath());
+    }
+
+    @Benchmark
+    public List<String> antPathMatcherLoop() {
+        String path = nextPath();
+        List<String> matched = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (antPathMatcher.match(pattern, path)) {
+                matched.add(pattern);
+            }
+        }
+        return matched;
+    }
+
+    private String nextPath() {
+        String path = paths[next];
+        next = (next + 1) & (PATH_COUNT - 1);
+        return path;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PathPatternIndexBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
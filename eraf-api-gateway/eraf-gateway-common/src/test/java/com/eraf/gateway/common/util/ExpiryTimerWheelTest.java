@@ -0,0 +1,62 @@
+package com.eraf.gateway.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryTimerWheelTest {
+
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void testExpiresOnlyPassedTicks() {
+        ExpiryTimerWheel<String> wheel = new ExpiryTimerWheel<>(8, 100, 0, expired::add);
+        wheel.schedule("a", 150);
+        wheel.schedule("b", 400);
+
+        assertEquals(0, wheel.advance(199));
+        assertEquals(1, wheel.advance(200));
+        assertEquals(List.of("a"), expired);
+
+        assertEquals(1, wheel.advance(1_000));
+        assertEquals(List.of("a", "b"), expired);
+    }
+
+    @Test
+    void testDeadlineBeyondOneRotationWaitsForItsTick() {
+        ExpiryTimerWheel<String> wheel = new ExpiryTimerWheel<>(4, 100, 0, expired::add);
+        // 4 슬롯 * 100ms 휠에서 1초 뒤 만료는 같은 슬롯을 두 바퀴 더 기다림
+        wheel.schedule("far", 1_000);
+
+        assertEquals(0, wheel.advance(900));
+        assertEquals(1, wheel.advance(1_000));
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void testPastDeadlineExpiresOnNextTick() {
+        ExpiryTimerWheel<String> wheel = new ExpiryTimerWheel<>(8, 100, 500, expired::add);
+        wheel.schedule("late", 100);
+
+        assertEquals(0, wheel.advance(599));
+        assertEquals(1, wheel.advance(600));
+    }
+
+    @Test
+    void testFailingCallbackDoesNotStopExpiry() {
+        ExpiryTimerWheel<String> wheel = new ExpiryTimerWheel<>(8, 100, 0, element -> {
+            if (element.equals("bad")) {
+                throw new IllegalStateException("fail");
+            }
+            expired.add(element);
+        });
+        wheel.schedule("bad", 100);
+        wheel.schedule("good", 100);
+
+        wheel.advance(100);
+        assertEquals(List.of("good"), expired);
+    }
+}
@@ -43,6 +43,14 @@ public class AdvancedAnalyticsFilter extends GatewayFilter {
         return enabled;
     }
 
+    /**
+     * 캐시 갱신 같은 내부 요청은 통계와 로그에 넣지 않음
+     */
+    @Override
+    protected boolean skipsInternalRequests() {
+        return true;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, ServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
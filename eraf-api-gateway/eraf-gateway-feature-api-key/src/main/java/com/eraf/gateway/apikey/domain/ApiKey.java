@@ -1,7 +1,7 @@
 package com.eraf.gateway.apikey.domain;
 
-import org.springframework.util.AntPathMatcher;
-import lombok.AllArgsConstructor;
+import com.eraf.gateway.common.path.PathPatternIndex;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,9 +13,7 @@ import java.util.Set;
  * API Key 도메인 모델
  */
 @Getter
-@Builder
 @NoArgsConstructor
-@AllArgsConstructor
 public class ApiKey {
 
     private String id;
@@ -70,6 +68,29 @@ public class ApiKey {
      */
     private LocalDateTime updatedAt;
 
+    /**
+     * allowedPaths를 컴파일한 경로 패턴 인덱스 (첫 경로 검사 시 생성, 빌더에 포함되지 않음)
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile PathPatternIndex<String> allowedPathIndex;
+
+    @Builder
+    public ApiKey(String id, String apiKey, String name, String description, Set<String> allowedPaths,
+                  Set<String> allowedIps, Integer rateLimitPerSecond, boolean enabled, LocalDateTime expiresAt,
+                  LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.apiKey = apiKey;
+        this.name = name;
+        this.description = description;
+        this.allowedPaths = allowedPaths;
+        this.allowedIps = allowedIps;
+        this.rateLimitPerSecond = rateLimitPerSecond;
+        this.enabled = enabled;
+        this.expiresAt = expiresAt;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     /**
      * API Key가 유효한지 확인
      */
@@ -90,13 +111,12 @@ public class ApiKey {
         if (allowedPaths == null || allowedPaths.isEmpty()) {
             return true;
         }
-        AntPathMatcher pathMatcher = new AntPathMatcher();
-        for (String pattern : allowedPaths) {
-            if (pathMatcher.match(pattern, path)) {
-                return true;
-            }
+        PathPatternIndex<String> index = allowedPathIndex;
+        if (index == null) {
+            index = PathPatternIndex.of(allowedPaths);
+            allowedPathIndex = index;
         }
-        return false;
+        return index.matches(path);
     }
 
     /**
@@ -1,11 +1,17 @@
 package com.eraf.gateway.cache.config;
 
 import com.eraf.gateway.cache.domain.CacheRule;
+import com.eraf.gateway.cache.filter.RequestCoalescer;
 import com.eraf.gateway.cache.filter.ResponseCacheFilter;
 import com.eraf.gateway.cache.repository.ResponseCacheRepository;
 import com.eraf.gateway.cache.repository.InMemoryResponseCacheRepository;
+import com.eraf.gateway.cache.repository.OffHeapBodyStore;
+import com.eraf.gateway.cache.repository.RedisSharedResponseCacheStore;
+import com.eraf.gateway.cache.repository.TwoTierResponseCacheRepository;
+import com.eraf.gateway.cache.service.ResponseCacheService;
 import com.eraf.gateway.common.filter.FilterOrder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -13,10 +19,18 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Cache 자동 설정
@@ -30,21 +44,130 @@ public class CacheAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "eraf.gateway.cache.shared", name = "enabled", havingValue = "false", matchIfMissing = true)
     public ResponseCacheRepository responseCacheRepository(CacheProperties properties) {
-        log.info("Initializing InMemoryResponseCacheRepository");
-        return new InMemoryResponseCacheRepository();
+        return localRepository(properties);
+    }
+
+    /**
+     * 로컬 + Redis 2계층 캐시 (shared.enabled=true)
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(RedisConnectionFactory.class)
+    @ConditionalOnProperty(prefix = "eraf.gateway.cache.shared", name = "enabled", havingValue = "true")
+    static class SharedCacheConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(RedisConnectionFactory.class)
+        public RedisConnectionFactory responseCacheRedisConnectionFactory(CacheProperties properties) {
+            CacheProperties.SharedConfig shared = properties.getShared();
+
+            RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
+            config.setHostName(shared.getHost());
+            config.setPort(shared.getPort());
+            config.setDatabase(shared.getDatabase());
+
+            if (shared.getPassword() != null && !shared.getPassword().isEmpty()) {
+                config.setPassword(shared.getPassword());
+            }
+
+            LettuceConnectionFactory factory = new LettuceConnectionFactory(config);
+            factory.afterPropertiesSet();
+
+            log.info("Redis connection factory created for response cache: {}:{}", shared.getHost(), shared.getPort());
+            return factory;
+        }
+
+        /**
+         * 무효화 메시지 처리 스레드 (1개, 메시지 순서 유지)
+         * 큐가 차면 구독 스레드에서 직접 처리해 수신 속도를 늦춤 (메시지마다 스레드를 만들지 않음)
+         */
+        @Bean
+        public ThreadPoolTaskExecutor responseCacheInvalidationExecutor(CacheProperties properties) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(1);
+            executor.setMaxPoolSize(1);
+            executor.setQueueCapacity(properties.getShared().getInvalidationQueueCapacity());
+            executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.setThreadNamePrefix("response-cache-invalidation-");
+            executor.setDaemon(true);
+            return executor;
+        }
+
+        @Bean
+        public RedisMessageListenerContainer responseCacheListenerContainer(
+                RedisConnectionFactory connectionFactory, ThreadPoolTaskExecutor responseCacheInvalidationExecutor) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.setTaskExecutor(responseCacheInvalidationExecutor);
+            return container;
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ResponseCacheRepository twoTierResponseCacheRepository(CacheProperties properties,
+                                                                      RedisConnectionFactory connectionFactory,
+                                                                      RedisMessageListenerContainer responseCacheListenerContainer) {
+            log.info("Initializing TwoTierResponseCacheRepository (channel: {})", properties.getShared().getChannel());
+            return new TwoTierResponseCacheRepository(localRepository(properties),
+                    new RedisSharedResponseCacheStore(connectionFactory, responseCacheListenerContainer,
+                            properties.getShared().getChannel()));
+        }
+    }
+
+    private static InMemoryResponseCacheRepository localRepository(CacheProperties properties) {
+        log.info("Initializing InMemoryResponseCacheRepository (maxEntries: {}, maxBytes: {}, bodyStorage: {})",
+                properties.getMaxCacheSize(), properties.getMaxCacheBytes(), properties.getBodyStorage());
+
+        switch (properties.getBodyStorage()) {
+            case OFF_HEAP:
+                return new InMemoryResponseCacheRepository(properties.getMaxCacheSize(),
+                        OffHeapBodyStore.direct(properties.getMaxCacheBytes()));
+            case MAPPED_FILE:
+                String directory = properties.getBodyStorageDirectory() != null
+                        ? properties.getBodyStorageDirectory()
+                        : System.getProperty("java.io.tmpdir");
+                return new InMemoryResponseCacheRepository(properties.getMaxCacheSize(),
+                        OffHeapBodyStore.mappedFile(Path.of(directory), properties.getMaxCacheBytes()));
+            default:
+                return new InMemoryResponseCacheRepository(properties.getMaxCacheSize(), properties.getMaxCacheBytes());
+        }
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "eraf.gateway.cache", name = "coalesce-requests", havingValue = "true", matchIfMissing = true)
+    public RequestCoalescer requestCoalescer(CacheProperties properties) {
+        log.info("Initializing RequestCoalescer (timeout: {}ms)", properties.getCoalesceTimeoutMillis());
+        return new RequestCoalescer(properties.getCoalesceTimeoutMillis());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ResponseCacheService responseCacheService(ResponseCacheRepository cacheRepository,
+                                                     CacheProperties properties) {
+        // 경로 무효화는 규칙이 캐시하는 메서드의 키만 지움
+        Set<String> methods = new TreeSet<>(Set.of("GET", "HEAD"));
+        createDefaultCacheRules(properties).stream()
+                .filter(rule -> rule.getMethods() != null)
+                .forEach(rule -> methods.addAll(rule.getMethods()));
+        return new ResponseCacheService(cacheRepository, methods);
     }
 
     @Bean
     public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilterRegistration(
             ResponseCacheRepository cacheRepository,
+            ObjectProvider<RequestCoalescer> coalescer,
             CacheProperties properties) {
         log.info("Registering ResponseCacheFilter with order: {}", FilterOrder.RESPONSE_CACHE);
 
         // 기본 캐시 규칙 생성 (추후 동적으로 관리 가능)
         List<CacheRule> rules = createDefaultCacheRules(properties);
 
-        ResponseCacheFilter filter = new ResponseCacheFilter(cacheRepository, rules);
+        ResponseCacheFilter filter = new ResponseCacheFilter(cacheRepository, rules, coalescer.getIfAvailable(),
+                properties.getMaxConcurrentRevalidations(),
+                properties.isCompressBodies() ? properties.getCompressionMinBytes() : 0,
+                properties.getTagHeader());
 
         FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
         registration.setOrder(FilterOrder.RESPONSE_CACHE);
@@ -64,6 +187,9 @@ public class CacheAutoConfiguration {
                 .pathPattern("/**")
                 .methods(Collections.singleton("GET"))
                 .ttlSeconds(properties.getDefaultTtlSeconds())
+                .staleWhileRevalidateSeconds(properties.getDefaultStaleWhileRevalidateSeconds())
+                .staleIfErrorSeconds(properties.getDefaultStaleIfErrorSeconds())
+                .notFoundTtlSeconds(properties.getDefaultNotFoundTtlSeconds())
                 .varyByQueryParams(properties.isVaryByQueryParams())
                 .varyByHeaders(properties.isVaryByHeaders())
                 .varyHeaders(properties.getVaryHeaders() != null
@@ -23,6 +23,28 @@ public class CacheProperties {
      */
     private int defaultTtlSeconds = 300;
 
+    /**
+     * 기본 stale-while-revalidate 시간 (초, TTL이 지난 뒤 갱신하는 동안 이전 응답 제공, 0이면 사용 안 함)
+     */
+    private int defaultStaleWhileRevalidateSeconds = 0;
+
+    /**
+     * 기본 stale-if-error 시간 (초, TTL이 지난 뒤 원본 실패 시 이전 응답 제공, 0이면 사용 안 함)
+     */
+    private int defaultStaleIfErrorSeconds = 0;
+
+    /**
+     * 기본 404 응답 캐시 시간 (초, negative cache, 0이면 캐시하지 않음)
+     */
+    private int defaultNotFoundTtlSeconds = 0;
+
+    /**
+     * stale 응답을 준 뒤 동시에 진행할 수 있는 캐시 갱신 수
+     * 갱신은 stale 응답을 보낸 요청 스레드에서 원본을 다시 호출하므로, 이 수만큼의 서블릿 스레드가
+     * 원본 응답 시간 동안 더 점유될 수 있습니다 (서블릿 스레드 풀 크기보다 충분히 작게 설정).
+     */
+    private int maxConcurrentRevalidations = 16;
+
     /**
      * 쿼리 파라미터 기준 캐시 구분 여부
      */
@@ -52,4 +74,109 @@ public class CacheProperties {
      * 최대 캐시 크기 (엔트리 수)
      */
     private int maxCacheSize = 1000;
+
+    /**
+     * 최대 캐시 크기 (저장된 응답 바디 바이트 합계, OFF_HEAP / MAPPED_FILE이면 저장소 용량)
+     */
+    private long maxCacheBytes = 64L * 1024 * 1024;
+
+    /**
+     * 응답 바디 저장 위치
+     */
+    private BodyStorage bodyStorage = BodyStorage.HEAP;
+
+    /**
+     * MAPPED_FILE 저장 디렉터리 (없으면 java.io.tmpdir)
+     */
+    private String bodyStorageDirectory;
+
+    /**
+     * 텍스트 바디를 gzip으로 압축해 저장할지 여부 (gzip을 받는 클라이언트에게는 압축된 그대로 제공)
+     */
+    private boolean compressBodies = false;
+
+    /**
+     * 압축할 최소 바디 크기 (바이트)
+     */
+    private int compressionMinBytes = 1024;
+
+    /**
+     * 원본이 무효화용 태그를 담아 보내는 응답 헤더 (공백 또는 쉼표로 구분, 비우면 태그를 쓰지 않음)
+     */
+    private String tagHeader = "Surrogate-Key";
+
+    /**
+     * 같은 캐시 키로 동시에 MISS 난 요청을 원본 호출 한 번으로 병합할지 여부
+     */
+    private boolean coalesceRequests = true;
+
+    /**
+     * 병합된 요청이 첫 요청의 응답을 기다릴 최대 시간 (밀리초, 넘으면 직접 원본 호출)
+     */
+    private long coalesceTimeoutMillis = 5000;
+
+    /**
+     * 로컬 + Redis 2계층 캐시 설정
+     */
+    private SharedConfig shared = new SharedConfig();
+
+    /**
+     * 로컬 + Redis 2계층 캐시 설정
+     * 로컬 계층 크기는 max-cache-size / max-cache-bytes / body-storage를 따릅니다.
+     */
+    @Data
+    public static class SharedConfig {
+        /**
+         * 2계층 캐시 사용 여부 (false면 노드별 로컬 캐시만 사용)
+         */
+        private boolean enabled = false;
+
+        /**
+         * 노드 간 무효화 메시지 채널
+         */
+        private String channel = "response-cache:invalidation";
+
+        /**
+         * 처리 대기 무효화 메시지 최대 수 (무효화는 스레드 1개에서 순서대로 처리)
+         */
+        private int invalidationQueueCapacity = 10_000;
+
+        /**
+         * Redis 호스트 (RedisConnectionFactory Bean이 없을 때 사용)
+         */
+        private String host = "localhost";
+
+        /**
+         * Redis 포트
+         */
+        private int port = 6379;
+
+        /**
+         * Redis 비밀번호
+         */
+        private String password;
+
+        /**
+         * Redis 데이터베이스 인덱스
+         */
+        private int database = 0;
+    }
+
+    /**
+     * 응답 바디 저장 위치
+     */
+    public enum BodyStorage {
+        /**
+         * 힙 byte[]
+         */
+        HEAP,
+        /**
+         * 다이렉트 버퍼 슬랩 (-XX:MaxDirectMemorySize 필요)
+         */
+        OFF_HEAP,
+        /**
+         * 메모리 맵 파일
+         */
+        MAPPED_FILE
+    }
 }
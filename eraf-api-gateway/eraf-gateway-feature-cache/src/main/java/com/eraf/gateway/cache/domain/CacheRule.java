@@ -22,6 +22,21 @@ public class CacheRule {
     private final Set<String> varyHeaders;  // 캐시 키에 포함할 헤더
     private final boolean enabled;
 
+    /**
+     * TTL이 지난 뒤 백그라운드로 갱신하는 동안 이전 응답을 바로 제공할 시간 (초, stale-while-revalidate)
+     */
+    private final int staleWhileRevalidateSeconds;
+
+    /**
+     * TTL이 지난 뒤 원본이 실패하면 이전 응답으로 대신할 수 있는 시간 (초, stale-if-error)
+     */
+    private final int staleIfErrorSeconds;
+
+    /**
+     * 404 응답을 캐시할 시간 (초, negative cache, 0이면 캐시하지 않음)
+     */
+    private final int notFoundTtlSeconds;
+
     public boolean matchesPath(String path) {
         return PathMatcher.matches(path, pathPattern);
     }
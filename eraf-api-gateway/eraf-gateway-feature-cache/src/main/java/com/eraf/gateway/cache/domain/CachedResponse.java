@@ -5,12 +5,13 @@ import lombok.Getter;
 
 import java.time.Instant;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 캐시된 응답
  */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class CachedResponse {
 
     private final int statusCode;
@@ -20,10 +21,75 @@ public class CachedResponse {
     private final Instant cachedAt;
     private final Instant expiresAt;
 
+    /**
+     * 클라이언트에게 보내는 ETag (원본의 강한 ETag 또는 캐시 시점에 계산한 바디 해시)
+     */
+    private final String etag;
+
+    /**
+     * 캐시가 바디를 압축해 저장한 인코딩 (예: gzip, 원본 그대로면 null)
+     */
+    private final String contentEncoding;
+
+    /**
+     * 무효화용 태그 (원본이 태그 헤더로 준 surrogate key, 없으면 null)
+     */
+    private final Set<String> tags;
+
+    /**
+     * 만료 후 갱신하는 동안 제공할 수 있는 시간 (초)
+     */
+    private final int staleWhileRevalidateSeconds;
+
+    /**
+     * 만료 후 원본 실패 시 제공할 수 있는 시간 (초)
+     */
+    private final int staleIfErrorSeconds;
+
+    /**
+     * 저장된 원본 응답 헤더 조회 (이름 대소문자 무시)
+     */
+    public String getHeader(String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
     public boolean isExpired() {
         return Instant.now().isAfter(expiresAt);
     }
 
+    /**
+     * 만료되었지만 갱신하는 동안 바로 제공할 수 있는지 여부
+     */
+    public boolean isWithinStaleWhileRevalidate() {
+        return isWithin(staleWhileRevalidateSeconds);
+    }
+
+    /**
+     * 만료되었지만 원본이 실패하면 대신 제공할 수 있는지 여부
+     */
+    public boolean isWithinStaleIfError() {
+        return isWithin(staleIfErrorSeconds);
+    }
+
+    /**
+     * 어떤 경우에도 더 이상 제공할 수 없어 저장소에서 지워도 되는지 여부
+     */
+    public boolean isDiscardable() {
+        return !isWithin(Math.max(staleWhileRevalidateSeconds, staleIfErrorSeconds));
+    }
+
+    private boolean isWithin(int staleSeconds) {
+        return !Instant.now().isAfter(expiresAt.plusSeconds(staleSeconds));
+    }
+
     public long getRemainingTtlSeconds() {
         long remaining = expiresAt.getEpochSecond() - Instant.now().getEpochSecond();
         return Math.max(0, remaining);
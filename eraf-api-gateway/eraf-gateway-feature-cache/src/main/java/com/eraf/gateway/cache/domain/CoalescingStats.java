@@ -0,0 +1,41 @@
+package com.eraf.gateway.cache.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 캐시 MISS 요청 병합 통계
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoalescingStats {
+
+    /**
+     * 현재 원본 호출이 진행 중인 캐시 키 수
+     */
+    private long inFlightCount;
+
+    /**
+     * 원본을 직접 호출한 첫 요청 수
+     */
+    private long leaderCount;
+
+    /**
+     * 첫 요청의 응답을 함께 사용한 요청 수 (원본 호출을 아낀 수)
+     */
+    private long coalescedCount;
+
+    /**
+     * 기다리다 시간을 넘겨 직접 원본을 호출한 요청 수
+     */
+    private long timeoutCount;
+
+    /**
+     * 첫 요청의 응답이 캐시할 수 없는 응답이라 직접 원본을 호출한 요청 수
+     */
+    private long fallbackCount;
+}
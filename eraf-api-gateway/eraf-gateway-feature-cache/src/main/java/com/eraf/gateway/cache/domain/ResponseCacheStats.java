@@ -0,0 +1,64 @@
+package com.eraf.gateway.cache.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 응답 캐시 통계
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseCacheStats {
+
+    /**
+     * 현재 항목 수
+     */
+    private long entryCount;
+
+    /**
+     * 현재 저장된 바디 바이트 합계
+     */
+    private long totalBytes;
+
+    /**
+     * 최대 항목 수
+     */
+    private long maxEntries;
+
+    /**
+     * 최대 바디 바이트 합계
+     */
+    private long maxBytes;
+
+    /**
+     * 캐시 HIT 수
+     */
+    private long hitCount;
+
+    /**
+     * 캐시 MISS 수 (만료된 항목 조회 포함)
+     */
+    private long missCount;
+
+    /**
+     * 새 항목을 들이기 위해 제거된 항목 수
+     */
+    private long evictionCount;
+
+    /**
+     * 빈도가 낮거나 너무 커서 저장을 거절한 항목 수
+     */
+    private long admissionRejectionCount;
+
+    /**
+     * HIT 비율 (조회가 없으면 0)
+     */
+    public double getHitRatio() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+}
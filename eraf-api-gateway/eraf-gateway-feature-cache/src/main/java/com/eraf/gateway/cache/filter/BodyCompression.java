@@ -0,0 +1,98 @@
+package com.eraf.gateway.cache.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 캐시 바디 압축 (gzip)
+ *
+ * 바디는 캐시할 때 한 번만 압축해 두고, gzip을 받는 클라이언트에게는 압축된 그대로 보냅니다.
+ * gzip을 받지 않는 클라이언트에게만 제공할 때 풉니다.
+ */
+final class BodyCompression {
+
+    static final String GZIP = "gzip";
+    static final String ACCEPT_ENCODING = "Accept-Encoding";
+    static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private BodyCompression() {
+    }
+
+    /**
+     * 압축 효과가 있는 텍스트 계열 콘텐츠인지 (이미지, 압축 파일 등은 제외)
+     */
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/")
+                || type.contains("json")
+                || type.contains("xml")
+                || type.contains("javascript")
+                || type.startsWith("application/x-www-form-urlencoded");
+    }
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] gunzip(byte[] body) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Accept-Encoding에 gzip (또는 *)이 q=0이 아닌 값으로 있는지
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Boolean gzip = null;
+        boolean wildcard = false;
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean acceptable = quality(parts) > 0;
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = acceptable;
+            } else if (coding.equals("*")) {
+                wildcard = acceptable;
+            }
+        }
+        return gzip != null ? gzip : wildcard;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,217 @@
+package com.eraf.gateway.cache.filter;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * 조건부 요청 처리 (ETag, Last-Modified, 304)
+ *
+ * - 클라이언트: If-None-Match / If-Modified-Since가 캐시된 응답과 맞으면 바디 없이 304
+ * - 원본: 만료된 응답을 갱신할 때 저장해 둔 원본 검증자로 조건부 요청 (변경이 없으면 304로 헤더만 받음)
+ */
+final class ConditionalRequests {
+
+    static final String IF_NONE_MATCH = "If-None-Match";
+    static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    static final String ETAG = "ETag";
+    static final String LAST_MODIFIED = "Last-Modified";
+
+    /**
+     * 304 응답에 함께 보내는 헤더 (RFC 9110 15.4.5)
+     */
+    static final List<String> NOT_MODIFIED_HEADERS = List.of("Cache-Control", "Content-Location", "Expires", "Vary");
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * 바디 해시로 만든 강한 ETag (SHA-256 앞 128비트)
+     */
+    static String strongETag(byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(body != null ? body : new byte[0]);
+            return "\"" + HEX.formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 클라이언트에게 보낼 ETag
+     * 원본이 강한 ETag를 주었으면 그대로 쓰고, 없거나 약한 ETag면 바디 해시로 만듦
+     */
+    static String clientETag(String upstreamETag, byte[] body) {
+        if (upstreamETag != null && upstreamETag.startsWith("\"")) {
+            return upstreamETag;
+        }
+        return strongETag(body);
+    }
+
+    /**
+     * If-None-Match 값이 ETag와 맞는지 (약한 비교, "*"는 항상 일치)
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 클라이언트가 가진 응답이 캐시된 응답과 같은지 (304로 답할 수 있는지)
+     * If-None-Match가 있으면 If-Modified-Since는 보지 않습니다.
+     */
+    static boolean isNotModified(HttpServletRequest request, CachedResponse cached) {
+        String method = request.getMethod();
+        if (!"GET".equalsIgnoreCase(method) && !"HEAD".equalsIgnoreCase(method)) {
+            return false;
+        }
+        // 404 등 negative cache 응답은 항상 그대로 제공
+        if (cached.getStatusCode() < 200 || cached.getStatusCode() >= 300) {
+            return false;
+        }
+
+        String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, cached.getEtag());
+        }
+
+        Instant since = parseDate(request.getHeader(IF_MODIFIED_SINCE));
+        Instant lastModified = lastModified(cached);
+        // HTTP 날짜는 초 단위
+        return since != null && lastModified.getEpochSecond() <= since.getEpochSecond();
+    }
+
+    /**
+     * 응답의 마지막 변경 시각 (원본 Last-Modified, 없으면 캐시한 시각)
+     */
+    static Instant lastModified(CachedResponse cached) {
+        Instant lastModified = parseDate(cached.getHeader(LAST_MODIFIED));
+        return lastModified != null ? lastModified : cached.getCachedAt();
+    }
+
+    /**
+     * 원본으로 보낼 요청
+     * 클라이언트의 조건부 헤더는 캐시가 직접 처리하므로 빼고, 이전 응답이 있으면 원본 검증자로 조건부 요청합니다.
+     *
+     * @param previous 갱신할 이전 응답 (없으면 null)
+     */
+    static HttpServletRequest forUpstream(HttpServletRequest request, CachedResponse previous) {
+        Map<String, String> validators = new LinkedHashMap<>();
+        if (previous != null) {
+            String etag = previous.getHeader(ETAG);
+            if (etag != null) {
+                validators.put(IF_NONE_MATCH, etag);
+            }
+            String lastModified = previous.getHeader(LAST_MODIFIED);
+            if (lastModified != null) {
+                validators.put(IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+
+        if (validators.isEmpty() && request.getHeader(IF_NONE_MATCH) == null
+                && request.getHeader(IF_MODIFIED_SINCE) == null) {
+            return request;
+        }
+        return new UpstreamRequest(request, validators);
+    }
+
+    static String formatDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+
+    static Instant parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * 클라이언트 조건부 헤더를 원본 검증자로 바꾼 요청
+     */
+    private static final class UpstreamRequest extends HttpServletRequestWrapper {
+
+        private final Map<String, String> validators;
+
+        UpstreamRequest(HttpServletRequest request, Map<String, String> validators) {
+            super(request);
+            this.validators = validators;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isConditional(name)) {
+                return validator(name);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isConditional(name)) {
+                String value = validator(name);
+                return Collections.enumeration(value != null ? List.of(value) : List.of());
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            Set<String> names = new LinkedHashSet<>();
+            for (Enumeration<String> e = super.getHeaderNames(); e.hasMoreElements(); ) {
+                String name = e.nextElement();
+                if (!isConditional(name)) {
+                    names.add(name);
+                }
+            }
+            names.addAll(validators.keySet());
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public long getDateHeader(String name) {
+            if (isConditional(name)) {
+                Instant date = parseDate(validator(name));
+                return date != null ? date.toEpochMilli() : -1;
+            }
+            return super.getDateHeader(name);
+        }
+
+        private String validator(String name) {
+            return name.equalsIgnoreCase(IF_NONE_MATCH) ? validators.get(IF_NONE_MATCH) : validators.get(IF_MODIFIED_SINCE);
+        }
+
+        private static boolean isConditional(String name) {
+            return IF_NONE_MATCH.equalsIgnoreCase(name) || IF_MODIFIED_SINCE.equalsIgnoreCase(name);
+        }
+    }
+}
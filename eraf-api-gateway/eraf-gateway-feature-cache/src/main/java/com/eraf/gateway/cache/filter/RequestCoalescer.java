@@ -0,0 +1,137 @@
+package com.eraf.gateway.cache.filter;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import com.eraf.gateway.cache.domain.CoalescingStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 캐시 키별 원본 호출 병합 (single-flight)
+ *
+ * 같은 캐시 키로 동시에 MISS 난 요청 중 첫 요청만 원본을 호출하고,
+ * 나머지는 그 응답이 캐시될 때까지 기다렸다가 같은 응답을 돌려줍니다.
+ * 인기 응답이 만료되는 순간 요청이 한꺼번에 원본으로 몰리는 것 (cache stampede)을 막습니다.
+ *
+ * 대기 시간을 넘기거나 첫 요청의 응답이 캐시할 수 없는 응답 (2xx 이외, 오류)이면
+ * 기다리던 요청은 각자 원본을 호출합니다.
+ */
+@Slf4j
+public class RequestCoalescer {
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    private final ConcurrentMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    private final LongAdder leaderCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder fallbackCount = new LongAdder();
+
+    public RequestCoalescer() {
+        this(DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param timeoutMillis 첫 요청의 응답을 기다릴 최대 시간 (밀리초)
+     */
+    public RequestCoalescer(long timeoutMillis) {
+        this.timeoutMillis = Math.max(0, timeoutMillis);
+    }
+
+    /**
+     * 캐시 키에 대한 원본 호출 참여
+     * 진행 중인 호출이 없으면 이 요청이 원본을 호출하는 첫 요청 (leader)이 됩니다.
+     */
+    public Flight join(String key) {
+        CompletableFuture<CachedResponse> future = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing == null) {
+            leaderCount.increment();
+            return new Flight(key, future, true);
+        }
+        return new Flight(key, existing, false);
+    }
+
+    /**
+     * 첫 요청의 응답 대기 (leader가 아닌 요청)
+     *
+     * @return 함께 사용할 응답 (시간 초과 또는 공유할 응답이 없으면 null, 이때는 직접 원본 호출)
+     */
+    public CachedResponse await(Flight flight) {
+        try {
+            CachedResponse response = flight.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (response != null) {
+                coalescedCount.increment();
+                return response;
+            }
+        } catch (TimeoutException e) {
+            timeoutCount.increment();
+            log.debug("Timed out waiting for in-flight request: {}", flight.key);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.debug("In-flight request failed: {}", flight.key);
+        }
+        fallbackCount.increment();
+        return null;
+    }
+
+    /**
+     * 첫 요청이 캐시한 응답을 기다리던 요청들에게 전달
+     */
+    public void complete(Flight flight, CachedResponse response) {
+        if (flight.leader) {
+            flight.future.complete(response);
+        }
+    }
+
+    /**
+     * 첫 요청 종료 (응답을 전달하지 못했으면 기다리던 요청들이 직접 원본을 호출하도록 깨움)
+     * 원본 호출 성공 여부와 관계없이 finally에서 호출해야 합니다.
+     */
+    public void finish(Flight flight) {
+        if (flight.leader) {
+            flight.future.complete(null);
+            inFlight.remove(flight.key, flight.future);
+        }
+    }
+
+    /**
+     * 병합 통계
+     */
+    public CoalescingStats getStats() {
+        return CoalescingStats.builder()
+                .inFlightCount(inFlight.size())
+                .leaderCount(leaderCount.sum())
+                .coalescedCount(coalescedCount.sum())
+                .timeoutCount(timeoutCount.sum())
+                .fallbackCount(fallbackCount.sum())
+                .build();
+    }
+
+    /**
+     * 캐시 키 하나에 대한 진행 중인 원본 호출
+     */
+    public static final class Flight {
+        private final String key;
+        private final CompletableFuture<CachedResponse> future;
+        private final boolean leader;
+
+        private Flight(String key, CompletableFuture<CachedResponse> future, boolean leader) {
+            this.key = key;
+            this.future = future;
+            this.leader = leader;
+        }
+
+        /**
+         * 이 요청이 원본을 호출하는 첫 요청인지 여부
+         */
+        public boolean isLeader() {
+            return leader;
+        }
+    }
+}
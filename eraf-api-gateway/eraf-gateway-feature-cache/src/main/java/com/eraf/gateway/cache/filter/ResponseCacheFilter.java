@@ -3,11 +3,12 @@ package com.eraf.gateway.cache.filter;
 import com.eraf.gateway.cache.domain.CachedResponse;
 import com.eraf.gateway.cache.domain.CacheRule;
 import com.eraf.gateway.cache.repository.ResponseCacheRepository;
+import com.eraf.gateway.common.filter.GatewayFilter;
+import com.eraf.gateway.common.path.PathPatternIndex;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingResponseWrapper;
@@ -15,16 +16,86 @@ import org.springframework.web.util.ContentCachingResponseWrapper;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.Semaphore;
 
 /**
  * 응답 캐싱 필터
  */
 @Slf4j
-@RequiredArgsConstructor
 public class ResponseCacheFilter extends OncePerRequestFilter {
 
+    public static final int DEFAULT_MAX_CONCURRENT_REVALIDATIONS = 16;
+    public static final String DEFAULT_TAG_HEADER = "Surrogate-Key";
+
     private final ResponseCacheRepository cacheRepository;
-    private final List<CacheRule> rules;
+
+    /**
+     * 같은 캐시 키의 동시 MISS를 원본 호출 한 번으로 병합 (null이면 병합하지 않음)
+     */
+    private final RequestCoalescer coalescer;
+
+    /**
+     * 경로 패턴으로 컴파일된 캐시 규칙 (규칙 순서 유지)
+     */
+    private final PathPatternIndex<CacheRule> rules;
+
+    /**
+     * stale-while-revalidate 갱신 동시 실행 상한
+     */
+    private final Semaphore revalidationPermits;
+
+    /**
+     * 이 크기 이상의 텍스트 바디는 gzip으로 압축해 저장 (0 이하면 압축하지 않음)
+     */
+    private final int compressionMinBytes;
+
+    /**
+     * 원본이 무효화용 태그를 담아 보내는 응답 헤더 (null이면 태그를 쓰지 않음)
+     */
+    private final String tagHeader;
+
+    public ResponseCacheFilter(ResponseCacheRepository cacheRepository, List<CacheRule> rules) {
+        this(cacheRepository, rules, new RequestCoalescer());
+    }
+
+    /**
+     * @param coalescer 캐시 MISS 요청 병합기 (null이면 요청마다 원본 호출)
+     */
+    public ResponseCacheFilter(ResponseCacheRepository cacheRepository, List<CacheRule> rules,
+                               RequestCoalescer coalescer) {
+        this(cacheRepository, rules, coalescer, DEFAULT_MAX_CONCURRENT_REVALIDATIONS);
+    }
+
+    /**
+     * @param maxConcurrentRevalidations stale 응답을 준 뒤 동시에 진행할 수 있는 갱신 수
+     */
+    public ResponseCacheFilter(ResponseCacheRepository cacheRepository, List<CacheRule> rules,
+                               RequestCoalescer coalescer, int maxConcurrentRevalidations) {
+        this(cacheRepository, rules, coalescer, maxConcurrentRevalidations, 0);
+    }
+
+    /**
+     * @param compressionMinBytes 이 크기 이상의 텍스트 바디는 gzip으로 압축해 저장 (0 이하면 압축하지 않음)
+     */
+    public ResponseCacheFilter(ResponseCacheRepository cacheRepository, List<CacheRule> rules,
+                               RequestCoalescer coalescer, int maxConcurrentRevalidations,
+                               int compressionMinBytes) {
+        this(cacheRepository, rules, coalescer, maxConcurrentRevalidations, compressionMinBytes, DEFAULT_TAG_HEADER);
+    }
+
+    /**
+     * @param tagHeader 무효화용 태그 헤더 (공백 또는 쉼표로 구분, 캐시에는 태그로만 저장하고 헤더는 저장하지 않음)
+     */
+    public ResponseCacheFilter(ResponseCacheRepository cacheRepository, List<CacheRule> rules,
+                               RequestCoalescer coalescer, int maxConcurrentRevalidations,
+                               int compressionMinBytes, String tagHeader) {
+        this.cacheRepository = cacheRepository;
+        this.coalescer = coalescer;
+        this.revalidationPermits = new Semaphore(Math.max(1, maxConcurrentRevalidations));
+        this.compressionMinBytes = compressionMinBytes;
+        this.tagHeader = tagHeader != null && !tagHeader.isBlank() ? tagHeader : null;
+        this.rules = compileRules(rules);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
@@ -34,49 +105,286 @@ public class ResponseCacheFilter extends OncePerRequestFilter {
         String method = request.getMethod();
 
         // 캐시 가능한 규칙 찾기
-        Optional<CacheRule> matchingRule = rules.stream()
-                .filter(r -> r.isEnabled() && r.matchesPath(path) && r.matchesMethod(method))
-                .findFirst();
-
-        if (matchingRule.isEmpty()) {
+        CacheRule rule = findRule(path, method);
+        if (rule == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        CacheRule rule = matchingRule.get();
         String cacheKey = buildCacheKey(request, rule);
 
         // 캐시 조회
         Optional<CachedResponse> cached = cacheRepository.get(cacheKey);
         if (cached.isPresent() && !cached.get().isExpired()) {
             log.debug("Cache HIT for key: {}", cacheKey);
-            serveCachedResponse(response, cached.get());
+            serveCachedResponse(request, response, cached.get());
+            return;
+        }
+
+        // 만료되었지만 stale-while-revalidate 시간 안이면 이전 응답을 바로 주고 갱신
+        if (cached.isPresent() && cached.get().isWithinStaleWhileRevalidate()) {
+            serveStaleAndRevalidate(request, response, filterChain, rule, cacheKey, cached.get());
             return;
         }
 
         log.debug("Cache MISS for key: {}", cacheKey);
 
+        // 만료된 이전 응답 (원본 조건부 요청과 stale-if-error에 사용)
+        CachedResponse previous = cached.orElse(null);
+
+        // 같은 키로 진행 중인 원본 호출이 있으면 그 응답을 기다려 함께 사용
+        RequestCoalescer.Flight flight = coalescer != null ? coalescer.join(cacheKey) : null;
+        if (flight != null && !flight.isLeader()) {
+            CachedResponse shared = coalescer.await(flight);
+            if (shared != null) {
+                log.debug("Coalesced request for key: {}", cacheKey);
+                serveCachedResponse(request, response, shared);
+                return;
+            }
+        }
+
+        try {
+            CachedResponse fetched = fetchAndCache(request, response, filterChain, rule, cacheKey, previous);
+            if (flight != null) {
+                coalescer.complete(flight, fetched);
+            }
+        } finally {
+            if (flight != null) {
+                coalescer.finish(flight);
+            }
+        }
+    }
+
+    /**
+     * 원본 호출 후 성공 응답을 캐시
+     * - 이전 응답이 있으면 원본 검증자 (ETag, Last-Modified)로 조건부 요청하고, 304면 이전 응답을 갱신해 제공
+     * - 원본이 실패 (5xx, 예외)하고 stale-if-error로 쓸 이전 응답이 있으면 대신 제공
+     *
+     * @param previous 만료된 이전 응답 (없으면 null)
+     * @return 같은 키를 기다리는 요청과 함께 쓸 응답 (캐시하지 않았으면 null)
+     */
+    private CachedResponse fetchAndCache(HttpServletRequest request, HttpServletResponse response,
+                                         FilterChain filterChain, CacheRule rule, String cacheKey,
+                                         CachedResponse previous) throws ServletException, IOException {
+        CachedResponse fallback = previous != null && previous.isWithinStaleIfError() ? previous : null;
+
         // 응답 캡처
         ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
-        filterChain.doFilter(request, responseWrapper);
+        try {
+            filterChain.doFilter(ConditionalRequests.forUpstream(request, previous), responseWrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (serveStaleOnError(request, response, fallback, cacheKey)) {
+                return fallback;
+            }
+            throw e;
+        }
 
-        // 성공 응답만 캐시
+        // 원본 내용이 그대로면 (304) 바디를 다시 받지 않고 이전 응답의 유효 시간만 갱신
         int status = responseWrapper.getStatus();
-        if (status >= 200 && status < 300) {
-            CachedResponse cachedResponse = CachedResponse.builder()
-                    .statusCode(status)
-                    .headers(extractHeaders(responseWrapper))
-                    .body(responseWrapper.getContentAsByteArray())
-                    .contentType(responseWrapper.getContentType())
-                    .cachedAt(Instant.now())
-                    .expiresAt(Instant.now().plusSeconds(rule.getTtlSeconds()))
-                    .build();
+        if (status == HttpServletResponse.SC_NOT_MODIFIED && previous != null && !response.isCommitted()) {
+            CachedResponse refreshed = refresh(cacheKey, rule, previous);
+            response.reset();
+            serveCachedResponse(request, response, refreshed);
+            return refreshed;
+        }
+
+        if (status >= 500 && serveStaleOnError(request, response, fallback, cacheKey)) {
+            return fallback;
+        }
+
+        // 성공 응답과 negative cache 대상 (404)만 캐시
+        CachedResponse cachedResponse = null;
+        if (isCacheable(rule, status)) {
+            cachedResponse = store(cacheKey, rule, status, extractHeaders(responseWrapper),
+                    parseTags(responseWrapper), responseWrapper.getContentAsByteArray(),
+                    responseWrapper.getContentType());
 
-            cacheRepository.put(cacheKey, cachedResponse);
-            log.debug("Cached response for key: {}, TTL: {}s", cacheKey, rule.getTtlSeconds());
+            // 클라이언트가 이미 같은 응답을 갖고 있으면 바디 없이 304
+            if (ConditionalRequests.isNotModified(request, cachedResponse) && !response.isCommitted()) {
+                response.reset();
+                serveCachedResponse(request, response, cachedResponse);
+                return cachedResponse;
+            }
+            // 원본 바디를 그대로 보내므로 강한 ETag
+            writeValidators(response, cachedResponse, false);
         }
 
         responseWrapper.copyBodyToResponse();
+        return cachedResponse;
+    }
+
+    /**
+     * 이전 응답을 바로 제공하고 캐시 갱신 (stale-while-revalidate)
+     * 클라이언트에게 응답을 먼저 보낸 뒤, 같은 요청 스레드에서 원본을 다시 호출해 캐시만 갱신합니다.
+     * 서블릿 필터 체인은 요청 스레드 밖에서 이어 호출할 수 없으므로, 동시 갱신 수를 제한하는 것으로
+     * 백그라운드 갱신의 상한을 둡니다. 같은 키를 이미 갱신 중이거나 상한에 닿으면 이전 응답만 제공합니다.
+     * 갱신하는 동안 요청 스레드는 원본 응답 시간만큼 더 점유됩니다 (최대 max-concurrent-revalidations개).
+     */
+    private void serveStaleAndRevalidate(HttpServletRequest request, HttpServletResponse response,
+                                         FilterChain filterChain, CacheRule rule, String cacheKey,
+                                         CachedResponse stale) throws IOException {
+        RequestCoalescer.Flight flight = coalescer != null ? coalescer.join(cacheKey) : null;
+        boolean revalidate = (flight == null || flight.isLeader()) && revalidationPermits.tryAcquire();
+        try {
+            log.debug("Cache STALE for key: {}, revalidate: {}", cacheKey, revalidate);
+            serveCachedResponse(request, response, stale);
+            if (revalidate) {
+                response.flushBuffer();
+                CachedResponse fresh = revalidate(request, response, filterChain, rule, cacheKey, stale);
+                if (flight != null) {
+                    coalescer.complete(flight, fresh);
+                }
+            }
+        } finally {
+            if (revalidate) {
+                revalidationPermits.release();
+            }
+            if (flight != null) {
+                coalescer.finish(flight);
+            }
+        }
+    }
+
+    /**
+     * 클라이언트에게 보내지 않고 원본에 조건부 요청해 캐시 갱신 (실패하면 이전 응답 유지)
+     * 갱신 요청은 내부 요청으로 표시해 rate limit과 통계 필터가 한 번 더 세지 않게 합니다.
+     *
+     * @return 갱신된 응답 (실패하거나 캐시할 수 없는 응답이면 null)
+     */
+    private CachedResponse revalidate(HttpServletRequest request, HttpServletResponse response,
+                                      FilterChain filterChain, CacheRule rule, String cacheKey,
+                                      CachedResponse stale) {
+        DetachedResponseWrapper detached = new DetachedResponseWrapper(response);
+        request.setAttribute(GatewayFilter.INTERNAL_REQUEST_ATTRIBUTE, Boolean.TRUE);
+        try {
+            filterChain.doFilter(ConditionalRequests.forUpstream(request, stale), detached);
+        } catch (IOException | ServletException | RuntimeException e) {
+            log.warn("Revalidation failed for key: {}, keeping stale response", cacheKey, e);
+            return null;
+        } finally {
+            request.removeAttribute(GatewayFilter.INTERNAL_REQUEST_ATTRIBUTE);
+        }
+
+        int status = detached.getStatus();
+        if (status == HttpServletResponse.SC_NOT_MODIFIED) {
+            return refresh(cacheKey, rule, stale);
+        }
+        if (!isCacheable(rule, status)) {
+            log.debug("Revalidation returned status {} for key: {}, keeping stale response", status, cacheKey);
+            return null;
+        }
+        return store(cacheKey, rule, status, extractHeaders(detached), parseTags(detached),
+                detached.getContentAsByteArray(), detached.getContentType());
+    }
+
+    /**
+     * 원본 실패 시 이전 응답으로 대신 응답 (stale-if-error)
+     *
+     * @return 이전 응답을 제공했으면 true
+     */
+    private boolean serveStaleOnError(HttpServletRequest request, HttpServletResponse response,
+                                      CachedResponse fallback, String cacheKey) throws IOException {
+        if (fallback == null || response.isCommitted()) {
+            return false;
+        }
+        // 원본이 남긴 상태 코드와 헤더를 지우고 이전 응답으로 교체
+        response.reset();
+        log.warn("Upstream failed for key: {}, serving stale response", cacheKey);
+        serveCachedResponse(request, response, fallback);
+        return true;
+    }
+
+    private CachedResponse store(String cacheKey, CacheRule rule, int status, Map<String, String> headers,
+                                 Set<String> tags, byte[] body, String contentType) {
+        String etag = ConditionalRequests.clientETag(findHeader(headers, ConditionalRequests.ETAG), body);
+
+        // 압축은 저장할 때 한 번만 (원본이 이미 인코딩한 바디는 그대로)
+        String contentEncoding = null;
+        if (shouldCompress(headers, body, contentType)) {
+            byte[] compressed = BodyCompression.gzip(body);
+            if (compressed.length < body.length) {
+                body = compressed;
+                contentEncoding = BodyCompression.GZIP;
+            }
+        }
+
+        // 404는 짧게 캐시하고 stale로 제공하지 않음
+        boolean negative = status == HttpServletResponse.SC_NOT_FOUND;
+        int ttlSeconds = negative ? rule.getNotFoundTtlSeconds() : rule.getTtlSeconds();
+
+        Instant now = Instant.now();
+        CachedResponse cachedResponse = CachedResponse.builder()
+                .statusCode(status)
+                .headers(headers)
+                .body(body)
+                .contentType(contentType)
+                .cachedAt(now)
+                .expiresAt(now.plusSeconds(ttlSeconds))
+                .etag(etag)
+                .contentEncoding(contentEncoding)
+                .tags(tags)
+                .staleWhileRevalidateSeconds(negative ? 0 : rule.getStaleWhileRevalidateSeconds())
+                .staleIfErrorSeconds(negative ? 0 : rule.getStaleIfErrorSeconds())
+                .build();
+
+        cacheRepository.put(cacheKey, cachedResponse);
+        log.debug("Cached response for key: {}, status: {}, TTL: {}s", cacheKey, status, ttlSeconds);
+        return cachedResponse;
+    }
+
+    /**
+     * 원본이 304로 변경 없음을 알려 온 이전 응답의 유효 시간 갱신 (바디와 검증자는 그대로)
+     */
+    private CachedResponse refresh(String cacheKey, CacheRule rule, CachedResponse previous) {
+        CachedResponse refreshed = previous.toBuilder()
+                .expiresAt(Instant.now().plusSeconds(rule.getTtlSeconds()))
+                .staleWhileRevalidateSeconds(rule.getStaleWhileRevalidateSeconds())
+                .staleIfErrorSeconds(rule.getStaleIfErrorSeconds())
+                .build();
+
+        cacheRepository.put(cacheKey, refreshed);
+        log.debug("Revalidated cached response for key: {} (not modified)", cacheKey);
+        return refreshed;
+    }
+
+    private boolean shouldCompress(Map<String, String> headers, byte[] body, String contentType) {
+        return compressionMinBytes > 0
+                && body.length >= compressionMinBytes
+                && BodyCompression.isCompressible(contentType)
+                && findHeader(headers, BodyCompression.CONTENT_ENCODING) == null;
+    }
+
+    private static boolean isCacheable(CacheRule rule, int status) {
+        if (status == HttpServletResponse.SC_NOT_FOUND) {
+            return rule.getNotFoundTtlSeconds() > 0;
+        }
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * 경로와 메서드에 매칭되는 첫 번째 활성 규칙 조회
+     */
+    private CacheRule findRule(String path, String method) {
+        for (CacheRule rule : rules.match(path)) {
+            if (rule.isEnabled() && rule.matchesMethod(method)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 규칙을 경로 패턴 인덱스로 컴파일 (패턴이 없는 규칙은 모든 경로에 매칭)
+     */
+    private static PathPatternIndex<CacheRule> compileRules(List<CacheRule> rules) {
+        PathPatternIndex.Builder<CacheRule> builder = PathPatternIndex.builder();
+        if (rules != null) {
+            for (CacheRule rule : rules) {
+                String pattern = rule.getPathPattern();
+                builder.add(pattern == null || pattern.isEmpty() ? "/**" : pattern, rule);
+            }
+        }
+        return builder.build();
     }
 
     private String buildCacheKey(HttpServletRequest request, CacheRule rule) {
@@ -99,7 +407,33 @@ public class ResponseCacheFilter extends OncePerRequestFilter {
         return key.toString();
     }
 
-    private void serveCachedResponse(HttpServletResponse response, CachedResponse cached) throws IOException {
+    private void serveCachedResponse(HttpServletRequest request, HttpServletResponse response,
+                                     CachedResponse cached) throws IOException {
+        // TTL이 지난 응답은 STALE (stale-while-revalidate, stale-if-error)
+        String cacheStatus = cached.isExpired() ? "STALE" : "HIT";
+
+        // 압축해 저장한 바디는 gzip을 받는 클라이언트에게 그대로 보냄
+        boolean compressed = BodyCompression.GZIP.equals(cached.getContentEncoding());
+        boolean sendCompressed = compressed && BodyCompression.acceptsGzip(request);
+
+        // 클라이언트가 이미 같은 응답을 갖고 있으면 바디 없이 304
+        if (ConditionalRequests.isNotModified(request, cached)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            for (String name : ConditionalRequests.NOT_MODIFIED_HEADERS) {
+                String value = cached.getHeader(name);
+                if (value != null) {
+                    response.setHeader(name, value);
+                }
+            }
+            if (compressed) {
+                response.setHeader("Vary", varyOnEncoding(cached));
+            }
+            writeValidators(response, cached, sendCompressed);
+            response.setHeader("X-Cache", cacheStatus);
+            response.setHeader("X-Cache-TTL", String.valueOf(cached.getRemainingTtlSeconds()));
+            return;
+        }
+
         response.setStatus(cached.getStatusCode());
 
         if (cached.getContentType() != null) {
@@ -108,21 +442,94 @@ public class ResponseCacheFilter extends OncePerRequestFilter {
 
         cached.getHeaders().forEach(response::setHeader);
 
-        response.setHeader("X-Cache", "HIT");
+        byte[] body = cached.getBody();
+        if (compressed) {
+            response.setHeader("Vary", varyOnEncoding(cached));
+            if (sendCompressed) {
+                response.setHeader(BodyCompression.CONTENT_ENCODING, BodyCompression.GZIP);
+            } else if (body != null) {
+                body = BodyCompression.gunzip(body);
+            }
+        }
+
+        writeValidators(response, cached, sendCompressed);
+        response.setHeader("X-Cache", cacheStatus);
         response.setHeader("X-Cache-TTL", String.valueOf(cached.getRemainingTtlSeconds()));
 
-        if (cached.getBody() != null) {
-            response.getOutputStream().write(cached.getBody());
+        if (body != null) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * 조건부 요청에 쓸 검증자 헤더 (ETag, Last-Modified)
+     *
+     * @param compressed 캐시가 압축한 바디를 보내는지 (ETag는 원본 바디 기준이므로 약한 ETag로 보냄)
+     */
+    private void writeValidators(HttpServletResponse response, CachedResponse cached, boolean compressed) {
+        if (cached.getEtag() != null) {
+            String etag = cached.getEtag();
+            response.setHeader(ConditionalRequests.ETAG, compressed && !etag.startsWith("W/") ? "W/" + etag : etag);
+        }
+        response.setHeader(ConditionalRequests.LAST_MODIFIED,
+                ConditionalRequests.formatDate(ConditionalRequests.lastModified(cached)));
+    }
+
+    /**
+     * 인코딩에 따라 바디가 달라짐을 알리는 Vary 값 (원본 Vary에 Accept-Encoding 추가)
+     */
+    private static String varyOnEncoding(CachedResponse cached) {
+        String vary = cached.getHeader("Vary");
+        if (vary == null || vary.isBlank()) {
+            return BodyCompression.ACCEPT_ENCODING;
+        }
+        if (vary.trim().equals("*") || vary.toLowerCase(Locale.ROOT).contains("accept-encoding")) {
+            return vary;
         }
+        return vary + ", " + BodyCompression.ACCEPT_ENCODING;
+    }
+
+    private static String findHeader(Map<String, String> headers, String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
     }
 
     private Map<String, String> extractHeaders(HttpServletResponse response) {
         Map<String, String> headers = new HashMap<>();
         response.getHeaderNames().forEach(name -> {
-            if (!name.equalsIgnoreCase("Set-Cookie")) { // 쿠키는 캐시하지 않음
-                headers.put(name, response.getHeader(name));
+            if (name.equalsIgnoreCase("Set-Cookie")) { // 쿠키는 캐시하지 않음
+                return;
+            }
+            if (tagHeader != null && name.equalsIgnoreCase(tagHeader)) { // 태그는 내부용
+                return;
             }
+            headers.put(name, response.getHeader(name));
         });
         return headers;
     }
+
+    /**
+     * 태그 헤더 값 (여러 헤더 가능, 값은 공백 또는 쉼표로 구분)
+     *
+     * @return 태그 집합 (없으면 null)
+     */
+    private Set<String> parseTags(HttpServletResponse response) {
+        if (tagHeader == null) {
+            return null;
+        }
+        Set<String> tags = new HashSet<>();
+        for (String value : response.getHeaders(tagHeader)) {
+            for (String tag : value.split("[\\s,]+")) {
+                if (!tag.isEmpty()) {
+                    tags.add(tag);
+                }
+            }
+        }
+        return tags.isEmpty() ? null : Set.copyOf(tags);
+    }
 }
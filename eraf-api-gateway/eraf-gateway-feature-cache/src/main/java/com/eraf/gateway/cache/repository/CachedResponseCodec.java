@@ -0,0 +1,168 @@
+package com.eraf.gateway.cache.repository;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+
+import java.io.*;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 공유 캐시 (Redis)에 저장할 응답 직렬화
+ *
+ * 버전 1바이트, 플래그 1바이트 뒤에 응답 필드를 이진 형식으로 씁니다.
+ * 바디가 이미 압축 (Content-Encoding)되어 있지 않고 일정 크기 이상이면 필드 전체를 deflate로 압축합니다.
+ */
+final class CachedResponseCodec {
+
+    private static final int VERSION = 1;
+    private static final int FLAG_DEFLATED = 1;
+
+    /**
+     * 이 크기 이상이면 압축 (작은 값은 압축 헤더가 더 큼)
+     */
+    private static final int COMPRESSION_MIN_BYTES = 512;
+
+    private CachedResponseCodec() {
+    }
+
+    static byte[] encode(CachedResponse response) {
+        byte[] fields = writeFields(response);
+        boolean deflate = response.getContentEncoding() == null && fields.length >= COMPRESSION_MIN_BYTES;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(deflate ? fields.length / 4 + 2 : fields.length + 2);
+        out.write(VERSION);
+        out.write(deflate ? FLAG_DEFLATED : 0);
+        if (deflate) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater)) {
+                deflated.write(fields);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deflater.end();
+            }
+        } else {
+            out.writeBytes(fields);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException 알 수 없는 형식이거나 손상된 값
+     */
+    static CachedResponse decode(byte[] value) {
+        if (value.length < 2 || value[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported cached response format");
+        }
+
+        InputStream fields = new ByteArrayInputStream(value, 2, value.length - 2);
+        if ((value[1] & FLAG_DEFLATED) != 0) {
+            fields = new InflaterInputStream(fields);
+        }
+        try (DataInputStream in = new DataInputStream(fields)) {
+            return readFields(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupted cached response", e);
+        }
+    }
+
+    private static byte[] writeFields(CachedResponse response) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                256 + (response.getBody() != null ? response.getBody().length : 0));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(response.getStatusCode());
+            writeString(out, response.getContentType());
+            writeInstant(out, response.getCachedAt());
+            writeInstant(out, response.getExpiresAt());
+            writeString(out, response.getEtag());
+            writeString(out, response.getContentEncoding());
+            out.writeInt(response.getStaleWhileRevalidateSeconds());
+            out.writeInt(response.getStaleIfErrorSeconds());
+
+            Map<String, String> headers = response.getHeaders() != null ? response.getHeaders() : Map.of();
+            out.writeInt(headers.size());
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                writeString(out, header.getValue());
+            }
+
+            Set<String> tags = response.getTags() != null ? response.getTags() : Set.of();
+            out.writeInt(tags.size());
+            for (String tag : tags) {
+                out.writeUTF(tag);
+            }
+
+            byte[] body = response.getBody();
+            out.writeInt(body != null ? body.length : -1);
+            if (body != null) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CachedResponse readFields(DataInputStream in) throws IOException {
+        CachedResponse.CachedResponseBuilder builder = CachedResponse.builder()
+                .statusCode(in.readInt())
+                .contentType(readString(in))
+                .cachedAt(readInstant(in))
+                .expiresAt(readInstant(in))
+                .etag(readString(in))
+                .contentEncoding(readString(in))
+                .staleWhileRevalidateSeconds(in.readInt())
+                .staleIfErrorSeconds(in.readInt());
+
+        int headerCount = in.readInt();
+        Map<String, String> headers = new HashMap<>(Math.max(4, headerCount * 2));
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(in.readUTF(), readString(in));
+        }
+
+        int tagCount = in.readInt();
+        Set<String> tags = new HashSet<>();
+        for (int i = 0; i < tagCount; i++) {
+            tags.add(in.readUTF());
+        }
+
+        int bodyLength = in.readInt();
+        byte[] body = null;
+        if (bodyLength >= 0) {
+            body = new byte[bodyLength];
+            in.readFully(body);
+        }
+
+        return builder
+                .headers(headers)
+                .tags(tags.isEmpty() ? null : Set.copyOf(tags))
+                .body(body)
+                .build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+}
@@ -0,0 +1,101 @@
+package com.eraf.gateway.cache.repository;
+
+/**
+ * 캐시 키의 최근 조회 빈도를 근사하는 Count-Min 스케치 (4비트 카운터)
+ *
+ * - long 하나에 4비트 카운터 16개, 키마다 서로 다른 해시로 카운터 4개를 사용하고 최솟값을 빈도로 봄
+ * - 카운터는 15에서 멈추며, 증가 횟수가 샘플 크기 (최대 항목 수 x 10)에 이르면 모든 카운터를 절반으로 줄임
+ *   (오래된 인기도가 서서히 잊혀져 최근 빈도를 반영)
+ * - 메모리는 항목 수에 비례 (항목당 약 8바이트)
+ *
+ * 동기화하지 않으므로 호출자가 잠금을 잡은 상태에서 사용해야 합니다.
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    private static final long ONE_MASK = 0x1111_1111_1111_1111L;
+    private static final int MAX_COUNT = 15;
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param maximumSize 캐시 최대 항목 수 (테이블 크기와 샘플 크기 기준)
+     */
+    FrequencySketch(int maximumSize) {
+        int size = Math.max(1, maximumSize);
+        int tableSize = Integer.highestOneBit(Math.min(size, 1 << 30) - 1 | 1) << 1;
+        this.table = new long[Math.max(tableSize, 16)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * size);
+    }
+
+    /**
+     * 추정 빈도 (0 ~ 15)
+     */
+    int frequency(int hashCode) {
+        int frequency = MAX_COUNT;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            long hash = hash(hashCode, depth);
+            int count = (int) ((table[indexOf(hash)] >>> offsetOf(hash)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * 빈도 1 증가 (샘플 크기에 이르면 전체 카운터를 절반으로 감쇠)
+     */
+    void increment(int hashCode) {
+        boolean added = false;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            long hash = hash(hashCode, depth);
+            int index = indexOf(hash);
+            int offset = offsetOf(hash);
+            if (((table[index] >>> offset) & 0xfL) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 모든 카운터를 절반으로 (홀수 카운터의 잘린 1은 증가 횟수에서도 뺌)
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(long hash) {
+        return (int) (hash >>> 32) & tableMask;
+    }
+
+    /**
+     * long 안의 카운터 위치 (비트 오프셋, 0 ~ 60)
+     */
+    private static int offsetOf(long hash) {
+        return ((int) hash & 0xf) << 2;
+    }
+
+    private static long hash(int hashCode, int depth) {
+        long hash = (hashCode + SEEDS[depth]) * SEEDS[depth];
+        hash ^= hash >>> 29;
+        hash *= 0xbf58476d1ce4e5b9L;
+        return hash ^ (hash >>> 32);
+    }
+}
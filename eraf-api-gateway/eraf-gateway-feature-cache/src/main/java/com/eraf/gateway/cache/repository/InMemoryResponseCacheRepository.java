@@ -1,31 +1,113 @@
 package com.eraf.gateway.cache.repository;
 
 import com.eraf.gateway.cache.domain.CachedResponse;
+import com.eraf.gateway.cache.domain.ResponseCacheStats;
 import lombok.extern.slf4j.Slf4j;
 
-import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * 인메모리 Response Cache Repository 구현
+ * 인메모리 Response Cache Repository 구현 (W-TinyLFU)
+ *
+ * 항목 수와 바디 바이트 합계로 용량을 제한하며, 저장과 제거는 항목 수와 무관하게 O(1)입니다.
+ * - 윈도우 LRU (용량의 1%): 새 항목이 먼저 들어가는 곳, 짧은 버스트를 흡수
+ * - 메인 SLRU: probation에서 다시 조회된 항목은 protected (메인의 80%)로 승격
+ * - 입장 심사: 윈도우에서 밀려난 후보는 메인의 제거 대상보다 최근 조회 빈도가 높을 때만 들어감
+ *   (한 번 조회되고 마는 응답이 자주 조회되는 응답을 밀어내지 않음)
+ *
+ * 조회는 잠금 없이 맵에서 읽고, 빈도 기록과 LRU 순서 갱신은 잠금을 바로 얻을 수 있을 때만 합니다.
+ * 경합 중에는 일부 접근 기록을 버리는 대신 조회가 저장을 기다리지 않습니다.
+ *
+ * {@link OffHeapBodyStore}를 주면 바디는 힙 밖 (다이렉트 버퍼 또는 메모리 맵 파일)에 두고 조회할 때 복사합니다.
+ * 이때 저장소 용량에서 응답 하나 크기 (용량의 1%)를 저장 중 여유분으로 남기고 나머지를 캐시 용량으로 씁니다.
+ *
+ * 태그와 키 접두사 무효화는 {@link InvalidationIndex}로 지울 키만 찾으므로 비용이 지우는 항목 수에 비례합니다.
  */
 @Slf4j
 public class InMemoryResponseCacheRepository implements ResponseCacheRepository {
 
-    private final Map<String, CachedResponse> cache = new ConcurrentHashMap<>();
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final double WINDOW_FRACTION = 0.01;
+    private static final double PROTECTED_FRACTION = 0.8;
+    // 패턴에서 고정 문자열이 끝나는 위치 (와일드카드와 정규식 특수 문자)
+    private static final Pattern WILDCARD = Pattern.compile("[*?+|()\\[\\]{}^$\\\\]");
+
+    private final Map<String, Node> cache = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final InvalidationIndex index = new InvalidationIndex();
+
+    private final Segment window = new Segment();
+    private final Segment probation = new Segment();
+    private final Segment protectedSegment = new Segment();
+
     private final int maxEntries;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final OffHeapBodyStore bodyStore;
+    private final int windowMaxEntries;
+    private final long windowMaxBytes;
+    private final int mainMaxEntries;
+    private final long mainMaxBytes;
+    private final int protectedMaxEntries;
+    private final long protectedMaxBytes;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder admissionRejectionCount = new LongAdder();
+
     private final ScheduledExecutorService cleanupExecutor;
 
     public InMemoryResponseCacheRepository() {
-        this(10000); // 기본 1만 건
+        this(DEFAULT_MAX_ENTRIES); // 기본 1만 건
     }
 
     public InMemoryResponseCacheRepository(int maxEntries) {
-        this.maxEntries = maxEntries;
+        this(maxEntries, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxEntries 최대 항목 수
+     * @param maxBytes   저장할 바디 바이트 합계 상한 (이보다 큰 응답 하나는 저장하지 않음)
+     */
+    public InMemoryResponseCacheRepository(int maxEntries, long maxBytes) {
+        this(maxEntries, Math.max(1, maxBytes), Math.max(1, maxBytes), null);
+    }
+
+    /**
+     * 바디를 힙 밖에 저장
+     *
+     * @param maxEntries 최대 항목 수
+     * @param bodyStore  바디 저장소 (용량이 바이트 상한)
+     */
+    public InMemoryResponseCacheRepository(int maxEntries, OffHeapBodyStore bodyStore) {
+        this(maxEntries, bodyStore.getCapacityBytes() - reservedBytes(bodyStore), reservedBytes(bodyStore), bodyStore);
+    }
+
+    private InMemoryResponseCacheRepository(int maxEntries, long maxBytes, long maxEntryBytes,
+                                            OffHeapBodyStore bodyStore) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(1, maxBytes);
+        this.maxEntryBytes = maxEntryBytes;
+        this.bodyStore = bodyStore;
+        this.windowMaxEntries = (int) Math.max(1, this.maxEntries * WINDOW_FRACTION);
+        this.windowMaxBytes = (long) Math.max(1, this.maxBytes * WINDOW_FRACTION);
+        this.mainMaxEntries = this.maxEntries - windowMaxEntries;
+        this.mainMaxBytes = this.maxBytes - windowMaxBytes;
+        this.protectedMaxEntries = (int) (mainMaxEntries * PROTECTED_FRACTION);
+        this.protectedMaxBytes = (long) (mainMaxBytes * PROTECTED_FRACTION);
+        this.sketch = new FrequencySketch(this.maxEntries);
 
         // 주기적 만료 항목 정리 (1분마다)
         this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
@@ -39,59 +121,154 @@ public class InMemoryResponseCacheRepository implements ResponseCacheRepository
 
     @Override
     public Optional<CachedResponse> get(String key) {
-        CachedResponse cached = cache.get(key);
-        if (cached == null) {
+        Node node = cache.get(key);
+        if (node == null) {
+            missCount.increment();
+            recordAccess(key, null);
+            return Optional.empty();
+        }
+
+        // 만료 확인 (stale 제공 시간이 남은 항목은 필터가 판단하도록 반환)
+        Entry entry = node.entry;
+        if (entry.response.isDiscardable()) {
+            missCount.increment();
+            remove(node);
             return Optional.empty();
         }
 
-        // 만료 확인
-        if (cached.isExpired()) {
-            cache.remove(key);
+        CachedResponse cached = load(entry);
+        if (cached == null) {
+            // 읽는 사이 제거되거나 다른 응답으로 바뀜
+            missCount.increment();
             return Optional.empty();
         }
 
+        hitCount.increment();
+        recordAccess(key, node);
         return Optional.of(cached);
     }
 
     @Override
     public void put(String key, CachedResponse response) {
-        // 최대 개수 초과 시 오래된 것들 정리
-        if (cache.size() >= maxEntries) {
-            evictOldest();
+        long weight = weigh(response);
+        if (weight > maxEntryBytes) {
+            // 캐시 전체보다 큰 응답은 저장하지 않음 (같은 키의 이전 응답도 더 이상 최신이 아님)
+            admissionRejectionCount.increment();
+            evict(key);
+            log.debug("Rejected oversized cache entry: {} ({} bytes)", key, weight);
+            return;
         }
 
-        cache.put(key, response);
+        evictionLock.lock();
+        try {
+            Entry entry = store(response);
+            if (entry == null) {
+                admissionRejectionCount.increment();
+                log.debug("Body store full, rejected cache entry: {}", key);
+                return;
+            }
+
+            sketch.increment(key.hashCode());
+            Node node = cache.get(key);
+            if (node != null && node.segment != null) {
+                Entry previous = node.entry;
+                node.segment.reweigh(node, weight);
+                node.entry = entry;
+                index.remove(key, previous.response.getTags());
+                index.add(key, response.getTags());
+                release(previous);
+                onAccess(node);
+            } else {
+                node = new Node(key, entry, weight);
+                cache.put(key, node);
+                index.add(key, response.getTags());
+                window.addFirst(node);
+            }
+            evictIfNeeded();
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     @Override
     public void evict(String key) {
-        cache.remove(key);
+        Node node = cache.get(key);
+        if (node != null) {
+            remove(node);
+        }
     }
 
+    /**
+     * 패턴 기반 캐시 삭제
+     * 첫 와일드카드 앞의 고정 접두사로 후보를 좁힌 뒤 패턴을 확인합니다 (접두사가 없으면 전체 확인).
+     */
     @Override
     public void evictByPattern(String pattern) {
-        String regex = pattern
+        Pattern regex = Pattern.compile(pattern
                 .replace(".", "\\.")
                 .replace("*", ".*")
-                .replace("?", ".");
+                .replace("?", "."));
+
+        Matcher wildcard = WILDCARD.matcher(pattern);
+        String literalPrefix = wildcard.find() ? pattern.substring(0, wildcard.start()) : pattern;
 
-        cache.keySet().removeIf(key -> key.matches(regex));
+        List<String> candidates;
+        evictionLock.lock();
+        try {
+            candidates = index.keysWithPrefix(literalPrefix);
+        } finally {
+            evictionLock.unlock();
+        }
+
+        for (String key : candidates) {
+            if (regex.matcher(key).matches()) {
+                evict(key);
+            }
+        }
+    }
+
+    @Override
+    public void evictByTag(String tag) {
+        evictionLock.lock();
+        try {
+            int removed = removeAll(index.keysWithTag(tag));
+            log.debug("Evicted {} cache entries by tag: {}", removed, tag);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void evictByPrefix(String prefix) {
+        evictionLock.lock();
+        try {
+            int removed = removeAll(index.keysWithPrefix(prefix));
+            log.debug("Evicted {} cache entries by prefix: {}", removed, prefix);
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     @Override
     public void clear() {
-        cache.clear();
+        evictionLock.lock();
+        try {
+            cache.values().forEach(node -> release(node.entry));
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            cache.clear();
+            index.clear();
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     @Override
     public void cleanupExpired() {
         int removed = 0;
-        Iterator<Map.Entry<String, CachedResponse>> iterator = cache.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, CachedResponse> entry = iterator.next();
-            if (entry.getValue().isExpired()) {
-                iterator.remove();
+        for (Node node : cache.values()) {
+            if (node.entry.response.isDiscardable() && remove(node)) {
                 removed++;
             }
         }
@@ -101,25 +278,308 @@ public class InMemoryResponseCacheRepository implements ResponseCacheRepository
         }
     }
 
-    private void evictOldest() {
-        // 가장 오래 전에 캐시된 항목 찾기
-        String oldestKey = null;
-        Instant oldestTime = Instant.MAX;
+    /**
+     * 캐시 통계 (HIT/MISS, 제거, 입장 거절 수)
+     */
+    public ResponseCacheStats getStats() {
+        long entries;
+        long bytes;
+        evictionLock.lock();
+        try {
+            entries = window.size + probation.size + protectedSegment.size;
+            bytes = window.bytes + probation.bytes + protectedSegment.bytes;
+        } finally {
+            evictionLock.unlock();
+        }
+
+        return ResponseCacheStats.builder()
+                .entryCount(entries)
+                .totalBytes(bytes)
+                .maxEntries(maxEntries)
+                .maxBytes(maxBytes)
+                .hitCount(hitCount.sum())
+                .missCount(missCount.sum())
+                .evictionCount(evictionCount.sum())
+                .admissionRejectionCount(admissionRejectionCount.sum())
+                .build();
+    }
+
+    public void shutdown() {
+        cleanupExecutor.shutdown();
+        if (bodyStore != null) {
+            bodyStore.close();
+        }
+    }
 
-        for (Map.Entry<String, CachedResponse> entry : cache.entrySet()) {
-            if (entry.getValue().getCachedAt().isBefore(oldestTime)) {
-                oldestTime = entry.getValue().getCachedAt();
-                oldestKey = entry.getKey();
+    /**
+     * 조회 기록 (빈도 스케치와 LRU 순서)
+     * 잠금을 바로 얻지 못하면 기록을 버림
+     */
+    private void recordAccess(String key, Node node) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(key.hashCode());
+            if (node != null && node.segment != null) {
+                onAccess(node);
             }
+        } finally {
+            evictionLock.unlock();
         }
+    }
 
-        if (oldestKey != null) {
-            cache.remove(oldestKey);
-            log.debug("Evicted oldest cache entry: {}", oldestKey);
+    /**
+     * 접근한 항목을 LRU 앞으로 옮기고, probation 항목은 protected로 승격
+     */
+    private void onAccess(Node node) {
+        if (node.segment != probation) {
+            node.segment.moveToFirst(node);
+            return;
+        }
+
+        probation.remove(node);
+        protectedSegment.addFirst(node);
+
+        // protected가 넘치면 오래된 항목을 probation으로 강등
+        while (protectedSegment.size > protectedMaxEntries || protectedSegment.bytes > protectedMaxBytes) {
+            Node demoted = protectedSegment.tail;
+            if (demoted == null) {
+                break;
+            }
+            protectedSegment.remove(demoted);
+            probation.addFirst(demoted);
         }
     }
 
-    public void shutdown() {
-        cleanupExecutor.shutdown();
+    /**
+     * 윈도우에서 넘친 항목을 입장 심사에 보내고, 메인이 넘치면 제거
+     */
+    private void evictIfNeeded() {
+        while (window.size > windowMaxEntries || window.bytes > windowMaxBytes) {
+            Node candidate = window.tail;
+            if (candidate == null) {
+                break;
+            }
+            window.remove(candidate);
+            admit(candidate);
+        }
+
+        // 기존 항목이 더 큰 응답으로 갱신되어 메인이 넘친 경우
+        while (mainOverflows(0, 0)) {
+            Node victim = mainVictim();
+            if (victim == null) {
+                break;
+            }
+            evictNode(victim);
+        }
+    }
+
+    /**
+     * 후보를 메인에 들일지 결정
+     * 자리가 없으면 제거 대상 (probation의 가장 오래된 항목)과 빈도를 비교해 낮은 쪽을 버림
+     */
+    private void admit(Node candidate) {
+        while (mainOverflows(1, candidate.weight)) {
+            Node victim = mainVictim();
+            if (victim == null || sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+                cache.remove(candidate.key, candidate);
+                index.remove(candidate.key, candidate.entry.response.getTags());
+                release(candidate.entry);
+                admissionRejectionCount.increment();
+                return;
+            }
+            evictNode(victim);
+        }
+        probation.addFirst(candidate);
+    }
+
+    private boolean mainOverflows(int extraEntries, long extraBytes) {
+        return probation.size + protectedSegment.size + extraEntries > mainMaxEntries
+                || probation.bytes + protectedSegment.bytes + extraBytes > mainMaxBytes;
+    }
+
+    private Node mainVictim() {
+        return probation.tail != null ? probation.tail : protectedSegment.tail;
+    }
+
+    private void evictNode(Node victim) {
+        victim.segment.remove(victim);
+        cache.remove(victim.key, victim);
+        index.remove(victim.key, victim.entry.response.getTags());
+        release(victim.entry);
+        evictionCount.increment();
+        log.debug("Evicted cache entry: {}", victim.key);
+    }
+
+    /**
+     * 항목 삭제 (이미 제거되었거나 다른 응답으로 바뀌었으면 false)
+     */
+    private boolean remove(Node node) {
+        evictionLock.lock();
+        try {
+            if (!cache.remove(node.key, node)) {
+                return false;
+            }
+            if (node.segment != null) {
+                node.segment.remove(node);
+            }
+            index.remove(node.key, node.entry.response.getTags());
+            release(node.entry);
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 키 목록 삭제 (잠금 안에서 호출)
+     */
+    private int removeAll(List<String> keys) {
+        int removed = 0;
+        for (String key : keys) {
+            Node node = cache.get(key);
+            if (node != null && remove(node)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private long weigh(CachedResponse response) {
+        int length = response.getBody() != null ? response.getBody().length : 0;
+        return bodyStore != null ? bodyStore.weigh(length) : length;
+    }
+
+    /**
+     * 힙 밖 저장소를 쓰면 바디를 옮기고 힙에는 나머지 필드만 남김 (저장소가 가득 차면 null)
+     */
+    private Entry store(CachedResponse response) {
+        if (bodyStore == null || response.getBody() == null) {
+            return new Entry(response, null);
+        }
+        OffHeapBodyStore.Handle body = bodyStore.write(response.getBody());
+        if (body == null) {
+            return null;
+        }
+        return new Entry(response.toBuilder().body(null).build(), body);
+    }
+
+    private CachedResponse load(Entry entry) {
+        if (entry.body == null) {
+            return entry.response;
+        }
+        byte[] body = bodyStore.read(entry.body);
+        return body != null ? entry.response.toBuilder().body(body).build() : null;
+    }
+
+    private void release(Entry entry) {
+        if (entry.body != null) {
+            bodyStore.free(entry.body);
+        }
+    }
+
+    /**
+     * 저장 중 여유분으로 남길 바이트 (응답 하나의 최대 크기)
+     */
+    private static long reservedBytes(OffHeapBodyStore bodyStore) {
+        return Math.max(bodyStore.weigh(1), bodyStore.getCapacityBytes() / 100);
+    }
+
+    /**
+     * 저장된 응답 (힙 밖에 둔 바디의 위치 포함)
+     */
+    private static final class Entry {
+        private final CachedResponse response;
+        private final OffHeapBodyStore.Handle body;
+
+        Entry(CachedResponse response, OffHeapBodyStore.Handle body) {
+            this.response = response;
+            this.body = body;
+        }
+    }
+
+    /**
+     * 캐시 항목 (세그먼트 이중 연결 리스트의 노드)
+     */
+    private static final class Node {
+        private final String key;
+        private final int hash;
+        private volatile Entry entry;
+        private long weight;
+        private Segment segment;
+        private Node prev;
+        private Node next;
+
+        Node(String key, Entry entry, long weight) {
+            this.key = key;
+            this.hash = key.hashCode();
+            this.entry = entry;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 접근 순서 LRU 리스트 (head가 가장 최근, tail이 제거 대상)
+     */
+    private static final class Segment {
+        private Node head;
+        private Node tail;
+        private int size;
+        private long bytes;
+
+        void addFirst(Node node) {
+            node.segment = this;
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            } else {
+                tail = node;
+            }
+            head = node;
+            size++;
+            bytes += node.weight;
+        }
+
+        void remove(Node node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.segment = null;
+            size--;
+            bytes -= node.weight;
+        }
+
+        void moveToFirst(Node node) {
+            if (head != node) {
+                remove(node);
+                addFirst(node);
+            }
+        }
+
+        void reweigh(Node node, long weight) {
+            bytes += weight - node.weight;
+            node.weight = weight;
+        }
+
+        void clear() {
+            for (Node node = head; node != null; node = node.next) {
+                node.segment = null;
+            }
+            head = null;
+            tail = null;
+            size = 0;
+            bytes = 0;
+        }
     }
 }
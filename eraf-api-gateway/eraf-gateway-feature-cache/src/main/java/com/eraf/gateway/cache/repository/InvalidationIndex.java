@@ -0,0 +1,62 @@
+package com.eraf.gateway.cache.repository;
+
+import java.util.*;
+
+/**
+ * 캐시 무효화용 역색인 (태그 -> 키, 정렬된 키 목록)
+ *
+ * 태그나 키 접두사로 지울 키를 전체 키를 훑지 않고 찾습니다.
+ * - 태그: 태그별 키 집합, 찾는 비용은 지울 항목 수에 비례
+ * - 접두사: 정렬된 키에서 접두사 구간만 읽음 (O(log n + k))
+ *
+ * 스레드 안전하지 않으므로 저장소의 잠금 안에서만 사용합니다.
+ */
+final class InvalidationIndex {
+
+    private final NavigableSet<String> keys = new TreeSet<>();
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+
+    void add(String key, Set<String> tags) {
+        keys.add(key);
+        if (tags != null) {
+            for (String tag : tags) {
+                keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            }
+        }
+    }
+
+    void remove(String key, Set<String> tags) {
+        keys.remove(key);
+        if (tags != null) {
+            for (String tag : tags) {
+                Set<String> tagged = keysByTag.get(tag);
+                if (tagged != null && tagged.remove(key) && tagged.isEmpty()) {
+                    keysByTag.remove(tag);
+                }
+            }
+        }
+    }
+
+    /**
+     * 접두사로 시작하는 키 (복사본)
+     */
+    List<String> keysWithPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return new ArrayList<>(keys);
+        }
+        return new ArrayList<>(keys.subSet(prefix, true, prefix + Character.MAX_VALUE, false));
+    }
+
+    /**
+     * 태그가 붙은 키 (복사본)
+     */
+    List<String> keysWithTag(String tag) {
+        Set<String> tagged = keysByTag.get(tag);
+        return tagged != null ? new ArrayList<>(tagged) : new ArrayList<>();
+    }
+
+    void clear() {
+        keys.clear();
+        keysByTag.clear();
+    }
+}
@@ -0,0 +1,281 @@
+package com.eraf.gateway.cache.repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 힙 밖에 응답 바디를 저장하는 블록 저장소
+ *
+ * 용량을 고정 크기 블록으로 나누고, 바디 하나는 필요한 만큼의 블록 (연속일 필요 없음)에 나눠 씁니다.
+ * 블록은 슬랩 단위로 필요할 때 할당하며, 슬랩은 다이렉트 버퍼 또는 지정 디렉터리의 메모리 맵 파일입니다.
+ * 바디가 힙에 머물지 않으므로 캐시가 커져도 old 영역과 GC 일시 정지 시간이 늘지 않습니다.
+ *
+ * 읽기는 잠금 없이 복사한 뒤, 그 사이 블록이 해제되거나 재사용되지 않았는지 확인합니다.
+ */
+@Slf4j
+public class OffHeapBodyStore implements AutoCloseable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    public static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+    private final long capacityBytes;
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private final int maxBlocks;
+    private final SlabAllocator allocator;
+    private final StampedLock lock = new StampedLock();
+
+    // 잠금 없이 읽는 쪽이 보도록 슬랩을 추가할 때마다 배열을 교체
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+
+    // 해제된 블록 스택과 아직 한 번도 쓰지 않은 다음 블록
+    private int[] freeBlocks = new int[1024];
+    private int freeCount;
+    private int nextUnusedBlock;
+    private volatile long usedBytes;
+
+    private OffHeapBodyStore(long capacityBytes, int blockSize, int slabSize, SlabAllocator allocator) {
+        if (blockSize <= 0 || slabSize < blockSize) {
+            throw new IllegalArgumentException("slabSize must be at least blockSize");
+        }
+        this.blockSize = blockSize;
+        this.blocksPerSlab = slabSize / blockSize;
+        this.maxBlocks = (int) Math.min(Integer.MAX_VALUE, Math.max(1, capacityBytes / blockSize));
+        this.capacityBytes = (long) maxBlocks * blockSize;
+        this.allocator = allocator;
+    }
+
+    /**
+     * 다이렉트 버퍼 슬랩 저장소 (-XX:MaxDirectMemorySize가 용량보다 커야 함)
+     */
+    public static OffHeapBodyStore direct(long capacityBytes) {
+        return direct(capacityBytes, DEFAULT_BLOCK_SIZE, DEFAULT_SLAB_SIZE);
+    }
+
+    public static OffHeapBodyStore direct(long capacityBytes, int blockSize, int slabSize) {
+        return new OffHeapBodyStore(capacityBytes, blockSize, slabSize,
+                (index, size) -> ByteBuffer.allocateDirect(size));
+    }
+
+    /**
+     * 디렉터리의 메모리 맵 파일 저장소 (파일은 닫을 때 삭제)
+     */
+    public static OffHeapBodyStore mappedFile(Path directory, long capacityBytes) {
+        return mappedFile(directory, capacityBytes, DEFAULT_BLOCK_SIZE, DEFAULT_SLAB_SIZE);
+    }
+
+    public static OffHeapBodyStore mappedFile(Path directory, long capacityBytes, int blockSize, int slabSize) {
+        try {
+            Files.createDirectories(directory);
+            Path file = Files.createTempFile(directory, "response-cache-", ".dat");
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            log.info("Mapping response cache bodies to {}", file);
+            return new OffHeapBodyStore(capacityBytes, blockSize, slabSize, new MappedSlabAllocator(channel, slabSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create response cache file in " + directory, e);
+        }
+    }
+
+    /**
+     * 바디가 차지할 바이트 (블록 단위로 올림)
+     */
+    public long weigh(int length) {
+        return (long) blocksFor(length) * blockSize;
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * 바디 저장 (블록이 모자라면 null)
+     */
+    Handle write(byte[] body) {
+        int blocks = blocksFor(body.length);
+        long stamp = lock.writeLock();
+        try {
+            if (freeCount + (maxBlocks - nextUnusedBlock) < blocks) {
+                return null;
+            }
+
+            int[] allocated = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                allocated[i] = freeCount > 0 ? freeBlocks[--freeCount] : newBlock();
+            }
+
+            int offset = 0;
+            for (int block : allocated) {
+                int length = Math.min(blockSize, body.length - offset);
+                slab(block).put(position(block), body, offset, length);
+                offset += length;
+            }
+
+            usedBytes += (long) blocks * blockSize;
+            return new Handle(allocated, body.length);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 바디를 힙으로 복사 (이미 해제되었으면 null)
+     */
+    byte[] read(Handle handle) {
+        byte[] body = new byte[handle.length];
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            copy(handle, body);
+            if (lock.validate(stamp)) {
+                return handle.freed ? null : body;
+            }
+        }
+
+        // 읽는 중에 쓰기/해제가 있었으면 잠금을 잡고 다시 읽음
+        stamp = lock.readLock();
+        try {
+            if (handle.freed) {
+                return null;
+            }
+            copy(handle, body);
+            return body;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 블록 반환 (여러 번 호출해도 한 번만 반환)
+     */
+    void free(Handle handle) {
+        long stamp = lock.writeLock();
+        try {
+            if (handle.freed) {
+                return;
+            }
+            handle.freed = true;
+            if (freeCount + handle.blocks.length > freeBlocks.length) {
+                int[] grown = new int[Math.max(freeBlocks.length * 2, freeCount + handle.blocks.length)];
+                System.arraycopy(freeBlocks, 0, grown, 0, freeCount);
+                freeBlocks = grown;
+            }
+            for (int block : handle.blocks) {
+                freeBlocks[freeCount++] = block;
+            }
+            usedBytes -= (long) handle.blocks.length * blockSize;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void close() {
+        long stamp = lock.writeLock();
+        try {
+            allocator.close();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void copy(Handle handle, byte[] body) {
+        int offset = 0;
+        for (int block : handle.blocks) {
+            int length = Math.min(blockSize, body.length - offset);
+            slab(block).get(position(block), body, offset, length);
+            offset += length;
+        }
+    }
+
+    private int newBlock() {
+        int block = nextUnusedBlock++;
+        if (block / blocksPerSlab == slabs.length) {
+            int blocksInSlab = Math.min(blocksPerSlab, maxBlocks - block);
+            ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+            grown[slabs.length] = allocator.allocate(slabs.length, blocksInSlab * blockSize);
+            slabs = grown;
+        }
+        return block;
+    }
+
+    private ByteBuffer slab(int block) {
+        return slabs[block / blocksPerSlab];
+    }
+
+    private int position(int block) {
+        return (block % blocksPerSlab) * blockSize;
+    }
+
+    private int blocksFor(int length) {
+        return Math.max(1, (length + blockSize - 1) / blockSize);
+    }
+
+    /**
+     * 저장된 바디의 위치 (블록 번호 목록과 실제 길이)
+     */
+    static final class Handle {
+        private final int[] blocks;
+        private final int length;
+        private volatile boolean freed;
+
+        private Handle(int[] blocks, int length) {
+            this.blocks = blocks;
+            this.length = length;
+        }
+
+        int length() {
+            return length;
+        }
+    }
+
+    private interface SlabAllocator {
+
+        ByteBuffer allocate(int index, int size);
+
+        default void close() {
+        }
+    }
+
+    private static final class MappedSlabAllocator implements SlabAllocator {
+
+        private final FileChannel channel;
+        private final long slabSize;
+
+        MappedSlabAllocator(FileChannel channel, long slabSize) {
+            this.channel = channel;
+            this.slabSize = slabSize;
+        }
+
+        @Override
+        public ByteBuffer allocate(int index, int size) {
+            try {
+                return channel.map(FileChannel.MapMode.READ_WRITE, index * slabSize, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map response cache slab " + index, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close response cache file", e);
+            }
+        }
+    }
+}
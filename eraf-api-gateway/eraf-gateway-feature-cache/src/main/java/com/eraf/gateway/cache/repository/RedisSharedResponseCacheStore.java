@@ -0,0 +1,285 @@
+package com.eraf.gateway.cache.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Redis 공유 캐시 저장소
+ *
+ * - 값: "response-cache:v:{캐시 키}" (PX로 TTL 지정)
+ * - 태그: "response-cache:t:{태그}" 집합에 캐시 키 보관 (가장 긴 값의 TTL까지 유지)
+ * - 무효화 메시지: pub/sub 채널 (리스너 컨테이너는 호출자가 수명 주기를 관리하는 Bean)
+ *
+ * 스크립트는 키 하나만 다루므로 클러스터에서도 슬롯이 갈리지 않습니다 (값과 태그는 따로 기록).
+ * 접두사, 패턴, 전체 삭제는 전체 키 SCAN이 필요하므로 백그라운드 스레드에서 순서대로 실행합니다.
+ *
+ * 조회와 저장 실패는 캐시 MISS로 처리하고 (요청은 원본으로), 키와 태그 무효화 실패는 호출자에게 그대로 던집니다.
+ */
+@Slf4j
+public class RedisSharedResponseCacheStore implements SharedResponseCacheStore {
+
+    public static final String DEFAULT_CHANNEL = "response-cache:invalidation";
+
+    private static final String KEY_PREFIX = "response-cache:";
+    private static final String VALUE_PREFIX = KEY_PREFIX + "v:";
+    private static final String TAG_PREFIX = KEY_PREFIX + "t:";
+
+    /**
+     * SCAN 한 번에 요청할 키 수 (COUNT 힌트)
+     */
+    private static final int SCAN_COUNT = 1000;
+
+    /**
+     * UNLINK 배치 크기와 배치 사이 대기 시간 (운영 트래픽에 Redis를 양보)
+     */
+    private static final int UNLINK_BATCH_SIZE = 500;
+    private static final long BATCH_PAUSE_MILLIS = 5;
+
+    /**
+     * 값 저장 (KEYS[1] = 값 키, ARGV[1] = 값, ARGV[2] = TTL 밀리초)
+     * Returns: 이전 값이 있었으면 1 (덮어쓰기), 없었으면 0
+     */
+    private static final String PUT_VALUE_SCRIPT = """
+            local existed = redis.call('EXISTS', KEYS[1])
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', tonumber(ARGV[2]))
+            return existed
+            """;
+
+    /**
+     * 태그 집합에 캐시 키 추가 (KEYS[1] = 태그 키, ARGV[1] = 캐시 키, ARGV[2] = TTL 밀리초)
+     * 태그 집합의 TTL은 줄이지 않음 (더 오래 사는 값이 태그 무효화에서 빠지지 않도록)
+     */
+    private static final String ADD_TAG_SCRIPT = """
+            local ttl = tonumber(ARGV[2])
+            redis.call('SADD', KEYS[1], ARGV[1])
+            if redis.call('PTTL', KEYS[1]) < ttl then
+                redis.call('PEXPIRE', KEYS[1], ttl)
+            end
+            return 1
+            """;
+
+    private static final RedisScript<Long> PUT_VALUE = RedisScript.of(PUT_VALUE_SCRIPT, Long.class);
+    private static final RedisScript<Long> ADD_TAG = RedisScript.of(ADD_TAG_SCRIPT, Long.class);
+
+    private final RedisTemplate<String, byte[]> valueTemplate;
+    private final StringRedisTemplate stringTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic channel;
+    private final List<MessageListener> listeners = new ArrayList<>();
+
+    private final ExecutorService purgeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "response-cache-purge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param listenerContainer 무효화 메시지 리스너 컨테이너 (시작과 종료는 호출자 관리, 제한된 실행기 필요)
+     */
+    public RedisSharedResponseCacheStore(RedisConnectionFactory connectionFactory,
+                                         RedisMessageListenerContainer listenerContainer) {
+        this(connectionFactory, listenerContainer, DEFAULT_CHANNEL);
+    }
+
+    public RedisSharedResponseCacheStore(RedisConnectionFactory connectionFactory,
+                                         RedisMessageListenerContainer listenerContainer, String channel) {
+        this.valueTemplate = new RedisTemplate<>();
+        valueTemplate.setConnectionFactory(connectionFactory);
+        valueTemplate.setKeySerializer(RedisSerializer.string());
+        valueTemplate.setValueSerializer(RedisSerializer.byteArray());
+        valueTemplate.afterPropertiesSet();
+
+        this.stringTemplate = new StringRedisTemplate(connectionFactory);
+        this.listenerContainer = listenerContainer;
+        this.channel = new ChannelTopic(channel);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return valueTemplate.opsForValue().get(VALUE_PREFIX + key);
+        } catch (RuntimeException e) {
+            log.warn("Shared cache lookup failed for key: {}", key, e);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean put(String key, byte[] value, Duration ttl, Set<String> tags) {
+        String ttlMillis = Long.toString(ttl.toMillis());
+        try {
+            Long existed = valueTemplate.execute(PUT_VALUE, List.of(VALUE_PREFIX + key), value,
+                    ttlMillis.getBytes(StandardCharsets.UTF_8));
+
+            // 태그 키는 값 키와 슬롯이 다를 수 있으므로 태그마다 따로 기록
+            if (tags != null) {
+                for (String tag : tags) {
+                    stringTemplate.execute(ADD_TAG, List.of(TAG_PREFIX + tag), key, ttlMillis);
+                }
+            }
+            return existed != null && existed == 1L;
+        } catch (RuntimeException e) {
+            log.warn("Shared cache store failed for key: {}", key, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        valueTemplate.unlink(VALUE_PREFIX + key);
+    }
+
+    @Override
+    public void deleteByTag(String tag) {
+        String tagKey = TAG_PREFIX + tag;
+        Set<String> keys = stringTemplate.opsForSet().members(tagKey);
+        if (keys != null && !keys.isEmpty()) {
+            List<String> valueKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                valueKeys.add(VALUE_PREFIX + key);
+            }
+            unlink(valueKeys);
+        }
+        stringTemplate.unlink(tagKey);
+    }
+
+    @Override
+    public void deleteByPrefix(String prefix) {
+        purge(VALUE_PREFIX + escapeGlob(prefix) + "*");
+    }
+
+    @Override
+    public void deleteByPattern(String pattern) {
+        purge(VALUE_PREFIX + pattern);
+    }
+
+    @Override
+    public void clear() {
+        purge(KEY_PREFIX + "*");
+    }
+
+    @Override
+    public void publish(String message) {
+        try {
+            stringTemplate.convertAndSend(channel.getTopic(), message);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish cache invalidation: {}", message, e);
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<String> listener) {
+        MessageListener messageListener =
+                (message, pattern) -> listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+        listeners.add(messageListener);
+        listenerContainer.addMessageListener(messageListener, channel);
+    }
+
+    /**
+     * 구독 해제와 정리 스레드 종료 (리스너 컨테이너는 종료하지 않음)
+     */
+    @Override
+    public synchronized void close() {
+        for (MessageListener listener : listeners) {
+            try {
+                listenerContainer.removeMessageListener(listener, channel);
+            } catch (RuntimeException e) {
+                log.warn("Failed to unsubscribe cache invalidation listener", e);
+            }
+        }
+        listeners.clear();
+        purgeExecutor.shutdownNow();
+    }
+
+    /**
+     * 패턴에 맞는 키를 백그라운드에서 SCAN + UNLINK (요청 스레드를 막지 않음)
+     * 정리는 한 번에 하나씩 순서대로 실행됩니다 (끝나기 전에 남은 값은 {@link TwoTierResponseCacheRepository}가 MISS로 처리).
+     */
+    private void purge(String pattern) {
+        purgeExecutor.execute(() -> runPurge(pattern));
+    }
+
+    private void runPurge(String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+        List<String> batch = new ArrayList<>(UNLINK_BATCH_SIZE);
+        long deleted = 0;
+        try (Cursor<String> cursor = stringTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= UNLINK_BATCH_SIZE) {
+                    deleted += unlink(batch);
+                    batch.clear();
+                    TimeUnit.MILLISECONDS.sleep(BATCH_PAUSE_MILLIS);
+                }
+            }
+            if (!batch.isEmpty()) {
+                deleted += unlink(batch);
+            }
+            log.debug("Deleted {} shared cache keys matching: {}", deleted, pattern);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Shared cache purge interrupted: pattern={}, deleted={}", pattern, deleted);
+        } catch (Exception e) {
+            log.error("Redis error during shared cache purge: pattern={}, deleted={}", pattern, deleted, e);
+        }
+    }
+
+    /**
+     * 키 묶음을 파이프라인 한 번으로 UNLINK
+     * 클러스터에서는 다중 키 명령이 같은 슬롯이어야 하므로 파이프라인 안에서 키마다 UNLINK합니다.
+     *
+     * @return 삭제된 키 수
+     */
+    private long unlink(Collection<String> keys) {
+        RedisSerializer<String> serializer = stringTemplate.getStringSerializer();
+        List<Object> results = stringTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.keyCommands().unlink(serializer.serialize(key));
+            }
+            return null;
+        });
+
+        long deleted = 0;
+        for (Object result : results) {
+            if (result instanceof Long count) {
+                deleted += count;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 접두사를 글롭 패턴 문자로 해석하지 않도록 이스케이프
+     */
+    private static String escapeGlob(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (char c : value.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
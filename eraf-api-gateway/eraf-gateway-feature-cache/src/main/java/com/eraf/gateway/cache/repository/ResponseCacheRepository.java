@@ -11,6 +11,7 @@ public interface ResponseCacheRepository {
 
     /**
      * 캐시 조회
+     * TTL이 지났어도 stale 제공 시간이 남은 응답은 반환합니다 ({@link CachedResponse#isDiscardable()}).
      */
     Optional<CachedResponse> get(String key);
 
@@ -29,13 +30,23 @@ public interface ResponseCacheRepository {
      */
     void evictByPattern(String pattern);
 
+    /**
+     * 태그 (원본 응답의 Surrogate-Key 등)가 붙은 캐시 삭제
+     */
+    void evictByTag(String tag);
+
+    /**
+     * 키 접두사 기반 캐시 삭제 (예: GET:/api/products/42)
+     */
+    void evictByPrefix(String prefix);
+
     /**
      * 전체 캐시 삭제
      */
     void clear();
 
     /**
-     * 만료된 캐시 정리
+     * 만료된 캐시 정리 (stale 제공 시간까지 지난 응답)
      */
     void cleanupExpired();
 }
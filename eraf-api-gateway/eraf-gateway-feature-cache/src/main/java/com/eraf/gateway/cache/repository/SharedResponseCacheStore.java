@@ -0,0 +1,57 @@
+package com.eraf.gateway.cache.repository;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 노드 간 공유 캐시 저장소 ({@link TwoTierResponseCacheRepository}의 원격 계층)
+ *
+ * 값은 직렬화된 응답이며, 태그별 키 목록과 무효화 메시지 채널을 함께 제공합니다.
+ */
+public interface SharedResponseCacheStore extends AutoCloseable {
+
+    /**
+     * 값 조회 (없으면 null)
+     */
+    byte[] get(String key);
+
+    /**
+     * 값 저장 (TTL 후 자동 삭제, 태그별 키 목록에 추가)
+     *
+     * @return 같은 키의 이전 값을 덮어썼으면 true (다른 노드의 로컬 복사본 무효화 필요)
+     */
+    boolean put(String key, byte[] value, Duration ttl, Set<String> tags);
+
+    void delete(String key);
+
+    void deleteByTag(String tag);
+
+    /**
+     * 접두사 기반 삭제 (구현에 따라 백그라운드에서 비동기로 실행)
+     */
+    void deleteByPrefix(String prefix);
+
+    /**
+     * 글롭 패턴 (*, ?) 기반 삭제 (구현에 따라 백그라운드에서 비동기로 실행)
+     */
+    void deleteByPattern(String pattern);
+
+    /**
+     * 전체 삭제 (구현에 따라 백그라운드에서 비동기로 실행)
+     */
+    void clear();
+
+    /**
+     * 다른 노드에 무효화 메시지 전송
+     */
+    void publish(String message);
+
+    /**
+     * 무효화 메시지 수신 (자신이 보낸 메시지 포함)
+     */
+    void subscribe(Consumer<String> listener);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,334 @@
+package com.eraf.gateway.cache.repository;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import com.eraf.gateway.cache.domain.ResponseCacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 로컬 + 공유 (Redis) 2계층 Response Cache Repository
+ *
+ * - 조회: 로컬 계층에 없으면 공유 계층에서 읽어 로컬에 채움 (노드가 늘어도 원본 호출은 한 번)
+ * - 저장: 로컬과 공유 계층에 함께 저장 (공유 계층 값은 압축, {@link CachedResponseCodec})
+ * - 무효화: 두 계층에서 지운 뒤 다른 노드에 메시지를 보내 각 노드의 로컬 계층에서도 지움
+ *
+ * 저장은 공유 계층의 이전 값을 덮어쓴 경우에만 같은 키의 무효화 메시지를 보냅니다.
+ * (처음 채우는 응답은 다른 노드의 로컬 계층에 있을 수 없으므로 알릴 필요가 없음)
+ * 자신이 보낸 메시지는 무시합니다.
+ *
+ * 공유 계층에서 읽어 로컬에 채우는 사이 무효화가 오면 채운 응답을 버립니다.
+ * 키 무효화는 키 해시별 스탬프로, 태그/접두사/패턴/전체 무효화는 최근 기록으로 확인해
+ * 채우는 키와 관계없는 무효화 때문에 채운 응답을 버리지 않습니다.
+ * 최근 일괄 무효화보다 먼저 저장된 공유 계층 값은 MISS로 처리합니다 (공유 계층 정리는 백그라운드로 진행).
+ */
+@Slf4j
+public class TwoTierResponseCacheRepository implements ResponseCacheRepository {
+
+    private final InMemoryResponseCacheRepository local;
+    private final SharedResponseCacheStore shared;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 키 무효화 스탬프 스트라이프 수 (2의 거듭제곱)
+     */
+    private static final int KEY_STAMP_STRIPES = 1024;
+
+    /**
+     * 보관할 최근 일괄 무효화 수 (넘치면 채우는 중이던 응답은 모두 버림)
+     */
+    private static final int BULK_HISTORY = 64;
+
+    /**
+     * 키 해시별 무효화 스탬프 (같은 스트라이프의 다른 키 무효화로 가끔 불필요하게 버릴 수 있음)
+     */
+    private final AtomicLongArray keyStamps = new AtomicLongArray(KEY_STAMP_STRIPES);
+
+    /**
+     * 최근 일괄 무효화 (순번 % BULK_HISTORY 위치, bulkSequence와 함께 자신을 잠금으로 사용)
+     */
+    private final BulkInvalidation[] recentBulk = new BulkInvalidation[BULK_HISTORY];
+    private long bulkSequence;
+
+    private final LongAdder sharedHitCount = new LongAdder();
+    private final LongAdder sharedMissCount = new LongAdder();
+    private final LongAdder invalidationsReceived = new LongAdder();
+
+    /**
+     * @param local  노드별 로컬 계층 (용량 제한)
+     * @param shared 노드 간 공유 계층
+     */
+    public TwoTierResponseCacheRepository(InMemoryResponseCacheRepository local, SharedResponseCacheStore shared) {
+        this.local = local;
+        this.shared = shared;
+        shared.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public Optional<CachedResponse> get(String key) {
+        Optional<CachedResponse> cached = local.get(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        int stripe = stripe(key);
+        long stamp = keyStamps.get(stripe);
+        long bulkSeen = currentBulkSequence();
+        byte[] value = shared.get(key);
+        if (value == null) {
+            sharedMissCount.increment();
+            return Optional.empty();
+        }
+
+        CachedResponse response;
+        try {
+            response = CachedResponseCodec.decode(value);
+        } catch (IllegalArgumentException e) {
+            log.warn("Discarding unreadable shared cache entry: {}", key, e);
+            sharedMissCount.increment();
+            return Optional.empty();
+        }
+        // 공유 계층 정리가 끝나기 전이면 무효화 전에 저장된 값이 남아 있을 수 있음
+        if (response.isDiscardable() || bulkInvalidated(bulkSeen, key, response)) {
+            sharedMissCount.increment();
+            return Optional.empty();
+        }
+
+        sharedHitCount.increment();
+        local.put(key, response);
+        // 읽는 사이 이 키에 해당하는 무효화가 왔으면 로컬에 채운 응답은 버림 (이번 요청에는 제공)
+        if (keyStamps.get(stripe) != stamp || bulkInvalidated(bulkSeen, key, response)) {
+            local.evict(key);
+        }
+        return Optional.of(response);
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        // 이 노드에서 공유 계층의 이전 값을 채우던 중이면 그 값이 새 응답을 덮지 않도록 먼저 스탬프 갱신
+        keyStamps.incrementAndGet(stripe(key));
+        local.put(key, response);
+
+        Duration retention = retention(response);
+        if (retention.isNegative() || retention.isZero()) {
+            return;
+        }
+        if (shared.put(key, CachedResponseCodec.encode(response), retention, response.getTags())) {
+            publish(Invalidation.KEY, key);
+        }
+    }
+
+    /**
+     * 공유 계층에서 지운 뒤 기록하고 로컬에서 지움 (그 사이 이 노드에서 채운 이전 응답도 버려지도록)
+     */
+    @Override
+    public void evict(String key) {
+        shared.delete(key);
+        apply(Invalidation.KEY, key);
+        publish(Invalidation.KEY, key);
+    }
+
+    @Override
+    public void evictByPattern(String pattern) {
+        shared.deleteByPattern(pattern);
+        apply(Invalidation.PATTERN, pattern);
+        publish(Invalidation.PATTERN, pattern);
+    }
+
+    @Override
+    public void evictByTag(String tag) {
+        shared.deleteByTag(tag);
+        apply(Invalidation.TAG, tag);
+        publish(Invalidation.TAG, tag);
+    }
+
+    @Override
+    public void evictByPrefix(String prefix) {
+        shared.deleteByPrefix(prefix);
+        apply(Invalidation.PREFIX, prefix);
+        publish(Invalidation.PREFIX, prefix);
+    }
+
+    @Override
+    public void clear() {
+        shared.clear();
+        apply(Invalidation.CLEAR, "");
+        publish(Invalidation.CLEAR, "");
+    }
+
+    /**
+     * 로컬 계층만 정리 (공유 계층은 TTL로 삭제)
+     */
+    @Override
+    public void cleanupExpired() {
+        local.cleanupExpired();
+    }
+
+    /**
+     * 로컬 계층 통계
+     */
+    public ResponseCacheStats getLocalStats() {
+        return local.getStats();
+    }
+
+    /**
+     * 로컬 MISS 후 공유 계층에서 찾은 수
+     */
+    public long getSharedHitCount() {
+        return sharedHitCount.sum();
+    }
+
+    /**
+     * 두 계층 모두 MISS인 수
+     */
+    public long getSharedMissCount() {
+        return sharedMissCount.sum();
+    }
+
+    /**
+     * 다른 노드에서 받은 무효화 메시지 수
+     */
+    public long getInvalidationsReceived() {
+        return invalidationsReceived.sum();
+    }
+
+    public void shutdown() {
+        local.shutdown();
+        shared.close();
+    }
+
+    /**
+     * 공유 계층 보관 시간 (TTL + stale 제공 시간)
+     */
+    private static Duration retention(CachedResponse response) {
+        int staleSeconds = Math.max(response.getStaleWhileRevalidateSeconds(), response.getStaleIfErrorSeconds());
+        return Duration.between(Instant.now(), response.getExpiresAt().plusSeconds(staleSeconds));
+    }
+
+    private void publish(Invalidation type, String argument) {
+        shared.publish(nodeId + " " + type + " " + argument);
+    }
+
+    /**
+     * 무효화 메시지 처리 ("노드ID 종류 인자", 인자는 공백을 포함할 수 있음)
+     */
+    private void onInvalidation(String message) {
+        String[] parts = message.split(" ", 3);
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+
+        Invalidation type;
+        try {
+            type = Invalidation.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring unknown cache invalidation message: {}", message);
+            return;
+        }
+        String argument = parts.length > 2 ? parts[2] : "";
+
+        invalidationsReceived.increment();
+        apply(type, argument);
+        log.debug("Applied cache invalidation from node {}: {} {}", parts[0], type, argument);
+    }
+
+    /**
+     * 무효화를 기록한 뒤 로컬 계층에 적용 (기록이 먼저여야 채우는 중인 응답이 무효화를 놓치지 않음)
+     */
+    private void apply(Invalidation type, String argument) {
+        if (type == Invalidation.KEY) {
+            keyStamps.incrementAndGet(stripe(argument));
+        } else {
+            recordBulk(new BulkInvalidation(type, argument));
+        }
+
+        switch (type) {
+            case KEY -> local.evict(argument);
+            case TAG -> local.evictByTag(argument);
+            case PREFIX -> local.evictByPrefix(argument);
+            case PATTERN -> local.evictByPattern(argument);
+            case CLEAR -> local.clear();
+        }
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (KEY_STAMP_STRIPES - 1);
+    }
+
+    private long currentBulkSequence() {
+        synchronized (recentBulk) {
+            return bulkSequence;
+        }
+    }
+
+    private void recordBulk(BulkInvalidation invalidation) {
+        synchronized (recentBulk) {
+            bulkSequence++;
+            recentBulk[(int) (bulkSequence % BULK_HISTORY)] = invalidation;
+        }
+    }
+
+    /**
+     * 최근 일괄 무효화 중 이 키에 해당하고 응답 저장 이후에 기록된 것이 있는지
+     * (since 이후 기록이 넘쳐 확인할 수 없으면 true)
+     */
+    private boolean bulkInvalidated(long since, String key, CachedResponse response) {
+        synchronized (recentBulk) {
+            if (bulkSequence - since > BULK_HISTORY) {
+                return true;
+            }
+            for (BulkInvalidation invalidation : recentBulk) {
+                if (invalidation != null && invalidation.matches(key, response)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private enum Invalidation {
+        KEY, TAG, PREFIX, PATTERN, CLEAR
+    }
+
+    /**
+     * 일괄 무효화 기록 (패턴은 로컬 계층과 같은 규칙으로 해석)
+     */
+    private static final class BulkInvalidation {
+        private final Invalidation type;
+        private final String argument;
+        private final Pattern regex;
+        private final Instant invalidatedAt = Instant.now();
+
+        BulkInvalidation(Invalidation type, String argument) {
+            this.type = type;
+            this.argument = argument;
+            this.regex = type == Invalidation.PATTERN
+                    ? Pattern.compile(argument.replace(".", "\\.").replace("*", ".*").replace("?", "."))
+                    : null;
+        }
+
+        /**
+         * 무효화 전에 저장된 응답이고 키 또는 태그가 대상에 해당하는지
+         */
+        boolean matches(String key, CachedResponse response) {
+            if (response.getCachedAt() != null && response.getCachedAt().isAfter(invalidatedAt)) {
+                return false;
+            }
+            Set<String> tags = response.getTags();
+            return switch (type) {
+                case TAG -> tags != null && tags.contains(argument);
+                case PREFIX -> key.startsWith(argument);
+                case PATTERN -> regex.matcher(key).matches();
+                case KEY, CLEAR -> true;
+            };
+        }
+    }
+}
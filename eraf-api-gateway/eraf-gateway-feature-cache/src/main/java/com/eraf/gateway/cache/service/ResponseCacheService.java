@@ -0,0 +1,78 @@
+package com.eraf.gateway.cache.service;
+
+import com.eraf.gateway.cache.repository.ResponseCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 응답 캐시 무효화 서비스
+ *
+ * 원본 데이터가 바뀐 뒤 관련 응답만 지울 때 사용합니다.
+ * 태그와 경로 접두사 무효화는 저장소의 역색인을 쓰므로 비용이 지우는 항목 수에 비례합니다.
+ */
+@Slf4j
+public class ResponseCacheService {
+
+    private final ResponseCacheRepository cacheRepository;
+
+    /**
+     * 경로 무효화 시 지울 HTTP 메서드 (캐시 키가 메서드로 시작하므로)
+     */
+    private final Set<String> methods;
+
+    public ResponseCacheService(ResponseCacheRepository cacheRepository) {
+        this(cacheRepository, Set.of("GET", "HEAD"));
+    }
+
+    /**
+     * @param methods 캐시 규칙이 캐시하는 HTTP 메서드
+     */
+    public ResponseCacheService(ResponseCacheRepository cacheRepository, Collection<String> methods) {
+        this.cacheRepository = cacheRepository;
+        this.methods = methods.stream()
+                .map(method -> method.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * 태그가 붙은 응답 삭제 (원본이 Surrogate-Key 등으로 준 태그)
+     */
+    public void invalidateByTag(String... tags) {
+        for (String tag : tags) {
+            cacheRepository.evictByTag(tag);
+        }
+        log.debug("Invalidated cached responses by tags: {}", (Object) tags);
+    }
+
+    /**
+     * 경로가 접두사로 시작하는 응답 삭제 (쿼리와 헤더별 변형 포함)
+     *
+     * @param pathPrefix 요청 경로 접두사 (예: /api/products/42)
+     */
+    public void invalidateByPathPrefix(String pathPrefix) {
+        for (String method : methods) {
+            cacheRepository.evictByPrefix(method + ":" + pathPrefix);
+        }
+        log.debug("Invalidated cached responses by path prefix: {}", pathPrefix);
+    }
+
+    /**
+     * 캐시 키 패턴으로 삭제 (예: GET:/api/products/*)
+     */
+    public void invalidateByPattern(String pattern) {
+        cacheRepository.evictByPattern(pattern);
+        log.debug("Invalidated cached responses by pattern: {}", pattern);
+    }
+
+    /**
+     * 전체 삭제
+     */
+    public void invalidateAll() {
+        cacheRepository.clear();
+        log.info("Invalidated all cached responses");
+    }
+}
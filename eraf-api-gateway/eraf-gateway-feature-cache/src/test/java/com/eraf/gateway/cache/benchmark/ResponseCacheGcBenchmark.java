@@ -0,0 +1,266 @@
+package com.eraf.gateway.cache.benchmark;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import com.eraf.gateway.cache.repository.InMemoryResponseCacheRepository;
+import com.eraf.gateway.cache.repository.OffHeapBodyStore;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 응답 바디 저장 방식별 GC 일시 정지 비교
+ * 큰 JSON 응답으로 캐시를 1~4GB (원본 바디 기준) 채운 뒤, 조회와 갱신이 섞인 트래픽을 흘려 GC 비용을 잽니다.
+ * - HEAP: 기존 방식 (힙 byte[])
+ * - HEAP_GZIP: 압축해 힙에 저장
+ * - OFF_HEAP: 압축해 다이렉트 버퍼 슬랩에 저장
+ * - MAPPED_FILE: 압축해 메모리 맵 파일에 저장
+ *
+ * main(): 저장 방식별 힙 사용량, 전체 GC 시간, 트래픽 중 GC 일시 정지 (횟수, 합계, 최대)를 표로 출력한 뒤 JMH 실행
+ * (인자로 GB 단위 크기 목록을 주면 그 크기로만 측정, 예: 0.5 1)
+ * 4GB HEAP을 측정하려면 -Xmx8g, OFF_HEAP은 -XX:MaxDirectMemorySize가 필요합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:MaxDirectMemorySize=8g", "-XX:+UseG1GC"})
+public class ResponseCacheGcBenchmark {
+
+    private static final long GIGABYTE = 1024L * 1024 * 1024;
+    private static final int MIN_BODY_BYTES = 8 * 1024;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_ENTRIES = 1_000_000;
+    private static final double PUT_RATIO = 0.1;
+    private static final Instant FAR_FUTURE = Instant.now().plus(365, ChronoUnit.DAYS);
+
+    @Param({"HEAP", "HEAP_GZIP", "OFF_HEAP", "MAPPED_FILE"})
+    private String storage;
+
+    @Param({"1", "2", "4"})
+    private double gigabytes;
+
+    private InMemoryResponseCacheRepository repository;
+    private int keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = newRepository(storage, gigabytes);
+        keys = fill(repository, storage, gigabytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    /**
+     * 조회 90%, 같은 키 갱신 10%
+     */
+    @Benchmark
+    public int traffic() {
+        return request(repository, storage, keys);
+    }
+
+    private static int request(InMemoryResponseCacheRepository repository, String storage, int keys) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(keys);
+        if (random.nextDouble() < PUT_RATIO) {
+            repository.put(key(key), response(storage, body(key, random.nextLong())));
+            return 0;
+        }
+        return repository.get(key(key)).map(cached -> cached.getBody().length).orElse(0);
+    }
+
+    private static InMemoryResponseCacheRepository newRepository(String storage, double gigabytes) {
+        // 블록 올림과 저장 여유분을 감안해 원본 크기보다 조금 크게
+        long budget = (long) (gigabytes * GIGABYTE * 1.2);
+        switch (storage) {
+            case "OFF_HEAP":
+                return new InMemoryResponseCacheRepository(MAX_ENTRIES, OffHeapBodyStore.direct(budget));
+            case "MAPPED_FILE":
+                try {
+                    Path directory = Files.createTempDirectory("response-cache-benchmark");
+                    return new InMemoryResponseCacheRepository(MAX_ENTRIES,
+                            OffHeapBodyStore.mappedFile(directory, budget));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            default:
+                return new InMemoryResponseCacheRepository(MAX_ENTRIES, budget);
+        }
+    }
+
+    /**
+     * 원본 바디 합계가 목표 크기가 될 때까지 저장
+     *
+     * @return 저장한 키 수
+     */
+    private static int fill(InMemoryResponseCacheRepository repository, String storage, double gigabytes) {
+        long target = (long) (gigabytes * GIGABYTE);
+        long filled = 0;
+        int keys = 0;
+        while (filled < target) {
+            byte[] body = body(keys, 0);
+            repository.put(key(keys), response(storage, body));
+            filled += body.length;
+            keys++;
+        }
+        return keys;
+    }
+
+    private static String key(int key) {
+        return "GET:/api/products/" + key;
+    }
+
+    /**
+     * 상품 목록 형태의 JSON 바디 (8~64KB, 키마다 크기 고정)
+     */
+    private static byte[] body(int key, long version) {
+        Random random = new Random(key * 31L + version);
+        int size = MIN_BODY_BYTES + random.nextInt(MAX_BODY_BYTES - MIN_BODY_BYTES);
+        StringBuilder json = new StringBuilder(size + 256).append("{\"items\":[");
+        for (int i = 0; json.length() < size; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"id\":").append(random.nextInt(1_000_000))
+                    .append(",\"name\":\"product-").append(Long.toHexString(random.nextLong()))
+                    .append("\",\"price\":").append(random.nextInt(100_000))
+                    .append(",\"stock\":").append(random.nextInt(500))
+                    .append(",\"category\":\"category-").append(random.nextInt(40))
+                    .append("\",\"available\":").append(random.nextBoolean())
+                    .append('}');
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static CachedResponse response(String storage, byte[] body) {
+        boolean compress = !storage.equals("HEAP");
+        return CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of("Content-Type", "application/json"))
+                .body(compress ? gzip(body) : body)
+                .contentType("application/json")
+                .contentEncoding(compress ? "gzip" : null)
+                .cachedAt(Instant.now())
+                .expiresAt(FAR_FUTURE)
+                .build();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException, InterruptedException {
+        List<Double> sizes = new ArrayList<>();
+        for (String arg : args) {
+            sizes.add(Double.parseDouble(arg));
+        }
+        if (sizes.isEmpty()) {
+            sizes = List.of(1.0, 2.0, 4.0);
+        }
+
+        GcPauses pauses = new GcPauses();
+        System.out.printf("%-12s %6s %12s %12s %10s %8s %12s %10s%n",
+                "storage", "GB", "storedMB", "heapUsedMB", "fullGcMs", "pauses", "pauseSumMs", "maxPauseMs");
+        for (double size : sizes) {
+            for (String storage : List.of("HEAP", "HEAP_GZIP", "OFF_HEAP", "MAPPED_FILE")) {
+                InMemoryResponseCacheRepository repository = newRepository(storage, size);
+                int keys = fill(repository, storage, size);
+
+                // 전체 GC 한 번에 걸리는 시간 (살아 있는 힙 크기에 비례)
+                System.gc();
+                long fullGcStart = System.nanoTime();
+                System.gc();
+                long fullGcMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fullGcStart);
+                long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+                // 트래픽 중 GC 일시 정지
+                pauses.reset();
+                long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+                while (System.nanoTime() < end) {
+                    request(repository, storage, keys);
+                }
+
+                System.out.printf("%-12s %6.2f %12d %12d %10d %8d %12d %10d%n",
+                        storage, size, repository.getStats().getTotalBytes() >> 20, heapUsed >> 20,
+                        fullGcMillis, pauses.count, pauses.totalMillis, pauses.maxMillis);
+
+                repository.shutdown();
+                repository = null;
+                System.gc();
+                Thread.sleep(500);
+            }
+        }
+
+        Options options = new OptionsBuilder()
+                .include(ResponseCacheGcBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * GC 알림으로 일시 정지 시간 수집 (System.gc 제외)
+     */
+    private static final class GcPauses {
+
+        private volatile long count;
+        private volatile long totalMillis;
+        private volatile long maxMillis;
+
+        GcPauses() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        return;
+                    }
+                    GarbageCollectionNotificationInfo info =
+                            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    // 동시 수행 단계 (G1 Concurrent GC 등)는 애플리케이션을 멈추지 않음
+                    if (info.getGcCause().equals("System.gc()") || info.getGcName().contains("Concurrent")) {
+                        return;
+                    }
+                    record(info.getGcInfo().getDuration());
+                }, null, null);
+            }
+        }
+
+        synchronized void record(long millis) {
+            count++;
+            totalMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+
+        synchronized void reset() {
+            count = 0;
+            totalMillis = 0;
+            maxMillis = 0;
+        }
+    }
+}
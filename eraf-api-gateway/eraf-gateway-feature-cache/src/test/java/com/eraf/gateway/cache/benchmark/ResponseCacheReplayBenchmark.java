@@ -0,0 +1,219 @@
+package com.eraf.gateway.cache.benchmark;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import com.eraf.gateway.cache.repository.InMemoryResponseCacheRepository;
+import com.eraf.gateway.cache.repository.ResponseCacheRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 트레이스 재생으로 캐시 정책 비교
+ * 기존 FIFO (가득 차면 전체를 훑어 가장 오래된 항목 제거)와 W-TinyLFU를 같은 트레이스로 재생합니다.
+ * - main(): 트레이스별 HIT 비율 표를 출력한 뒤 JMH로 요청당 비용 측정
+ * - ZIPF: 인기 편중 트래픽 (상위 키에 조회가 몰림)
+ * - ZIPF_WITH_SCANS: 편중 트래픽 사이에 한 번씩만 조회되는 키가 대량으로 섞임 (크롤러, 배치)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseCacheReplayBenchmark {
+
+    private static final int KEY_SPACE = 100_000;
+    private static final int TRACE_LENGTH = 1 << 20;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final Instant FAR_FUTURE = Instant.now().plus(365, ChronoUnit.DAYS);
+
+    @Param({"FIFO", "W_TINY_LFU"})
+    private String policy;
+
+    @Param({"1000", "10000"})
+    private int cacheSize;
+
+    @Param({"ZIPF", "ZIPF_WITH_SCANS"})
+    private String trace;
+
+    private ResponseCacheRepository repository;
+    private String[] requests;
+    private int next;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        requests = trace(trace, 42);
+        repository = newRepository(policy, cacheSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (repository instanceof InMemoryResponseCacheRepository inMemory) {
+            inMemory.shutdown();
+        }
+    }
+
+    @Benchmark
+    public boolean replay() {
+        String key = requests[next];
+        next = (next + 1) & (TRACE_LENGTH - 1);
+        return fetch(repository, key, sequence++);
+    }
+
+    /**
+     * 필터와 같은 순서로 조회하고 MISS면 저장
+     *
+     * @return HIT 여부
+     */
+    private static boolean fetch(ResponseCacheRepository repository, String key, long sequence) {
+        if (repository.get(key).isPresent()) {
+            return true;
+        }
+        repository.put(key, CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of())
+                .body(new byte[256])
+                .contentType("application/json")
+                // FIFO 순서가 시계 해상도에 흔들리지 않도록 논리 시각 사용
+                .cachedAt(Instant.EPOCH.plusNanos(sequence))
+                .expiresAt(FAR_FUTURE)
+                .build());
+        return false;
+    }
+
+    private static ResponseCacheRepository newRepository(String policy, int cacheSize) {
+        return "FIFO".equals(policy)
+                ? new FifoResponseCacheRepository(cacheSize)
+                : new InMemoryResponseCacheRepository(cacheSize, Long.MAX_VALUE);
+    }
+
+    /**
+     * 재현 가능한 요청 트레이스 생성
+     */
+    private static String[] trace(String type, long seed) {
+        Random random = new Random(seed);
+        double[] cumulative = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+
+        String[] requests = new String[TRACE_LENGTH];
+        int scanKey = 0;
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            // 4,096건마다 1,024건은 처음 보는 키를 순서대로 조회
+            if ("ZIPF_WITH_SCANS".equals(type) && (i & 4095) < 1024) {
+                requests[i] = "GET:/api/scan/" + scanKey++;
+                continue;
+            }
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            int rank = index >= 0 ? index : Math.min(-index - 1, KEY_SPACE - 1);
+            requests[i] = "GET:/api/items/" + rank;
+        }
+        return requests;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        System.out.printf("%-16s %10s %-12s %10s%n", "trace", "cacheSize", "policy", "hitRatio");
+        for (String trace : List.of("ZIPF", "ZIPF_WITH_SCANS")) {
+            String[] requests = trace(trace, 42);
+            for (int cacheSize : List.of(1000, 10000)) {
+                for (String policy : List.of("FIFO", "W_TINY_LFU")) {
+                    ResponseCacheRepository repository = newRepository(policy, cacheSize);
+                    long hits = 0;
+                    for (int i = 0; i < requests.length; i++) {
+                        if (fetch(repository, requests[i], i)) {
+                            hits++;
+                        }
+                    }
+                    if (repository instanceof InMemoryResponseCacheRepository inMemory) {
+                        inMemory.shutdown();
+                    }
+                    System.out.printf("%-16s %10d %-12s %9.2f%%%n",
+                            trace, cacheSize, policy, 100.0 * hits / requests.length);
+                }
+            }
+        }
+
+        Options options = new OptionsBuilder()
+                .include(ResponseCacheReplayBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * 기존 구현과 같은 FIFO 캐시 (가득 차면 cachedAt이 가장 이른 항목을 전체 순회로 찾아 제거)
+     */
+    static final class FifoResponseCacheRepository implements ResponseCacheRepository {
+
+        private final Map<String, CachedResponse> cache = new ConcurrentHashMap<>();
+        private final int maxEntries;
+
+        FifoResponseCacheRepository(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        public Optional<CachedResponse> get(String key) {
+            return Optional.ofNullable(cache.get(key));
+        }
+
+        @Override
+        public void put(String key, CachedResponse response) {
+            if (cache.size() >= maxEntries) {
+                String oldestKey = null;
+                Instant oldestTime = Instant.MAX;
+                for (Map.Entry<String, CachedResponse> entry : cache.entrySet()) {
+                    if (entry.getValue().getCachedAt().isBefore(oldestTime)) {
+                        oldestTime = entry.getValue().getCachedAt();
+                        oldestKey = entry.getKey();
+                    }
+                }
+                if (oldestKey != null) {
+                    cache.remove(oldestKey);
+                }
+            }
+            cache.put(key, response);
+        }
+
+        @Override
+        public void evict(String key) {
+            cache.remove(key);
+        }
+
+        @Override
+        public void evictByPattern(String pattern) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void evictByTag(String tag) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void evictByPrefix(String prefix) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            cache.clear();
+        }
+
+        @Override
+        public void cleanupExpired() {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.eraf.gateway.cache.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedResponseTest {
+
+    @Test
+    void testFreshResponse() {
+        CachedResponse response = response(Instant.now().plusSeconds(60), 30, 300);
+
+        assertFalse(response.isExpired());
+        assertTrue(response.isWithinStaleWhileRevalidate());
+        assertFalse(response.isDiscardable());
+    }
+
+    @Test
+    void testStaleWindows() {
+        // 10초 전에 만료
+        CachedResponse response = response(Instant.now().minusSeconds(10), 30, 300);
+
+        assertTrue(response.isExpired());
+        assertTrue(response.isWithinStaleWhileRevalidate());
+        assertTrue(response.isWithinStaleIfError());
+        assertFalse(response.isDiscardable());
+    }
+
+    @Test
+    void testOnlyStaleIfErrorRemains() {
+        // 60초 전에 만료: stale-while-revalidate (30초)는 지났고 stale-if-error (300초)는 남음
+        CachedResponse response = response(Instant.now().minusSeconds(60), 30, 300);
+
+        assertFalse(response.isWithinStaleWhileRevalidate());
+        assertTrue(response.isWithinStaleIfError());
+        assertFalse(response.isDiscardable());
+    }
+
+    @Test
+    void testDiscardableWithoutStaleWindows() {
+        CachedResponse response = response(Instant.now().minusSeconds(1), 0, 0);
+
+        assertTrue(response.isExpired());
+        assertFalse(response.isWithinStaleWhileRevalidate());
+        assertFalse(response.isWithinStaleIfError());
+        assertTrue(response.isDiscardable());
+    }
+
+    private static CachedResponse response(Instant expiresAt, int staleWhileRevalidate, int staleIfError) {
+        return CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of())
+                .body(new byte[10])
+                .cachedAt(expiresAt.minusSeconds(300))
+                .expiresAt(expiresAt)
+                .staleWhileRevalidateSeconds(staleWhileRevalidate)
+                .staleIfErrorSeconds(staleIfError)
+                .build();
+    }
+}
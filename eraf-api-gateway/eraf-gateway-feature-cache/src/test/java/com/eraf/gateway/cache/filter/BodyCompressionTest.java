@@ -0,0 +1,50 @@
+package com.eraf.gateway.cache.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyCompressionTest {
+
+    @Test
+    void testGzipRoundTrip() {
+        byte[] body = "{\"name\":\"item\"},".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = BodyCompression.gzip(body);
+
+        assertTrue(compressed.length < body.length / 10, "compressed " + compressed.length);
+        assertArrayEquals(body, BodyCompression.gunzip(compressed));
+    }
+
+    @Test
+    void testCompressibleContentTypes() {
+        assertTrue(BodyCompression.isCompressible("application/json;charset=UTF-8"));
+        assertTrue(BodyCompression.isCompressible("application/problem+json"));
+        assertTrue(BodyCompression.isCompressible("text/html"));
+        assertTrue(BodyCompression.isCompressible("application/xml"));
+        assertFalse(BodyCompression.isCompressible("image/png"));
+        assertFalse(BodyCompression.isCompressible("application/zip"));
+        assertFalse(BodyCompression.isCompressible(null));
+    }
+
+    @Test
+    void testAcceptEncodingNegotiation() {
+        assertTrue(BodyCompression.acceptsGzip(request("gzip, deflate, br")));
+        assertTrue(BodyCompression.acceptsGzip(request("br;q=1.0, gzip;q=0.8")));
+        assertTrue(BodyCompression.acceptsGzip(request("*")));
+        assertFalse(BodyCompression.acceptsGzip(request("gzip;q=0, *")));
+        assertFalse(BodyCompression.acceptsGzip(request("identity")));
+        assertFalse(BodyCompression.acceptsGzip(request(null)));
+    }
+
+    private static MockHttpServletRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/catalog");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return request;
+    }
+}
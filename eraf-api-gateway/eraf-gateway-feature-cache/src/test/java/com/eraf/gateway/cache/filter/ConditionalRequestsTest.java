@@ -0,0 +1,119 @@
+package com.eraf.gateway.cache.filter;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalRequestsTest {
+
+    private static final byte[] BODY = "{\"items\":[1,2,3]}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testStrongETagIsStableForSameBody() {
+        String etag = ConditionalRequests.strongETag(BODY);
+
+        assertEquals(etag, ConditionalRequests.strongETag(BODY.clone()));
+        assertNotEquals(etag, ConditionalRequests.strongETag("{}".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(34, etag.length());
+    }
+
+    @Test
+    void testClientETagPrefersStrongUpstreamETag() {
+        assertEquals("\"v42\"", ConditionalRequests.clientETag("\"v42\"", BODY));
+
+        // 약한 ETag나 ETag가 없으면 바디 해시
+        String hashed = ConditionalRequests.strongETag(BODY);
+        assertEquals(hashed, ConditionalRequests.clientETag("W/\"v42\"", BODY));
+        assertEquals(hashed, ConditionalRequests.clientETag(null, BODY));
+    }
+
+    @Test
+    void testIfNoneMatchUsesWeakComparison() {
+        assertTrue(ConditionalRequests.matches("\"a\"", "\"a\""));
+        assertTrue(ConditionalRequests.matches("W/\"a\"", "\"a\""));
+        assertTrue(ConditionalRequests.matches("\"x\", \"a\"", "\"a\""));
+        assertTrue(ConditionalRequests.matches("*", "\"a\""));
+        assertFalse(ConditionalRequests.matches("\"b\"", "\"a\""));
+        assertFalse(ConditionalRequests.matches("\"a\"", null));
+    }
+
+    @Test
+    void testNotModifiedByETag() {
+        CachedResponse cached = cached(Map.of());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/catalog");
+        request.addHeader("If-None-Match", cached.getEtag());
+        assertTrue(ConditionalRequests.isNotModified(request, cached));
+
+        // If-None-Match가 맞지 않으면 If-Modified-Since는 보지 않음
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/api/catalog");
+        stale.addHeader("If-None-Match", "\"old\"");
+        stale.addHeader("If-Modified-Since", ConditionalRequests.formatDate(Instant.now().plusSeconds(60)));
+        assertFalse(ConditionalRequests.isNotModified(stale, cached));
+
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/catalog");
+        post.addHeader("If-None-Match", cached.getEtag());
+        assertFalse(ConditionalRequests.isNotModified(post, cached));
+    }
+
+    @Test
+    void testNotModifiedByLastModified() {
+        Instant lastModified = Instant.parse("2024-01-01T00:00:00Z");
+        CachedResponse cached = cached(Map.of("Last-Modified", ConditionalRequests.formatDate(lastModified)));
+
+        MockHttpServletRequest same = new MockHttpServletRequest("GET", "/api/catalog");
+        same.addHeader("If-Modified-Since", ConditionalRequests.formatDate(lastModified));
+        assertTrue(ConditionalRequests.isNotModified(same, cached));
+
+        MockHttpServletRequest older = new MockHttpServletRequest("GET", "/api/catalog");
+        older.addHeader("If-Modified-Since", ConditionalRequests.formatDate(lastModified.minusSeconds(1)));
+        assertFalse(ConditionalRequests.isNotModified(older, cached));
+
+        MockHttpServletRequest invalid = new MockHttpServletRequest("GET", "/api/catalog");
+        invalid.addHeader("If-Modified-Since", "yesterday");
+        assertFalse(ConditionalRequests.isNotModified(invalid, cached));
+    }
+
+    @Test
+    void testUpstreamRequestUsesStoredValidators() {
+        CachedResponse previous = cached(Map.of("ETag", "\"upstream-1\"", "Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/catalog");
+        request.addHeader("If-None-Match", "\"client\"");
+        request.addHeader("Accept", "application/json");
+
+        HttpServletRequest upstream = ConditionalRequests.forUpstream(request, previous);
+        assertEquals("\"upstream-1\"", upstream.getHeader("If-None-Match"));
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", upstream.getHeader("if-modified-since"));
+        assertEquals("application/json", upstream.getHeader("Accept"));
+
+        // 이전 응답이 없으면 클라이언트 조건부 헤더만 제거
+        HttpServletRequest unconditional = ConditionalRequests.forUpstream(request, null);
+        assertNull(unconditional.getHeader("If-None-Match"));
+        assertFalse(unconditional.getHeaders("If-None-Match").hasMoreElements());
+
+        MockHttpServletRequest plain = new MockHttpServletRequest("GET", "/api/catalog");
+        assertSame(plain, ConditionalRequests.forUpstream(plain, null));
+    }
+
+    private static CachedResponse cached(Map<String, String> headers) {
+        Instant now = Instant.now();
+        return CachedResponse.builder()
+                .statusCode(200)
+                .headers(headers)
+                .body(BODY)
+                .contentType("application/json")
+                .cachedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .etag(ConditionalRequests.clientETag(headers.get("ETag"), BODY))
+                .build();
+    }
+}
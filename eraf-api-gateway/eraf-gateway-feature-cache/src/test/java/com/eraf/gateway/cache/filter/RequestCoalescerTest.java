@@ -0,0 +1,122 @@
+package com.eraf.gateway.cache.filter;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import com.eraf.gateway.cache.domain.CoalescingStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private static final String KEY = "GET:/api/catalog";
+
+    @Test
+    void testConcurrentMissesShareOneFetch() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5000);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger fetches = new AtomicInteger();
+        CachedResponse fetched = response();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            // 첫 요청이 원본 호출 중인 상태를 만듦
+            Future<CachedResponse> leader = executor.submit(() -> {
+                RequestCoalescer.Flight flight = coalescer.join(KEY);
+                assertTrue(flight.isLeader());
+                try {
+                    leaderStarted.countDown();
+                    release.await();
+                    fetches.incrementAndGet();
+                    coalescer.complete(flight, fetched);
+                    return fetched;
+                } finally {
+                    coalescer.finish(flight);
+                }
+            });
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch joined = new CountDownLatch(7);
+            List<Future<CachedResponse>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(executor.submit(() -> {
+                    RequestCoalescer.Flight flight = coalescer.join(KEY);
+                    joined.countDown();
+                    assertFalse(flight.isLeader());
+                    return coalescer.await(flight);
+                }));
+            }
+            assertTrue(joined.await(5, TimeUnit.SECONDS));
+            release.countDown();
+
+            assertSame(fetched, leader.get(5, TimeUnit.SECONDS));
+            for (Future<CachedResponse> follower : followers) {
+                assertSame(fetched, follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CoalescingStats stats = coalescer.getStats();
+        assertEquals(1, fetches.get());
+        assertEquals(1, stats.getLeaderCount());
+        assertEquals(7, stats.getCoalescedCount());
+        assertEquals(0, stats.getInFlightCount());
+    }
+
+    @Test
+    void testWaiterTimesOut() {
+        RequestCoalescer coalescer = new RequestCoalescer(50);
+        RequestCoalescer.Flight leader = coalescer.join(KEY);
+
+        RequestCoalescer.Flight follower = coalescer.join(KEY);
+        assertNull(coalescer.await(follower));
+        assertEquals(1, coalescer.getStats().getTimeoutCount());
+
+        coalescer.finish(leader);
+        assertEquals(0, coalescer.getStats().getInFlightCount());
+    }
+
+    @Test
+    void testUncacheableResponseWakesWaiters() {
+        RequestCoalescer coalescer = new RequestCoalescer(5000);
+        RequestCoalescer.Flight leader = coalescer.join(KEY);
+        RequestCoalescer.Flight follower = coalescer.join(KEY);
+
+        // 첫 요청이 응답을 전달하지 못하고 끝남 (5xx, 예외 등)
+        coalescer.finish(leader);
+
+        assertNull(coalescer.await(follower));
+        assertEquals(1, coalescer.getStats().getFallbackCount());
+
+        // 다음 요청은 새로 원본을 호출
+        assertTrue(coalescer.join(KEY).isLeader());
+    }
+
+    @Test
+    void testDifferentKeysDoNotCoalesce() {
+        RequestCoalescer coalescer = new RequestCoalescer(5000);
+        assertTrue(coalescer.join("GET:/a").isLeader());
+        assertTrue(coalescer.join("GET:/b").isLeader());
+        assertEquals(2, coalescer.getStats().getInFlightCount());
+    }
+
+    private static CachedResponse response() {
+        Instant now = Instant.now();
+        return CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of())
+                .body(new byte[10])
+                .contentType("application/json")
+                .cachedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .build();
+    }
+}
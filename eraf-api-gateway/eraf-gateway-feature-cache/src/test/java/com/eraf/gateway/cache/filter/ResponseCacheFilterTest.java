@@ -0,0 +1,298 @@
+package com.eraf.gateway.cache.filter;
+
+import com.eraf.gateway.cache.domain.CacheRule;
+import com.eraf.gateway.cache.domain.CachedResponse;
+import com.eraf.gateway.cache.repository.InMemoryResponseCacheRepository;
+import com.eraf.gateway.common.filter.GatewayFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+
+    private static final String PATH = "/api/products";
+    private static final String KEY = "GET:" + PATH;
+
+    private final InMemoryResponseCacheRepository repository = new InMemoryResponseCacheRepository(100);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    void testMissIsCachedAndServedAsHit() throws Exception {
+        ResponseCacheFilter filter = filter(rule(0, 0));
+        FilterChain upstream = upstream(200, "v1");
+
+        MockHttpServletResponse first = send(filter, request(), upstream);
+        assertEquals(200, first.getStatus());
+        assertEquals("v1", first.getContentAsString());
+        assertNotNull(first.getHeader("ETag"));
+        assertNull(first.getHeader("X-Cache"));
+
+        MockHttpServletResponse second = send(filter, request(), upstream);
+        assertEquals(200, second.getStatus());
+        assertEquals("v1", second.getContentAsString());
+        assertEquals("HIT", second.getHeader("X-Cache"));
+        assertEquals("application/json", second.getContentType());
+        assertEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void testStaleWhileRevalidateServesStaleThenRefreshes() throws Exception {
+        ResponseCacheFilter filter = filter(rule(60, 0));
+        repository.put(KEY, expired("v1", 60, 0));
+
+        AtomicReference<String> conditional = new AtomicReference<>();
+        AtomicReference<Object> internal = new AtomicReference<>();
+        FilterChain upstream = (req, res) -> {
+            conditional.set(((HttpServletRequest) req).getHeader("If-None-Match"));
+            internal.set(req.getAttribute(GatewayFilter.INTERNAL_REQUEST_ATTRIBUTE));
+            write((HttpServletResponse) res, 200, "v2");
+        };
+
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = send(filter, request, upstream);
+
+        // 클라이언트는 이전 응답을 받고, 갱신은 원본 검증자로 조건부 요청
+        assertEquals(200, response.getStatus());
+        assertEquals("v1", response.getContentAsString());
+        assertEquals("STALE", response.getHeader("X-Cache"));
+        assertEquals("\"v1\"", conditional.get());
+        assertEquals(Boolean.TRUE, internal.get());
+        assertNull(request.getAttribute(GatewayFilter.INTERNAL_REQUEST_ATTRIBUTE));
+
+        MockHttpServletResponse next = send(filter, request(), upstream(200, "v3"));
+        assertEquals("v2", next.getContentAsString());
+        assertEquals("HIT", next.getHeader("X-Cache"));
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void testRevalidationNotModifiedExtendsStaleResponse() throws Exception {
+        ResponseCacheFilter filter = filter(rule(60, 0));
+        repository.put(KEY, expired("v1", 60, 0));
+
+        send(filter, request(), upstream(HttpServletResponse.SC_NOT_MODIFIED, ""));
+
+        CachedResponse refreshed = repository.get(KEY).orElseThrow();
+        assertFalse(refreshed.isExpired());
+        assertEquals("v1", new String(refreshed.getBody(), StandardCharsets.UTF_8));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void testStaleIfErrorOnUpstreamFailure() throws Exception {
+        ResponseCacheFilter filter = filter(rule(0, 600));
+        repository.put(KEY, expired("v1", 0, 600));
+
+        MockHttpServletResponse onError = send(filter, request(), upstream(503, "unavailable"));
+        assertEquals(200, onError.getStatus());
+        assertEquals("v1", onError.getContentAsString());
+        assertEquals("STALE", onError.getHeader("X-Cache"));
+
+        FilterChain throwing = (req, res) -> {
+            upstreamCalls.incrementAndGet();
+            throw new IOException("connection refused");
+        };
+        MockHttpServletResponse onException = send(filter, request(), throwing);
+        assertEquals(200, onException.getStatus());
+        assertEquals("v1", onException.getContentAsString());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testUpstreamErrorWithoutStaleResponseIsPassedThrough() throws Exception {
+        ResponseCacheFilter filter = filter(rule(0, 0));
+
+        MockHttpServletResponse response = send(filter, request(), upstream(503, "unavailable"));
+
+        assertEquals(503, response.getStatus());
+        assertEquals("unavailable", response.getContentAsString());
+        assertTrue(repository.get(KEY).isEmpty());
+    }
+
+    @Test
+    void testIfNoneMatchReturnsNotModified() throws Exception {
+        ResponseCacheFilter filter = filter(rule(0, 0));
+        repository.put(KEY, fresh("v1"));
+
+        MockHttpServletRequest request = request();
+        request.addHeader("If-None-Match", "\"v1\"");
+        MockHttpServletResponse response = send(filter, request, upstream(200, "v2"));
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals("\"v1\"", response.getHeader("ETag"));
+        assertEquals("HIT", response.getHeader("X-Cache"));
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void testIfModifiedSinceReturnsNotModified() throws Exception {
+        ResponseCacheFilter filter = filter(rule(0, 0));
+        CachedResponse cached = fresh("v1");
+        repository.put(KEY, cached);
+        String lastModified = ConditionalRequests.formatDate(cached.getCachedAt());
+
+        MockHttpServletRequest notModified = request();
+        notModified.addHeader("If-Modified-Since", lastModified);
+        MockHttpServletResponse response = send(filter, notModified, upstream(200, "v2"));
+        assertEquals(304, response.getStatus());
+        assertEquals(lastModified, response.getHeader("Last-Modified"));
+
+        // 캐시된 응답보다 오래된 날짜면 바디 제공
+        MockHttpServletRequest modified = request();
+        modified.addHeader("If-Modified-Since",
+                ConditionalRequests.formatDate(cached.getCachedAt().minusSeconds(3600)));
+        MockHttpServletResponse full = send(filter, modified, upstream(200, "v2"));
+        assertEquals(200, full.getStatus());
+        assertEquals("v1", full.getContentAsString());
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void testConcurrentMissesAreCoalesced() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5000);
+        ResponseCacheFilter filter = new ResponseCacheFilter(repository, List.of(rule(0, 0)), coalescer);
+
+        CountDownLatch upstreamStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowUpstream = (req, res) -> {
+            upstreamCalls.incrementAndGet();
+            upstreamStarted.countDown();
+            await(release);
+            write((HttpServletResponse) res, 200, "v1");
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> leader = executor.submit(() -> send(filter, request(), slowUpstream));
+            assertTrue(upstreamStarted.await(5, TimeUnit.SECONDS));
+
+            AtomicReference<MockHttpServletResponse> shared = new AtomicReference<>();
+            Thread follower = new Thread(() -> {
+                try {
+                    shared.set(send(filter, request(), slowUpstream));
+                } catch (ServletException | IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            follower.start();
+
+            // 두 번째 요청이 첫 요청의 응답을 기다리기 시작한 뒤 원본 응답
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (follower.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals("v1", leader.get(5, TimeUnit.SECONDS).getContentAsString());
+            follower.join(5000);
+            assertEquals("v1", shared.get().getContentAsString());
+            assertEquals("HIT", shared.get().getHeader("X-Cache"));
+            assertEquals(1, upstreamCalls.get());
+            assertEquals(1, coalescer.getStats().getCoalescedCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private ResponseCacheFilter filter(CacheRule rule) {
+        return new ResponseCacheFilter(repository, List.of(rule), null);
+    }
+
+    private static CacheRule rule(int staleWhileRevalidateSeconds, int staleIfErrorSeconds) {
+        return CacheRule.builder()
+                .id("products")
+                .pathPattern("/api/**")
+                .methods(Set.of("GET"))
+                .ttlSeconds(60)
+                .enabled(true)
+                .staleWhileRevalidateSeconds(staleWhileRevalidateSeconds)
+                .staleIfErrorSeconds(staleIfErrorSeconds)
+                .build();
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", PATH);
+    }
+
+    private static MockHttpServletResponse send(ResponseCacheFilter filter, MockHttpServletRequest request,
+                                                FilterChain chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private FilterChain upstream(int status, String body) {
+        return (req, res) -> {
+            upstreamCalls.incrementAndGet();
+            write((HttpServletResponse) res, status, body);
+        };
+    }
+
+    private void write(HttpServletResponse response, int status, String body) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CachedResponse fresh(String body) {
+        Instant now = Instant.now();
+        return cached(body, now, now.plusSeconds(60), 0, 0);
+    }
+
+    private static CachedResponse expired(String body, int staleWhileRevalidateSeconds, int staleIfErrorSeconds) {
+        Instant cachedAt = Instant.now().minusSeconds(70);
+        return cached(body, cachedAt, cachedAt.plusSeconds(60), staleWhileRevalidateSeconds, staleIfErrorSeconds);
+    }
+
+    private static CachedResponse cached(String body, Instant cachedAt, Instant expiresAt,
+                                         int staleWhileRevalidateSeconds, int staleIfErrorSeconds) {
+        return CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of("ETag", "\"" + body + "\""))
+                .body(body.getBytes(StandardCharsets.UTF_8))
+                .contentType("application/json")
+                .cachedAt(cachedAt)
+                .expiresAt(expiresAt)
+                .etag("\"" + body + "\"")
+                .staleWhileRevalidateSeconds(staleWhileRevalidateSeconds)
+                .staleIfErrorSeconds(staleIfErrorSeconds)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
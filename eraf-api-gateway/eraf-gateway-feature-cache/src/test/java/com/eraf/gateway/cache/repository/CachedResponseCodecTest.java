@@ -0,0 +1,77 @@
+package com.eraf.gateway.cache.repository;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedResponseCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        Instant now = Instant.now();
+        CachedResponse response = CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of("Cache-Control", "max-age=60", "Vary", "Accept-Language"))
+                .body("{\"id\":42}".getBytes(StandardCharsets.UTF_8))
+                .contentType("application/json")
+                .cachedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .etag("\"abc\"")
+                .tags(Set.of("product-42", "catalog"))
+                .staleWhileRevalidateSeconds(10)
+                .staleIfErrorSeconds(300)
+                .build();
+
+        CachedResponse decoded = CachedResponseCodec.decode(CachedResponseCodec.encode(response));
+
+        assertEquals(200, decoded.getStatusCode());
+        assertEquals(response.getHeaders(), decoded.getHeaders());
+        assertArrayEquals(response.getBody(), decoded.getBody());
+        assertEquals("application/json", decoded.getContentType());
+        assertEquals(now, decoded.getCachedAt());
+        assertEquals(now.plusSeconds(60), decoded.getExpiresAt());
+        assertEquals("\"abc\"", decoded.getEtag());
+        assertNull(decoded.getContentEncoding());
+        assertEquals(Set.of("product-42", "catalog"), decoded.getTags());
+        assertEquals(10, decoded.getStaleWhileRevalidateSeconds());
+        assertEquals(300, decoded.getStaleIfErrorSeconds());
+    }
+
+    @Test
+    void testLargeBodiesAreCompressed() {
+        byte[] body = "{\"name\":\"item\",\"price\":1000},".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+        byte[] encoded = CachedResponseCodec.encode(response(body, null));
+        assertTrue(encoded.length < body.length / 10, "encoded " + encoded.length);
+        assertArrayEquals(body, CachedResponseCodec.decode(encoded).getBody());
+
+        // 이미 압축된 바디는 다시 압축하지 않음
+        byte[] gzipped = new byte[4096];
+        assertTrue(CachedResponseCodec.encode(response(gzipped, "gzip")).length > gzipped.length);
+    }
+
+    @Test
+    void testRejectsUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> CachedResponseCodec.decode(new byte[]{9, 0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> CachedResponseCodec.decode(new byte[]{1, 0, 1}));
+    }
+
+    private static CachedResponse response(byte[] body, String contentEncoding) {
+        Instant now = Instant.now();
+        return CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of())
+                .body(body)
+                .contentType("application/json")
+                .contentEncoding(contentEncoding)
+                .cachedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .build();
+    }
+}
@@ -0,0 +1,295 @@
+package com.eraf.gateway.cache.repository;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import com.eraf.gateway.cache.domain.ResponseCacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryResponseCacheRepositoryTest {
+
+    private InMemoryResponseCacheRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.shutdown();
+        }
+    }
+
+    @Test
+    void testEntryCountIsBounded() {
+        repository = new InMemoryResponseCacheRepository(100, Long.MAX_VALUE);
+
+        for (int i = 0; i < 1000; i++) {
+            repository.put("GET:/items/" + i, response(10));
+        }
+
+        ResponseCacheStats stats = repository.getStats();
+        assertEquals(100, stats.getEntryCount());
+        assertEquals(900, stats.getEvictionCount() + stats.getAdmissionRejectionCount());
+    }
+
+    @Test
+    void testBodyBytesAreBounded() {
+        repository = new InMemoryResponseCacheRepository(1000, 10_000);
+
+        for (int i = 0; i < 100; i++) {
+            repository.put("GET:/items/" + i, response(1000));
+        }
+
+        ResponseCacheStats stats = repository.getStats();
+        assertTrue(stats.getTotalBytes() <= 10_000, "total bytes " + stats.getTotalBytes());
+        assertEquals(stats.getEntryCount() * 1000, stats.getTotalBytes());
+    }
+
+    @Test
+    void testOversizedResponseIsRejected() {
+        repository = new InMemoryResponseCacheRepository(100, 1000);
+        repository.put("GET:/large", response(10));
+        repository.put("GET:/large", response(2000));
+
+        assertTrue(repository.get("GET:/large").isEmpty());
+        assertEquals(1, repository.getStats().getAdmissionRejectionCount());
+        assertEquals(0, repository.getStats().getTotalBytes());
+    }
+
+    @Test
+    void testFrequentEntriesSurviveScan() {
+        repository = new InMemoryResponseCacheRepository(100, Long.MAX_VALUE);
+
+        // 자주 조회되는 50개
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                fetch("GET:/hot/" + i);
+            }
+        }
+
+        // 한 번씩만 조회되는 1만 개 사이로 자주 조회되는 키도 계속 조회됨
+        for (int i = 0; i < 10_000; i++) {
+            fetch("GET:/scan/" + i);
+            fetch("GET:/hot/" + (i % 50));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(repository.get("GET:/hot/" + i).isPresent(), "hot entry " + i + " was evicted");
+        }
+        assertTrue(repository.getStats().getAdmissionRejectionCount() > 0);
+    }
+
+    @Test
+    void testStatsCountHitsAndMisses() {
+        repository = new InMemoryResponseCacheRepository(100, Long.MAX_VALUE);
+        repository.put("GET:/a", response(10));
+        repository.put("GET:/expired", CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of())
+                .body(new byte[10])
+                .cachedAt(Instant.now().minusSeconds(10))
+                .expiresAt(Instant.now().minusSeconds(1))
+                .build());
+
+        assertTrue(repository.get("GET:/a").isPresent());
+        assertTrue(repository.get("GET:/a").isPresent());
+        assertTrue(repository.get("GET:/b").isEmpty());
+        assertTrue(repository.get("GET:/expired").isEmpty());
+
+        ResponseCacheStats stats = repository.getStats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(0.5, stats.getHitRatio());
+        assertEquals(1, stats.getEntryCount());
+    }
+
+    @Test
+    void testStaleResponseKeptUntilStaleWindowEnds() {
+        repository = new InMemoryResponseCacheRepository(100, Long.MAX_VALUE);
+        Instant now = Instant.now();
+        repository.put("GET:/stale", CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of())
+                .body(new byte[10])
+                .cachedAt(now.minusSeconds(20))
+                .expiresAt(now.minusSeconds(10))
+                .staleIfErrorSeconds(60)
+                .build());
+        repository.put("GET:/gone", CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of())
+                .body(new byte[10])
+                .cachedAt(now.minusSeconds(120))
+                .expiresAt(now.minusSeconds(90))
+                .staleIfErrorSeconds(60)
+                .build());
+
+        repository.cleanupExpired();
+
+        assertTrue(repository.get("GET:/stale").isPresent());
+        assertTrue(repository.get("GET:/gone").isEmpty());
+        assertEquals(1, repository.getStats().getEntryCount());
+    }
+
+    @Test
+    void testEvictByPatternAndClear() {
+        repository = new InMemoryResponseCacheRepository(100, Long.MAX_VALUE);
+        repository.put("GET:/users/1", response(10));
+        repository.put("GET:/users/2", response(10));
+        repository.put("GET:/orders/1", response(10));
+
+        repository.evictByPattern("GET:/users/*");
+        assertTrue(repository.get("GET:/users/1").isEmpty());
+        assertTrue(repository.get("GET:/orders/1").isPresent());
+        assertEquals(1, repository.getStats().getEntryCount());
+
+        repository.clear();
+        assertTrue(repository.get("GET:/orders/1").isEmpty());
+        assertEquals(0, repository.getStats().getTotalBytes());
+
+        // 비운 뒤에도 정상 동작
+        repository.put("GET:/orders/1", response(10));
+        assertTrue(repository.get("GET:/orders/1").isPresent());
+    }
+
+    @Test
+    void testEvictByTag() {
+        repository = new InMemoryResponseCacheRepository(100, Long.MAX_VALUE);
+        repository.put("GET:/products/1", tagged("product-1", "catalog"));
+        repository.put("GET:/products/1?view=full", tagged("product-1"));
+        repository.put("GET:/products/2", tagged("product-2", "catalog"));
+
+        repository.evictByTag("product-1");
+        assertTrue(repository.get("GET:/products/1").isEmpty());
+        assertTrue(repository.get("GET:/products/1?view=full").isEmpty());
+        assertTrue(repository.get("GET:/products/2").isPresent());
+
+        // 갱신된 응답은 새 태그로만 색인
+        repository.put("GET:/products/2", tagged("product-2"));
+        repository.evictByTag("catalog");
+        assertTrue(repository.get("GET:/products/2").isPresent());
+
+        repository.evictByTag("product-2");
+        repository.evictByTag("unknown");
+        assertEquals(0, repository.getStats().getEntryCount());
+    }
+
+    @Test
+    void testEvictByPrefix() {
+        repository = new InMemoryResponseCacheRepository(100, Long.MAX_VALUE);
+        repository.put("GET:/products/1", response(10));
+        repository.put("GET:/products/1?view=full", response(10));
+        repository.put("GET:/products/10", response(10));
+        repository.put("GET:/products/2", response(10));
+        repository.put("HEAD:/products/1", response(10));
+
+        repository.evictByPrefix("GET:/products/1");
+        assertTrue(repository.get("GET:/products/1").isEmpty());
+        assertTrue(repository.get("GET:/products/1?view=full").isEmpty());
+        assertTrue(repository.get("GET:/products/10").isEmpty());
+        assertTrue(repository.get("GET:/products/2").isPresent());
+        assertTrue(repository.get("HEAD:/products/1").isPresent());
+
+        // 와일드카드 앞 고정 접두사로 후보를 좁혀도 패턴 결과는 같음
+        repository.put("GET:/products/1", response(10));
+        repository.evictByPattern("GET:/products/?");
+        assertTrue(repository.get("GET:/products/1").isEmpty());
+        assertTrue(repository.get("GET:/products/2").isEmpty());
+        assertTrue(repository.get("HEAD:/products/1").isPresent());
+    }
+
+    @Test
+    void testEvictedEntriesLeaveIndex() {
+        repository = new InMemoryResponseCacheRepository(10, Long.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            repository.put("GET:/items/" + i, tagged("items"));
+        }
+
+        // 용량 때문에 빠진 항목은 무효화 대상에서도 빠짐
+        repository.evictByTag("items");
+        assertEquals(0, repository.getStats().getEntryCount());
+
+        repository.put("GET:/items/1", response(10));
+        repository.evictByTag("items");
+        assertTrue(repository.get("GET:/items/1").isPresent());
+    }
+
+    @Test
+    void testOffHeapBodiesRoundTrip() {
+        OffHeapBodyStore store = OffHeapBodyStore.direct(1024 * 1024, 1024, 64 * 1024);
+        repository = new InMemoryResponseCacheRepository(100, store);
+
+        byte[] body = new byte[2500];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        repository.put("GET:/items/1", response(body));
+
+        CachedResponse cached = repository.get("GET:/items/1").orElseThrow();
+        assertArrayEquals(body, cached.getBody());
+        assertEquals("application/json", cached.getContentType());
+
+        // 블록 단위로 계산 (2500바이트 -> 1KB 블록 3개)
+        assertEquals(3072, repository.getStats().getTotalBytes());
+        assertEquals(3072, store.getUsedBytes());
+
+        // 갱신하면 이전 바디의 블록은 반환
+        repository.put("GET:/items/1", response(new byte[100]));
+        assertEquals(1024, store.getUsedBytes());
+        assertEquals(100, repository.get("GET:/items/1").orElseThrow().getBody().length);
+    }
+
+    @Test
+    void testOffHeapBudgetIsBounded() {
+        OffHeapBodyStore store = OffHeapBodyStore.direct(100 * 1024, 1024, 16 * 1024);
+        repository = new InMemoryResponseCacheRepository(1000, store);
+
+        for (int i = 0; i < 500; i++) {
+            repository.put("GET:/items/" + i, response(new byte[1000]));
+        }
+
+        ResponseCacheStats stats = repository.getStats();
+        assertTrue(store.getUsedBytes() <= store.getCapacityBytes());
+        assertEquals(stats.getTotalBytes(), store.getUsedBytes());
+        assertEquals(500, stats.getEntryCount() + stats.getEvictionCount() + stats.getAdmissionRejectionCount());
+
+        // 응답 하나는 용량의 1% (블록 하나 이상)까지
+        repository.put("GET:/large", response(new byte[2048]));
+        assertTrue(repository.get("GET:/large").isEmpty());
+
+        repository.clear();
+        assertEquals(0, store.getUsedBytes());
+    }
+
+    /**
+     * 필터와 같은 순서로 조회 후 MISS면 저장
+     */
+    private void fetch(String key) {
+        if (repository.get(key).isEmpty()) {
+            repository.put(key, response(10));
+        }
+    }
+
+    private static CachedResponse response(int bodySize) {
+        return response(new byte[bodySize]);
+    }
+
+    private static CachedResponse tagged(String... tags) {
+        return response(10).toBuilder().tags(Set.of(tags)).build();
+    }
+
+    private static CachedResponse response(byte[] body) {
+        Instant now = Instant.now();
+        return CachedResponse.builder()
+                .statusCode(200)
+                .headers(Map.of())
+                .body(body)
+                .contentType("application/json")
+                .cachedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.eraf.gateway.cache.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBodyStoreTest {
+
+    @Test
+    void testBodiesSpanBlocksAndSlabs() {
+        try (OffHeapBodyStore store = OffHeapBodyStore.direct(64 * 1024, 1024, 4 * 1024)) {
+            byte[] first = randomBody(5000, 1);
+            byte[] second = randomBody(9000, 2);
+
+            OffHeapBodyStore.Handle a = store.write(first);
+            OffHeapBodyStore.Handle b = store.write(second);
+
+            assertArrayEquals(first, store.read(a));
+            assertArrayEquals(second, store.read(b));
+            assertEquals(5 * 1024 + 9 * 1024, store.getUsedBytes());
+        }
+    }
+
+    @Test
+    void testFreedBlocksAreReused() {
+        try (OffHeapBodyStore store = OffHeapBodyStore.direct(4 * 1024, 1024, 4 * 1024)) {
+            OffHeapBodyStore.Handle a = store.write(new byte[3000]);
+            assertNull(store.write(new byte[2000]));
+
+            store.free(a);
+            store.free(a);
+            assertNull(store.read(a));
+            assertEquals(0, store.getUsedBytes());
+
+            byte[] body = randomBody(4096, 3);
+            OffHeapBodyStore.Handle b = store.write(body);
+            assertNotNull(b);
+            assertArrayEquals(body, store.read(b));
+        }
+    }
+
+    @Test
+    void testMappedFileStore() throws Exception {
+        Path directory = Files.createTempDirectory("response-cache-test");
+        try (OffHeapBodyStore store = OffHeapBodyStore.mappedFile(directory, 32 * 1024, 1024, 8 * 1024)) {
+            byte[] body = randomBody(20_000, 4);
+            OffHeapBodyStore.Handle handle = store.write(body);
+
+            assertArrayEquals(body, store.read(handle));
+            assertEquals(20 * 1024, store.weigh(body.length));
+        }
+    }
+
+    private static byte[] randomBody(int length, long seed) {
+        byte[] body = new byte[length];
+        new Random(seed).nextBytes(body);
+        return body;
+    }
+}
@@ -0,0 +1,319 @@
+package com.eraf.gateway.cache.repository;
+
+import com.eraf.gateway.cache.domain.CachedResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoTierResponseCacheRepositoryTest {
+
+    private final InProcessRedis redis = new InProcessRedis();
+    private final List<TwoTierResponseCacheRepository> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(TwoTierResponseCacheRepository::shutdown);
+    }
+
+    @Test
+    void testSharedTierServesOtherNodes() {
+        TwoTierResponseCacheRepository a = node(100);
+        TwoTierResponseCacheRepository b = node(100);
+
+        a.put("GET:/products/1", response("product-1", 200, "product-1"));
+
+        CachedResponse cached = b.get("GET:/products/1").orElseThrow();
+        assertEquals("product-1", new String(cached.getBody(), StandardCharsets.UTF_8));
+        assertEquals(Set.of("product-1"), cached.getTags());
+        assertEquals(1, b.getSharedHitCount());
+
+        // 두 번째 조회는 로컬 계층에서
+        assertTrue(b.get("GET:/products/1").isPresent());
+        assertEquals(1, b.getSharedHitCount());
+        assertEquals(1, b.getLocalStats().getEntryCount());
+    }
+
+    @Test
+    void testInvalidationReachesEveryNode() {
+        TwoTierResponseCacheRepository a = node(100);
+        TwoTierResponseCacheRepository b = node(100);
+        a.put("GET:/products/1", response("v1", 200, "product-1"));
+        a.put("GET:/products/2", response("v1", 200, "product-2"));
+        a.put("GET:/orders/1", response("v1", 200));
+        assertTrue(b.get("GET:/products/1").isPresent());
+        assertTrue(b.get("GET:/products/2").isPresent());
+        assertTrue(b.get("GET:/orders/1").isPresent());
+
+        a.evictByTag("product-1");
+        assertTrue(b.get("GET:/products/1").isEmpty());
+        assertTrue(b.get("GET:/products/2").isPresent());
+
+        b.evictByPrefix("GET:/products/");
+        assertTrue(a.get("GET:/products/2").isEmpty());
+
+        a.clear();
+        assertTrue(b.get("GET:/orders/1").isEmpty());
+        assertEquals(0, redis.values.size());
+        assertTrue(b.getInvalidationsReceived() >= 2);
+    }
+
+    @Test
+    void testPutReplacesOtherNodesLocalCopy() {
+        TwoTierResponseCacheRepository a = node(100);
+        TwoTierResponseCacheRepository b = node(100);
+
+        a.put("GET:/products/1", response("v1", 200));
+        assertEquals("v1", body(b.get("GET:/products/1").orElseThrow()));
+
+        // 다른 노드가 갱신하면 로컬에 있던 이전 응답 대신 공유 계층의 새 응답
+        a.put("GET:/products/1", response("v2", 200).toBuilder().cachedAt(Instant.now().plusMillis(1)).build());
+        assertEquals("v2", body(b.get("GET:/products/1").orElseThrow()));
+    }
+
+    @Test
+    void testFirstFillIsNotBroadcast() {
+        TwoTierResponseCacheRepository a = node(100);
+        TwoTierResponseCacheRepository b = node(100);
+
+        for (int i = 0; i < 10; i++) {
+            a.put("GET:/items/" + i, response("item-" + i, 200));
+        }
+        assertTrue(b.get("GET:/items/0").isPresent());
+        b.put("GET:/items/100", response("item-100", 200));
+
+        // 처음 채우는 응답은 다른 노드의 로컬 계층에 없으므로 메시지를 보내지 않음
+        assertEquals(0, a.getInvalidationsReceived());
+        assertEquals(0, b.getInvalidationsReceived());
+        assertEquals(1, b.getSharedHitCount());
+        assertTrue(b.get("GET:/items/0").isPresent());
+        assertEquals(1, b.getSharedHitCount());
+    }
+
+    @Test
+    void testUnrelatedInvalidationKeepsLocalFill() {
+        TwoTierResponseCacheRepository a = node(100);
+        TwoTierResponseCacheRepository b = node(100);
+        a.put("GET:/products/1", response("v1", 200, "product-1"));
+        a.put("GET:/orders/1", response("v1", 200));
+
+        assertTrue(b.get("GET:/products/1").isPresent());
+        a.evictByPrefix("GET:/orders/");
+        a.evictByTag("order-1");
+        a.evict("GET:/orders/2");
+
+        // 관계없는 무효화 후에도 로컬에 채운 응답을 그대로 사용
+        assertTrue(b.get("GET:/products/1").isPresent());
+        assertEquals(1, b.getSharedHitCount());
+    }
+
+    @Test
+    void testValuesLeftByPendingPurgeAreMisses() {
+        TwoTierResponseCacheRepository a = node(100);
+        TwoTierResponseCacheRepository b = node(100);
+        a.put("GET:/products/1", response("v1", 200));
+        a.put("GET:/orders/1", response("v1", 200));
+        redis.deferPurges = true;
+
+        a.evictByPrefix("GET:/products/");
+
+        // 공유 계층 정리가 끝나기 전이어도 무효화 전에 저장된 값은 MISS
+        assertEquals(2, redis.values.size());
+        assertTrue(b.get("GET:/products/1").isEmpty());
+        assertTrue(a.get("GET:/products/1").isEmpty());
+        assertTrue(b.get("GET:/orders/1").isPresent());
+
+        // 무효화 후 새로 저장된 응답은 HIT
+        a.put("GET:/products/1", response("v2", 200).toBuilder().cachedAt(Instant.now().plusMillis(1)).build());
+        assertEquals("v2", body(b.get("GET:/products/1").orElseThrow()));
+    }
+
+    @Test
+    void testLocalTierIsBoundedAndSharedTierKeepsEverything() {
+        TwoTierResponseCacheRepository a = node(10);
+        TwoTierResponseCacheRepository b = node(10);
+
+        for (int i = 0; i < 100; i++) {
+            a.put("GET:/items/" + i, response("item-" + i, 200));
+        }
+
+        assertTrue(a.getLocalStats().getEntryCount() <= 10);
+        assertEquals(100, redis.values.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("item-" + i, body(b.get("GET:/items/" + i).orElseThrow()));
+        }
+        assertTrue(b.getLocalStats().getEntryCount() <= 10);
+    }
+
+    @Test
+    void testSharedValuesAreCompressed() {
+        TwoTierResponseCacheRepository a = node(100);
+        String json = "{\"name\":\"item\",\"price\":1000},".repeat(500);
+
+        a.put("GET:/catalog", response(json, 200));
+
+        byte[] stored = redis.values.get("GET:/catalog").value;
+        assertTrue(stored.length < json.length() / 10, "stored " + stored.length);
+        assertEquals(json, body(node(100).get("GET:/catalog").orElseThrow()));
+    }
+
+    @Test
+    void testNotFoundResponsesAreShared() {
+        TwoTierResponseCacheRepository a = node(100);
+        TwoTierResponseCacheRepository b = node(100);
+
+        a.put("GET:/products/404", response("not found", 404));
+
+        assertEquals(404, b.get("GET:/products/404").orElseThrow().getStatusCode());
+    }
+
+    @Test
+    void testExpiredSharedValuesAreMisses() {
+        TwoTierResponseCacheRepository a = node(100);
+        Instant past = Instant.now().minusSeconds(10);
+        a.put("GET:/expired", response("old", 200).toBuilder().cachedAt(past).expiresAt(past).build());
+
+        assertEquals(0, redis.values.size());
+        assertTrue(node(100).get("GET:/expired").isEmpty());
+    }
+
+    @Test
+    void testSharedTierFailureIsAMiss() {
+        TwoTierResponseCacheRepository a = node(100);
+        redis.values.put("GET:/corrupted", new InProcessRedis.Value(new byte[]{42}, Long.MAX_VALUE));
+
+        assertTrue(a.get("GET:/corrupted").isEmpty());
+        assertEquals(1, a.getSharedMissCount());
+    }
+
+    private TwoTierResponseCacheRepository node(int localEntries) {
+        TwoTierResponseCacheRepository node = new TwoTierResponseCacheRepository(
+                new InMemoryResponseCacheRepository(localEntries, Long.MAX_VALUE), redis.connect());
+        nodes.add(node);
+        return node;
+    }
+
+    private static String body(CachedResponse response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static CachedResponse response(String body, int status, String... tags) {
+        Instant now = Instant.now();
+        return CachedResponse.builder()
+                .statusCode(status)
+                .headers(Map.of())
+                .body(body.getBytes(StandardCharsets.UTF_8))
+                .contentType("application/json")
+                .cachedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .tags(tags.length > 0 ? Set.of(tags) : null)
+                .build();
+    }
+
+    /**
+     * Redis 공유 캐시 저장소와 같은 동작을 하는 프로세스 내 저장소
+     * (값 TTL, 태그 집합, 모든 구독자에게 동기 전달되는 pub/sub)
+     */
+    private static final class InProcessRedis {
+
+        private final Map<String, Value> values = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> tags = new ConcurrentHashMap<>();
+        private final List<Consumer<String>> subscribers = new CopyOnWriteArrayList<>();
+        private volatile boolean deferPurges;
+
+        SharedResponseCacheStore connect() {
+            return new Connection();
+        }
+
+        private static final class Value {
+            private final byte[] value;
+            private final long expiresAtNanos;
+
+            Value(byte[] value, long expiresAtNanos) {
+                this.value = value;
+                this.expiresAtNanos = expiresAtNanos;
+            }
+        }
+
+        private final class Connection implements SharedResponseCacheStore {
+
+            private final List<Consumer<String>> listeners = new ArrayList<>();
+
+            @Override
+            public byte[] get(String key) {
+                Value value = values.get(key);
+                if (value == null || value.expiresAtNanos - System.nanoTime() <= 0) {
+                    return null;
+                }
+                return value.value;
+            }
+
+            @Override
+            public boolean put(String key, byte[] value, Duration ttl, Set<String> tagSet) {
+                Value previous = values.put(key, new Value(value, System.nanoTime() + ttl.toNanos()));
+                if (tagSet != null) {
+                    tagSet.forEach(tag -> tags.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key));
+                }
+                return previous != null && previous.expiresAtNanos - System.nanoTime() > 0;
+            }
+
+            @Override
+            public void delete(String key) {
+                values.remove(key);
+            }
+
+            @Override
+            public void deleteByTag(String tag) {
+                Set<String> keys = tags.remove(tag);
+                if (keys != null) {
+                    keys.forEach(values::remove);
+                }
+            }
+
+            @Override
+            public void deleteByPrefix(String prefix) {
+                // 백그라운드 정리가 아직 끝나지 않은 상태 재현
+                if (!deferPurges) {
+                    values.keySet().removeIf(key -> key.startsWith(prefix));
+                }
+            }
+
+            @Override
+            public void deleteByPattern(String pattern) {
+                Pattern regex = Pattern.compile(pattern.replace("*", ".*").replace("?", "."));
+                values.keySet().removeIf(key -> regex.matcher(key).matches());
+            }
+
+            @Override
+            public void clear() {
+                values.clear();
+                tags.clear();
+            }
+
+            @Override
+            public void publish(String message) {
+                subscribers.forEach(subscriber -> subscriber.accept(message));
+            }
+
+            @Override
+            public void subscribe(Consumer<String> listener) {
+                listeners.add(listener);
+                subscribers.add(listener);
+            }
+
+            @Override
+            public void close() {
+                subscribers.removeAll(listeners);
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.eraf.gateway.loadbalancer.algorithm;
+
+import com.eraf.gateway.loadbalancer.domain.Server;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Consistent Hash load balancer.
+ * Maps keys onto a ketama-style hash ring with virtual nodes, so adding or removing
+ * one server only remaps the keys that server owned (about 1/n of them).
+ * Each server gets {@code virtualNodes * weight} points on the ring (fewer while its weight
+ * ramps up after recovery).
+ * <p>
+ * With a balance factor above 1, bounded-load consistent hashing is applied: a server
+ * already holding more than {@code balanceFactor} times its fair share of active
+ * connections is skipped, and the key moves on clockwise to the next server. The total
+ * comes from a running counter (the upstream's) when one is given, otherwise from the ring's servers.
+ * <p>
+ * Rings are built once per server list. When the healthy set changes, the new ring is
+ * derived from the previous one: points of unchanged servers are kept and only added or
+ * re-weighted servers are hashed. Lookup is a binary search and does not allocate.
+ */
+@Slf4j
+public class ConsistentHashLoadBalancer implements LoadBalancer {
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    /**
+     * Upper bound of points per server, whatever its weight.
+     */
+    static final int MAX_POINTS_PER_SERVER = 1 << 14;
+
+    private final int virtualNodes;
+    private final double balanceFactor;
+    private final IntSupplier totalConnections;
+    private final ServerListCache<Ring> rings = new ServerListCache<>();
+
+    /**
+     * Most recently built ring, the base for incremental rebuilds.
+     */
+    private volatile Ring lastRing = Ring.EMPTY;
+
+    public ConsistentHashLoadBalancer() {
+        this(DEFAULT_VIRTUAL_NODES, 0);
+    }
+
+    /**
+     * @param virtualNodes Ring points per unit of server weight
+     * @param balanceFactor Bounded-load factor (e.g. 1.25), or 0 to disable
+     */
+    public ConsistentHashLoadBalancer(int virtualNodes, double balanceFactor) {
+        this(virtualNodes, balanceFactor, null);
+    }
+
+    /**
+     * @param virtualNodes Ring points per unit of server weight
+     * @param balanceFactor Bounded-load factor (e.g. 1.25), or 0 to disable
+     * @param totalConnections Running total of active connections for bounded load,
+     *                         or null to sum the ring's servers on every lookup
+     */
+    public ConsistentHashLoadBalancer(int virtualNodes, double balanceFactor, IntSupplier totalConnections) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        if (balanceFactor != 0 && balanceFactor < 1) {
+            throw new IllegalArgumentException("balanceFactor must be 0 (disabled) or at least 1: " + balanceFactor);
+        }
+        this.virtualNodes = virtualNodes;
+        this.balanceFactor = balanceFactor;
+        this.totalConnections = totalConnections;
+    }
+
+    @Override
+    public Server selectServer(List<Server> servers, String key) {
+        if (servers == null || servers.isEmpty()) {
+            log.warn("No servers available for load balancing");
+            return null;
+        }
+
+        if (servers.size() == 1) {
+            return servers.get(0);
+        }
+
+        if (key == null || key.isEmpty()) {
+            log.warn("Hash key not available, falling back to first server");
+            return servers.get(0);
+        }
+
+        Ring ring = rings.get(servers, this::buildRing);
+        int hash = hash(key);
+        if (balanceFactor <= 0) {
+            return ring.lookup(hash);
+        }
+        long total = totalConnections != null ? totalConnections.getAsInt() : ring.totalConnections();
+        return ring.lookupBounded(hash, balanceFactor, total);
+    }
+
+    @Override
+    public void reset() {
+        // Keep lastRing: it is the base for rebuilding incrementally
+        rings.clear();
+    }
+
+    private synchronized Ring buildRing(List<Server> servers) {
+        Ring ring = Ring.build(lastRing, servers, virtualNodes);
+        lastRing = ring;
+        return ring;
+    }
+
+    /**
+     * 32-bit FNV-1a over the string's chars, finished with the murmur3 mixer.
+     * Stable across JVMs, so every gateway instance maps a key to the same server.
+     */
+    static int hash(String key) {
+        int hash = 0x811c9dc5;
+        for (int i = 0, length = key.length(); i < length; i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x01000193;
+        }
+        return mix(hash);
+    }
+
+    private static int pointHash(int serverHash, int point) {
+        return mix(serverHash + point * 0x9e3779b9);
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Immutable hash ring.
+     * Each point packs its hash (high 32 bits) and the owning server's index (low 32 bits),
+     * so sorting points orders them around the ring.
+     */
+    static final class Ring {
+        private static final long HASH_MASK = 0xFFFFFFFF00000000L;
+        static final Ring EMPTY = new Ring(new long[0], new Server[0], new int[0]);
+
+        private final long[] points;
+        private final Server[] servers;
+        private final int[] pointCounts;
+
+        private Ring(long[] points, Server[] servers, int[] pointCounts) {
+            this.points = points;
+            this.servers = servers;
+            this.pointCounts = pointCounts;
+        }
+
+        /**
+         * Build a ring for a server list, reusing the points of servers that are
+         * also on the previous ring with the same weight.
+         */
+        static Ring build(Ring previous, List<Server> serverList, int virtualNodes) {
+            Server[] servers = serverList.toArray(new Server[0]);
+            int[] pointCounts = new int[servers.length];
+            boolean anyWeight = false;
+            for (int i = 0; i < servers.length; i++) {
+                pointCounts[i] = pointCount(servers[i].getScaledWeight(), virtualNodes);
+                anyWeight |= pointCounts[i] > 0;
+            }
+            if (!anyWeight) {
+                Arrays.fill(pointCounts, virtualNodes);
+            }
+
+            // Map previous server indexes to new ones for servers whose points can be kept
+            Map<Server, Integer> newIndexes = new IdentityHashMap<>();
+            for (int i = 0; i < servers.length; i++) {
+                newIndexes.put(servers[i], i);
+            }
+            int[] remap = new int[previous.servers.length];
+            boolean[] reused = new boolean[servers.length];
+            for (int j = 0; j < remap.length; j++) {
+                Integer i = newIndexes.get(previous.servers[j]);
+                if (i != null && !reused[i] && pointCounts[i] == previous.pointCounts[j]) {
+                    remap[j] = i;
+                    reused[i] = true;
+                } else {
+                    remap[j] = -1;
+                }
+            }
+
+            long[] kept = new long[previous.points.length];
+            int keptCount = 0;
+            for (long point : previous.points) {
+                int index = remap[(int) point];
+                if (index >= 0) {
+                    kept[keptCount++] = (point & HASH_MASK) | index;
+                }
+            }
+
+            int addedCount = 0;
+            for (int i = 0; i < servers.length; i++) {
+                if (!reused[i]) {
+                    addedCount += pointCounts[i];
+                }
+            }
+            long[] added = new long[addedCount];
+            int k = 0;
+            for (int i = 0; i < servers.length; i++) {
+                if (reused[i] || pointCounts[i] == 0) {
+                    continue;
+                }
+                int serverHash = hash(servers[i].getAddress());
+                for (int point = 0; point < pointCounts[i]; point++) {
+                    added[k++] = ((long) pointHash(serverHash, point) << 32) | i;
+                }
+            }
+            Arrays.sort(added);
+
+            log.debug("Built hash ring for {} servers: kept {} points, hashed {} points",
+                    servers.length, keptCount, addedCount);
+            return new Ring(merge(kept, keptCount, added), servers, pointCounts);
+        }
+
+        Server lookup(int hash) {
+            return servers[(int) points[indexOf(hash)]];
+        }
+
+        /**
+         * Walk clockwise from the key's point to the first server under its load bound.
+         * The bound is proportional to the server's share of ring points (its weight).
+         */
+        Server lookupBounded(int hash, double balanceFactor, long totalConnections) {
+            double connectionsPerPoint = balanceFactor * (totalConnections + 1) / points.length;
+
+            int start = indexOf(hash);
+            for (int n = 0; n < points.length; n++) {
+                int index = (int) points[(start + n) % points.length];
+                Server server = servers[index];
+                if (server.getActiveConnections().get() < Math.ceil(connectionsPerPoint * pointCounts[index])) {
+                    return server;
+                }
+            }
+            return servers[(int) points[start]];
+        }
+
+        /**
+         * Sum of the active connections of the ring's servers.
+         */
+        long totalConnections() {
+            long total = 0;
+            for (Server server : servers) {
+                total += server.getActiveConnections().get();
+            }
+            return total;
+        }
+
+        int size() {
+            return points.length;
+        }
+
+        private int indexOf(int hash) {
+            int index = Arrays.binarySearch(points, (long) hash << 32);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index == points.length ? 0 : index;
+        }
+
+        /**
+         * Points for a weight scaled by the slow-start ramp.
+         */
+        private static int pointCount(long scaledWeight, int virtualNodes) {
+            if (scaledWeight <= 0) {
+                return 0;
+            }
+            long points = scaledWeight * virtualNodes / Server.SLOW_START_STEPS;
+            return (int) Math.max(1, Math.min(points, MAX_POINTS_PER_SERVER));
+        }
+
+        private static long[] merge(long[] a, int aLength, long[] b) {
+            long[] merged = new long[aLength + b.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < aLength && j < b.length) {
+                merged[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+            }
+            while (i < aLength) {
+                merged[k++] = a[i++];
+            }
+            while (j < b.length) {
+                merged[k++] = b[j++];
+            }
+            return merged;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.eraf.gateway.loadbalancer.algorithm;
 import com.eraf.gateway.loadbalancer.domain.Server;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -25,9 +24,17 @@ public class LeastConnectionsLoadBalancer implements LoadBalancer {
             return servers.get(0);
         }
 
-        // Find server with least active connections
-        return servers.stream()
-                .min(Comparator.comparingInt(s -> s.getActiveConnections().get()))
-                .orElse(null);
+        // Find server with least active connections (single pass, first one wins ties)
+        Server selected = servers.get(0);
+        int leastConnections = selected.getActiveConnections().get();
+        for (int i = 1, size = servers.size(); i < size; i++) {
+            Server server = servers.get(i);
+            int connections = server.getActiveConnections().get();
+            if (connections < leastConnections) {
+                selected = server;
+                leastConnections = connections;
+            }
+        }
+        return selected;
     }
 }
@@ -0,0 +1,58 @@
+package com.eraf.gateway.loadbalancer.algorithm;
+
+import com.eraf.gateway.loadbalancer.domain.Server;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices load balancer.
+ * Picks two distinct servers at random and routes to the less loaded one.
+ * Load is active connections relative to weight, so a server with weight 2
+ * is considered as loaded as a weight 1 server with half its connections.
+ * Weights follow the slow-start ramp of recovering servers.
+ * <p>
+ * Constant cost regardless of server count, and avoids the herd effect of
+ * least connections where every request races to the same idle server.
+ */
+@Slf4j
+public class P2CLeastLoadedLoadBalancer implements LoadBalancer {
+
+    @Override
+    public Server selectServer(List<Server> servers, String clientIp) {
+        if (servers == null || servers.isEmpty()) {
+            log.warn("No servers available for load balancing");
+            return null;
+        }
+
+        int size = servers.size();
+        if (size == 1) {
+            return servers.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        Server a = servers.get(first);
+        Server b = servers.get(second);
+        return isLessLoaded(b, a) ? b : a;
+    }
+
+    /**
+     * Compare (connections + 1) / weight of two servers without division.
+     */
+    private static boolean isLessLoaded(Server candidate, Server other) {
+        long candidateLoad = (candidate.getActiveConnections().get() + 1L) * weightOf(other);
+        long otherLoad = (other.getActiveConnections().get() + 1L) * weightOf(candidate);
+        return candidateLoad < otherLoad;
+    }
+
+    private static long weightOf(Server server) {
+        return Math.max(server.getScaledWeight(), 1);
+    }
+}
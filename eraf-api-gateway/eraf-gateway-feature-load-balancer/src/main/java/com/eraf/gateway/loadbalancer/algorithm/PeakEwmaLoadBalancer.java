@@ -0,0 +1,62 @@
+package com.eraf.gateway.loadbalancer.algorithm;
+
+import com.eraf.gateway.loadbalancer.domain.Server;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Peak EWMA load balancer.
+ * Picks two distinct servers at random and routes to the one with the lower load,
+ * where load is the server's peak-EWMA latency estimate multiplied by its outstanding
+ * requests, relative to weight.
+ * <p>
+ * A server that starts responding slowly has its estimate raised on the first slow
+ * response, so traffic shifts away without waiting for health checks. Servers without
+ * any latency sample yet are preferred while idle and penalized while busy, so new
+ * servers are probed without being flooded.
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements LoadBalancer {
+    /**
+     * Load of a busy server without latency samples (nanoseconds, ~16 minutes).
+     */
+    private static final double PENALTY = 1e12;
+
+    @Override
+    public Server selectServer(List<Server> servers, String clientIp) {
+        if (servers == null || servers.isEmpty()) {
+            log.warn("No servers available for load balancing");
+            return null;
+        }
+
+        int size = servers.size();
+        if (size == 1) {
+            return servers.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        long now = System.nanoTime();
+        Server a = servers.get(first);
+        Server b = servers.get(second);
+        return load(b, now) < load(a, now) ? b : a;
+    }
+
+    private static double load(Server server, long now) {
+        int active = server.getActiveConnections().get();
+        double load;
+        if (!server.getLatency().isSampled()) {
+            load = active == 0 ? 0.0 : PENALTY + active;
+        } else {
+            load = server.getLatency().getCost(now) * (active + 1);
+        }
+        return load / Math.max(server.getScaledWeight(), 1);
+    }
+}
@@ -0,0 +1,76 @@
+package com.eraf.gateway.loadbalancer.algorithm;
+
+import com.eraf.gateway.loadbalancer.domain.Server;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cache of per-server-list state, keyed by list identity.
+ * Routing snapshots hand out the same immutable list instances until server health
+ * changes, so a lookup is a reference comparison without hashing or allocation.
+ * Misses build the state and publish a new entry array (copy-on-write); the oldest
+ * entries are dropped beyond {@link #MAX_ENTRIES}.
+ */
+final class ServerListCache<T> {
+    private static final int MAX_ENTRIES = 8;
+
+    @SuppressWarnings("unchecked")
+    private volatile Entry<T>[] entries = new Entry[0];
+
+    /**
+     * Get the state for a server list, building it on first use.
+     */
+    T get(List<Server> servers, Function<List<Server>, T> builder) {
+        T state = find(entries, servers);
+        if (state != null) {
+            return state;
+        }
+
+        synchronized (this) {
+            Entry<T>[] current = entries;
+            state = find(current, servers);
+            if (state != null) {
+                return state;
+            }
+
+            state = builder.apply(servers);
+            int keep = Math.min(current.length, MAX_ENTRIES - 1);
+            @SuppressWarnings("unchecked")
+            Entry<T>[] next = new Entry[keep + 1];
+            next[0] = new Entry<>(servers, servers.size(), state);
+            System.arraycopy(current, 0, next, 1, keep);
+            entries = next;
+            return state;
+        }
+    }
+
+    /**
+     * Drop all cached state.
+     */
+    @SuppressWarnings("unchecked")
+    void clear() {
+        entries = new Entry[0];
+    }
+
+    private static <T> T find(Entry<T>[] entries, List<Server> servers) {
+        for (Entry<T> entry : entries) {
+            if (entry.servers == servers && entry.size == servers.size()) {
+                return entry.state;
+            }
+        }
+        return null;
+    }
+
+    private static final class Entry<T> {
+        private final List<Server> servers;
+        private final int size;
+        private final T state;
+
+        Entry(List<Server> servers, int size, T state) {
+            this.servers = servers;
+            this.size = size;
+            this.state = state;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.eraf.gateway.loadbalancer.algorithm;
 import com.eraf.gateway.loadbalancer.domain.Server;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -10,11 +11,20 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Weighted Round Robin load balancer.
  * Distributes requests based on server weights.
  * Higher weight means more requests.
+ * <p>
+ * Uses nginx's smooth weighted round-robin, which interleaves servers instead of
+ * sending bursts to the heaviest one (weights 5/1/1 give A A B A C A A, not A A A A A B C).
+ * The sequence is precomputed once per server list, so selection is a single atomic
+ * increment and an array lookup: lock-free and allocation-free.
  */
 @Slf4j
 public class WeightedRoundRobinLoadBalancer implements LoadBalancer {
-    private final AtomicInteger currentIndex = new AtomicInteger(0);
-    private final AtomicInteger currentWeight = new AtomicInteger(0);
+    /**
+     * Upper bound of the schedule length; larger weight sums are scaled down proportionally.
+     */
+    static final int MAX_SCHEDULE_LENGTH = 1 << 16;
+
+    private final ServerListCache<Schedule> schedules = new ServerListCache<>();
 
     @Override
     public Server selectServer(List<Server> servers, String clientIp) {
@@ -23,62 +33,104 @@ public class WeightedRoundRobinLoadBalancer implements LoadBalancer {
             return null;
         }
 
-        int size = servers.size();
-        if (size == 1) {
+        if (servers.size() == 1) {
             return servers.get(0);
         }
 
-        // Check if all weights are equal
-        int firstWeight = servers.get(0).getWeight();
-        boolean allEqual = servers.stream()
-                .allMatch(s -> s.getWeight() == firstWeight);
-
-        if (allEqual) {
-            // Fallback to simple round-robin if all weights are equal
-            int index = Math.abs(currentIndex.getAndIncrement() % size);
-            return servers.get(index);
-        }
+        Schedule schedule = schedules.get(servers, WeightedRoundRobinLoadBalancer::buildSchedule);
+        return servers.get(schedule.next());
+    }
 
-        // Smooth weighted round-robin algorithm
-        int maxWeight = servers.stream()
-                .mapToInt(Server::getWeight)
-                .max()
-                .orElse(1);
+    @Override
+    public void reset() {
+        schedules.clear();
+    }
 
-        int totalWeight = servers.stream()
-                .mapToInt(Server::getWeight)
-                .sum();
+    /**
+     * Precompute one full smooth weighted round-robin cycle.
+     * Weights (scaled by the slow-start ramp) are reduced by their greatest common divisor
+     * so the cycle is as short as possible. Servers with weight 0 are skipped, unless all
+     * weights are 0 (then all are treated as equal).
+     */
+    static Schedule buildSchedule(List<Server> servers) {
+        int size = servers.size();
+        int[] weights = new int[size];
+        int gcd = 0;
+        for (int i = 0; i < size; i++) {
+            weights[i] = (int) Math.min(Math.max(servers.get(i).getScaledWeight(), 0), Integer.MAX_VALUE);
+            gcd = gcd(gcd, weights[i]);
+        }
 
-        while (true) {
-            int index = currentIndex.get() % size;
-            int weight = currentWeight.get();
+        if (gcd == 0) {
+            Arrays.fill(weights, 1);
+            gcd = 1;
+        }
 
-            currentIndex.incrementAndGet();
-            weight++;
+        long totalWeight = 0;
+        for (int i = 0; i < size; i++) {
+            weights[i] /= gcd;
+            totalWeight += weights[i];
+        }
 
-            if (weight > maxWeight) {
-                weight = 0;
-                currentWeight.set(0);
-            } else {
-                currentWeight.set(weight);
+        if (totalWeight > MAX_SCHEDULE_LENGTH) {
+            long scaledTotal = 0;
+            for (int i = 0; i < size; i++) {
+                if (weights[i] > 0) {
+                    weights[i] = (int) Math.max(1, (long) weights[i] * MAX_SCHEDULE_LENGTH / totalWeight);
+                    scaledTotal += weights[i];
+                }
             }
+            log.debug("Weight sum {} exceeds schedule limit, scaled down to {}", totalWeight, scaledTotal);
+            totalWeight = scaledTotal;
+        }
 
-            Server server = servers.get(index);
-            if (weight <= server.getWeight()) {
-                return server;
+        int length = (int) totalWeight;
+        int[] order = new int[length];
+        int[] currentWeights = new int[size];
+        for (int slot = 0; slot < length; slot++) {
+            int best = -1;
+            for (int i = 0; i < size; i++) {
+                if (weights[i] == 0) {
+                    continue;
+                }
+                currentWeights[i] += weights[i];
+                if (best < 0 || currentWeights[i] > currentWeights[best]) {
+                    best = i;
+                }
             }
+            currentWeights[best] -= length;
+            order[slot] = best;
+        }
 
-            // Prevent infinite loop
-            if (currentIndex.get() > totalWeight * 2) {
-                log.warn("Failed to select server using weighted round-robin, falling back to first server");
-                return servers.get(0);
-            }
+        return new Schedule(order);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
         }
+        return a;
     }
 
-    @Override
-    public void reset() {
-        currentIndex.set(0);
-        currentWeight.set(0);
+    /**
+     * Precomputed server order for one weight cycle.
+     */
+    static final class Schedule {
+        private final int[] order;
+        private final AtomicInteger position = new AtomicInteger();
+
+        Schedule(int[] order) {
+            this.order = order;
+        }
+
+        int next() {
+            return order[(position.getAndIncrement() & Integer.MAX_VALUE) % order.length];
+        }
+
+        int length() {
+            return order.length;
+        }
     }
 }
@@ -36,6 +36,8 @@ public class LoadBalancerProperties {
 
     /**
      * Path patterns to exclude from load balancing.
+     * Regular expressions matched against the whole request URI, compiled once
+     * (replace the list to change them at runtime).
      */
     private List<String> excludePatterns = new ArrayList<>();
 
@@ -49,6 +51,11 @@ public class LoadBalancerProperties {
      */
     private int readTimeout = 30000;
 
+    /**
+     * Proxy configuration.
+     */
+    private ProxyProperties proxy = new ProxyProperties();
+
     /**
      * Health check properties.
      */
@@ -69,6 +76,11 @@ public class LoadBalancerProperties {
          */
         private Duration timeout = Duration.ofSeconds(5);
 
+        /**
+         * Maximum number of health checks in flight across all upstreams.
+         */
+        private int maxConcurrency = 64;
+
         /**
          * Health check path.
          */
@@ -125,4 +137,40 @@ public class LoadBalancerProperties {
          */
         private String versionHeader = "X-Canary-Version";
     }
+
+    /**
+     * Proxy properties.
+     */
+    @Data
+    public static class ProxyProperties {
+        /**
+         * Stream request and response bodies as byte chunks instead of
+         * buffering the whole payload as a String.
+         */
+        private boolean streaming = false;
+
+        /**
+         * Release the servlet thread while a streaming exchange is in flight
+         * (requires async-supported servlet filters).
+         */
+        private boolean asyncEnabled = true;
+
+        /**
+         * Chunk size used when reading the client request body.
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * Number of upstream chunks prefetched ahead of the servlet writer.
+         * Bounds the memory held per in-flight streaming exchange.
+         */
+        private int prefetch = 4;
+
+        /**
+         * Maximum threads doing blocking response writes when async mode is unavailable.
+         * Streams beyond this share the threads (their writes queue) instead of adding threads.
+         * Async streams do not use these threads.
+         */
+        private int blockingWriterThreads = 64;
+    }
 }
@@ -0,0 +1,61 @@
+package com.eraf.gateway.loadbalancer.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Connection pool configuration for upstream servers.
+ * Each server in an upstream gets its own pool built from these settings.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionPoolConfig {
+    /**
+     * Maximum number of connections per server.
+     */
+    @Builder.Default
+    private int maxConnections = 500;
+
+    /**
+     * Maximum number of requests waiting for a connection per server.
+     * Requests beyond this limit fail immediately instead of queueing.
+     */
+    @Builder.Default
+    private int pendingAcquireMaxCount = 1000;
+
+    /**
+     * Maximum time a request waits for a connection.
+     */
+    @Builder.Default
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Idle time after which a pooled connection is closed.
+     */
+    @Builder.Default
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Maximum lifetime of a pooled connection.
+     */
+    @Builder.Default
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    /**
+     * Interval for background eviction of idle and expired connections.
+     */
+    @Builder.Default
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    /**
+     * Enable HTTP and TCP keep-alive.
+     */
+    @Builder.Default
+    private boolean keepAlive = true;
+}
@@ -0,0 +1,27 @@
+package com.eraf.gateway.loadbalancer.domain;
+
+/**
+ * Request attribute used as the key for consistent hashing.
+ * When the configured attribute is missing from a request, the client IP is used instead.
+ */
+public enum HashOn {
+    /**
+     * Client IP address (X-Forwarded-For, X-Real-IP or remote address).
+     */
+    IP,
+
+    /**
+     * Value of a request header (see {@link Upstream#getHashOnHeader()}).
+     */
+    HEADER,
+
+    /**
+     * Value of a cookie (see {@link Upstream#getHashOnCookie()}).
+     */
+    COOKIE,
+
+    /**
+     * Subject ("sub") claim of the validated JWT.
+     */
+    JWT_SUBJECT
+}
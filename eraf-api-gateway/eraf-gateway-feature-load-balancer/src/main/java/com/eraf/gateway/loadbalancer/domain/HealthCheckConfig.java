@@ -28,6 +28,13 @@ public class HealthCheckConfig {
     @Builder.Default
     private Duration interval = Duration.ofSeconds(10);
 
+    /**
+     * Random spread of the interval (0.0 to 1.0).
+     * Each round runs after {@code interval * (1 ± jitter)}, so upstreams do not check in lockstep.
+     */
+    @Builder.Default
+    private double jitter = 0.1;
+
     /**
      * Health check timeout.
      */
@@ -65,17 +72,24 @@ public class HealthCheckConfig {
     private boolean passiveEnabled = true;
 
     /**
-     * Number of consecutive failures in actual traffic to mark server as unhealthy.
+     * Number of consecutive failures in actual traffic to eject a server.
      */
     @Builder.Default
     private int passiveUnhealthyThreshold = 5;
 
     /**
      * Time window for passive health checks.
+     * Consecutive failures further apart than this do not add up.
      */
     @Builder.Default
     private Duration passiveWindow = Duration.ofMinutes(1);
 
+    /**
+     * Outlier detection settings for passive health checks.
+     */
+    @Builder.Default
+    private OutlierDetectionConfig outlierDetection = OutlierDetectionConfig.builder().build();
+
     /**
      * Check if given HTTP status code is expected.
      */
@@ -0,0 +1,84 @@
+package com.eraf.gateway.loadbalancer.domain;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Peak-sensitive exponentially weighted moving average of response latency.
+ * <p>
+ * A sample above the current estimate replaces it immediately (peak), so a server that
+ * turns slow is penalized on its first slow response. Samples below the estimate are
+ * blended in with a weight that depends on the time since the previous sample, and
+ * reads decay the estimate the same way, so a server that was slow is tried again
+ * after roughly one decay time.
+ * <p>
+ * Lock-free: the estimate is updated with a CAS loop. The timestamp is written after
+ * the estimate, so a concurrent update may decay from a slightly stale time.
+ */
+public class LatencyEstimator {
+    public static final Duration DEFAULT_DECAY_TIME = Duration.ofSeconds(10);
+
+    private final double decayNanos;
+    private final AtomicLong costBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    private volatile long stamp = System.nanoTime();
+    private volatile boolean sampled;
+
+    public LatencyEstimator() {
+        this(DEFAULT_DECAY_TIME);
+    }
+
+    public LatencyEstimator(Duration decayTime) {
+        this.decayNanos = decayTime.toNanos();
+    }
+
+    /**
+     * Record the latency of a completed request.
+     */
+    public void observe(long latencyNanos) {
+        observe(latencyNanos, System.nanoTime());
+    }
+
+    /**
+     * Record a latency sample taken at {@code nowNanos}.
+     */
+    public void observe(long latencyNanos, long nowNanos) {
+        double latency = Math.max(latencyNanos, 0);
+        while (true) {
+            long bits = costBits.get();
+            double cost = Double.longBitsToDouble(bits);
+            double next = latency > cost ? latency : blend(cost, latency, nowNanos);
+            if (costBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                stamp = nowNanos;
+                sampled = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the current estimate in nanoseconds, decayed to now.
+     */
+    public double getCost() {
+        return getCost(System.nanoTime());
+    }
+
+    /**
+     * Get the estimate in nanoseconds, decayed to {@code nowNanos}.
+     */
+    public double getCost(long nowNanos) {
+        return blend(Double.longBitsToDouble(costBits.get()), 0.0, nowNanos);
+    }
+
+    /**
+     * Check if at least one sample was recorded.
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    private double blend(double cost, double sample, long nowNanos) {
+        long elapsed = Math.max(nowNanos - stamp, 0);
+        double weight = Math.exp(-elapsed / decayNanos);
+        return cost * weight + sample * (1.0 - weight);
+    }
+}
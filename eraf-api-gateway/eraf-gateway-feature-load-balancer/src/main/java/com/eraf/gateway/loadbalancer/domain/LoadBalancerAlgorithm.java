@@ -32,5 +32,24 @@ public enum LoadBalancerAlgorithm {
      * IP Hash - Routes based on client IP address hash.
      * Provides sticky sessions for same client IP.
      */
-    IP_HASH
+    IP_HASH,
+
+    /**
+     * Consistent Hash - Routes based on a configurable request key (IP, header, cookie, JWT subject)
+     * using a weighted hash ring. Adding or removing a server only remaps that server's keys.
+     */
+    CONSISTENT_HASH,
+
+    /**
+     * Power of Two Choices - Picks two random servers and routes to the less loaded one.
+     * Load-aware at constant cost, suited to large upstreams.
+     */
+    P2C_LEAST_LOADED,
+
+    /**
+     * Peak EWMA - Picks two random servers and routes to the one with the lower
+     * latency estimate times outstanding requests. Moves traffic away from slow servers
+     * as soon as they respond slowly.
+     */
+    PEAK_EWMA
 }
@@ -0,0 +1,68 @@
+package com.eraf.gateway.loadbalancer.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Outlier detection configuration (passive health checks).
+ * Servers whose recent traffic fails or slows down too much are ejected for a while,
+ * then brought back with a slow-start weight ramp.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutlierDetectionConfig {
+    /**
+     * Number of most recent requests per server used for failure rate and latency.
+     */
+    @Builder.Default
+    private int windowSize = 100;
+
+    /**
+     * Minimum number of requests in the window before rate and latency ejection apply.
+     */
+    @Builder.Default
+    private int minimumRequests = 20;
+
+    /**
+     * Failure rate in the window (0.0 to 1.0) at which a server is ejected.
+     */
+    @Builder.Default
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * Mean latency in the window at which a server is ejected (null disables latency ejection).
+     */
+    private Duration latencyThreshold;
+
+    /**
+     * Ejection time for the first ejection; doubled on every further ejection.
+     */
+    @Builder.Default
+    private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+    /**
+     * Upper bound of the ejection time. A server that stays in for this long
+     * has its ejection backoff reset.
+     */
+    @Builder.Default
+    private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+    /**
+     * Maximum percentage of an upstream's servers ejected at the same time, rounded down.
+     * The last available server is never ejected.
+     */
+    @Builder.Default
+    private int maxEjectionPercent = 50;
+
+    /**
+     * Time over which a restored server ramps from 10% to 100% of its weight (zero disables).
+     */
+    @Builder.Default
+    private Duration slowStartDuration = Duration.ofSeconds(30);
+}
@@ -0,0 +1,94 @@
+package com.eraf.gateway.loadbalancer.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Retry and hedging configuration for proxied requests of an upstream.
+ * Only idempotent methods are retried or hedged, always on a different server,
+ * and retries plus hedges are limited by a budget relative to the upstream's traffic.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryConfig {
+    /**
+     * Maximum number of retries per request (0 disables retries).
+     */
+    @Builder.Default
+    private int maxRetries = 0;
+
+    /**
+     * Upstream status codes that trigger a retry.
+     */
+    @Builder.Default
+    private Set<Integer> retryOnStatuses = Set.of(502, 503, 504);
+
+    /**
+     * Retry requests that got no upstream response (connect error, timeout).
+     */
+    @Builder.Default
+    private boolean retryOnConnectFailure = true;
+
+    /**
+     * HTTP methods that may be retried and hedged.
+     */
+    @Builder.Default
+    private Set<String> idempotentMethods = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE");
+
+    /**
+     * Send a hedged request to a second server when the first has not answered
+     * within the upstream's p95 latency.
+     */
+    @Builder.Default
+    private boolean hedgingEnabled = false;
+
+    /**
+     * Hedge delay used until enough latencies have been observed for a p95 (null: no hedging until then).
+     */
+    private Duration hedgeDelay;
+
+    /**
+     * Lower bound of the hedge delay, so a very fast p95 does not double the traffic.
+     */
+    @Builder.Default
+    private Duration minHedgeDelay = Duration.ofMillis(10);
+
+    /**
+     * Retries plus hedges allowed, as a percentage of requests in the budget window.
+     */
+    @Builder.Default
+    private int budgetPercent = 20;
+
+    /**
+     * Retries plus hedges always allowed per second, so low-traffic upstreams can still retry.
+     */
+    @Builder.Default
+    private int minRetriesPerSecond = 10;
+
+    /**
+     * Window over which requests and retries are counted for the budget.
+     */
+    @Builder.Default
+    private Duration budgetWindow = Duration.ofSeconds(10);
+
+    /**
+     * Check if retries or hedging are configured.
+     */
+    public boolean isEnabled() {
+        return maxRetries > 0 || hedgingEnabled;
+    }
+
+    /**
+     * Check if requests with the given method may be retried and hedged.
+     */
+    public boolean isIdempotent(String method) {
+        return method != null && idempotentMethods.contains(method.toUpperCase());
+    }
+}
@@ -1,9 +1,12 @@
 package com.eraf.gateway.loadbalancer.domain;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.Instant;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -12,12 +15,21 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * Backend server in an upstream.
  * Represents a single server instance that can handle requests.
+ * <p>
+ * Changes that affect routing (health, ejection, weight, slow-start step) are reported
+ * to the server's {@link ServerStateListener}, so routing snapshots are rebuilt when
+ * the state changes instead of being checked on every request.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Server {
+    /**
+     * Number of steps of the slow-start weight ramp.
+     */
+    public static final int SLOW_START_STEPS = 10;
+
     /**
      * Server host (IP or hostname).
      */
@@ -41,6 +53,20 @@ public class Server {
     @Builder.Default
     private volatile boolean healthy = true;
 
+    /**
+     * Temporarily ejected by outlier detection.
+     * An ejected server receives no traffic, whatever its health status.
+     */
+    @Builder.Default
+    private volatile boolean ejected = false;
+
+    /**
+     * Current step of the slow-start weight ramp (1 to {@link #SLOW_START_STEPS}).
+     * The server receives {@code step / SLOW_START_STEPS} of its weight.
+     */
+    @Builder.Default
+    private volatile int slowStartStep = SLOW_START_STEPS;
+
     /**
      * Number of active connections.
      */
@@ -59,6 +85,12 @@ public class Server {
     @Builder.Default
     private AtomicLong failedRequests = new AtomicLong(0);
 
+    /**
+     * Response latency estimate, fed by proxied requests.
+     */
+    @Builder.Default
+    private LatencyEstimator latency = new LatencyEstimator();
+
     /**
      * Consecutive health check successes.
      */
@@ -91,11 +123,129 @@ public class Server {
      */
     private String[] tags;
 
+    /**
+     * Derived values and the state listener.
+     * Initialized here, so it is not part of the builder or the all-args constructor.
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final transient RuntimeState runtime = new RuntimeState();
+
     /**
      * Get server URL.
      */
     public String getUrl() {
-        return String.format("http://%s:%d", host, port);
+        String cached = runtime.url;
+        if (cached == null) {
+            cached = "http://" + getAddress();
+            runtime.url = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Get server address (host:port).
+     */
+    public String getAddress() {
+        String cached = runtime.address;
+        if (cached == null) {
+            cached = host + ":" + port;
+            runtime.address = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Set server host.
+     */
+    public void setHost(String host) {
+        this.host = host;
+        runtime.address = null;
+        runtime.url = null;
+    }
+
+    /**
+     * Set server port.
+     */
+    public void setPort(Integer port) {
+        this.port = port;
+        runtime.address = null;
+        runtime.url = null;
+    }
+
+    /**
+     * Set health status.
+     * Notifies the state listener when the status actually changes.
+     */
+    public void setHealthy(boolean healthy) {
+        if (this.healthy != healthy) {
+            this.healthy = healthy;
+            stateChanged();
+        }
+    }
+
+    /**
+     * Set server weight.
+     * Notifies the state listener so weight-based schedules are rebuilt.
+     */
+    public void setWeight(int weight) {
+        if (this.weight != weight) {
+            this.weight = weight;
+            stateChanged();
+        }
+    }
+
+    /**
+     * Set outlier ejection status.
+     * Notifies the state listener when the status actually changes.
+     */
+    public void setEjected(boolean ejected) {
+        if (this.ejected != ejected) {
+            this.ejected = ejected;
+            stateChanged();
+        }
+    }
+
+    /**
+     * Set slow-start step.
+     * Notifies the state listener when the step actually changes.
+     */
+    public void setSlowStartStep(int slowStartStep) {
+        int step = Math.max(1, Math.min(slowStartStep, SLOW_START_STEPS));
+        if (this.slowStartStep != step) {
+            this.slowStartStep = step;
+            stateChanged();
+        }
+    }
+
+    /**
+     * Set the listener notified of routing-relevant state changes, replacing any previous one.
+     * The listener runs on the thread that changed the state.
+     */
+    public void setStateListener(ServerStateListener listener) {
+        runtime.stateListener = listener;
+    }
+
+    private void stateChanged() {
+        ServerStateListener listener = runtime.stateListener;
+        if (listener != null) {
+            listener.onStateChanged(this);
+        }
+    }
+
+    /**
+     * Check if the server can receive traffic (healthy and not ejected).
+     */
+    public boolean isAvailable() {
+        return healthy && !ejected;
+    }
+
+    /**
+     * Get weight scaled by the slow-start ramp, in units of 1/{@link #SLOW_START_STEPS}.
+     * Equals {@code weight * SLOW_START_STEPS} once the ramp is complete.
+     */
+    public long getScaledWeight() {
+        return (long) weight * slowStartStep;
     }
 
     /**
@@ -113,6 +263,13 @@ public class Server {
         activeConnections.decrementAndGet();
     }
 
+    /**
+     * Record the response latency of a proxied request.
+     */
+    public void recordLatency(long latencyNanos) {
+        latency.observe(latencyNanos);
+    }
+
     /**
      * Record a failed request.
      */
@@ -173,4 +330,13 @@ public class Server {
         }
         return false;
     }
+
+    /**
+     * Runtime-only state of a server, kept out of the builder-visible model.
+     */
+    private static final class RuntimeState {
+        private volatile String address;
+        private volatile String url;
+        private volatile ServerStateListener stateListener;
+    }
 }
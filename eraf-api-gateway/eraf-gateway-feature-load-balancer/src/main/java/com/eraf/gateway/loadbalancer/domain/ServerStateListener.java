@@ -0,0 +1,15 @@
+package com.eraf.gateway.loadbalancer.domain;
+
+/**
+ * Listener for server state changes that affect routing.
+ * Registered on a {@link Server} through {@link Server#setStateListener(ServerStateListener)}.
+ */
+@FunctionalInterface
+public interface ServerStateListener {
+    /**
+     * Called after the server's health, ejection, weight or slow-start step changed.
+     *
+     * @param server Changed server
+     */
+    void onStateChanged(Server server);
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +36,13 @@ public class Upstream {
     @Builder.Default
     private List<Server> servers = new ArrayList<>();
 
+    /**
+     * Active connections across all servers, kept as a running total
+     * by {@link #incrementConnections(Server)} and {@link #decrementConnections(Server)}.
+     */
+    @Builder.Default
+    private AtomicInteger activeConnections = new AtomicInteger(0);
+
     /**
      * Health check configuration.
      */
@@ -59,6 +67,36 @@ public class Upstream {
     @Builder.Default
     private boolean stickySession = false;
 
+    /**
+     * Request attribute hashed by the CONSISTENT_HASH algorithm.
+     */
+    @Builder.Default
+    private HashOn hashOn = HashOn.IP;
+
+    /**
+     * Header name when hashing on a header.
+     */
+    private String hashOnHeader;
+
+    /**
+     * Cookie name when hashing on a cookie.
+     */
+    private String hashOnCookie;
+
+    /**
+     * Hash ring points per unit of server weight (CONSISTENT_HASH and IP_HASH).
+     */
+    @Builder.Default
+    private int hashVirtualNodes = 160;
+
+    /**
+     * Bounded-load factor for hash-based algorithms (e.g. 1.25).
+     * A server is skipped while it holds more than this multiple of its fair share of
+     * active connections. 0 disables the bound.
+     */
+    @Builder.Default
+    private double hashBalanceFactor = 0;
+
     /**
      * Connection timeout.
      */
@@ -71,6 +109,18 @@ public class Upstream {
     @Builder.Default
     private int readTimeout = 30000;
 
+    /**
+     * Connection pool configuration (applied per server).
+     */
+    @Builder.Default
+    private ConnectionPoolConfig connectionPool = ConnectionPoolConfig.builder().build();
+
+    /**
+     * Retry and hedging configuration for proxied requests.
+     */
+    @Builder.Default
+    private RetryConfig retry = RetryConfig.builder().build();
+
     /**
      * Get all healthy servers.
      */
@@ -120,13 +170,36 @@ public class Upstream {
                 .count();
     }
 
+    /**
+     * Get number of servers ejected by outlier detection.
+     */
+    public int getEjectedServerCount() {
+        return (int) servers.stream()
+                .filter(Server::isEjected)
+                .count();
+    }
+
+    /**
+     * Open a connection to one of this upstream's servers.
+     */
+    public void incrementConnections(Server server) {
+        server.incrementConnections();
+        activeConnections.incrementAndGet();
+    }
+
+    /**
+     * Close a connection opened with {@link #incrementConnections(Server)}.
+     */
+    public void decrementConnections(Server server) {
+        server.decrementConnections();
+        activeConnections.decrementAndGet();
+    }
+
     /**
      * Get total active connections across all servers.
      */
     public int getTotalActiveConnections() {
-        return servers.stream()
-                .mapToInt(server -> server.getActiveConnections().get())
-                .sum();
+        return activeConnections.get();
     }
 
     /**
@@ -1,139 +1,250 @@
 package com.eraf.gateway.loadbalancer.filter;
 
-import com.eraf.gateway.core.filter.GatewayFilter;
-import com.eraf.gateway.core.filter.GatewayFilterChain;
-import com.eraf.gateway.core.route.RouteContext;
+import com.eraf.gateway.common.filter.FilterOrder;
+import com.eraf.gateway.common.filter.GatewayFilter;
 import com.eraf.gateway.loadbalancer.config.LoadBalancerProperties;
+import com.eraf.gateway.loadbalancer.domain.LoadBalancerAlgorithm;
 import com.eraf.gateway.loadbalancer.domain.Server;
 import com.eraf.gateway.loadbalancer.domain.Upstream;
-import com.eraf.gateway.loadbalancer.health.PassiveHealthChecker;
 import com.eraf.gateway.loadbalancer.proxy.HttpProxyClient;
 import com.eraf.gateway.loadbalancer.proxy.ProxyResponse;
+import com.eraf.gateway.loadbalancer.retry.ProxyAttempt;
+import com.eraf.gateway.loadbalancer.retry.RetryExecutor;
 import com.eraf.gateway.loadbalancer.service.LoadBalancerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
  * Load balancer filter.
  * Selects backend server and proxies requests based on configured algorithm.
+ * Buffered requests go through the {@link RetryExecutor}, which retries and hedges
+ * them according to the upstream's retry configuration.
  */
 @Slf4j
 @Component
 @Order(FilterOrder.LOAD_BALANCER)
 @RequiredArgsConstructor
-public class LoadBalancerFilter implements GatewayFilter {
+public class LoadBalancerFilter extends GatewayFilter {
+    /**
+     * Request attribute holding validated JWT claims, set by the JWT validation filter.
+     */
+    private static final String JWT_CLAIMS_ATTRIBUTE = "ERAF_JWT_CLAIMS";
+
+    /**
+     * Request attribute naming the upstream to route to, set by routing.
+     */
+    private static final String UPSTREAM_ATTRIBUTE = "upstream";
+
     private final LoadBalancerProperties properties;
     private final LoadBalancerService loadBalancerService;
     private final HttpProxyClient proxyClient;
-    private final PassiveHealthChecker passiveHealthChecker;
+    private final RetryExecutor retryExecutor;
+
+    /**
+     * Exclude patterns compiled from the properties; recompiled only when the configured list is replaced.
+     */
+    private volatile ExcludePatterns excludePatterns = ExcludePatterns.EMPTY;
 
     @Override
-    public void doFilter(RouteContext context, GatewayFilterChain chain) throws Exception {
-        if (!properties.isEnabled()) {
-            chain.doFilter(context);
-            return;
-        }
+    protected boolean isEnabled() {
+        return properties.isEnabled();
+    }
 
-        HttpServletRequest request = context.getRequest();
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
         String requestPath = request.getRequestURI();
 
-        // Check if path should be excluded
-        if (shouldExclude(requestPath)) {
-            log.debug("Path {} excluded from load balancing", requestPath);
-            chain.doFilter(context);
+        // Get upstream name from route metadata
+        if (!(request.getAttribute(UPSTREAM_ATTRIBUTE) instanceof String upstreamName)) {
+            log.debug("No upstream configured for path: {}", requestPath);
+            chain.doFilter(request, response);
             return;
         }
 
-        // Get upstream name from route context or route metadata
-        String upstreamName = context.getAttribute("upstream");
-        if (upstreamName == null) {
-            log.debug("No upstream configured for path: {}", requestPath);
-            chain.doFilter(context);
+        // Get upstream configuration
+        Upstream upstream = loadBalancerService.getUpstream(upstreamName);
+        if (upstream == null) {
+            log.error("Upstream not found: {}", upstreamName);
+            sendError(response, 503, "No available backend servers");
             return;
         }
 
         // Select backend server
-        String clientIp = getClientIp(request);
-        Server server = loadBalancerService.selectServer(upstreamName, clientIp);
+        String clientKey = upstream.getAlgorithm() == LoadBalancerAlgorithm.CONSISTENT_HASH
+                ? resolveHashKey(request, upstream)
+                : getClientIp(request);
+        Server server = loadBalancerService.selectServer(upstreamName, clientKey);
 
         if (server == null) {
             log.error("No available server for upstream: {}", upstreamName);
-            sendError(context.getResponse(), 503, "No available backend servers");
+            sendError(response, 503, "No available backend servers");
             return;
         }
 
-        // Increment connection count
-        server.incrementConnections();
         log.info("Routing request {} to server {}:{} (upstream: {})",
                 requestPath, server.getHost(), server.getPort(), upstreamName);
 
-        try {
-            // Get upstream configuration
-            Upstream upstream = loadBalancerService.getAllUpstreams().stream()
-                    .filter(u -> u.getName().equals(upstreamName))
-                    .findFirst()
-                    .orElse(null);
-
-            if (upstream == null) {
-                throw new IllegalStateException("Upstream not found: " + upstreamName);
-            }
+        if (properties.getProxy().isStreaming()) {
+            proxyStreaming(request, response, server, upstream);
+            return;
+        }
 
-            // Proxy request to selected server
-            ProxyResponse proxyResponse = proxyClient.proxyRequest(request, server, upstream)
+        try {
+            // Proxy request to selected server; retries and hedges may answer from another server
+            ProxyAttempt attempt = retryExecutor.proxy(request, upstream, server, clientKey)
                     .block();
 
-            if (proxyResponse == null) {
+            if (attempt == null) {
                 throw new IOException("Proxy response is null");
             }
 
             // Handle response
-            handleProxyResponse(context.getResponse(), proxyResponse, server, upstream);
-
-            // Record success/failure for passive health check
-            if (proxyResponse.isSuccess() && !proxyResponse.isServerError()) {
-                passiveHealthChecker.recordSuccess(server, upstream.getHealthCheck());
-            } else if (proxyResponse.isServerError()) {
-                passiveHealthChecker.recordFailure(server, upstream.getHealthCheck());
-            }
+            handleProxyResponse(response, attempt.getResponse(), attempt.getServer(), upstream);
 
         } catch (Exception e) {
             log.error("Error proxying request to {}:{}: {}",
                     server.getHost(), server.getPort(), e.getMessage(), e);
 
-            // Record failure for passive health check
-            Upstream upstream = loadBalancerService.getAllUpstreams().stream()
-                    .filter(u -> u.getName().equals(upstreamName))
-                    .findFirst()
-                    .orElse(null);
+            sendError(response, 503, "Backend server unavailable: " + e.getMessage());
+        }
+    }
 
-            if (upstream != null) {
-                passiveHealthChecker.recordFailure(server, upstream.getHealthCheck());
-            }
+    /**
+     * Proxy request in streaming mode.
+     * When the container supports it, the servlet thread is released and the response
+     * is completed from the reactive pipeline; otherwise the calling thread waits for
+     * the last chunk to be written.
+     */
+    private void proxyStreaming(HttpServletRequest request, HttpServletResponse response, Server server,
+                                Upstream upstream) {
+        // The connection is counted from subscription until the exchange terminates; a synchronous
+        // failure building the exchange becomes an error signal, so the count is always released
+        Mono<ProxyResponse> exchange = Mono.defer(() -> proxyClient.proxyStreaming(request, response, server, upstream))
+                .doOnSubscribe(subscription -> upstream.incrementConnections(server))
+                .doOnNext(proxyResponse -> retryExecutor.recordResult(server, upstream, proxyResponse))
+                .doOnError(error -> retryExecutor.recordFailure(server, upstream))
+                .doFinally(signal -> upstream.decrementConnections(server));
+
+        if (properties.getProxy().isAsyncEnabled() && request.isAsyncSupported()) {
+            AsyncContext asyncContext = request.startAsync();
+            // No overall limit: the upstream read timeout applies between reads, and a client that
+            // stops reading stops upstream reads too, so a stalled exchange still times out
+            asyncContext.setTimeout(0);
+
+            exchange.subscribe(
+                    proxyResponse -> { },
+                    error -> {
+                        handleStreamingError(response, server, error);
+                        asyncContext.complete();
+                    },
+                    asyncContext::complete);
+            return;
+        }
+
+        try {
+            exchange.block();
+        } catch (Exception e) {
+            handleStreamingError(response, server, e);
+        }
+    }
 
-            sendError(context.getResponse(), 503, "Backend server unavailable: " + e.getMessage());
-        } finally {
-            // Decrement connection count
-            server.decrementConnections();
+    /**
+     * Handle streaming proxy error.
+     * An error response can only be sent if no upstream bytes have been committed yet.
+     */
+    private void handleStreamingError(HttpServletResponse response, Server server, Throwable error) {
+        log.error("Error streaming request to {}:{}: {}",
+                server.getHost(), server.getPort(), error.getMessage(), error);
+
+        if (response.isCommitted()) {
+            return;
+        }
+
+        try {
+            response.reset();
+            sendError(response, 503, "Backend server unavailable: " + error.getMessage());
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Could not send error response: {}", e.getMessage());
         }
     }
 
     /**
      * Check if path should be excluded from load balancing.
+     * Load balancer exclude patterns are regular expressions, not the Ant patterns of other filters.
      */
-    private boolean shouldExclude(String path) {
-        if (properties.getExcludePatterns() == null || properties.getExcludePatterns().isEmpty()) {
+    @Override
+    protected boolean shouldExclude(String path) {
+        List<String> configured = properties.getExcludePatterns();
+        if (configured == null || configured.isEmpty()) {
             return false;
         }
 
-        return properties.getExcludePatterns().stream()
-                .anyMatch(pattern -> Pattern.matches(pattern, path));
+        ExcludePatterns compiled = excludePatterns;
+        if (compiled.source != configured) {
+            compiled = ExcludePatterns.compile(configured);
+            excludePatterns = compiled;
+        }
+
+        for (Pattern pattern : compiled.patterns) {
+            if (pattern.matcher(path).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the consistent hash key configured for an upstream, falling back to the client IP.
+     */
+    private String resolveHashKey(HttpServletRequest request, Upstream upstream) {
+        String key = switch (upstream.getHashOn()) {
+            case HEADER -> upstream.getHashOnHeader() != null ? request.getHeader(upstream.getHashOnHeader()) : null;
+            case COOKIE -> getCookieValue(request, upstream.getHashOnCookie());
+            case JWT_SUBJECT -> getJwtSubject(request);
+            case IP -> null;
+        };
+        return key != null && !key.isEmpty() ? key : getClientIp(request);
+    }
+
+    private String getCookieValue(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (name == null || cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (name.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the subject of the JWT validated earlier in the filter chain.
+     */
+    private String getJwtSubject(HttpServletRequest request) {
+        if (request.getAttribute(JWT_CLAIMS_ATTRIBUTE) instanceof Map<?, ?> claims) {
+            Object subject = claims.get("sub");
+            return subject != null ? subject.toString() : null;
+        }
+        return null;
     }
 
     /**
@@ -191,8 +302,22 @@ public class LoadBalancerFilter implements GatewayFilter {
         response.getWriter().write(String.format("{\"error\": \"%s\"}", message));
     }
 
-    @Override
-    public int getOrder() {
-        return FilterOrder.LOAD_BALANCER;
+    /**
+     * Exclude patterns (regular expressions) compiled once, together with the list instance they came from.
+     */
+    private static final class ExcludePatterns {
+        static final ExcludePatterns EMPTY = new ExcludePatterns(null, new Pattern[0]);
+
+        private final List<String> source;
+        private final Pattern[] patterns;
+
+        private ExcludePatterns(List<String> source, Pattern[] patterns) {
+            this.source = source;
+            this.patterns = patterns;
+        }
+
+        static ExcludePatterns compile(List<String> configured) {
+            return new ExcludePatterns(configured, configured.stream().map(Pattern::compile).toArray(Pattern[]::new));
+        }
     }
 }
@@ -1,75 +1,175 @@
 package com.eraf.gateway.loadbalancer.health;
 
+import com.eraf.gateway.loadbalancer.domain.HealthCheckConfig;
 import com.eraf.gateway.loadbalancer.domain.Upstream;
+import com.eraf.gateway.loadbalancer.repository.UpstreamChangeListener;
 import com.eraf.gateway.loadbalancer.repository.UpstreamRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Scheduled health check task.
- * Periodically runs health checks on all configured upstreams.
+ * Health check scheduler.
+ * Runs health checks of each upstream on its own interval, on a dedicated scheduler thread.
+ * <p>
+ * Every round is followed by a jittered delay ({@code interval * (1 ± jitter)}), and the first
+ * round of an upstream starts at a random point within its interval, so hundreds of upstreams
+ * spread their checks instead of firing in bursts. Rounds only queue checks; the
+ * {@link HealthChecker} runs them within its concurrency limit.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class HealthCheckScheduler {
+public class HealthCheckScheduler implements UpstreamChangeListener {
     private final UpstreamRepository upstreamRepository;
     private final HealthChecker healthChecker;
 
     /**
-     * Run health checks every 10 seconds.
-     * Individual upstream configurations may have different intervals,
-     * but this provides a baseline check frequency.
+     * Scheduled check task per upstream name.
      */
-    @Scheduled(fixedDelay = 10000, initialDelay = 5000)
-    public void runHealthChecks() {
-        try {
-            upstreamRepository.findAll().forEach(upstream -> {
-                try {
-                    if (shouldRunHealthCheck(upstream)) {
-                        healthChecker.checkUpstream(upstream);
-                    }
-                } catch (Exception e) {
-                    log.error("Error running health check for upstream {}: {}",
-                            upstream.getName(), e.getMessage(), e);
-                }
-            });
-        } catch (Exception e) {
-            log.error("Error in health check scheduler: {}", e.getMessage(), e);
+    private final Map<String, UpstreamTask> tasks = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "eraf-lb-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        upstreamRepository.addListener(this);
+        upstreamRepository.findAll().forEach(this::schedule);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        tasks.values().forEach(UpstreamTask::cancel);
+        tasks.clear();
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public void onUpstreamSaved(Upstream previous, Upstream current) {
+        UpstreamTask task = tasks.get(current.getName());
+        if (task != null && task.matches(current.getHealthCheck())) {
+            // Same schedule: the running task picks up the new upstream on its next round
+            return;
+        }
+        schedule(current);
+    }
+
+    @Override
+    public void onUpstreamDeleted(Upstream removed) {
+        UpstreamTask task = tasks.remove(removed.getName());
+        if (task != null) {
+            task.cancel();
         }
+        healthChecker.clearStats(removed.getName());
     }
 
     /**
-     * Determine if health check should run for this upstream.
+     * Get the number of upstreams with scheduled health checks.
      */
-    private boolean shouldRunHealthCheck(Upstream upstream) {
-        if (!upstream.getHealthCheck().isEnabled()) {
-            return false;
+    public int getScheduledUpstreamCount() {
+        return tasks.size();
+    }
+
+    private void schedule(Upstream upstream) {
+        HealthCheckConfig config = upstream.getHealthCheck();
+        UpstreamTask previous;
+
+        if (!config.isEnabled() || !isValidInterval(config.getInterval())) {
+            previous = tasks.remove(upstream.getName());
+        } else {
+            UpstreamTask task = new UpstreamTask(upstream.getName(), config.getInterval(), config.getJitter());
+            previous = tasks.put(upstream.getName(), task);
+            // Start at a random point within the first interval to spread upstreams
+            task.scheduleNext(ThreadLocalRandom.current().nextLong(task.intervalMillis + 1));
+            log.debug("Scheduled health checks for upstream {} every {}", upstream.getName(), config.getInterval());
         }
 
-        // Always run check if no servers have been checked yet
-        boolean hasUncheckedServers = upstream.getServers().stream()
-                .anyMatch(server -> server.getLastHealthCheck() == null);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
 
-        if (hasUncheckedServers) {
-            return true;
+    private static boolean isValidInterval(Duration interval) {
+        return interval != null && !interval.isNegative() && !interval.isZero();
+    }
+
+    /**
+     * Self-rescheduling check task of one upstream.
+     * A cancelled or replaced task stops rescheduling itself.
+     */
+    private class UpstreamTask implements Runnable {
+        private final String upstreamName;
+        private final long intervalMillis;
+        private final double jitter;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+
+        UpstreamTask(String upstreamName, Duration interval, double jitter) {
+            this.upstreamName = upstreamName;
+            this.intervalMillis = interval.toMillis();
+            this.jitter = Math.min(Math.max(jitter, 0.0), 1.0);
         }
 
-        // Check if enough time has passed since last check
-        return upstream.getServers().stream()
-                .anyMatch(server -> {
-                    if (server.getLastHealthCheck() == null) {
-                        return true;
-                    }
-                    long secondsSinceLastCheck = java.time.Duration.between(
-                            server.getLastHealthCheck(),
-                            java.time.Instant.now()
-                    ).getSeconds();
-
-                    return secondsSinceLastCheck >= upstream.getHealthCheck()
-                            .getInterval().getSeconds();
-                });
+        boolean matches(HealthCheckConfig config) {
+            return config.isEnabled()
+                    && config.getInterval() != null
+                    && config.getInterval().toMillis() == intervalMillis
+                    && config.getJitter() == jitter;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+
+            try {
+                upstreamRepository.findByName(upstreamName).ifPresent(healthChecker::checkUpstream);
+            } catch (Exception e) {
+                log.error("Error running health check for upstream {}: {}", upstreamName, e.getMessage(), e);
+            }
+
+            scheduleNext(jitteredInterval());
+        }
+
+        void scheduleNext(long delayMillis) {
+            if (cancelled || tasks.get(upstreamName) != this) {
+                return;
+            }
+            try {
+                future = scheduler.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.debug("Health check scheduler shut down, not rescheduling upstream {}", upstreamName);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> current = future;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        private long jitteredInterval() {
+            double spread = jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+            return Math.max(1, Math.round(intervalMillis * (1 + spread)));
+        }
     }
 }
@@ -0,0 +1,67 @@
+package com.eraf.gateway.loadbalancer.health;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Active health check statistics for an upstream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthCheckStats {
+    /**
+     * Upstream name.
+     */
+    private String upstreamName;
+
+    /**
+     * Total health checks completed.
+     */
+    private long totalChecks;
+
+    /**
+     * Total failed health checks (errors, timeouts and unexpected statuses).
+     */
+    private long failedChecks;
+
+    /**
+     * Health checks skipped because the previous check of the server was still running.
+     */
+    private long skippedChecks;
+
+    /**
+     * Mean check latency in milliseconds.
+     */
+    private double meanLatencyMillis;
+
+    /**
+     * Median check latency in milliseconds (bucket upper bound).
+     */
+    private double p50LatencyMillis;
+
+    /**
+     * 95th percentile check latency in milliseconds (bucket upper bound).
+     */
+    private double p95LatencyMillis;
+
+    /**
+     * 99th percentile check latency in milliseconds (bucket upper bound).
+     */
+    private double p99LatencyMillis;
+
+    /**
+     * Maximum check latency in milliseconds.
+     */
+    private double maxLatencyMillis;
+
+    /**
+     * Check latency histogram: bucket upper bound ("le" in milliseconds, "+Inf" for overflow) to count.
+     */
+    private Map<String, Long> latencyHistogram;
+}
@@ -1,55 +1,236 @@
 package com.eraf.gateway.loadbalancer.health;
 
+import com.eraf.gateway.loadbalancer.config.LoadBalancerProperties;
 import com.eraf.gateway.loadbalancer.domain.HealthCheckConfig;
 import com.eraf.gateway.loadbalancer.domain.Server;
 import com.eraf.gateway.loadbalancer.domain.Upstream;
+import io.netty.channel.ChannelOption;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Active health checker.
- * Periodically checks server health by sending HTTP requests.
+ * Checks server health by sending HTTP requests.
+ * <p>
+ * Checks are queued and run with at most {@code maxConcurrency} in flight across all
+ * upstreams, and a server is never checked again while its previous check is still running.
+ * Checks share one keep-alive connection pool, so a connection to a server is reused from
+ * round to round. Check latencies are recorded in a histogram per upstream.
  */
 @Slf4j
 @Component
 public class HealthChecker {
+    private static final String POOL_NAME = "eraf-lb-health-check";
+
+    /**
+     * Checks of a server never overlap, so two connections per server are enough.
+     */
+    private static final int CONNECTIONS_PER_SERVER = 2;
+
+    /**
+     * Idle time of pooled connections; longer than usual check intervals so connections survive between rounds.
+     */
+    private static final Duration MAX_IDLE_TIME = Duration.ofMinutes(1);
+
     private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final int maxConcurrency;
+
+    /**
+     * Checks waiting for a concurrency permit.
+     */
+    private final Queue<PendingCheck> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of checks in flight.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Keys (upstream name and server address) of servers with a queued or running check.
+     */
+    private final Set<String> activeChecks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Check statistics per upstream name.
+     */
+    private final Map<String, CheckStats> statsByUpstream = new ConcurrentHashMap<>();
+
+    public HealthChecker(WebClient.Builder webClientBuilder, LoadBalancerProperties properties) {
+        this.maxConcurrency = Math.max(1, properties.getHealthCheck().getMaxConcurrency());
+        this.connectionProvider = ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(CONNECTIONS_PER_SERVER)
+                .maxIdleTime(MAX_IDLE_TIME)
+                .evictInBackground(MAX_IDLE_TIME)
+                .build();
 
-    public HealthChecker(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.getConnectTimeout())
+                .keepAlive(true);
+
+        this.webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        pending.clear();
+        connectionProvider.disposeLater().subscribe();
     }
 
     /**
-     * Perform health check on a server.
+     * Check all servers in an upstream.
+     * Checks are queued and run asynchronously within the concurrency limit.
      */
-    public void checkServer(Server server, HealthCheckConfig config) {
+    public void checkUpstream(Upstream upstream) {
+        HealthCheckConfig config = upstream.getHealthCheck();
         if (!config.isEnabled()) {
             return;
         }
 
+        log.debug("Performing health checks for upstream: {}", upstream.getName());
+
+        CheckStats stats = statsByUpstream.computeIfAbsent(upstream.getName(), name -> new CheckStats());
+        for (Server server : upstream.getServers()) {
+            String key = upstream.getName() + "/" + server.getAddress();
+            if (!activeChecks.add(key)) {
+                stats.skipped.incrementAndGet();
+                log.debug("Previous health check of {}:{} still running, skipping",
+                        server.getHost(), server.getPort());
+                continue;
+            }
+            pending.add(new PendingCheck(key, server, config, stats));
+        }
+
+        drain();
+    }
+
+    /**
+     * Get health check statistics for an upstream, or null if it was never checked.
+     */
+    public HealthCheckStats getStats(String upstreamName) {
+        CheckStats stats = statsByUpstream.get(upstreamName);
+        if (stats == null) {
+            return null;
+        }
+
+        LatencyHistogram latencies = stats.latencies;
+        long[] counts = latencies.getBucketCounts();
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < LatencyHistogram.BUCKET_BOUNDS_MILLIS.length; i++) {
+            histogram.put(String.valueOf(LatencyHistogram.BUCKET_BOUNDS_MILLIS[i]), counts[i]);
+        }
+        histogram.put("+Inf", counts[counts.length - 1]);
+
+        return HealthCheckStats.builder()
+                .upstreamName(upstreamName)
+                .totalChecks(latencies.getCount())
+                .failedChecks(stats.failed.get())
+                .skippedChecks(stats.skipped.get())
+                .meanLatencyMillis(latencies.getMeanMillis())
+                .p50LatencyMillis(latencies.getPercentileMillis(0.50))
+                .p95LatencyMillis(latencies.getPercentileMillis(0.95))
+                .p99LatencyMillis(latencies.getPercentileMillis(0.99))
+                .maxLatencyMillis(latencies.getMaxMillis())
+                .latencyHistogram(histogram)
+                .build();
+    }
+
+    /**
+     * Drop the statistics of an upstream.
+     */
+    public void clearStats(String upstreamName) {
+        statsByUpstream.remove(upstreamName);
+    }
+
+    /**
+     * Get the number of checks in flight.
+     */
+    public int getInFlightChecks() {
+        return inFlight.get();
+    }
+
+    /**
+     * Start queued checks while permits are available.
+     */
+    private void drain() {
+        while (!pending.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxConcurrency) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            PendingCheck check = pending.poll();
+            if (check == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+
+            try {
+                execute(check);
+            } catch (Exception e) {
+                log.error("Error checking server {}:{}: {}",
+                        check.server.getHost(), check.server.getPort(), e.getMessage());
+                release(check);
+            }
+        }
+    }
+
+    private void execute(PendingCheck check) {
+        Server server = check.server;
+        HealthCheckConfig config = check.config;
         String healthUrl = server.getUrl() + config.getPath();
+        long start = System.nanoTime();
 
         webClient.get()
                 .uri(healthUrl)
-                .retrieve()
-                .toBodilessEntity()
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
                 .timeout(config.getTimeout())
+                .doFinally(signal -> {
+                    // Also covers cancellation, which reports neither success nor failure
+                    check.stats.latencies.record(System.nanoTime() - start);
+                    complete(check);
+                })
                 .subscribe(
-                        response -> handleHealthCheckSuccess(server, config, response.getStatusCode()),
-                        error -> handleHealthCheckFailure(server, config, error)
+                        status -> handleHealthCheckResult(server, config, status, check.stats),
+                        error -> handleHealthCheckFailure(server, config, error, check.stats)
                 );
     }
 
+    private void complete(PendingCheck check) {
+        release(check);
+        drain();
+    }
+
+    private void release(PendingCheck check) {
+        activeChecks.remove(check.key);
+        inFlight.decrementAndGet();
+    }
+
     /**
-     * Handle successful health check.
+     * Handle a health check response.
      */
-    private void handleHealthCheckSuccess(Server server, HealthCheckConfig config, HttpStatus status) {
-        if (config.isExpectedStatus(status.value())) {
+    private void handleHealthCheckResult(Server server, HealthCheckConfig config, int status, CheckStats stats) {
+        if (config.isExpectedStatus(status)) {
             server.recordSuccess();
 
             if (!server.isHealthy() &&
@@ -60,16 +241,17 @@ public class HealthChecker {
             }
         } else {
             log.warn("Server {}:{} returned unexpected status: {}",
-                    server.getHost(), server.getPort(), status.value());
+                    server.getHost(), server.getPort(), status);
             handleHealthCheckFailure(server, config,
-                new RuntimeException("Unexpected status: " + status.value()));
+                new RuntimeException("Unexpected status: " + status), stats);
         }
     }
 
     /**
      * Handle failed health check.
      */
-    private void handleHealthCheckFailure(Server server, HealthCheckConfig config, Throwable error) {
+    private void handleHealthCheckFailure(Server server, HealthCheckConfig config, Throwable error, CheckStats stats) {
+        stats.failed.incrementAndGet();
         server.recordHealthCheckFailure();
 
         log.debug("Health check failed for {}:{}: {}",
@@ -84,22 +266,28 @@ public class HealthChecker {
     }
 
     /**
-     * Check all servers in an upstream.
+     * Check counters and latencies of one upstream.
      */
-    public void checkUpstream(Upstream upstream) {
-        if (!upstream.getHealthCheck().isEnabled()) {
-            return;
-        }
+    private static class CheckStats {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+    }
 
-        log.debug("Performing health checks for upstream: {}", upstream.getName());
+    /**
+     * Health check waiting to run.
+     */
+    private static class PendingCheck {
+        private final String key;
+        private final Server server;
+        private final HealthCheckConfig config;
+        private final CheckStats stats;
 
-        upstream.getServers().forEach(server -> {
-            try {
-                checkServer(server, upstream.getHealthCheck());
-            } catch (Exception e) {
-                log.error("Error checking server {}:{}: {}",
-                        server.getHost(), server.getPort(), e.getMessage());
-            }
-        });
+        PendingCheck(String key, Server server, HealthCheckConfig config, CheckStats stats) {
+            this.key = key;
+            this.server = server;
+            this.config = config;
+            this.stats = stats;
+        }
     }
 }
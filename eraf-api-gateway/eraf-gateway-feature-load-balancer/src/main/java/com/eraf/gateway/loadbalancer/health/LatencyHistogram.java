@@ -0,0 +1,143 @@
+package com.eraf.gateway.loadbalancer.health;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram.
+ * Buckets have fixed upper bounds in milliseconds plus one overflow bucket, so recording
+ * is a bucket search and an atomic increment, and percentiles are read from the counts.
+ */
+public class LatencyHistogram {
+    /**
+     * Upper bounds (inclusive) of the buckets in milliseconds.
+     */
+    static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final long[] boundsMillis;
+    private final AtomicLongArray counts;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Create a histogram with the default buckets ({@link #BUCKET_BOUNDS_MILLIS}).
+     */
+    public LatencyHistogram() {
+        this(BUCKET_BOUNDS_MILLIS);
+    }
+
+    /**
+     * Create a histogram with the given ascending bucket upper bounds in milliseconds.
+     */
+    public LatencyHistogram(long[] boundsMillis) {
+        this.boundsMillis = boundsMillis.clone();
+        this.counts = new AtomicLongArray(boundsMillis.length + 1);
+    }
+
+    /**
+     * Build bucket bounds from 1ms up to {@code maxMillis}, each bound {@code growth} times the previous
+     * (at least 1ms apart), so percentiles are accurate to about {@code growth - 1}.
+     */
+    public static long[] exponentialBounds(long maxMillis, double growth) {
+        long[] bounds = new long[64];
+        int size = 0;
+        for (long bound = 1; bound < maxMillis; bound = Math.max(bound + 1, (long) Math.ceil(bound * growth))) {
+            if (size == bounds.length) {
+                bounds = Arrays.copyOf(bounds, size * 2);
+            }
+            bounds[size++] = bound;
+        }
+        bounds = Arrays.copyOf(bounds, size + 1);
+        bounds[size] = maxMillis;
+        return bounds;
+    }
+
+    /**
+     * Get the bucket upper bounds in milliseconds.
+     */
+    public long[] getBoundsMillis() {
+        return boundsMillis.clone();
+    }
+
+    /**
+     * Record a latency.
+     */
+    public void record(long latencyNanos) {
+        long nanos = Math.max(latencyNanos, 0);
+        counts.incrementAndGet(bucketOf(boundsMillis, nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Get the number of recorded latencies.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the mean latency in milliseconds.
+     */
+    public double getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0.0 : totalNanos.get() / (double) n / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Get the maximum latency in milliseconds.
+     */
+    public double getMaxMillis() {
+        return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Get the upper bound of the bucket holding the given percentile, in milliseconds.
+     * Latencies beyond the last bucket report the maximum.
+     *
+     * @param percentile Percentile between 0.0 and 1.0
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] snapshot = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : snapshot) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < boundsMillis.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(boundsMillis[i], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Get a snapshot of the bucket counts; the last entry is the overflow bucket.
+     */
+    public long[] getBucketCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    private static int bucketOf(long[] boundsMillis, long nanos) {
+        // Round up, so a bucket holds latencies up to and including its bound
+        long millis = nanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanos - 1) + 1;
+        int index = Arrays.binarySearch(boundsMillis, millis);
+        // Not found: insertion point is the first bound above, or the overflow bucket
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -1,101 +1,362 @@
 package com.eraf.gateway.loadbalancer.health;
 
 import com.eraf.gateway.loadbalancer.domain.HealthCheckConfig;
+import com.eraf.gateway.loadbalancer.domain.OutlierDetectionConfig;
 import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+import com.eraf.gateway.loadbalancer.repository.UpstreamChangeListener;
+import com.eraf.gateway.loadbalancer.repository.UpstreamRepository;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
 
 /**
  * Passive health checker.
- * Monitors actual traffic and marks servers unhealthy based on real request failures.
+ * Monitors actual traffic and ejects outlier servers based on real request results.
+ * <p>
+ * Each server keeps a ring buffer of its most recent requests (failure flag and latency).
+ * A server is ejected when it reaches the consecutive failure threshold, or when the
+ * failure rate or mean latency of its window exceeds the configured thresholds.
+ * Ejection lasts {@code baseEjectionTime * 2^(n-1)} for the n-th ejection (capped at
+ * {@code maxEjectionTime}). At most {@code maxEjectionPercent} of an upstream's servers
+ * (rounded down) are ejected at once, and the last available server is never ejected.
+ * A restored server ramps its weight up over {@code slowStartDuration}.
+ * <p>
+ * Recording a result is lock-free and does not allocate; ejection and restoration
+ * are rare, ejections of one upstream are serialized, and restoration runs on a single
+ * scheduler thread. Tracking state is dropped when an upstream or one of its servers is removed.
  */
 @Slf4j
 @Component
-public class PassiveHealthChecker {
+@RequiredArgsConstructor
+public class PassiveHealthChecker implements UpstreamChangeListener {
+    private final UpstreamRepository upstreamRepository;
+
     /**
-     * Track recent failures per server.
+     * Outlier trackers per upstream name and server address.
      */
-    private final Map<Server, FailureTracker> failureTrackers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, OutlierTracker>> trackers = new ConcurrentHashMap<>();
 
     /**
-     * Record a successful request to a server.
+     * Number of currently ejected servers per upstream name.
      */
-    public void recordSuccess(Server server, HealthCheckConfig config) {
-        if (!config.isPassiveEnabled()) {
+    private final Map<String, AtomicInteger> ejectedCounts = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "eraf-lb-outlier-detection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        upstreamRepository.addListener(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public void onUpstreamSaved(Upstream previous, Upstream current) {
+        Map<String, OutlierTracker> upstreamTrackers = trackers.get(current.getName());
+        if (upstreamTrackers == null) {
             return;
         }
+        Set<String> addresses = current.getServers().stream()
+                .map(Server::getAddress)
+                .collect(Collectors.toSet());
+        upstreamTrackers.keySet().retainAll(addresses);
+    }
 
-        FailureTracker tracker = failureTrackers.computeIfAbsent(server, k -> new FailureTracker());
-        tracker.recordSuccess();
+    @Override
+    public void onUpstreamDeleted(Upstream removed) {
+        trackers.remove(removed.getName());
+        ejectedCounts.remove(removed.getName());
+    }
+
+    /**
+     * Record a successful request to a server.
+     */
+    public void recordSuccess(Server server, Upstream upstream, long latencyNanos) {
+        record(server, upstream, false, latencyNanos);
     }
 
     /**
      * Record a failed request to a server.
      */
-    public void recordFailure(Server server, HealthCheckConfig config) {
+    public void recordFailure(Server server, Upstream upstream, long latencyNanos) {
+        record(server, upstream, true, latencyNanos);
+    }
+
+    /**
+     * Clear outlier tracking for a server.
+     */
+    public void clearTracking(Server server) {
+        trackers.values().forEach(upstreamTrackers -> upstreamTrackers.remove(server.getAddress()));
+    }
+
+    /**
+     * Get the number of currently ejected servers of an upstream.
+     */
+    public int getEjectedCount(String upstreamName) {
+        AtomicInteger count = ejectedCounts.get(upstreamName);
+        return count != null ? count.get() : 0;
+    }
+
+    private void record(Server server, Upstream upstream, boolean failure, long latencyNanos) {
+        HealthCheckConfig config = upstream.getHealthCheck();
         if (!config.isPassiveEnabled()) {
             return;
         }
 
-        server.recordFailure();
+        if (failure) {
+            server.recordFailure();
+        }
+
+        OutlierTracker tracker = getTracker(upstream.getName(), server, config.getOutlierDetection());
+        long now = System.nanoTime();
+        tracker.record(failure, latencyNanos, now, config.getPassiveWindow());
+
+        if (server.isEjected() || !server.isHealthy()) {
+            return;
+        }
+
+        EjectionReason reason = tracker.checkOutlier(config);
+        if (reason != null) {
+            eject(server, upstream, tracker, reason);
+        }
+    }
+
+    private OutlierTracker getTracker(String upstreamName, Server server, OutlierDetectionConfig config) {
+        Map<String, OutlierTracker> upstreamTrackers = trackers.get(upstreamName);
+        if (upstreamTrackers == null) {
+            upstreamTrackers = trackers.computeIfAbsent(upstreamName, name -> new ConcurrentHashMap<>());
+        }
+
+        OutlierTracker tracker = upstreamTrackers.get(server.getAddress());
+        if (tracker == null) {
+            tracker = upstreamTrackers.computeIfAbsent(server.getAddress(),
+                    address -> new OutlierTracker(config.getWindowSize()));
+        }
+        return tracker;
+    }
+
+    private void eject(Server server, Upstream upstream, OutlierTracker tracker, EjectionReason reason) {
+        if (!tracker.ejected.compareAndSet(false, true)) {
+            return;
+        }
+
+        OutlierDetectionConfig config = upstream.getHealthCheck().getOutlierDetection();
+        AtomicInteger ejectedCount = ejectedCounts.computeIfAbsent(upstream.getName(), name -> new AtomicInteger());
+        int maxEjected = upstream.getTotalServers() * config.getMaxEjectionPercent() / 100;
 
-        FailureTracker tracker = failureTrackers.computeIfAbsent(server, k -> new FailureTracker());
-        tracker.recordFailure();
+        // Checked and applied together so concurrent ejections cannot take out the last server
+        synchronized (ejectedCount) {
+            if (ejectedCount.get() >= maxEjected || !hasOtherAvailableServer(upstream, server)) {
+                tracker.ejected.set(false);
+                log.debug("Server {} of upstream {} is an outlier ({}) but cannot be ejected ({} of at most {} ejected)",
+                        server.getAddress(), upstream.getName(), reason, ejectedCount.get(), maxEjected);
+                return;
+            }
+            ejectedCount.incrementAndGet();
+            server.setEjected(true);
+        }
+
+        Duration ejectionTime = tracker.nextEjectionTime(config, System.nanoTime());
+        tracker.resetWindow();
+
+        log.warn("Server {}:{} EJECTED from upstream {} for {} by passive health check ({})",
+                server.getHost(), server.getPort(), upstream.getName(), ejectionTime, reason);
+
+        scheduler.schedule(() -> restore(server, upstream, tracker, ejectedCount),
+                ejectionTime.toMillis(), TimeUnit.MILLISECONDS);
+    }
 
-        // Clean up old failures outside the window
-        tracker.cleanUpOldFailures(config.getPassiveWindow());
+    private void restore(Server server, Upstream upstream, OutlierTracker tracker, AtomicInteger ejectedCount) {
+        Duration slowStart = upstream.getHealthCheck().getOutlierDetection().getSlowStartDuration();
+        int generation = tracker.rampGeneration.incrementAndGet();
 
-        // Check if server should be marked unhealthy
-        int recentFailures = tracker.getRecentFailureCount(config.getPassiveWindow());
-        if (server.isHealthy() && recentFailures >= config.getPassiveUnhealthyThreshold()) {
-            log.warn("Server {}:{} marked as UNHEALTHY by passive health check after {} failures in {}",
-                    server.getHost(), server.getPort(), recentFailures, config.getPassiveWindow());
-            server.setHealthy(false);
+        if (slowStart != null && !slowStart.isZero()) {
+            server.setSlowStartStep(1);
+            long stepMillis = Math.max(1, slowStart.toMillis() / Server.SLOW_START_STEPS);
+            scheduler.schedule(() -> rampUp(server, tracker, generation, stepMillis), stepMillis, TimeUnit.MILLISECONDS);
+        } else {
+            server.setSlowStartStep(Server.SLOW_START_STEPS);
         }
+
+        tracker.lastRestoredNanos = System.nanoTime();
+        ejectedCount.decrementAndGet();
+        server.setEjected(false);
+        tracker.ejected.set(false);
+
+        log.info("Server {}:{} restored to upstream {} after ejection",
+                server.getHost(), server.getPort(), upstream.getName());
     }
 
     /**
-     * Clear failure tracking for a server.
+     * Raise the slow-start step by one, until full weight or until a newer ramp replaces this one.
      */
-    public void clearTracking(Server server) {
-        failureTrackers.remove(server);
+    private void rampUp(Server server, OutlierTracker tracker, int generation, long stepMillis) {
+        if (tracker.rampGeneration.get() != generation || server.isEjected()) {
+            return;
+        }
+
+        int step = server.getSlowStartStep() + 1;
+        server.setSlowStartStep(step);
+        if (step < Server.SLOW_START_STEPS) {
+            scheduler.schedule(() -> rampUp(server, tracker, generation, stepMillis), stepMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean hasOtherAvailableServer(Upstream upstream, Server server) {
+        for (Server other : upstream.getServers()) {
+            if (other != server && other.isAvailable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private enum EjectionReason {
+        CONSECUTIVE_FAILURES,
+        FAILURE_RATE,
+        LATENCY
     }
 
     /**
-     * Tracks failures within a time window.
+     * Outlier statistics of one server.
+     * The window is a ring buffer of packed entries (present flag, failure flag, latency in
+     * microseconds) with running totals, so recording and checking are O(1).
      */
-    private static class FailureTracker {
-        private final Map<Instant, AtomicInteger> failuresByTime = new ConcurrentHashMap<>();
+    static final class OutlierTracker {
+        private static final long PRESENT = 1L << 62;
+        private static final long FAILURE = 1L << 61;
+        private static final long LATENCY_MASK = FAILURE - 1;
+
+        private final AtomicLongArray window;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger windowCount = new AtomicInteger();
+        private final AtomicInteger windowFailures = new AtomicInteger();
+        private final AtomicLong windowLatencyMicros = new AtomicLong();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long lastFailureNanos;
+
+        /**
+         * Set while the server is ejected; the thread that sets it owns the ejection state below.
+         */
+        private final AtomicBoolean ejected = new AtomicBoolean();
+        private final AtomicInteger rampGeneration = new AtomicInteger();
+        private int ejectionCount;
+        private volatile long lastRestoredNanos;
+
+        OutlierTracker(int windowSize) {
+            this.window = new AtomicLongArray(Math.max(windowSize, 1));
+        }
+
+        void record(boolean failure, long latencyNanos, long now, Duration passiveWindow) {
+            long micros = Math.min(Math.max(latencyNanos / 1000, 0), LATENCY_MASK);
+            long entry = PRESENT | (failure ? FAILURE : 0) | micros;
+
+            int slot = (int) (cursor.getAndIncrement() % window.length());
+            remove(window.getAndSet(slot, entry));
+            windowCount.incrementAndGet();
+            windowLatencyMicros.addAndGet(micros);
+
+            if (failure) {
+                windowFailures.incrementAndGet();
+                if (now - lastFailureNanos > passiveWindow.toNanos()) {
+                    consecutiveFailures.set(1);
+                } else {
+                    consecutiveFailures.incrementAndGet();
+                }
+                lastFailureNanos = now;
+            } else if (consecutiveFailures.get() != 0) {
+                consecutiveFailures.set(0);
+            }
+        }
+
+        EjectionReason checkOutlier(HealthCheckConfig config) {
+            if (consecutiveFailures.get() >= config.getPassiveUnhealthyThreshold()) {
+                return EjectionReason.CONSECUTIVE_FAILURES;
+            }
+
+            OutlierDetectionConfig outlierConfig = config.getOutlierDetection();
+            int count = windowCount.get();
+            if (count < outlierConfig.getMinimumRequests()) {
+                return null;
+            }
+
+            if (windowFailures.get() >= outlierConfig.getFailureRateThreshold() * count) {
+                return EjectionReason.FAILURE_RATE;
+            }
+
+            Duration latencyThreshold = outlierConfig.getLatencyThreshold();
+            if (latencyThreshold != null
+                    && windowLatencyMicros.get() / count >= TimeUnit.NANOSECONDS.toMicros(latencyThreshold.toNanos())) {
+                return EjectionReason.LATENCY;
+            }
+            return null;
+        }
+
+        /**
+         * Compute the ejection time and advance the backoff.
+         * The backoff is reset once the server stayed in for {@code maxEjectionTime}.
+         */
+        Duration nextEjectionTime(OutlierDetectionConfig config, long now) {
+            long maxMillis = config.getMaxEjectionTime().toMillis();
+            if (lastRestoredNanos != 0 && now - lastRestoredNanos > TimeUnit.MILLISECONDS.toNanos(maxMillis)) {
+                ejectionCount = 0;
+            }
+            ejectionCount++;
+
+            long multiplier = 1L << Math.min(ejectionCount - 1, 20);
+            return Duration.ofMillis(Math.min(config.getBaseEjectionTime().toMillis() * multiplier, maxMillis));
+        }
 
-        public void recordFailure() {
-            Instant now = Instant.now();
-            failuresByTime.computeIfAbsent(now, k -> new AtomicInteger(0))
-                    .incrementAndGet();
+        /**
+         * Empty the window and the failure streak, so a restored server starts clean.
+         */
+        void resetWindow() {
+            for (int i = 0; i < window.length(); i++) {
+                remove(window.getAndSet(i, 0));
+            }
+            consecutiveFailures.set(0);
         }
 
-        public void recordSuccess() {
-            // Success resets the failure tracking
-            failuresByTime.clear();
+        int getWindowCount() {
+            return windowCount.get();
         }
 
-        public int getRecentFailureCount(Duration window) {
-            Instant cutoff = Instant.now().minus(window);
-            return failuresByTime.entrySet().stream()
-                    .filter(entry -> entry.getKey().isAfter(cutoff))
-                    .mapToInt(entry -> entry.getValue().get())
-                    .sum();
+        int getWindowFailures() {
+            return windowFailures.get();
         }
 
-        public void cleanUpOldFailures(Duration window) {
-            Instant cutoff = Instant.now().minus(window);
-            failuresByTime.entrySet()
-                    .removeIf(entry -> entry.getKey().isBefore(cutoff));
+        private void remove(long entry) {
+            if ((entry & PRESENT) == 0) {
+                return;
+            }
+            windowCount.decrementAndGet();
+            windowLatencyMicros.addAndGet(-(entry & LATENCY_MASK));
+            if ((entry & FAILURE) != 0) {
+                windowFailures.decrementAndGet();
+            }
         }
     }
 }
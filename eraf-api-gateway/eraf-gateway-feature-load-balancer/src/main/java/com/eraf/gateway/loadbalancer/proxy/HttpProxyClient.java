@@ -1,17 +1,32 @@
 package com.eraf.gateway.loadbalancer.proxy;
 
+import com.eraf.gateway.loadbalancer.config.LoadBalancerProperties;
 import com.eraf.gateway.loadbalancer.domain.Server;
 import com.eraf.gateway.loadbalancer.domain.Upstream;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import javax.servlet.http.HttpServletRequest;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.Enumeration;
 
@@ -22,10 +37,27 @@ import java.util.Enumeration;
 @Slf4j
 @Component
 public class HttpProxyClient {
-    private final WebClient.Builder webClientBuilder;
+    private final WebClientRegistry webClientRegistry;
+    private final LoadBalancerProperties.ProxyProperties proxyProperties;
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
 
-    public HttpProxyClient(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
+    /**
+     * Threads for blocking servlet writes when the request is not in async mode.
+     * Capped, so at most {@code blockingWriterThreads} streams write at once; further
+     * streams queue their chunks behind them instead of creating threads.
+     */
+    private final Scheduler blockingWriter;
+
+    public HttpProxyClient(WebClientRegistry webClientRegistry, LoadBalancerProperties properties) {
+        this.webClientRegistry = webClientRegistry;
+        this.proxyProperties = properties.getProxy();
+        this.blockingWriter = Schedulers.newBoundedElastic(
+                proxyProperties.getBlockingWriterThreads(), Integer.MAX_VALUE, "proxy-stream-writer", 60, true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        blockingWriter.dispose();
     }
 
     /**
@@ -45,18 +77,136 @@ public class HttpProxyClient {
 
         log.debug("Proxying {} {} to {}", method, request.getRequestURI(), targetUrl);
 
-        WebClient webClient = webClientBuilder
-                .baseUrl(server.getUrl())
-                .build();
+        WebClient webClient = webClientRegistry.getClient(upstream, server);
 
-        return webClient.method(method)
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.method(method)
+                    .uri(targetUrl)
+                    .headers(headers -> copyHeaders(request, headers))
+                    .retrieve()
+                    .toEntity(String.class)
+                    .timeout(Duration.ofMillis(upstream.getReadTimeout()))
+                    .map(this::mapToProxyResponse)
+                    .onErrorResume(this::handleProxyError)
+                    .doOnNext(proxyResponse -> proxyResponse.setLatencyNanos(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Proxy request to a backend server, streaming both bodies.
+     * The request body is read from the servlet input stream in fixed-size chunks and the
+     * upstream response is written to the servlet output stream chunk by chunk, so memory
+     * per exchange is bounded by {@code bufferSize * prefetch} regardless of payload size.
+     * Status and headers are written to {@code response} before the body; the returned
+     * {@link ProxyResponse} carries status and headers only (no body).
+     * The upstream read timeout applies between reads (see {@link WebClientRegistry}),
+     * not to the whole exchange, so long-running streams are not cut off mid-body.
+     */
+    public Mono<ProxyResponse> proxyStreaming(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Server server,
+            Upstream upstream) {
+
+        String targetUrl = buildTargetUrl(server, request);
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+
+        if (method == null) {
+            return Mono.error(new IllegalArgumentException("Unsupported HTTP method: " + request.getMethod()));
+        }
+
+        log.debug("Streaming {} {} to {}", method, request.getRequestURI(), targetUrl);
+
+        WebClient webClient = webClientRegistry.getClient(upstream, server);
+
+        WebClient.RequestBodySpec requestSpec = webClient.method(method)
                 .uri(targetUrl)
-                .headers(headers -> copyHeaders(request, headers))
-                .retrieve()
-                .toEntity(String.class)
-                .timeout(Duration.ofMillis(upstream.getReadTimeout()))
-                .map(this::mapToProxyResponse)
-                .onErrorResume(this::handleProxyError);
+                .headers(headers -> copyHeaders(request, headers));
+
+        WebClient.RequestHeadersSpec<?> exchangeSpec = hasRequestBody(request)
+                ? requestSpec.body(BodyInserters.fromDataBuffers(readRequestBody(request)))
+                : requestSpec;
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return exchangeSpec
+                    .exchangeToMono(clientResponse -> writeStreamingResponse(
+                            clientResponse, request, response, server, upstream, System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Check if request carries a body.
+     */
+    private boolean hasRequestBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    /**
+     * Read request body lazily as data buffer chunks.
+     * Reading is demand-driven, so a slow upstream stops the servlet input from being drained.
+     */
+    private Flux<DataBuffer> readRequestBody(HttpServletRequest request) {
+        return DataBufferUtils.readInputStream(request::getInputStream, bufferFactory, proxyProperties.getBufferSize())
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Copy upstream status and headers, then pipe the upstream body to the servlet output stream.
+     * In async mode chunks are written through a servlet {@link jakarta.servlet.WriteListener}
+     * without holding a thread; otherwise they are written with blocking I/O on the bounded
+     * writer scheduler with at most {@code prefetch} chunks queued.
+     * Every chunk is released as soon as it has been written.
+     */
+    private Mono<ProxyResponse> writeStreamingResponse(
+            ClientResponse clientResponse,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Server server,
+            Upstream upstream,
+            long latencyNanos) {
+
+        int statusCode = clientResponse.statusCode().value();
+        HttpHeaders headers = clientResponse.headers().asHttpHeaders();
+
+        response.setStatus(statusCode);
+        headers.forEach((name, values) -> {
+            if (!isHopByHopHeader(name)) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.addHeader("X-Upstream-Server", server.getHost() + ":" + server.getPort());
+        response.addHeader("X-Upstream-Name", upstream.getName());
+
+        ServletOutputStream outputStream;
+        try {
+            outputStream = response.getOutputStream();
+        } catch (IOException e) {
+            return clientResponse.releaseBody().then(Mono.error(e));
+        }
+
+        Flux<DataBuffer> body = clientResponse.bodyToFlux(DataBuffer.class);
+        Mono<Void> written = request.isAsyncStarted()
+                ? ServletBodyWriter.write(body, outputStream)
+                : DataBufferUtils.write(body.publishOn(blockingWriter, proxyProperties.getPrefetch()), outputStream)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.fromRunnable(() -> flush(outputStream)));
+
+        return written.then(Mono.fromCallable(() -> ProxyResponse.builder()
+                .statusCode(statusCode)
+                .headers(headers)
+                .success(!clientResponse.statusCode().isError())
+                .latencyNanos(latencyNanos)
+                .build()));
+    }
+
+    private void flush(ServletOutputStream outputStream) {
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -142,7 +292,7 @@ public class HttpProxyClient {
      */
     private ProxyResponse mapToProxyResponse(ResponseEntity<String> response) {
         return ProxyResponse.builder()
-                .statusCode(response.getStatusCodeValue())
+                .statusCode(response.getStatusCode().value())
                 .headers(response.getHeaders())
                 .body(response.getBody())
                 .success(true)
@@ -158,7 +308,7 @@ public class HttpProxyClient {
         if (error instanceof WebClientResponseException) {
             WebClientResponseException webClientError = (WebClientResponseException) error;
             return Mono.just(ProxyResponse.builder()
-                    .statusCode(webClientError.getRawStatusCode())
+                    .statusCode(webClientError.getStatusCode().value())
                     .headers(webClientError.getHeaders())
                     .body(webClientError.getResponseBodyAsString())
                     .success(false)
@@ -0,0 +1,65 @@
+package com.eraf.gateway.loadbalancer.proxy;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Connection pool statistics for a single upstream server.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PoolStats {
+    /**
+     * Upstream name.
+     */
+    private String upstreamName;
+
+    /**
+     * Server address (host:port).
+     */
+    private String serverAddress;
+
+    /**
+     * Connections currently in use.
+     */
+    private int acquiredConnections;
+
+    /**
+     * Idle connections kept alive in the pool.
+     */
+    private int idleConnections;
+
+    /**
+     * Connections currently allocated (acquired + idle).
+     */
+    private int allocatedConnections;
+
+    /**
+     * Requests waiting for a connection.
+     */
+    private int pendingAcquires;
+
+    /**
+     * Configured maximum connections.
+     */
+    private int maxConnections;
+
+    /**
+     * Configured maximum pending acquires.
+     */
+    private int maxPendingAcquires;
+
+    /**
+     * Get pool utilization percentage (allocated / max connections).
+     */
+    public double getUtilizationPercentage() {
+        if (maxConnections == 0) {
+            return 0.0;
+        }
+        return ((double) allocatedConnections / maxConnections) * 100.0;
+    }
+}
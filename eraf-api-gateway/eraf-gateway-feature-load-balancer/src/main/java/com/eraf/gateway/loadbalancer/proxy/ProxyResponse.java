@@ -39,6 +39,12 @@ public class ProxyResponse {
      */
     private String error;
 
+    /**
+     * Upstream latency in nanoseconds: until the full response for buffered requests,
+     * until the response headers for streaming requests.
+     */
+    private long latencyNanos;
+
     /**
      * Check if response indicates server error (5xx).
      */
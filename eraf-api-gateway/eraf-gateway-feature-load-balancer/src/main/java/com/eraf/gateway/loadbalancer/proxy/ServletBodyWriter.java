@@ -0,0 +1,161 @@
+package com.eraf.gateway.loadbalancer.proxy;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import java.io.IOException;
+
+/**
+ * Non-blocking bridge from an upstream body to an async servlet response.
+ * One chunk is requested at a time and written only while the container reports the
+ * output as ready; when it is not, the next chunk is requested from {@link #onWritePossible()}.
+ * No thread is held while the client is slow, and at most one chunk is buffered here
+ * (the upstream connection stops being read while there is no demand).
+ * Requires the request to be in async mode.
+ */
+final class ServletBodyWriter implements Subscriber<DataBuffer>, WriteListener {
+    private final ServletOutputStream output;
+    private final MonoSink<Void> sink;
+
+    private Subscription subscription;
+    private DataBuffer pending;
+    private boolean requested;
+    private boolean upstreamDone;
+    private boolean finished;
+
+    private ServletBodyWriter(ServletOutputStream output, MonoSink<Void> sink) {
+        this.output = output;
+        this.sink = sink;
+    }
+
+    /**
+     * Write the body to the output stream, completing when the last chunk has been written.
+     */
+    static Mono<Void> write(Flux<DataBuffer> body, ServletOutputStream output) {
+        return Mono.create(sink -> body.subscribe(new ServletBodyWriter(output, sink)));
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        synchronized (this) {
+            this.subscription = subscription;
+        }
+        sink.onCancel(this::cancel);
+        // The container calls onWritePossible() once the output is ready, which requests the first chunk
+        output.setWriteListener(this);
+    }
+
+    @Override
+    public synchronized void onNext(DataBuffer buffer) {
+        requested = false;
+        if (finished) {
+            DataBufferUtils.release(buffer);
+            return;
+        }
+        pending = buffer;
+        try {
+            if (output.isReady()) {
+                writePending();
+                requestIfReady();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Upstream body failed ({@link Subscriber}) or the client write failed ({@link WriteListener}).
+     * Cancelling an already terminated upstream is a no-op.
+     */
+    @Override
+    public synchronized void onError(Throwable error) {
+        fail(error);
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        upstreamDone = true;
+        try {
+            if (pending == null && output.isReady()) {
+                finish();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void onWritePossible() throws IOException {
+        if (finished) {
+            return;
+        }
+        try {
+            if (pending != null) {
+                writePending();
+            }
+            if (upstreamDone) {
+                if (output.isReady()) {
+                    finish();
+                }
+                return;
+            }
+            requestIfReady();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writePending() throws IOException {
+        DataBuffer buffer = pending;
+        pending = null;
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            output.write(bytes);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * Request the next chunk if the output can take it; otherwise onWritePossible() will.
+     */
+    private void requestIfReady() {
+        if (!requested && output.isReady()) {
+            requested = true;
+            subscription.request(1);
+        }
+    }
+
+    private void finish() throws IOException {
+        finished = true;
+        output.flush();
+        sink.success();
+    }
+
+    private void fail(Throwable error) {
+        if (finished) {
+            return;
+        }
+        cancel();
+        sink.error(error);
+    }
+
+    private synchronized void cancel() {
+        finished = true;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        if (pending != null) {
+            DataBufferUtils.release(pending);
+            pending = null;
+        }
+    }
+}
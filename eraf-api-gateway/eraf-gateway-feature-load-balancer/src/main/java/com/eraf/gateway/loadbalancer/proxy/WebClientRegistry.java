@@ -0,0 +1,280 @@
+package com.eraf.gateway.loadbalancer.proxy;
+
+import com.eraf.gateway.loadbalancer.domain.ConnectionPoolConfig;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+import com.eraf.gateway.loadbalancer.repository.UpstreamChangeListener;
+import com.eraf.gateway.loadbalancer.repository.UpstreamRepository;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of pooled WebClients for upstream servers.
+ * Caches one tuned client (with its own connection pool) per server, built from the
+ * owning upstream's timeouts and connection pool configuration. Pools are created
+ * lazily on first use and rebuilt only for servers affected by an upstream change.
+ */
+@Slf4j
+@Component
+public class WebClientRegistry implements UpstreamChangeListener {
+    private static final String POOL_NAME_PREFIX = "eraf-lb-";
+
+    private final WebClient.Builder webClientBuilder;
+    private final UpstreamRepository upstreamRepository;
+
+    /**
+     * Clients per upstream name.
+     */
+    private final Map<String, UpstreamClients> clientsByUpstream = new ConcurrentHashMap<>();
+
+    /**
+     * Pool metrics per pool name, published by reactor-netty when a pool is created.
+     */
+    private final Map<String, ConnectionPoolMetrics> poolMetrics = new ConcurrentHashMap<>();
+
+    private final ConnectionProvider.MeterRegistrar meterRegistrar =
+            (poolName, id, remoteAddress, metrics) -> poolMetrics.put(poolName, metrics);
+
+    public WebClientRegistry(WebClient.Builder webClientBuilder, UpstreamRepository upstreamRepository) {
+        this.webClientBuilder = webClientBuilder;
+        this.upstreamRepository = upstreamRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        upstreamRepository.addListener(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        clientsByUpstream.values().forEach(UpstreamClients::disposeAll);
+        clientsByUpstream.clear();
+    }
+
+    /**
+     * Get the pooled client for a server of an upstream.
+     * The client's base URL is the server URL.
+     */
+    public WebClient getClient(Upstream upstream, Server server) {
+        UpstreamClients clients = clientsByUpstream.get(upstream.getName());
+
+        if (clients == null || !clients.matches(upstream)) {
+            clients = clientsByUpstream.compute(upstream.getName(), (name, existing) -> {
+                if (existing != null && existing.matches(upstream)) {
+                    return existing;
+                }
+                if (existing != null) {
+                    log.info("Connection settings changed for upstream {}, rebuilding pools", name);
+                    existing.disposeAll();
+                }
+                return new UpstreamClients(upstream);
+            });
+        }
+
+        return clients.getClient(server);
+    }
+
+    @Override
+    public void onUpstreamSaved(Upstream previous, Upstream current) {
+        UpstreamClients clients = clientsByUpstream.get(current.getName());
+        if (clients == null) {
+            return;
+        }
+
+        if (!clients.matches(current)) {
+            // Settings changed: drop all pools, they are rebuilt lazily on next use
+            if (clientsByUpstream.remove(current.getName(), clients)) {
+                log.info("Connection settings changed for upstream {}, disposing pools", current.getName());
+                clients.disposeAll();
+            }
+            return;
+        }
+
+        // Same settings: only dispose pools of servers that are no longer part of the upstream
+        clients.retainServers(current.getServers());
+    }
+
+    @Override
+    public void onUpstreamDeleted(Upstream removed) {
+        UpstreamClients clients = clientsByUpstream.remove(removed.getName());
+        if (clients != null) {
+            log.info("Upstream {} deleted, disposing {} pools", removed.getName(), clients.size());
+            clients.disposeAll();
+        }
+    }
+
+    /**
+     * Get pool statistics for all servers of an upstream.
+     */
+    public List<PoolStats> getPoolStats(String upstreamName) {
+        UpstreamClients clients = clientsByUpstream.get(upstreamName);
+        if (clients == null) {
+            return Collections.emptyList();
+        }
+        return clients.getPoolStats();
+    }
+
+    /**
+     * Get pool statistics for all upstreams.
+     */
+    public List<PoolStats> getAllPoolStats() {
+        List<PoolStats> stats = new ArrayList<>();
+        clientsByUpstream.values().forEach(clients -> stats.addAll(clients.getPoolStats()));
+        return stats;
+    }
+
+    /**
+     * Pooled clients of one upstream, together with the settings they were built from.
+     */
+    private class UpstreamClients {
+        private final String upstreamName;
+        private final int connectTimeout;
+        private final int readTimeout;
+        private final ConnectionPoolConfig poolConfig;
+        private final Map<String, PooledClient> clientsByAddress = new ConcurrentHashMap<>();
+
+        UpstreamClients(Upstream upstream) {
+            this.upstreamName = upstream.getName();
+            this.connectTimeout = upstream.getConnectTimeout();
+            this.readTimeout = upstream.getReadTimeout();
+            this.poolConfig = copyOf(upstream.getConnectionPool());
+        }
+
+        boolean matches(Upstream upstream) {
+            return connectTimeout == upstream.getConnectTimeout()
+                    && readTimeout == upstream.getReadTimeout()
+                    && Objects.equals(poolConfig, upstream.getConnectionPool());
+        }
+
+        WebClient getClient(Server server) {
+            PooledClient client = clientsByAddress.get(server.getAddress());
+            if (client == null) {
+                client = clientsByAddress.computeIfAbsent(server.getAddress(), address -> createClient(server));
+            }
+            return client.webClient;
+        }
+
+        void retainServers(Collection<Server> servers) {
+            Set<String> addresses = servers.stream()
+                    .map(Server::getAddress)
+                    .collect(Collectors.toSet());
+
+            clientsByAddress.entrySet().removeIf(entry -> {
+                if (addresses.contains(entry.getKey())) {
+                    return false;
+                }
+                log.info("Server {} removed from upstream {}, disposing pool", entry.getKey(), upstreamName);
+                dispose(entry.getValue());
+                return true;
+            });
+        }
+
+        void disposeAll() {
+            clientsByAddress.values().forEach(WebClientRegistry.this::dispose);
+            clientsByAddress.clear();
+        }
+
+        int size() {
+            return clientsByAddress.size();
+        }
+
+        List<PoolStats> getPoolStats() {
+            List<PoolStats> stats = new ArrayList<>();
+            clientsByAddress.forEach((address, client) -> {
+                ConnectionPoolMetrics metrics = poolMetrics.get(client.poolName);
+                PoolStats.PoolStatsBuilder builder = PoolStats.builder()
+                        .upstreamName(upstreamName)
+                        .serverAddress(address)
+                        .maxConnections(poolConfig.getMaxConnections())
+                        .maxPendingAcquires(poolConfig.getPendingAcquireMaxCount());
+                if (metrics != null) {
+                    builder.acquiredConnections(metrics.acquiredSize())
+                            .idleConnections(metrics.idleSize())
+                            .allocatedConnections(metrics.allocatedSize())
+                            .pendingAcquires(metrics.pendingAcquireSize());
+                }
+                stats.add(builder.build());
+            });
+            return stats;
+        }
+
+        private PooledClient createClient(Server server) {
+            String poolName = POOL_NAME_PREFIX + upstreamName + ":" + server.getAddress();
+            log.debug("Creating connection pool {}", poolName);
+
+            ConnectionProvider provider = ConnectionProvider.builder(poolName)
+                    .maxConnections(poolConfig.getMaxConnections())
+                    .pendingAcquireMaxCount(poolConfig.getPendingAcquireMaxCount())
+                    .pendingAcquireTimeout(poolConfig.getPendingAcquireTimeout())
+                    .maxIdleTime(poolConfig.getMaxIdleTime())
+                    .maxLifeTime(poolConfig.getMaxLifeTime())
+                    .evictInBackground(poolConfig.getEvictionInterval())
+                    .metrics(true, () -> meterRegistrar)
+                    .build();
+
+            HttpClient httpClient = HttpClient.create(provider)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                    .option(ChannelOption.SO_KEEPALIVE, poolConfig.isKeepAlive())
+                    .keepAlive(poolConfig.isKeepAlive())
+                    .responseTimeout(Duration.ofMillis(readTimeout));
+
+            WebClient webClient = webClientBuilder.clone()
+                    .baseUrl(server.getUrl())
+                    .clientConnector(new ReactorClientHttpConnector(httpClient))
+                    .build();
+
+            return new PooledClient(poolName, provider, webClient);
+        }
+    }
+
+    private void dispose(PooledClient client) {
+        poolMetrics.remove(client.poolName);
+        client.provider.disposeLater().subscribe();
+    }
+
+    private static ConnectionPoolConfig copyOf(ConnectionPoolConfig config) {
+        return ConnectionPoolConfig.builder()
+                .maxConnections(config.getMaxConnections())
+                .pendingAcquireMaxCount(config.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(config.getPendingAcquireTimeout())
+                .maxIdleTime(config.getMaxIdleTime())
+                .maxLifeTime(config.getMaxLifeTime())
+                .evictionInterval(config.getEvictionInterval())
+                .keepAlive(config.isKeepAlive())
+                .build();
+    }
+
+    /**
+     * WebClient together with the connection provider backing it.
+     */
+    private static class PooledClient {
+        private final String poolName;
+        private final ConnectionProvider provider;
+        private final WebClient webClient;
+
+        PooledClient(String poolName, ConnectionProvider provider, WebClient webClient) {
+            this.poolName = poolName;
+            this.provider = provider;
+            this.webClient = webClient;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.eraf.gateway.loadbalancer.repository;
+
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+
+/**
+ * Listener for upstream configuration changes.
+ * Registered with {@link UpstreamRepository} to react to saves and deletes.
+ */
+public interface UpstreamChangeListener {
+    /**
+     * Called after an upstream has been saved.
+     *
+     * @param previous Upstream previously stored under the same name, or null if new
+     * @param current Saved upstream
+     */
+    void onUpstreamSaved(Upstream previous, Upstream current);
+
+    /**
+     * Called after an upstream has been deleted.
+     *
+     * @param removed Removed upstream
+     */
+    void onUpstreamDeleted(Upstream removed);
+}
@@ -5,9 +5,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Repository for upstream configurations.
@@ -17,13 +19,22 @@ import java.util.concurrent.ConcurrentHashMap;
 @Repository
 public class UpstreamRepository {
     private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+    private final List<UpstreamChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Register a listener for upstream changes.
+     */
+    public void addListener(UpstreamChangeListener listener) {
+        listeners.add(listener);
+    }
 
     /**
      * Save or update an upstream.
      */
     public Upstream save(Upstream upstream) {
         log.info("Saving upstream: {}", upstream.getName());
-        upstreams.put(upstream.getName(), upstream);
+        Upstream previous = upstreams.put(upstream.getName(), upstream);
+        listeners.forEach(listener -> listener.onUpstreamSaved(previous, upstream));
         return upstream;
     }
 
@@ -46,7 +57,10 @@ public class UpstreamRepository {
      */
     public void deleteByName(String name) {
         log.info("Deleting upstream: {}", name);
-        upstreams.remove(name);
+        Upstream removed = upstreams.remove(name);
+        if (removed != null) {
+            listeners.forEach(listener -> listener.onUpstreamDeleted(removed));
+        }
     }
 
     /**
@@ -68,6 +82,6 @@ public class UpstreamRepository {
      */
     public void clear() {
         log.warn("Clearing all upstreams");
-        upstreams.clear();
+        upstreams.keySet().forEach(this::deleteByName);
     }
 }
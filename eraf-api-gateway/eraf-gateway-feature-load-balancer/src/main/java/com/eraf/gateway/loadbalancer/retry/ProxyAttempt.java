@@ -0,0 +1,33 @@
+package com.eraf.gateway.loadbalancer.retry;
+
+import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.proxy.ProxyResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Result of the attempt whose response is returned to the client.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProxyAttempt {
+    /**
+     * Server that produced the response.
+     */
+    private final Server server;
+
+    /**
+     * Upstream response.
+     */
+    private final ProxyResponse response;
+
+    /**
+     * Attempt number (1 for the first attempt, incremented per retry).
+     */
+    private final int attempt;
+
+    /**
+     * Whether the response came from a hedged request.
+     */
+    private final boolean hedged;
+}
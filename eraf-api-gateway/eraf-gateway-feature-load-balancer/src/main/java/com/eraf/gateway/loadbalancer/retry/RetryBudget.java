@@ -0,0 +1,98 @@
+package com.eraf.gateway.loadbalancer.retry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Retry budget of an upstream.
+ * Counts requests and retries (including hedges) over a sliding window of buckets and allows
+ * a retry only while retries stay below {@code percent} of the requests in the window, or below
+ * a minimum rate so that low-traffic upstreams can still retry. This stops retries from
+ * multiplying the load on an upstream that is already failing.
+ * <p>
+ * Counting is lock-free. A bucket is reset by the first thread that enters it; counts racing
+ * with a reset may be lost, so the budget is approximate.
+ */
+class RetryBudget {
+    private static final int BUCKETS = 10;
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+
+    private final long bucketMillis;
+    private final int percent;
+    private final long minRetries;
+
+    private final AtomicLongArray bucketIds = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray requests = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray retries = new AtomicLongArray(BUCKETS);
+
+    /**
+     * @param windowMillis Window over which requests and retries are counted
+     * @param percent Retries allowed as a percentage of requests
+     * @param minRetriesPerSecond Retries always allowed per second
+     */
+    RetryBudget(long windowMillis, int percent, int minRetriesPerSecond) {
+        this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+        this.percent = Math.max(0, percent);
+        this.minRetries = Math.max(0, (long) minRetriesPerSecond * bucketMillis * BUCKETS / 1000);
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketIds.set(i, NO_BUCKET);
+        }
+    }
+
+    /**
+     * Record an incoming request.
+     */
+    void recordRequest() {
+        recordRequest(nowMillis());
+    }
+
+    void recordRequest(long nowMillis) {
+        requests.incrementAndGet(slot(Math.floorDiv(nowMillis, bucketMillis)));
+    }
+
+    /**
+     * Try to spend one retry from the budget.
+     *
+     * @return true if the retry is allowed (and counted)
+     */
+    boolean tryAcquire() {
+        return tryAcquire(nowMillis());
+    }
+
+    boolean tryAcquire(long nowMillis) {
+        long bucket = Math.floorDiv(nowMillis, bucketMillis);
+        int slot = slot(bucket);
+
+        long windowRequests = 0;
+        long windowRetries = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long id = bucketIds.get(i);
+            if (id != NO_BUCKET && id > bucket - BUCKETS && id <= bucket) {
+                windowRequests += requests.get(i);
+                windowRetries += retries.get(i);
+            }
+        }
+
+        long allowed = Math.max(minRetries, windowRequests * percent / 100);
+        if (windowRetries >= allowed) {
+            return false;
+        }
+        retries.incrementAndGet(slot);
+        return true;
+    }
+
+    private int slot(long bucket) {
+        // System.nanoTime() may be negative, so bucket ids can be too
+        int slot = (int) Math.floorMod(bucket, (long) BUCKETS);
+        long current = bucketIds.get(slot);
+        if (current != bucket && bucketIds.compareAndSet(slot, current, bucket)) {
+            requests.set(slot, 0);
+            retries.set(slot, 0);
+        }
+        return slot;
+    }
+
+    private static long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -0,0 +1,379 @@
+package com.eraf.gateway.loadbalancer.retry;
+
+import com.eraf.gateway.loadbalancer.domain.RetryConfig;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+import com.eraf.gateway.loadbalancer.health.PassiveHealthChecker;
+import com.eraf.gateway.loadbalancer.proxy.HttpProxyClient;
+import com.eraf.gateway.loadbalancer.proxy.ProxyResponse;
+import com.eraf.gateway.loadbalancer.repository.UpstreamChangeListener;
+import com.eraf.gateway.loadbalancer.repository.UpstreamRepository;
+import com.eraf.gateway.loadbalancer.service.LoadBalancerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes buffered proxy requests with retries and hedging.
+ * <p>
+ * Requests with an idempotent method are retried on a different server when the upstream
+ * returns a retryable status or no response at all. With hedging enabled, a second request
+ * is sent to another server when the first has not answered within the upstream's p95
+ * latency; the first usable response wins and the other request is cancelled. Retries and
+ * hedges share a per-upstream {@link RetryBudget}, so a failing upstream does not get
+ * its load multiplied.
+ * <p>
+ * All attempts of a request, including hedges, share one deadline of the upstream's connect
+ * plus read timeout. No retry or hedge starts after it, and attempts still in flight when it
+ * passes are cancelled, so retries never stretch a request beyond a single attempt's limit.
+ * <p>
+ * Every attempt updates the server's connection count, latency estimate and passive health.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetryExecutor implements UpstreamChangeListener {
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private final LoadBalancerService loadBalancerService;
+    private final HttpProxyClient proxyClient;
+    private final PassiveHealthChecker passiveHealthChecker;
+    private final UpstreamRepository upstreamRepository;
+
+    /**
+     * Retry state per upstream name.
+     */
+    private final Map<String, RetryState> states = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        upstreamRepository.addListener(this);
+    }
+
+    @Override
+    public void onUpstreamSaved(Upstream previous, Upstream current) {
+        RetryState state = states.get(current.getName());
+        if (state != null && state.config != current.getRetry()) {
+            states.remove(current.getName(), state);
+        }
+    }
+
+    @Override
+    public void onUpstreamDeleted(Upstream removed) {
+        states.remove(removed.getName());
+    }
+
+    /**
+     * Proxy a request to an upstream, starting with the given server.
+     *
+     * @param clientKey Key used by the load balancer to pick retry and hedge servers
+     * @return The attempt whose response should be returned to the client
+     */
+    public Mono<ProxyAttempt> proxy(HttpServletRequest request, Upstream upstream, Server server, String clientKey) {
+        RetryConfig config = upstream.getRetry();
+        if (config == null || !config.isEnabled() || !config.isIdempotent(request.getMethod())) {
+            return attempt(request, upstream, server, null, 1, false);
+        }
+
+        RetryState state = getState(upstream);
+        state.budget.recordRequest();
+        state.requests.incrementAndGet();
+
+        Duration deadline = Duration.ofMillis((long) upstream.getConnectTimeout() + upstream.getReadTimeout());
+        RetryContext context = new RetryContext(request, upstream, clientKey, state, deadline);
+        return execute(context, server, 1)
+                .timeout(deadline, Mono.fromSupplier(() -> deadlineExceeded(context, server)))
+                .doOnNext(result -> {
+                    if (result.isHedged()) {
+                        state.hedgeWins.incrementAndGet();
+                    }
+                });
+    }
+
+    /**
+     * Get retry statistics for an upstream, or null if it has no retry state.
+     */
+    public RetryStats getStats(String upstreamName) {
+        RetryState state = states.get(upstreamName);
+        if (state == null) {
+            return null;
+        }
+        return RetryStats.builder()
+                .upstreamName(upstreamName)
+                .requests(state.requests.get())
+                .retries(state.retries.get())
+                .hedges(state.hedges.get())
+                .hedgeWins(state.hedgeWins.get())
+                .budgetExhausted(state.budgetExhausted.get())
+                .p95LatencyMillis(state.latencies.getPercentileMillis(HEDGE_PERCENTILE))
+                .build();
+    }
+
+    /**
+     * Record a proxy response for the server's latency estimate and passive health check.
+     */
+    public void recordResult(Server server, Upstream upstream, ProxyResponse proxyResponse) {
+        if (!hasUpstreamResponse(proxyResponse)) {
+            recordFailure(server, upstream);
+            return;
+        }
+
+        server.recordLatency(proxyResponse.getLatencyNanos());
+        if (proxyResponse.isServerError()) {
+            passiveHealthChecker.recordFailure(server, upstream, proxyResponse.getLatencyNanos());
+        } else if (proxyResponse.isSuccess()) {
+            passiveHealthChecker.recordSuccess(server, upstream, proxyResponse.getLatencyNanos());
+        }
+    }
+
+    /**
+     * Record a request that got no upstream response (connect error, timeout).
+     * It counts as taking the full read timeout, so fast-failing servers do not look
+     * fast to latency-aware algorithms.
+     */
+    public void recordFailure(Server server, Upstream upstream) {
+        long failedLatencyNanos = TimeUnit.MILLISECONDS.toNanos(upstream.getReadTimeout());
+        server.recordLatency(failedLatencyNanos);
+        passiveHealthChecker.recordFailure(server, upstream, failedLatencyNanos);
+    }
+
+    /**
+     * Run one attempt (possibly hedged), then retry on another server while the result
+     * is retryable, retries are left and the budget allows.
+     */
+    private Mono<ProxyAttempt> execute(RetryContext context, Server server, int attempt) {
+        RetryConfig config = context.state.config;
+
+        return hedgedAttempt(context, server, attempt).flatMap(result -> {
+            if (!isRetryable(result.getResponse(), config) || attempt > config.getMaxRetries()) {
+                return Mono.just(result);
+            }
+
+            if (context.isPastDeadline()) {
+                log.debug("Retry deadline of request {} passed (upstream: {})",
+                        context.request.getRequestURI(), context.upstream.getName());
+                return Mono.just(result);
+            }
+
+            Server next = loadBalancerService.selectServer(
+                    context.upstream.getName(), context.clientKey, context.tried);
+            if (next == null) {
+                log.debug("No other server to retry on for upstream {}", context.upstream.getName());
+                return Mono.just(result);
+            }
+            if (!context.state.budget.tryAcquire()) {
+                context.state.budgetExhausted.incrementAndGet();
+                log.debug("Retry budget of upstream {} exhausted", context.upstream.getName());
+                return Mono.just(result);
+            }
+
+            context.state.retries.incrementAndGet();
+            log.info("Retrying request {} on server {} (attempt {}, upstream: {}, previous status: {})",
+                    context.request.getRequestURI(), next.getAddress(), attempt + 1,
+                    context.upstream.getName(), result.getResponse().getStatusCode());
+            return execute(context, next, attempt + 1);
+        });
+    }
+
+    /**
+     * Send an attempt and, if it has not completed after the hedge delay, a hedged request
+     * to another server. The first result that is not retryable wins; if both are retryable,
+     * the last one is returned.
+     */
+    private Mono<ProxyAttempt> hedgedAttempt(RetryContext context, Server server, int attempt) {
+        long hedgeDelayMillis = hedgeDelayMillis(context.state);
+        if (hedgeDelayMillis < 0) {
+            return attempt(context.request, context.upstream, server, context, attempt, false);
+        }
+
+        Sinks.One<Boolean> primaryDone = Sinks.one();
+        Mono<ProxyAttempt> primary = attempt(context.request, context.upstream, server, context, attempt, false)
+                .doFinally(signal -> primaryDone.tryEmitValue(true));
+
+        Mono<ProxyAttempt> hedge = Mono.delay(Duration.ofMillis(hedgeDelayMillis))
+                .takeUntilOther(primaryDone.asMono())
+                .flatMap(tick -> startHedge(context, attempt));
+
+        RetryConfig config = context.state.config;
+        return Flux.merge(primary, hedge)
+                .takeUntil(result -> !isRetryable(result.getResponse(), config))
+                .last();
+    }
+
+    private Mono<ProxyAttempt> startHedge(RetryContext context, int attempt) {
+        if (context.isPastDeadline()) {
+            return Mono.empty();
+        }
+        Server other = loadBalancerService.selectServer(context.upstream.getName(), context.clientKey, context.tried);
+        if (other == null) {
+            return Mono.empty();
+        }
+        if (!context.state.budget.tryAcquire()) {
+            context.state.budgetExhausted.incrementAndGet();
+            return Mono.empty();
+        }
+
+        context.state.hedges.incrementAndGet();
+        log.debug("Hedging request {} to server {} (upstream: {})",
+                context.request.getRequestURI(), other.getAddress(), context.upstream.getName());
+        return attempt(context.request, context.upstream, other, context, attempt, true);
+    }
+
+    /**
+     * Send a single request to a server.
+     * A request cancelled because another attempt won is not recorded as a result.
+     */
+    private Mono<ProxyAttempt> attempt(HttpServletRequest request, Upstream upstream, Server server,
+                                       RetryContext context, int attempt, boolean hedged) {
+        return Mono.defer(() -> {
+                    if (context != null) {
+                        context.tried.add(server);
+                    }
+                    return proxyClient.proxyRequest(request, server, upstream);
+                })
+                // Counted from subscription, so a synchronous failure building the exchange is released too
+                .doOnSubscribe(subscription -> upstream.incrementConnections(server))
+                .doOnNext(response -> {
+                    recordResult(server, upstream, response);
+                    if (context != null && hasUpstreamResponse(response)) {
+                        context.state.latencies.record(response.getLatencyNanos());
+                    }
+                })
+                .doOnError(error -> recordFailure(server, upstream))
+                .doFinally(signal -> upstream.decrementConnections(server))
+                .map(response -> new ProxyAttempt(server, response, attempt, hedged));
+    }
+
+    /**
+     * Result when the request deadline passed with attempts still in flight (they are cancelled).
+     */
+    private static ProxyAttempt deadlineExceeded(RetryContext context, Server server) {
+        log.warn("Request {} exceeded its deadline across retries (upstream: {})",
+                context.request.getRequestURI(), context.upstream.getName());
+        ProxyResponse response = ProxyResponse.builder()
+                .statusCode(503)
+                .body("Service Unavailable: upstream deadline exceeded")
+                .success(false)
+                .error("Deadline exceeded")
+                .build();
+        return new ProxyAttempt(server, response, context.tried.size(), false);
+    }
+
+    /**
+     * Hedge delay from the upstream's recent p95 latency, or the configured fallback.
+     *
+     * @return Delay in milliseconds, or -1 if the request should not be hedged
+     */
+    private long hedgeDelayMillis(RetryState state) {
+        RetryConfig config = state.config;
+        if (!config.isHedgingEnabled()) {
+            return -1;
+        }
+
+        double p95 = state.latencies.getPercentileMillis(HEDGE_PERCENTILE);
+        long delay;
+        if (p95 >= 0) {
+            delay = (long) Math.ceil(p95);
+        } else if (config.getHedgeDelay() != null) {
+            delay = config.getHedgeDelay().toMillis();
+        } else {
+            return -1;
+        }
+
+        long minDelay = config.getMinHedgeDelay() != null ? config.getMinHedgeDelay().toMillis() : 0;
+        return Math.max(delay, minDelay);
+    }
+
+    /**
+     * Check if a response should be retried.
+     */
+    private static boolean isRetryable(ProxyResponse response, RetryConfig config) {
+        if (!hasUpstreamResponse(response)) {
+            return config.isRetryOnConnectFailure();
+        }
+        return config.getRetryOnStatuses().contains(response.getStatusCode());
+    }
+
+    /**
+     * Check if the upstream answered at all (as opposed to a connect error or timeout).
+     */
+    private static boolean hasUpstreamResponse(ProxyResponse response) {
+        return response.isSuccess() || response.getHeaders() != null;
+    }
+
+    private RetryState getState(Upstream upstream) {
+        RetryState state = states.get(upstream.getName());
+        if (state == null || state.config != upstream.getRetry()) {
+            state = states.compute(upstream.getName(), (name, existing) ->
+                    existing != null && existing.config == upstream.getRetry() ? existing : new RetryState(upstream.getRetry()));
+        }
+        return state;
+    }
+
+    /**
+     * Budget, latencies and counters of one upstream, built from its retry configuration.
+     */
+    private static class RetryState {
+        private final RetryConfig config;
+        private final RetryBudget budget;
+        private final RollingLatency latencies;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong hedges = new AtomicLong();
+        private final AtomicLong hedgeWins = new AtomicLong();
+        private final AtomicLong budgetExhausted = new AtomicLong();
+
+        RetryState(RetryConfig config) {
+            this.config = config;
+            long windowMillis = config.getBudgetWindow().toMillis();
+            this.budget = new RetryBudget(windowMillis, config.getBudgetPercent(), config.getMinRetriesPerSecond());
+            this.latencies = new RollingLatency(windowMillis);
+        }
+    }
+
+    /**
+     * State of one client request across its attempts.
+     */
+    private static class RetryContext {
+        private final HttpServletRequest request;
+        private final Upstream upstream;
+        private final String clientKey;
+        private final RetryState state;
+
+        /**
+         * System.nanoTime() after which no retry or hedge is started.
+         */
+        private final long deadlineNanos;
+
+        /**
+         * Servers already tried; written by the primary and hedge attempts concurrently.
+         */
+        private final List<Server> tried = new CopyOnWriteArrayList<>();
+
+        RetryContext(HttpServletRequest request, Upstream upstream, String clientKey, RetryState state,
+                     Duration deadline) {
+            this.request = request;
+            this.upstream = upstream;
+            this.clientKey = clientKey;
+            this.state = state;
+            this.deadlineNanos = System.nanoTime() + deadline.toNanos();
+        }
+
+        boolean isPastDeadline() {
+            return System.nanoTime() - deadlineNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.eraf.gateway.loadbalancer.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Retry and hedging statistics for an upstream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryStats {
+    /**
+     * Upstream name.
+     */
+    private String upstreamName;
+
+    /**
+     * Requests eligible for retries or hedging.
+     */
+    private long requests;
+
+    /**
+     * Retries sent.
+     */
+    private long retries;
+
+    /**
+     * Hedged requests sent.
+     */
+    private long hedges;
+
+    /**
+     * Requests answered by a hedged request.
+     */
+    private long hedgeWins;
+
+    /**
+     * Retries and hedges not sent because the retry budget was exhausted.
+     */
+    private long budgetExhausted;
+
+    /**
+     * Current p95 latency in milliseconds (-1 until enough latencies are observed).
+     */
+    private double p95LatencyMillis;
+}
@@ -0,0 +1,80 @@
+package com.eraf.gateway.loadbalancer.retry;
+
+import com.eraf.gateway.loadbalancer.health.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recent latency distribution of an upstream, used for the hedge delay.
+ * Latencies go into the histogram of the current period; percentiles are read from the
+ * last complete period, so the estimate follows the upstream without being skewed by
+ * the few samples of a period that just started.
+ */
+class RollingLatency {
+    /**
+     * Bucket bounds with about 10% precision up to one minute.
+     */
+    private static final long[] BOUNDS_MILLIS = LatencyHistogram.exponentialBounds(60_000, 1.1);
+
+    /**
+     * Samples needed before a period is used for percentiles.
+     */
+    static final int MIN_SAMPLES = 20;
+
+    private final long periodNanos;
+    private final AtomicReference<Period> current;
+    private volatile LatencyHistogram previous;
+
+    RollingLatency(long periodMillis) {
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, periodMillis));
+        this.current = new AtomicReference<>(new Period(System.nanoTime()));
+    }
+
+    /**
+     * Record the latency of a request that got an upstream response.
+     */
+    void record(long latencyNanos) {
+        record(latencyNanos, System.nanoTime());
+    }
+
+    void record(long latencyNanos, long now) {
+        Period period = current.get();
+        if (now - period.start >= periodNanos) {
+            Period next = new Period(now);
+            if (current.compareAndSet(period, next)) {
+                if (period.histogram.getCount() >= MIN_SAMPLES) {
+                    previous = period.histogram;
+                }
+                period = next;
+            } else {
+                period = current.get();
+            }
+        }
+        period.histogram.record(latencyNanos);
+    }
+
+    /**
+     * Get a latency percentile in milliseconds, or -1 if too few latencies have been observed.
+     */
+    double getPercentileMillis(double percentile) {
+        LatencyHistogram histogram = previous;
+        if (histogram == null) {
+            // No complete period yet: use the current one once it has enough samples
+            histogram = current.get().histogram;
+            if (histogram.getCount() < MIN_SAMPLES) {
+                return -1;
+            }
+        }
+        return histogram.getPercentileMillis(percentile);
+    }
+
+    private static final class Period {
+        private final long start;
+        private final LatencyHistogram histogram = new LatencyHistogram(BOUNDS_MILLIS);
+
+        Period(long start) {
+            this.start = start;
+        }
+    }
+}
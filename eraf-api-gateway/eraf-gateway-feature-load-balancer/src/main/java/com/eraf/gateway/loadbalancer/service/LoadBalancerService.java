@@ -3,71 +3,140 @@ package com.eraf.gateway.loadbalancer.service;
 import com.eraf.gateway.loadbalancer.algorithm.*;
 import com.eraf.gateway.loadbalancer.domain.LoadBalancerAlgorithm;
 import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.ServerStateListener;
 import com.eraf.gateway.loadbalancer.domain.Upstream;
+import com.eraf.gateway.loadbalancer.repository.UpstreamChangeListener;
 import com.eraf.gateway.loadbalancer.repository.UpstreamRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
-import java.util.HashMap;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 /**
  * Load balancer service.
  * Manages server selection and upstream statistics.
+ * <p>
+ * Selection reads an immutable {@link RoutingTable} keyed by upstream name. The table is
+ * swapped atomically (copy-on-write) when upstreams are saved or deleted, and when a server
+ * reports a health, ejection or weight change through its {@link ServerStateListener}.
+ * The rebuild runs on the thread that changed the state, so selection never waits for it.
+ * <p>
+ * Each upstream gets its own {@link LoadBalancer} instance, held by its route, so
+ * stateful algorithms (round-robin position, weight schedule) are not shared between upstreams.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class LoadBalancerService {
+public class LoadBalancerService implements UpstreamChangeListener {
+    /**
+     * Load balancer picks tried before falling back to a scan when excluding servers.
+     */
+    private static final int EXCLUDING_SELECTION_ATTEMPTS = 3;
+
     private final UpstreamRepository upstreamRepository;
-    private final Map<LoadBalancerAlgorithm, LoadBalancer> loadBalancers = new HashMap<>();
+    private final Map<LoadBalancerAlgorithm, Function<Upstream, LoadBalancer>> loadBalancerFactories =
+            new EnumMap<>(LoadBalancerAlgorithm.class);
+    private final Object routingTableLock = new Object();
+    private volatile RoutingTable routingTable = RoutingTable.EMPTY;
 
     @PostConstruct
     public void init() {
+        upstreamRepository.addListener(this);
+
         // Initialize load balancer implementations
-        loadBalancers.put(LoadBalancerAlgorithm.ROUND_ROBIN, new RoundRobinLoadBalancer());
-        loadBalancers.put(LoadBalancerAlgorithm.WEIGHTED_ROUND_ROBIN, new WeightedRoundRobinLoadBalancer());
-        loadBalancers.put(LoadBalancerAlgorithm.LEAST_CONNECTIONS, new LeastConnectionsLoadBalancer());
-        loadBalancers.put(LoadBalancerAlgorithm.RANDOM, new RandomLoadBalancer());
-        loadBalancers.put(LoadBalancerAlgorithm.IP_HASH, new IpHashLoadBalancer());
+        loadBalancerFactories.put(LoadBalancerAlgorithm.ROUND_ROBIN, upstream -> new RoundRobinLoadBalancer());
+        loadBalancerFactories.put(LoadBalancerAlgorithm.WEIGHTED_ROUND_ROBIN,
+                upstream -> new WeightedRoundRobinLoadBalancer());
+        loadBalancerFactories.put(LoadBalancerAlgorithm.LEAST_CONNECTIONS,
+                upstream -> new LeastConnectionsLoadBalancer());
+        loadBalancerFactories.put(LoadBalancerAlgorithm.RANDOM, upstream -> new RandomLoadBalancer());
+        loadBalancerFactories.put(LoadBalancerAlgorithm.IP_HASH, upstream ->
+                new IpHashLoadBalancer(upstream.getHashVirtualNodes(), upstream.getHashBalanceFactor(),
+                        upstream::getTotalActiveConnections));
+        loadBalancerFactories.put(LoadBalancerAlgorithm.CONSISTENT_HASH, upstream ->
+                new ConsistentHashLoadBalancer(upstream.getHashVirtualNodes(), upstream.getHashBalanceFactor(),
+                        upstream::getTotalActiveConnections));
+        loadBalancerFactories.put(LoadBalancerAlgorithm.P2C_LEAST_LOADED,
+                upstream -> new P2CLeastLoadedLoadBalancer());
+        loadBalancerFactories.put(LoadBalancerAlgorithm.PEAK_EWMA, upstream -> new PeakEwmaLoadBalancer());
     }
 
     /**
      * Select a server from an upstream.
      */
     public Server selectServer(String upstreamName, String clientIp) {
-        Upstream upstream = upstreamRepository.findByName(upstreamName)
-                .orElseThrow(() -> new IllegalArgumentException("Upstream not found: " + upstreamName));
+        UpstreamRoute route = getRoute(upstreamName);
+        if (route == null) {
+            throw new IllegalArgumentException("Upstream not found: " + upstreamName);
+        }
+        Upstream upstream = route.getUpstream();
 
         // Handle canary deployment
         if (upstream.isCanaryEnabled()) {
-            return selectServerWithCanary(upstream, clientIp);
+            return selectServerWithCanary(route, clientIp);
         }
 
-        List<Server> healthyServers = upstream.getHealthyServers();
+        List<Server> healthyServers = route.getHealthyServers();
         if (healthyServers.isEmpty()) {
             log.warn("No healthy servers available for upstream: {}", upstreamName);
             return null;
         }
 
-        LoadBalancer loadBalancer = loadBalancers.get(upstream.getAlgorithm());
-        if (loadBalancer == null) {
-            log.error("Load balancer not found for algorithm: {}, falling back to ROUND_ROBIN",
-                    upstream.getAlgorithm());
-            loadBalancer = loadBalancers.get(LoadBalancerAlgorithm.ROUND_ROBIN);
+        return route.getLoadBalancer().selectServer(healthyServers, clientIp);
+    }
+
+    /**
+     * Select a server from an upstream other than the given ones (for retries and hedged requests).
+     * The load balancer is asked a few times; algorithms that keep picking an excluded server
+     * (hash-based ones always do) fall back to the next available server that is not excluded.
+     *
+     * @param excluded Servers already tried, compared by identity
+     * @return Server, or null if every available server is excluded
+     */
+    public Server selectServer(String upstreamName, String clientIp, List<Server> excluded) {
+        for (int i = 0; i < EXCLUDING_SELECTION_ATTEMPTS; i++) {
+            Server server = selectServer(upstreamName, clientIp);
+            if (server == null) {
+                return null;
+            }
+            if (!containsServer(excluded, server)) {
+                return server;
+            }
         }
 
-        return loadBalancer.selectServer(healthyServers, clientIp);
+        List<Server> healthyServers = getRoute(upstreamName).getHealthyServers();
+        int size = healthyServers.size();
+        int offset = size > 0 ? ThreadLocalRandom.current().nextInt(size) : 0;
+        for (int i = 0; i < size; i++) {
+            Server server = healthyServers.get((offset + i) % size);
+            if (!containsServer(excluded, server)) {
+                return server;
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsServer(List<Server> servers, Server server) {
+        for (Server candidate : servers) {
+            if (candidate == server) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Select server with canary deployment support.
      */
-    private Server selectServerWithCanary(Upstream upstream, String clientIp) {
+    private Server selectServerWithCanary(UpstreamRoute route, String clientIp) {
+        Upstream upstream = route.getUpstream();
         int canaryPercentage = upstream.getCanaryPercentage();
         int random = ThreadLocalRandom.current().nextInt(100);
 
@@ -82,19 +151,129 @@ public class LoadBalancerService {
             log.debug("Routing to stable version");
         }
 
-        List<Server> healthyServers = upstream.getHealthyServers(targetVersion);
+        List<Server> healthyServers = route.getHealthyServers(targetVersion);
         if (healthyServers.isEmpty()) {
             log.warn("No healthy servers available for version: {}, falling back to all servers",
                     targetVersion);
-            healthyServers = upstream.getHealthyServers();
+            healthyServers = route.getHealthyServers();
         }
 
         if (healthyServers.isEmpty()) {
             return null;
         }
 
-        LoadBalancer loadBalancer = loadBalancers.get(upstream.getAlgorithm());
-        return loadBalancer.selectServer(healthyServers, clientIp);
+        return route.getLoadBalancer().selectServer(healthyServers, clientIp);
+    }
+
+    /**
+     * Get an upstream by name from the routing table.
+     *
+     * @return Upstream, or null if not found
+     */
+    public Upstream getUpstream(String upstreamName) {
+        UpstreamRoute route = getRoute(upstreamName);
+        return route != null ? route.getUpstream() : null;
+    }
+
+    /**
+     * Rebuild the routing snapshot of an upstream.
+     * Needed only after changing an upstream's server list in place
+     * (saving the upstream and server state changes refresh it automatically).
+     */
+    public void refreshRoute(String upstreamName) {
+        Upstream upstream = upstreamRepository.findByName(upstreamName).orElse(null);
+        synchronized (routingTableLock) {
+            routingTable = upstream != null
+                    ? routingTable.with(buildRoute(upstream, routingTable.get(upstreamName)))
+                    : routingTable.without(upstreamName);
+        }
+    }
+
+    @Override
+    public void onUpstreamSaved(Upstream previous, Upstream current) {
+        synchronized (routingTableLock) {
+            // Always a new load balancer: the saved upstream's hash settings may have changed in place
+            routingTable = routingTable.with(buildRoute(current, null));
+        }
+    }
+
+    @Override
+    public void onUpstreamDeleted(Upstream removed) {
+        synchronized (routingTableLock) {
+            routingTable = routingTable.without(removed.getName());
+        }
+    }
+
+    /**
+     * Get the route for an upstream.
+     * Lock-free on the hot path; falls back to the repository on a miss.
+     */
+    private UpstreamRoute getRoute(String upstreamName) {
+        UpstreamRoute route = routingTable.get(upstreamName);
+        if (route != null) {
+            return route;
+        }
+
+        Upstream upstream = upstreamRepository.findByName(upstreamName).orElse(null);
+        if (upstream == null) {
+            return null;
+        }
+
+        synchronized (routingTableLock) {
+            route = routingTable.get(upstreamName);
+            if (route == null) {
+                route = buildRoute(upstream, null);
+                routingTable = routingTable.with(route);
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Rebuild the route of an upstream after one of its servers changed state.
+     * Ignored if the upstream was replaced or deleted since the route was built.
+     */
+    private void onServerStateChanged(Upstream upstream) {
+        synchronized (routingTableLock) {
+            UpstreamRoute route = routingTable.get(upstream.getName());
+            if (route != null && route.getUpstream() == upstream) {
+                routingTable = routingTable.with(buildRoute(upstream, route));
+            }
+        }
+    }
+
+    /**
+     * Build the route of an upstream. The previous route's load balancer is kept
+     * (and reset) for the same upstream and algorithm, so hash rings can be rebuilt
+     * incrementally; without a previous route (a saved upstream) a new load balancer
+     * is built from the upstream's settings.
+     * Each server of the upstream gets a state listener that rebuilds this route.
+     */
+    private UpstreamRoute buildRoute(Upstream upstream, UpstreamRoute previous) {
+        ServerStateListener listener = server -> onServerStateChanged(upstream);
+        for (Server server : upstream.getServers()) {
+            server.setStateListener(listener);
+        }
+
+        LoadBalancer loadBalancer;
+        if (previous != null && previous.getUpstream() == upstream
+                && previous.getAlgorithm() == upstream.getAlgorithm()) {
+            loadBalancer = previous.getLoadBalancer();
+            loadBalancer.reset();
+        } else {
+            loadBalancer = createLoadBalancer(upstream);
+        }
+        return UpstreamRoute.of(upstream, loadBalancer);
+    }
+
+    private LoadBalancer createLoadBalancer(Upstream upstream) {
+        Function<Upstream, LoadBalancer> factory = loadBalancerFactories.get(upstream.getAlgorithm());
+        if (factory == null) {
+            log.error("Load balancer not found for algorithm: {}, falling back to ROUND_ROBIN",
+                    upstream.getAlgorithm());
+            factory = loadBalancerFactories.get(LoadBalancerAlgorithm.ROUND_ROBIN);
+        }
+        return factory.apply(upstream);
     }
 
     /**
@@ -104,15 +283,6 @@ public class LoadBalancerService {
         log.warn("Marking server {}:{} as DOWN in upstream {}",
                 server.getHost(), server.getPort(), upstreamName);
         server.setHealthy(false);
-
-        // Reset load balancer state when server list changes
-        Upstream upstream = upstreamRepository.findByName(upstreamName).orElse(null);
-        if (upstream != null) {
-            LoadBalancer loadBalancer = loadBalancers.get(upstream.getAlgorithm());
-            if (loadBalancer != null) {
-                loadBalancer.reset();
-            }
-        }
     }
 
     /**
@@ -122,15 +292,6 @@ public class LoadBalancerService {
         log.info("Marking server {}:{} as UP in upstream {}",
                 server.getHost(), server.getPort(), upstreamName);
         server.setHealthy(true);
-
-        // Reset load balancer state when server list changes
-        Upstream upstream = upstreamRepository.findByName(upstreamName).orElse(null);
-        if (upstream != null) {
-            LoadBalancer loadBalancer = loadBalancers.get(upstream.getAlgorithm());
-            if (loadBalancer != null) {
-                loadBalancer.reset();
-            }
-        }
     }
 
     /**
@@ -145,6 +306,7 @@ public class LoadBalancerService {
                 .algorithm(upstream.getAlgorithm())
                 .totalServers(upstream.getTotalServers())
                 .healthyServers(upstream.getHealthyServerCount())
+                .ejectedServers(upstream.getEjectedServerCount())
                 .totalActiveConnections(upstream.getTotalActiveConnections())
                 .totalRequests(upstream.getTotalRequests())
                 .totalFailedRequests(upstream.getTotalFailedRequests())
@@ -158,7 +320,7 @@ public class LoadBalancerService {
      * Get all upstreams.
      */
     public List<Upstream> getAllUpstreams() {
-        return (List<Upstream>) upstreamRepository.findAll();
+        return new ArrayList<>(upstreamRepository.findAll());
     }
 
     /**
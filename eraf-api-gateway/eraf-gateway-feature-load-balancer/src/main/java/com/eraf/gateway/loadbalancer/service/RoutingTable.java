@@ -0,0 +1,45 @@
+package com.eraf.gateway.loadbalancer.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable routing table keyed by upstream name.
+ * Updated copy-on-write: every change produces a new table that is swapped in atomically.
+ */
+final class RoutingTable {
+    static final RoutingTable EMPTY = new RoutingTable(Collections.emptyMap());
+
+    private final Map<String, UpstreamRoute> routes;
+
+    private RoutingTable(Map<String, UpstreamRoute> routes) {
+        this.routes = routes;
+    }
+
+    UpstreamRoute get(String upstreamName) {
+        return routes.get(upstreamName);
+    }
+
+    /**
+     * Copy of this table with a route added or replaced.
+     */
+    RoutingTable with(UpstreamRoute route) {
+        Map<String, UpstreamRoute> copy = new HashMap<>(routes);
+        copy.put(route.getUpstream().getName(), route);
+        return new RoutingTable(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * Copy of this table without the given upstream.
+     */
+    RoutingTable without(String upstreamName) {
+        if (!routes.containsKey(upstreamName)) {
+            return this;
+        }
+        Map<String, UpstreamRoute> copy = new HashMap<>(routes);
+        copy.remove(upstreamName);
+        return new RoutingTable(Collections.unmodifiableMap(copy));
+    }
+
+}
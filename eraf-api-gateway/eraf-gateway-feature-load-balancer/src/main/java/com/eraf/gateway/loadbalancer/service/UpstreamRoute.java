@@ -0,0 +1,92 @@
+package com.eraf.gateway.loadbalancer.service;
+
+import com.eraf.gateway.loadbalancer.algorithm.LoadBalancer;
+import com.eraf.gateway.loadbalancer.domain.LoadBalancerAlgorithm;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable routing snapshot of a single upstream.
+ * Healthy server lists are built once per snapshot, so server selection
+ * does not filter or allocate. The load balancer instance is owned by the
+ * upstream and carried over when the snapshot is rebuilt.
+ */
+final class UpstreamRoute {
+    private final Upstream upstream;
+    private final LoadBalancerAlgorithm algorithm;
+    private final LoadBalancer loadBalancer;
+    private final List<Server> healthyServers;
+    private final Map<String, List<Server>> healthyServersByVersion;
+
+    private UpstreamRoute(Upstream upstream, LoadBalancer loadBalancer, List<Server> healthyServers,
+                          Map<String, List<Server>> healthyServersByVersion) {
+        this.upstream = upstream;
+        this.algorithm = upstream.getAlgorithm();
+        this.loadBalancer = loadBalancer;
+        this.healthyServers = healthyServers;
+        this.healthyServersByVersion = healthyServersByVersion;
+    }
+
+    /**
+     * Build a snapshot from the current server availability of an upstream.
+     * Servers that are unhealthy or ejected by outlier detection are left out.
+     */
+    static UpstreamRoute of(Upstream upstream, LoadBalancer loadBalancer) {
+        List<Server> healthy = new ArrayList<>();
+        Map<String, List<Server>> byVersion = new HashMap<>();
+
+        for (Server server : upstream.getServers()) {
+            if (!server.isAvailable()) {
+                continue;
+            }
+            healthy.add(server);
+            if (server.getVersion() != null) {
+                byVersion.computeIfAbsent(server.getVersion(), k -> new ArrayList<>()).add(server);
+            }
+        }
+
+        Map<String, List<Server>> immutableByVersion = new HashMap<>();
+        byVersion.forEach((version, versionServers) -> immutableByVersion.put(version, List.copyOf(versionServers)));
+
+        return new UpstreamRoute(upstream, loadBalancer, List.copyOf(healthy),
+                Collections.unmodifiableMap(immutableByVersion));
+    }
+
+    Upstream getUpstream() {
+        return upstream;
+    }
+
+    /**
+     * Algorithm the load balancer was created for.
+     */
+    LoadBalancerAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    LoadBalancer getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    /**
+     * Get all healthy servers.
+     */
+    List<Server> getHealthyServers() {
+        return healthyServers;
+    }
+
+    /**
+     * Get healthy servers for a version (null means any version).
+     */
+    List<Server> getHealthyServers(String version) {
+        if (version == null) {
+            return healthyServers;
+        }
+        return healthyServersByVersion.getOrDefault(version, Collections.emptyList());
+    }
+}
@@ -34,6 +34,11 @@ public class UpstreamStats {
      */
     private int healthyServers;
 
+    /**
+     * Number of servers ejected by outlier detection.
+     */
+    private int ejectedServers;
+
     /**
      * Total active connections.
      */
@@ -0,0 +1,168 @@
+package com.eraf.gateway.loadbalancer.algorithm;
+
+import com.eraf.gateway.loadbalancer.domain.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashLoadBalancerTest {
+
+    private static final int KEYS = 20_000;
+
+    private ConsistentHashLoadBalancer loadBalancer;
+    private List<Server> servers;
+
+    @BeforeEach
+    void setUp() {
+        loadBalancer = new ConsistentHashLoadBalancer();
+        servers = createServers(10);
+    }
+
+    @Test
+    void testSameKeySameServer() {
+        Server first = loadBalancer.selectServer(servers, "user-42");
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, loadBalancer.selectServer(servers, "user-42"));
+        }
+    }
+
+    @Test
+    void testRemovingServerOnlyRemapsItsKeys() {
+        Map<String, Server> before = assign(servers);
+
+        List<Server> withoutOne = List.copyOf(servers.subList(1, servers.size()));
+        Map<String, Server> after = assign(withoutOne);
+
+        int moved = 0;
+        for (Map.Entry<String, Server> entry : before.entrySet()) {
+            Server previous = entry.getValue();
+            Server current = after.get(entry.getKey());
+            if (previous != servers.get(0)) {
+                // Keys of surviving servers must stay put
+                assertSame(previous, current);
+            } else {
+                moved++;
+            }
+        }
+
+        // Roughly 1/10 of the keys were on the removed server
+        assertTrue(moved > KEYS * 0.05 && moved < KEYS * 0.15, "moved=" + moved);
+    }
+
+    @Test
+    void testAddingServerOnlyTakesKeysForItself() {
+        Map<String, Server> before = assign(servers);
+
+        List<Server> withOneMore = new ArrayList<>(servers);
+        Server added = Server.builder().host("10.0.0.100").port(8080).build();
+        withOneMore.add(added);
+        Map<String, Server> after = assign(List.copyOf(withOneMore));
+
+        for (Map.Entry<String, Server> entry : after.entrySet()) {
+            if (entry.getValue() != added) {
+                assertSame(before.get(entry.getKey()), entry.getValue());
+            }
+        }
+    }
+
+    @Test
+    void testWeightIsHonoured() {
+        List<Server> weighted = List.of(
+                Server.builder().host("10.0.0.1").port(8080).weight(3).build(),
+                Server.builder().host("10.0.0.2").port(8080).weight(1).build()
+        );
+
+        Map<Server, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(loadBalancer.selectServer(weighted, "key-" + i), 1, Integer::sum);
+        }
+
+        double share = counts.get(weighted.get(0)) / (double) KEYS;
+        assertEquals(0.75, share, 0.05);
+    }
+
+    @Test
+    void testIncrementalRingMatchesFullBuild() {
+        ConsistentHashLoadBalancer.Ring full = ConsistentHashLoadBalancer.Ring.build(
+                ConsistentHashLoadBalancer.Ring.EMPTY, servers, 160);
+
+        // Start from a ring missing two servers and with one server re-weighted
+        List<Server> partial = new ArrayList<>(servers.subList(2, servers.size()));
+        Server reweighted = Server.builder().host("10.0.0.0").port(8080).weight(5).build();
+        partial.add(reweighted);
+        ConsistentHashLoadBalancer.Ring previous = ConsistentHashLoadBalancer.Ring.build(
+                ConsistentHashLoadBalancer.Ring.EMPTY, partial, 160);
+        ConsistentHashLoadBalancer.Ring incremental = ConsistentHashLoadBalancer.Ring.build(previous, servers, 160);
+
+        assertEquals(full.size(), incremental.size());
+        for (int i = 0; i < KEYS; i++) {
+            int hash = ConsistentHashLoadBalancer.hash("key-" + i);
+            assertSame(full.lookup(hash), incremental.lookup(hash));
+        }
+    }
+
+    @Test
+    void testBoundedLoadSkipsOverloadedServer() {
+        ConsistentHashLoadBalancer bounded = new ConsistentHashLoadBalancer(160, 1.25);
+        Server owner = bounded.selectServer(servers, "hot-key");
+
+        // Owner holds all connections: far above 1.25x its fair share
+        owner.getActiveConnections().set(100);
+
+        Server selected = bounded.selectServer(servers, "hot-key");
+        assertNotSame(owner, selected);
+
+        // Stable again once the load drains
+        owner.getActiveConnections().set(0);
+        assertSame(owner, bounded.selectServer(servers, "hot-key"));
+    }
+
+    @Test
+    void testBoundedLoadUsesRunningTotal() {
+        AtomicInteger total = new AtomicInteger();
+        ConsistentHashLoadBalancer bounded = new ConsistentHashLoadBalancer(160, 1.25, total::get);
+        Server owner = bounded.selectServer(servers, "hot-key");
+        owner.getActiveConnections().set(100);
+
+        // The bound follows the supplied total, not the ring's servers
+        total.set(100);
+        assertNotSame(owner, bounded.selectServer(servers, "hot-key"));
+        total.set(10_000);
+        assertSame(owner, bounded.selectServer(servers, "hot-key"));
+    }
+
+    @Test
+    void testNullKeyFallback() {
+        assertSame(servers.get(0), loadBalancer.selectServer(servers, null));
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashLoadBalancer(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashLoadBalancer(160, 0.5));
+    }
+
+    private Map<String, Server> assign(List<Server> serverList) {
+        Map<String, Server> assignment = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = "key-" + i;
+            assignment.put(key, loadBalancer.selectServer(serverList, key));
+        }
+        return assignment;
+    }
+
+    private static List<Server> createServers(int count) {
+        List<Server> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(Server.builder().host("10.0.0." + i).port(8080).build());
+        }
+        return List.copyOf(list);
+    }
+}
@@ -0,0 +1,73 @@
+package com.eraf.gateway.loadbalancer.algorithm;
+
+import com.eraf.gateway.loadbalancer.domain.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class P2CLeastLoadedLoadBalancerTest {
+
+    private P2CLeastLoadedLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        loadBalancer = new P2CLeastLoadedLoadBalancer();
+    }
+
+    @Test
+    void testPicksLessLoadedOfTwo() {
+        Server busy = Server.builder().host("server1").port(8080).build();
+        Server idle = Server.builder().host("server2").port(8080).build();
+        busy.getActiveConnections().set(10);
+
+        List<Server> servers = List.of(busy, idle);
+
+        // With two servers both are always sampled, so the idle one always wins
+        for (int i = 0; i < 100; i++) {
+            assertEquals("server2", loadBalancer.selectServer(servers, null).getHost());
+        }
+    }
+
+    @Test
+    void testLoadIsRelativeToWeight() {
+        Server heavy = Server.builder().host("server1").port(8080).weight(4).build();
+        Server light = Server.builder().host("server2").port(8080).weight(1).build();
+        heavy.getActiveConnections().set(5);
+        light.getActiveConnections().set(2);
+
+        // (5 + 1) / 4 < (2 + 1) / 1
+        List<Server> servers = List.of(heavy, light);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("server1", loadBalancer.selectServer(servers, null).getHost());
+        }
+    }
+
+    @Test
+    void testMostLoadedServerIsNeverPicked() {
+        List<Server> servers = List.of(
+                Server.builder().host("server1").port(8080).build(),
+                Server.builder().host("server2").port(8080).build(),
+                Server.builder().host("server3").port(8080).build()
+        );
+        servers.get(2).getActiveConnections().set(100);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertNotEquals("server3", loadBalancer.selectServer(servers, null).getHost());
+        }
+    }
+
+    @Test
+    void testSingleServer() {
+        Server server = Server.builder().host("server1").port(8080).build();
+        assertSame(server, loadBalancer.selectServer(List.of(server), null));
+    }
+
+    @Test
+    void testEmptyServerList() {
+        assertNull(loadBalancer.selectServer(Arrays.asList(), null));
+    }
+}
@@ -0,0 +1,100 @@
+package com.eraf.gateway.loadbalancer.algorithm;
+
+import com.eraf.gateway.loadbalancer.domain.LatencyEstimator;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeakEwmaLoadBalancerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private PeakEwmaLoadBalancer loadBalancer;
+    private Server fast;
+    private Server slow;
+
+    @BeforeEach
+    void setUp() {
+        loadBalancer = new PeakEwmaLoadBalancer();
+        fast = Server.builder().host("server1").port(8080).build();
+        slow = Server.builder().host("server2").port(8080).build();
+    }
+
+    @Test
+    void testRoutesAwayFromSlowServer() {
+        fast.recordLatency(5 * MILLIS);
+        slow.recordLatency(5 * MILLIS);
+
+        // One slow response is enough to move traffic
+        slow.recordLatency(800 * MILLIS);
+
+        List<Server> servers = List.of(fast, slow);
+        for (int i = 0; i < 100; i++) {
+            assertSame(fast, loadBalancer.selectServer(servers, null));
+        }
+    }
+
+    @Test
+    void testOutstandingRequestsCountTowardsLoad() {
+        fast.recordLatency(10 * MILLIS);
+        slow.recordLatency(30 * MILLIS);
+
+        // 10ms x 5 outstanding > 30ms x 1
+        fast.getActiveConnections().set(4);
+
+        List<Server> servers = List.of(fast, slow);
+        assertSame(slow, loadBalancer.selectServer(servers, null));
+    }
+
+    @Test
+    void testUnsampledServerIsPenalizedOnlyWhileBusy() {
+        slow.recordLatency(100 * MILLIS);
+        List<Server> servers = List.of(fast, slow);
+
+        // Idle server without samples gets probed
+        assertSame(fast, loadBalancer.selectServer(servers, null));
+
+        fast.getActiveConnections().set(1);
+        assertSame(slow, loadBalancer.selectServer(servers, null));
+    }
+
+    @Test
+    void testPeakIsTakenImmediately() {
+        LatencyEstimator estimator = new LatencyEstimator(Duration.ofSeconds(10));
+        long now = System.nanoTime();
+
+        estimator.observe(10 * MILLIS, now);
+        estimator.observe(500 * MILLIS, now);
+
+        assertEquals(500 * MILLIS, estimator.getCost(now), 1.0);
+    }
+
+    @Test
+    void testEstimateDecays() {
+        LatencyEstimator estimator = new LatencyEstimator(Duration.ofSeconds(1));
+        long now = System.nanoTime();
+
+        estimator.observe(500 * MILLIS, now);
+
+        // Lower samples are blended in by elapsed time
+        long later = now + TimeUnit.SECONDS.toNanos(1);
+        estimator.observe(10 * MILLIS, later);
+        double blended = estimator.getCost(later);
+        assertTrue(blended < 500 * MILLIS && blended > 10 * MILLIS, "blended=" + blended);
+
+        // Reads decay towards zero so a recovered server is tried again
+        assertTrue(estimator.getCost(later + TimeUnit.SECONDS.toNanos(5)) < blended / 100);
+    }
+
+    @Test
+    void testEmptyServerList() {
+        assertNull(loadBalancer.selectServer(Arrays.asList(), null));
+    }
+}
@@ -0,0 +1,126 @@
+package com.eraf.gateway.loadbalancer.algorithm;
+
+import com.eraf.gateway.loadbalancer.domain.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedRoundRobinLoadBalancerTest {
+
+    private WeightedRoundRobinLoadBalancer loadBalancer;
+    private List<Server> servers;
+
+    @BeforeEach
+    void setUp() {
+        loadBalancer = new WeightedRoundRobinLoadBalancer();
+
+        servers = List.of(
+                Server.builder().host("server1").port(8080).weight(5).build(),
+                Server.builder().host("server2").port(8080).weight(1).build(),
+                Server.builder().host("server3").port(8080).weight(1).build()
+        );
+    }
+
+    @Test
+    void testSmoothWeightedSelection() {
+        // nginx smooth weighted round-robin interleaves the lighter servers
+        String[] expected = {"server1", "server1", "server2", "server1", "server3", "server1", "server1"};
+
+        for (int cycle = 0; cycle < 2; cycle++) {
+            for (String host : expected) {
+                assertEquals(host, loadBalancer.selectServer(servers, null).getHost());
+            }
+        }
+    }
+
+    @Test
+    void testEqualWeightsBehaveAsRoundRobin() {
+        List<Server> equalServers = List.of(
+                Server.builder().host("server1").port(8080).weight(10).build(),
+                Server.builder().host("server2").port(8080).weight(10).build(),
+                Server.builder().host("server3").port(8080).weight(10).build()
+        );
+
+        assertEquals("server1", loadBalancer.selectServer(equalServers, null).getHost());
+        assertEquals("server2", loadBalancer.selectServer(equalServers, null).getHost());
+        assertEquals("server3", loadBalancer.selectServer(equalServers, null).getHost());
+        assertEquals("server1", loadBalancer.selectServer(equalServers, null).getHost());
+    }
+
+    @Test
+    void testZeroWeightServerIsSkipped() {
+        List<Server> withDrained = List.of(
+                Server.builder().host("server1").port(8080).weight(1).build(),
+                Server.builder().host("server2").port(8080).weight(0).build()
+        );
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("server1", loadBalancer.selectServer(withDrained, null).getHost());
+        }
+    }
+
+    @Test
+    void testScheduleLengthIsBounded() {
+        List<Server> heavy = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            heavy.add(Server.builder().host("server" + i).port(8080).weight(10_007 + i).build());
+        }
+
+        WeightedRoundRobinLoadBalancer.Schedule schedule = WeightedRoundRobinLoadBalancer.buildSchedule(heavy);
+        assertTrue(schedule.length() <= WeightedRoundRobinLoadBalancer.MAX_SCHEDULE_LENGTH);
+    }
+
+    @Test
+    void testDistributionUnderConcurrency() throws InterruptedException {
+        int threads = 8;
+        int perThread = 7_000;
+        Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    Server server = loadBalancer.selectServer(servers, null);
+                    counts.computeIfAbsent(server.getHost(), k -> new AtomicInteger()).incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Every full cycle of 7 selections is 5/1/1, and 56000 is a multiple of 7
+        assertEquals(40_000, counts.get("server1").get());
+        assertEquals(8_000, counts.get("server2").get());
+        assertEquals(8_000, counts.get("server3").get());
+    }
+
+    @Test
+    void testReset() {
+        loadBalancer.selectServer(servers, null);
+        loadBalancer.selectServer(servers, null);
+        loadBalancer.selectServer(servers, null);
+
+        loadBalancer.reset();
+
+        // Should start from beginning of the schedule after reset
+        assertEquals("server1", loadBalancer.selectServer(servers, null).getHost());
+        assertEquals("server1", loadBalancer.selectServer(servers, null).getHost());
+        assertEquals("server2", loadBalancer.selectServer(servers, null).getHost());
+    }
+
+    @Test
+    void testEmptyServerList() {
+        assertNull(loadBalancer.selectServer(Arrays.asList(), null));
+    }
+}
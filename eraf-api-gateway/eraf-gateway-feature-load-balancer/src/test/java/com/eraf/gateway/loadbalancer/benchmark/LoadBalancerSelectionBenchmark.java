@@ -0,0 +1,84 @@
+package com.eraf.gateway.loadbalancer.benchmark;
+
+import com.eraf.gateway.loadbalancer.algorithm.ConsistentHashLoadBalancer;
+import com.eraf.gateway.loadbalancer.algorithm.LeastConnectionsLoadBalancer;
+import com.eraf.gateway.loadbalancer.algorithm.LoadBalancer;
+import com.eraf.gateway.loadbalancer.algorithm.P2CLeastLoadedLoadBalancer;
+import com.eraf.gateway.loadbalancer.algorithm.PeakEwmaLoadBalancer;
+import com.eraf.gateway.loadbalancer.algorithm.RoundRobinLoadBalancer;
+import com.eraf.gateway.loadbalancer.algorithm.WeightedRoundRobinLoadBalancer;
+import com.eraf.gateway.loadbalancer.domain.LoadBalancerAlgorithm;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server selection cost per algorithm at increasing upstream sizes.
+ * Servers have mixed weights and active connection counts. {@link #main} runs with
+ * the GC profiler; selection is expected to report ~0 B/op ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class LoadBalancerSelectionBenchmark {
+
+    @Param({"4", "64", "1024"})
+    private int serverCount;
+
+    @Param({"ROUND_ROBIN", "WEIGHTED_ROUND_ROBIN", "LEAST_CONNECTIONS", "P2C_LEAST_LOADED", "CONSISTENT_HASH", "PEAK_EWMA"})
+    private LoadBalancerAlgorithm algorithm;
+
+    private List<Server> servers;
+    private LoadBalancer loadBalancer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Server> list = new ArrayList<>(serverCount);
+        for (int i = 0; i < serverCount; i++) {
+            Server server = Server.builder()
+                    .host("10.0." + (i / 256) + "." + (i % 256))
+                    .port(8080)
+                    .weight(1 + random.nextInt(10))
+                    .build();
+            server.getActiveConnections().set(random.nextInt(100));
+            server.recordLatency(TimeUnit.MILLISECONDS.toNanos(1 + random.nextInt(50)));
+            list.add(server);
+        }
+        servers = List.copyOf(list);
+
+        switch (algorithm) {
+            case WEIGHTED_ROUND_ROBIN -> loadBalancer = new WeightedRoundRobinLoadBalancer();
+            case LEAST_CONNECTIONS -> loadBalancer = new LeastConnectionsLoadBalancer();
+            case P2C_LEAST_LOADED -> loadBalancer = new P2CLeastLoadedLoadBalancer();
+            case CONSISTENT_HASH -> loadBalancer = new ConsistentHashLoadBalancer();
+            case PEAK_EWMA -> loadBalancer = new PeakEwmaLoadBalancer();
+            default -> loadBalancer = new RoundRobinLoadBalancer();
+        }
+    }
+
+    @Benchmark
+    public Server select() {
+        return loadBalancer.selectServer(servers, "192.168.1.10");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LoadBalancerSelectionBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,162 @@
+package com.eraf.gateway.loadbalancer.benchmark;
+
+import com.eraf.gateway.loadbalancer.config.LoadBalancerProperties;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+import com.eraf.gateway.loadbalancer.proxy.HttpProxyClient;
+import com.eraf.gateway.loadbalancer.proxy.ProxyResponse;
+import com.eraf.gateway.loadbalancer.proxy.WebClientRegistry;
+import com.eraf.gateway.loadbalancer.repository.UpstreamRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Buffered vs. streaming proxy path with multi-MB upstream payloads.
+ * {@link #main} runs with the GC profiler so allocation per operation
+ * ({@code gc.alloc.rate.norm}) is reported next to throughput and latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms512m", "-Xmx512m"})
+@Threads(8)
+public class ProxyStreamingBenchmark {
+
+    @Param({"1048576", "8388608", "33554432"})
+    private int payloadSize;
+
+    private DisposableServer upstreamServer;
+    private HttpProxyClient proxyClient;
+    private Server server;
+    private Upstream upstream;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] payload = new byte[payloadSize];
+        ThreadLocalRandom.current().nextBytes(payload);
+
+        upstreamServer = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/payload", (request, response) ->
+                        response.header("Content-Type", "application/octet-stream")
+                                .sendByteArray(Mono.just(payload))))
+                .bindNow();
+
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        WebClientRegistry webClientRegistry = new WebClientRegistry(WebClient.builder()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1)), new UpstreamRepository());
+        proxyClient = new HttpProxyClient(webClientRegistry, properties);
+
+        server = Server.builder()
+                .host("127.0.0.1")
+                .port(upstreamServer.port())
+                .build();
+
+        upstream = Upstream.builder()
+                .name("benchmark")
+                .servers(Collections.singletonList(server))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        upstreamServer.disposeNow();
+    }
+
+    @Benchmark
+    public void buffered(Blackhole blackhole) throws IOException {
+        HttpServletResponse response = mockResponse(blackhole);
+        ProxyResponse proxyResponse = proxyClient.proxyRequest(mockRequest(), server, upstream).block();
+        response.getWriter().write(proxyResponse.getBody());
+        blackhole.consume(proxyResponse.getStatusCode());
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        HttpServletResponse response = mockResponse(blackhole);
+        ProxyResponse proxyResponse = proxyClient.proxyStreaming(mockRequest(), response, server, upstream).block();
+        blackhole.consume(proxyResponse.getStatusCode());
+    }
+
+    private HttpServletRequest mockRequest() {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestURI()).thenReturn("/payload");
+        when(request.getHeaderNames()).thenReturn(Collections.emptyEnumeration());
+        when(request.getScheme()).thenReturn("http");
+        when(request.getServerName()).thenReturn("localhost");
+        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+        when(request.getContentLengthLong()).thenReturn(-1L);
+        return request;
+    }
+
+    private HttpServletResponse mockResponse(Blackhole blackhole) throws IOException {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new DiscardingOutputStream(blackhole));
+        when(response.getWriter()).thenReturn(new PrintWriter(Writer.nullWriter()));
+        return response;
+    }
+
+    /**
+     * Servlet output stream that discards everything written to it.
+     */
+    private static class DiscardingOutputStream extends ServletOutputStream {
+        private final Blackhole blackhole;
+
+        DiscardingOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProxyStreamingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,149 @@
+package com.eraf.gateway.loadbalancer.health;
+
+import com.eraf.gateway.loadbalancer.config.LoadBalancerProperties;
+import com.eraf.gateway.loadbalancer.domain.HealthCheckConfig;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthCheckerTest {
+
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    private DisposableServer healthServer;
+    private HealthChecker healthChecker;
+
+    @AfterEach
+    void tearDown() {
+        if (healthChecker != null) {
+            healthChecker.destroy();
+        }
+        if (healthServer != null) {
+            healthServer.disposeNow();
+        }
+    }
+
+    @Test
+    void testConcurrencyLimit() throws InterruptedException {
+        startHealthServer(200, Duration.ofMillis(100));
+        healthChecker = createHealthChecker(3);
+        Upstream upstream = createUpstream(10);
+
+        healthChecker.checkUpstream(upstream);
+
+        waitFor(() -> healthChecker.getStats("test-upstream").getTotalChecks() == 10);
+        assertTrue(maxConcurrent.get() <= 3, "At most 3 checks in flight, was " + maxConcurrent.get());
+        assertEquals(0, healthChecker.getStats("test-upstream").getFailedChecks());
+        upstream.getServers().forEach(server -> assertEquals(1, server.getConsecutiveSuccesses().get()));
+    }
+
+    @Test
+    void testSkipsServerWithCheckInFlight() throws InterruptedException {
+        startHealthServer(200, Duration.ofMillis(200));
+        healthChecker = createHealthChecker(64);
+        Upstream upstream = createUpstream(4);
+
+        healthChecker.checkUpstream(upstream);
+        healthChecker.checkUpstream(upstream);
+
+        HealthCheckStats stats = healthChecker.getStats("test-upstream");
+        assertEquals(4, stats.getSkippedChecks());
+
+        waitFor(() -> healthChecker.getStats("test-upstream").getTotalChecks() == 4);
+        waitFor(() -> healthChecker.getInFlightChecks() == 0);
+    }
+
+    @Test
+    void testUnexpectedStatusCountsAsFailure() throws InterruptedException {
+        startHealthServer(500, Duration.ZERO);
+        healthChecker = createHealthChecker(64);
+        Upstream upstream = createUpstream(1);
+        Server server = upstream.getServers().get(0);
+
+        for (int i = 0; i < 3; i++) {
+            int expectedChecks = i + 1;
+            healthChecker.checkUpstream(upstream);
+            waitFor(() -> healthChecker.getStats("test-upstream").getTotalChecks() == expectedChecks
+                    && healthChecker.getInFlightChecks() == 0);
+        }
+
+        HealthCheckStats stats = healthChecker.getStats("test-upstream");
+        assertEquals(3, stats.getFailedChecks());
+        assertFalse(server.isHealthy());
+        assertEquals(14, stats.getLatencyHistogram().size());
+    }
+
+    @Test
+    void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(400));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5.0, histogram.getPercentileMillis(0.50));
+        assertEquals(400.0, histogram.getPercentileMillis(0.95));
+        assertEquals(400.0, histogram.getMaxMillis());
+        assertEquals(90, histogram.getBucketCounts()[2]);
+    }
+
+    private void startHealthServer(int status, Duration delay) {
+        healthServer = HttpServer.create()
+                .host("0.0.0.0")
+                .port(0)
+                .route(routes -> routes.get("/health", (request, response) -> {
+                    maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                    return Mono.delay(delay)
+                            .doOnNext(tick -> concurrent.decrementAndGet())
+                            .then(response.status(status).send().then());
+                }))
+                .bindNow();
+    }
+
+    private static HealthChecker createHealthChecker(int maxConcurrency) {
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.getHealthCheck().setMaxConcurrency(maxConcurrency);
+        return new HealthChecker(WebClient.builder(), properties);
+    }
+
+    private Upstream createUpstream(int serverCount) {
+        // Distinct loopback addresses, so each server is checked separately
+        List<Server> servers = new ArrayList<>();
+        for (int i = 1; i <= serverCount; i++) {
+            servers.add(Server.builder().host("127.0.0." + i).port(healthServer.port()).build());
+        }
+        return Upstream.builder()
+                .name("test-upstream")
+                .servers(servers)
+                .healthCheck(HealthCheckConfig.builder()
+                        .timeout(Duration.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
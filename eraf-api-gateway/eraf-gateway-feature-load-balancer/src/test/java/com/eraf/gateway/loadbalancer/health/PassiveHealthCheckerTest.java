@@ -0,0 +1,286 @@
+package com.eraf.gateway.loadbalancer.health;
+
+import com.eraf.gateway.loadbalancer.domain.HealthCheckConfig;
+import com.eraf.gateway.loadbalancer.domain.OutlierDetectionConfig;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+import com.eraf.gateway.loadbalancer.repository.UpstreamRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PassiveHealthCheckerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private UpstreamRepository upstreamRepository;
+    private PassiveHealthChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        upstreamRepository = new UpstreamRepository();
+        checker = new PassiveHealthChecker(upstreamRepository);
+        checker.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        checker.destroy();
+    }
+
+    @Test
+    void testConsecutiveFailuresEject() {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder().build());
+        Server server = upstream.getServers().get(0);
+
+        for (int i = 0; i < 4; i++) {
+            checker.recordFailure(server, upstream, MILLIS);
+        }
+        assertFalse(server.isEjected());
+
+        checker.recordFailure(server, upstream, MILLIS);
+        assertTrue(server.isEjected());
+        assertFalse(server.isAvailable());
+        // Ejection is separate from the active health status
+        assertTrue(server.isHealthy());
+        assertEquals(1, checker.getEjectedCount("test-upstream"));
+    }
+
+    @Test
+    void testSuccessResetsConsecutiveFailures() {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder().build());
+        Server server = upstream.getServers().get(0);
+
+        for (int i = 0; i < 10; i++) {
+            checker.recordFailure(server, upstream, MILLIS);
+            checker.recordSuccess(server, upstream, MILLIS);
+            checker.recordSuccess(server, upstream, MILLIS);
+        }
+        assertFalse(server.isEjected());
+    }
+
+    @Test
+    void testFailureRateEjects() {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder()
+                .minimumRequests(20)
+                .failureRateThreshold(0.5)
+                .build());
+        Server server = upstream.getServers().get(0);
+
+        // Alternating results never reach 5 consecutive failures
+        for (int i = 0; i < 9; i++) {
+            checker.recordFailure(server, upstream, MILLIS);
+            checker.recordSuccess(server, upstream, MILLIS);
+        }
+        checker.recordFailure(server, upstream, MILLIS);
+        assertFalse(server.isEjected());
+
+        checker.recordSuccess(server, upstream, MILLIS);
+        assertTrue(server.isEjected());
+    }
+
+    @Test
+    void testLatencyEjects() {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder()
+                .minimumRequests(5)
+                .latencyThreshold(Duration.ofMillis(100))
+                .build());
+        Server server = upstream.getServers().get(0);
+
+        for (int i = 0; i < 4; i++) {
+            checker.recordSuccess(server, upstream, 300 * MILLIS);
+        }
+        assertFalse(server.isEjected());
+
+        checker.recordSuccess(server, upstream, 300 * MILLIS);
+        assertTrue(server.isEjected());
+    }
+
+    @Test
+    void testMaxEjectionPercent() {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder()
+                .maxEjectionPercent(25)
+                .build());
+
+        for (Server server : upstream.getServers().subList(0, 2)) {
+            for (int i = 0; i < 5; i++) {
+                checker.recordFailure(server, upstream, MILLIS);
+            }
+        }
+
+        assertTrue(upstream.getServers().get(0).isEjected());
+        assertFalse(upstream.getServers().get(1).isEjected());
+        assertEquals(1, upstream.getEjectedServerCount());
+    }
+
+    @Test
+    void testMaxEjectionPercentRoundsDown() {
+        Upstream upstream = createUpstream(3, OutlierDetectionConfig.builder()
+                .maxEjectionPercent(50)
+                .build());
+
+        for (Server server : upstream.getServers()) {
+            for (int i = 0; i < 5; i++) {
+                checker.recordFailure(server, upstream, MILLIS);
+            }
+        }
+
+        // 50% of 3 servers allows a single ejection
+        assertEquals(1, upstream.getEjectedServerCount());
+        assertEquals(1, checker.getEjectedCount("test-upstream"));
+    }
+
+    @Test
+    void testLastAvailableServerIsNeverEjected() {
+        Upstream single = createUpstream(1, OutlierDetectionConfig.builder()
+                .maxEjectionPercent(100)
+                .build());
+        for (int i = 0; i < 10; i++) {
+            checker.recordFailure(single.getServers().get(0), single, MILLIS);
+        }
+        assertFalse(single.getServers().get(0).isEjected());
+
+        Upstream upstream = createUpstream(3, OutlierDetectionConfig.builder()
+                .maxEjectionPercent(100)
+                .build());
+        upstream.getServers().get(2).setHealthy(false);
+        for (Server server : upstream.getServers().subList(0, 2)) {
+            for (int i = 0; i < 5; i++) {
+                checker.recordFailure(server, upstream, MILLIS);
+            }
+        }
+
+        // The other server is down, so the second outlier keeps serving
+        assertTrue(upstream.getServers().get(0).isEjected());
+        assertFalse(upstream.getServers().get(1).isEjected());
+    }
+
+    @Test
+    void testTrackingIsDroppedWhenUpstreamIsDeleted() {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder().build());
+        upstreamRepository.save(upstream);
+        Server server = upstream.getServers().get(0);
+        for (int i = 0; i < 5; i++) {
+            checker.recordFailure(server, upstream, MILLIS);
+        }
+        assertEquals(1, checker.getEjectedCount("test-upstream"));
+
+        upstreamRepository.deleteByName("test-upstream");
+        assertEquals(0, checker.getEjectedCount("test-upstream"));
+    }
+
+    @Test
+    void testTrackingIsDroppedWhenServerIsRemoved() {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder().build());
+        upstreamRepository.save(upstream);
+        Server server = upstream.getServers().get(3);
+        for (int i = 0; i < 4; i++) {
+            checker.recordFailure(server, upstream, MILLIS);
+        }
+
+        // Saving the upstream without server3 drops its failure streak
+        upstreamRepository.save(createUpstream(3, OutlierDetectionConfig.builder().build()));
+        checker.recordFailure(server, upstream, MILLIS);
+        assertFalse(server.isEjected());
+    }
+
+    @Test
+    void testRestoreWithSlowStart() throws InterruptedException {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder()
+                .baseEjectionTime(Duration.ofMillis(50))
+                .slowStartDuration(Duration.ofMillis(500))
+                .build());
+        Server server = upstream.getServers().get(0);
+
+        for (int i = 0; i < 5; i++) {
+            checker.recordFailure(server, upstream, MILLIS);
+        }
+        assertTrue(server.isEjected());
+
+        waitFor(() -> !server.isEjected());
+        assertTrue(server.getSlowStartStep() < Server.SLOW_START_STEPS);
+        assertTrue(server.getScaledWeight() < (long) server.getWeight() * Server.SLOW_START_STEPS);
+        assertEquals(0, checker.getEjectedCount("test-upstream"));
+
+        waitFor(() -> server.getSlowStartStep() == Server.SLOW_START_STEPS);
+    }
+
+    @Test
+    void testEjectionTimeBacksOffExponentially() {
+        OutlierDetectionConfig config = OutlierDetectionConfig.builder()
+                .baseEjectionTime(Duration.ofSeconds(30))
+                .maxEjectionTime(Duration.ofMinutes(5))
+                .build();
+        PassiveHealthChecker.OutlierTracker tracker = new PassiveHealthChecker.OutlierTracker(10);
+        long now = System.nanoTime();
+
+        assertEquals(Duration.ofSeconds(30), tracker.nextEjectionTime(config, now));
+        assertEquals(Duration.ofSeconds(60), tracker.nextEjectionTime(config, now));
+        assertEquals(Duration.ofSeconds(120), tracker.nextEjectionTime(config, now));
+        assertEquals(Duration.ofSeconds(240), tracker.nextEjectionTime(config, now));
+        assertEquals(Duration.ofMinutes(5), tracker.nextEjectionTime(config, now));
+    }
+
+    @Test
+    void testWindowKeepsMostRecentRequests() {
+        PassiveHealthChecker.OutlierTracker tracker = new PassiveHealthChecker.OutlierTracker(10);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 10; i++) {
+            tracker.record(true, MILLIS, now, Duration.ofMinutes(1));
+        }
+        for (int i = 0; i < 15; i++) {
+            tracker.record(false, MILLIS, now, Duration.ofMinutes(1));
+        }
+
+        assertEquals(10, tracker.getWindowCount());
+        assertEquals(0, tracker.getWindowFailures());
+
+        tracker.resetWindow();
+        assertEquals(0, tracker.getWindowCount());
+    }
+
+    @Test
+    void testPassiveDisabled() {
+        Upstream upstream = createUpstream(4, OutlierDetectionConfig.builder().build());
+        upstream.getHealthCheck().setPassiveEnabled(false);
+        Server server = upstream.getServers().get(0);
+
+        for (int i = 0; i < 10; i++) {
+            checker.recordFailure(server, upstream, MILLIS);
+        }
+        assertFalse(server.isEjected());
+        assertEquals(0, server.getFailedRequests().get());
+    }
+
+    private static Upstream createUpstream(int serverCount, OutlierDetectionConfig outlierDetection) {
+        List<Server> servers = new ArrayList<>();
+        for (int i = 0; i < serverCount; i++) {
+            servers.add(Server.builder().host("server" + i).port(8080).build());
+        }
+        return Upstream.builder()
+                .name("test-upstream")
+                .servers(servers)
+                .healthCheck(HealthCheckConfig.builder()
+                        .passiveUnhealthyThreshold(5)
+                        .outlierDetection(outlierDetection)
+                        .build())
+                .build();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.eraf.gateway.loadbalancer.retry;
+
+import com.eraf.gateway.loadbalancer.domain.LoadBalancerAlgorithm;
+import com.eraf.gateway.loadbalancer.domain.RetryConfig;
+import com.eraf.gateway.loadbalancer.domain.Server;
+import com.eraf.gateway.loadbalancer.domain.Upstream;
+import com.eraf.gateway.loadbalancer.health.PassiveHealthChecker;
+import com.eraf.gateway.loadbalancer.proxy.HttpProxyClient;
+import com.eraf.gateway.loadbalancer.proxy.ProxyResponse;
+import com.eraf.gateway.loadbalancer.repository.UpstreamRepository;
+import com.eraf.gateway.loadbalancer.service.LoadBalancerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetryExecutorTest {
+
+    @Mock
+    private UpstreamRepository upstreamRepository;
+
+    @Mock
+    private HttpProxyClient proxyClient;
+
+    @Mock
+    private HttpServletRequest request;
+
+    private PassiveHealthChecker passiveHealthChecker;
+    private RetryExecutor retryExecutor;
+    private Server server1;
+    private Server server2;
+
+    @BeforeEach
+    void setUp() {
+        LoadBalancerService loadBalancerService = new LoadBalancerService(upstreamRepository);
+        loadBalancerService.init();
+        passiveHealthChecker = new PassiveHealthChecker(upstreamRepository);
+        retryExecutor = new RetryExecutor(loadBalancerService, proxyClient, passiveHealthChecker, upstreamRepository);
+
+        server1 = Server.builder().host("server1").port(8080).build();
+        server2 = Server.builder().host("server2").port(8080).build();
+        lenient().when(request.getMethod()).thenReturn("GET");
+        lenient().when(request.getRequestURI()).thenReturn("/api/test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        passiveHealthChecker.destroy();
+    }
+
+    @Test
+    void testRetryOnDifferentServer() {
+        Upstream upstream = createUpstream(RetryConfig.builder().maxRetries(1).build());
+        when(proxyClient.proxyRequest(request, server1, upstream)).thenReturn(Mono.just(response(503)));
+        when(proxyClient.proxyRequest(request, server2, upstream)).thenReturn(Mono.just(response(200)));
+
+        ProxyAttempt result = retryExecutor.proxy(request, upstream, server1, "client").block();
+
+        assertNotNull(result);
+        assertSame(server2, result.getServer());
+        assertEquals(200, result.getResponse().getStatusCode());
+        assertEquals(2, result.getAttempt());
+        assertEquals(1, retryExecutor.getStats("test-upstream").getRetries());
+        assertEquals(0, server1.getActiveConnections().get());
+        assertEquals(0, server2.getActiveConnections().get());
+    }
+
+    @Test
+    void testSynchronousProxyFailureReleasesConnection() {
+        Upstream upstream = createUpstream(RetryConfig.builder().maxRetries(1).build());
+        when(request.getMethod()).thenReturn("POST");
+        when(proxyClient.proxyRequest(request, server1, upstream)).thenThrow(new IllegalStateException("no client"));
+
+        assertThrows(IllegalStateException.class, () -> retryExecutor.proxy(request, upstream, server1, "client").block());
+
+        assertEquals(0, server1.getActiveConnections().get());
+        assertEquals(0, upstream.getTotalActiveConnections());
+    }
+
+    @Test
+    void testNonIdempotentRequestNotRetried() {
+        Upstream upstream = createUpstream(RetryConfig.builder().maxRetries(1).build());
+        when(request.getMethod()).thenReturn("POST");
+        when(proxyClient.proxyRequest(request, server1, upstream)).thenReturn(Mono.just(response(503)));
+
+        ProxyAttempt result = retryExecutor.proxy(request, upstream, server1, "client").block();
+
+        assertNotNull(result);
+        assertSame(server1, result.getServer());
+        assertEquals(503, result.getResponse().getStatusCode());
+        verify(proxyClient, never()).proxyRequest(request, server2, upstream);
+    }
+
+    @Test
+    void testRetryBudgetExhausted() {
+        Upstream upstream = createUpstream(RetryConfig.builder()
+                .maxRetries(1)
+                .budgetPercent(0)
+                .minRetriesPerSecond(0)
+                .build());
+        when(proxyClient.proxyRequest(request, server1, upstream)).thenReturn(Mono.just(response(503)));
+
+        ProxyAttempt result = retryExecutor.proxy(request, upstream, server1, "client").block();
+
+        assertNotNull(result);
+        assertSame(server1, result.getServer());
+        assertEquals(1, retryExecutor.getStats("test-upstream").getBudgetExhausted());
+        assertEquals(0, retryExecutor.getStats("test-upstream").getRetries());
+    }
+
+    @Test
+    void testHedgedRequestWins() {
+        Upstream upstream = createUpstream(RetryConfig.builder()
+                .hedgingEnabled(true)
+                .hedgeDelay(Duration.ofMillis(20))
+                .build());
+        when(proxyClient.proxyRequest(request, server1, upstream))
+                .thenReturn(Mono.just(response(200)).delayElement(Duration.ofSeconds(5)));
+        when(proxyClient.proxyRequest(request, server2, upstream)).thenReturn(Mono.just(response(200)));
+
+        ProxyAttempt result = retryExecutor.proxy(request, upstream, server1, "client").block(Duration.ofSeconds(2));
+
+        assertNotNull(result);
+        assertTrue(result.isHedged());
+        assertSame(server2, result.getServer());
+        // The slow primary request was cancelled
+        assertEquals(0, server1.getActiveConnections().get());
+
+        RetryStats stats = retryExecutor.getStats("test-upstream");
+        assertEquals(1, stats.getHedges());
+        assertEquals(1, stats.getHedgeWins());
+    }
+
+    @Test
+    void testRetriesBoundedByUpstreamDeadline() {
+        Upstream upstream = createUpstream(RetryConfig.builder().maxRetries(3).build());
+        upstream.setConnectTimeout(0);
+        upstream.setReadTimeout(200);
+        when(proxyClient.proxyRequest(request, server1, upstream))
+                .thenReturn(Mono.just(response(503)).delayElement(Duration.ofMillis(50)));
+        when(proxyClient.proxyRequest(request, server2, upstream))
+                .thenReturn(Mono.just(response(200)).delayElement(Duration.ofSeconds(5)));
+
+        long start = System.nanoTime();
+        ProxyAttempt result = retryExecutor.proxy(request, upstream, server1, "client").block(Duration.ofSeconds(2));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertNotNull(result);
+        assertEquals(503, result.getResponse().getStatusCode());
+        assertFalse(result.getResponse().isSuccess());
+        assertTrue(elapsedMillis < 1000, "elapsed " + elapsedMillis);
+        // The retry still in flight at the deadline was cancelled
+        assertEquals(0, server2.getActiveConnections().get());
+    }
+
+    @Test
+    void testRetryBudgetWithNegativeClock() {
+        RetryBudget budget = new RetryBudget(10_000, 20, 0);
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest(-12_345);
+        }
+
+        assertTrue(budget.tryAcquire(-12_000));
+        assertTrue(budget.tryAcquire(-11_500));
+        assertFalse(budget.tryAcquire(-11_500));
+    }
+
+    @Test
+    void testRetryBudgetPercentage() {
+        RetryBudget budget = new RetryBudget(10_000, 20, 0);
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest(0);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(budget.tryAcquire(500));
+        }
+        assertFalse(budget.tryAcquire(500));
+
+        // Requests and retries age out of the window
+        assertFalse(budget.tryAcquire(20_000));
+    }
+
+    @Test
+    void testRetryBudgetMinimumRate() {
+        RetryBudget budget = new RetryBudget(10_000, 0, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(budget.tryAcquire(0));
+        }
+        assertFalse(budget.tryAcquire(0));
+    }
+
+    private Upstream createUpstream(RetryConfig retry) {
+        Upstream upstream = Upstream.builder()
+                .name("test-upstream")
+                .algorithm(LoadBalancerAlgorithm.ROUND_ROBIN)
+                .servers(Arrays.asList(server1, server2))
+                .retry(retry)
+                .build();
+        lenient().when(upstreamRepository.findByName("test-upstream")).thenReturn(Optional.of(upstream));
+        return upstream;
+    }
+
+    private static ProxyResponse response(int statusCode) {
+        return ProxyResponse.builder()
+                .statusCode(statusCode)
+                .headers(new HttpHeaders())
+                .success(statusCode < 400)
+                .latencyNanos(1_000_000)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.eraf.gateway.loadbalancer.service;
 
+import com.eraf.gateway.loadbalancer.algorithm.ConsistentHashLoadBalancer;
 import com.eraf.gateway.loadbalancer.domain.LoadBalancerAlgorithm;
 import com.eraf.gateway.loadbalancer.domain.Server;
 import com.eraf.gateway.loadbalancer.domain.Upstream;
@@ -11,7 +12,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -88,6 +91,79 @@ class LoadBalancerServiceTest {
         assertNull(server);
     }
 
+    @Test
+    void testSelectServerAfterHealthChange() {
+        Server server1 = Server.builder().host("server1").port(8080).healthy(true).build();
+        Server server2 = Server.builder().host("server2").port(8080).healthy(true).build();
+
+        Upstream upstream = Upstream.builder()
+                .name("test-upstream")
+                .algorithm(LoadBalancerAlgorithm.ROUND_ROBIN)
+                .servers(Arrays.asList(server1, server2))
+                .build();
+
+        when(upstreamRepository.findByName("test-upstream"))
+                .thenReturn(Optional.of(upstream));
+
+        assertNotNull(loadBalancerService.selectServer("test-upstream", null));
+
+        // Health change must invalidate the cached routing snapshot
+        server1.setHealthy(false);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("server2", loadBalancerService.selectServer("test-upstream", null).getHost());
+        }
+    }
+
+    @Test
+    void testSelectServerAfterEjection() {
+        Server server1 = Server.builder().host("server1").port(8080).healthy(true).build();
+        Server server2 = Server.builder().host("server2").port(8080).healthy(true).build();
+
+        Upstream upstream = Upstream.builder()
+                .name("test-upstream")
+                .algorithm(LoadBalancerAlgorithm.ROUND_ROBIN)
+                .servers(Arrays.asList(server1, server2))
+                .build();
+
+        when(upstreamRepository.findByName("test-upstream"))
+                .thenReturn(Optional.of(upstream));
+
+        assertNotNull(loadBalancerService.selectServer("test-upstream", null));
+
+        // Ejection rebuilds the route on the ejecting thread
+        server1.setEjected(true);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("server2", loadBalancerService.selectServer("test-upstream", null).getHost());
+        }
+
+        server1.setEjected(false);
+        boolean selectedServer1 = false;
+        for (int i = 0; i < 4; i++) {
+            selectedServer1 |= loadBalancerService.selectServer("test-upstream", null) == server1;
+        }
+        assertTrue(selectedServer1);
+    }
+
+    @Test
+    void testGetUpstreamFromRoutingTable() {
+        Upstream upstream = Upstream.builder()
+                .name("test-upstream")
+                .servers(Arrays.asList(
+                        Server.builder().host("server1").port(8080).healthy(true).build()
+                ))
+                .build();
+
+        when(upstreamRepository.findByName("test-upstream"))
+                .thenReturn(Optional.of(upstream));
+
+        assertSame(upstream, loadBalancerService.getUpstream("test-upstream"));
+        assertSame(upstream, loadBalancerService.getUpstream("test-upstream"));
+
+        // Second lookup is served from the routing table
+        verify(upstreamRepository, times(1)).findByName("test-upstream");
+    }
+
     @Test
     void testCanaryDeployment() {
         Upstream upstream = Upstream.builder()
@@ -109,6 +185,36 @@ class LoadBalancerServiceTest {
         assertNotNull(server);
     }
 
+    @Test
+    void testSavingMutatedUpstreamRebuildsLoadBalancer() {
+        Upstream upstream = Upstream.builder()
+                .name("test-upstream")
+                .algorithm(LoadBalancerAlgorithm.CONSISTENT_HASH)
+                .hashVirtualNodes(1)
+                .hashBalanceFactor(0)
+                .servers(Arrays.asList(
+                        Server.builder().host("server1").port(8080).healthy(true).build(),
+                        Server.builder().host("server2").port(8080).healthy(true).build()
+                ))
+                .build();
+        List<Server> servers = upstream.getServers();
+        ConsistentHashLoadBalancer fewNodes = new ConsistentHashLoadBalancer(1, 0);
+        ConsistentHashLoadBalancer manyNodes = new ConsistentHashLoadBalancer(160, 0);
+        String key = IntStream.range(0, 1000)
+                .mapToObj(i -> "client-" + i)
+                .filter(k -> fewNodes.selectServer(servers, k) != manyNodes.selectServer(servers, k))
+                .findFirst()
+                .orElseThrow();
+
+        loadBalancerService.onUpstreamSaved(null, upstream);
+        assertSame(fewNodes.selectServer(servers, key), loadBalancerService.selectServer("test-upstream", key));
+
+        // Saving the same instance after changing its settings must not keep the old ring settings
+        upstream.setHashVirtualNodes(160);
+        loadBalancerService.onUpstreamSaved(upstream, upstream);
+        assertSame(manyNodes.selectServer(servers, key), loadBalancerService.selectServer("test-upstream", key));
+    }
+
     @Test
     void testMarkServerDown() {
         Server server = Server.builder()
@@ -126,8 +232,11 @@ class LoadBalancerServiceTest {
         when(upstreamRepository.findByName("test-upstream"))
                 .thenReturn(Optional.of(upstream));
 
+        assertSame(server, loadBalancerService.selectServer("test-upstream", null));
+
         loadBalancerService.markServerDown("test-upstream", server);
         assertFalse(server.isHealthy());
+        assertNull(loadBalancerService.selectServer("test-upstream", null));
     }
 
     @Test
@@ -147,8 +256,11 @@ class LoadBalancerServiceTest {
         when(upstreamRepository.findByName("test-upstream"))
                 .thenReturn(Optional.of(upstream));
 
+        assertNull(loadBalancerService.selectServer("test-upstream", null));
+
         loadBalancerService.markServerUp("test-upstream", server);
         assertTrue(server.isHealthy());
+        assertSame(server, loadBalancerService.selectServer("test-upstream", null));
     }
 
     @Test
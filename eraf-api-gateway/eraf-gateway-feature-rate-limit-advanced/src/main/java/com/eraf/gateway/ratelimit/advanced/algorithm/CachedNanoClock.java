@@ -0,0 +1,45 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 주기적으로 갱신되는 저해상도 나노초 시계
+ *
+ * 백그라운드 스레드가 해상도 간격마다 {@link System#nanoTime()}을 읽어두고,
+ * 요청 경로에서는 volatile 필드만 읽습니다.
+ * 시계 호출 비용이 부담되는 경로용이며, 판정 오차는 해상도 이내입니다.
+ */
+public class CachedNanoClock implements LongSupplier {
+
+    private final ScheduledExecutorService ticker;
+    private volatile long nanos;
+
+    /**
+     * @param resolutionMillis 갱신 간격 (밀리초)
+     */
+    public CachedNanoClock(long resolutionMillis) {
+        this.nanos = System.nanoTime();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rate-limit-clock");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, resolutionMillis);
+        ticker.scheduleAtFixedRate(() -> nanos = System.nanoTime(), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getAsLong() {
+        return nanos;
+    }
+
+    /**
+     * 갱신 스레드 종료
+     */
+    public void shutdown() {
+        ticker.shutdown();
+    }
+}
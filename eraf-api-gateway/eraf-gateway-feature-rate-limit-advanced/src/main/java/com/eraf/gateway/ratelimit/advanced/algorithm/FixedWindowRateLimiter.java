@@ -2,8 +2,7 @@ package com.eraf.gateway.ratelimit.advanced.algorithm;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -19,13 +18,22 @@ import java.util.concurrent.atomic.AtomicLong;
 @Slf4j
 public class FixedWindowRateLimiter implements RateLimiter {
 
-    private final ConcurrentMap<String, FixedWindow> windows = new ConcurrentHashMap<>();
+    private final LimiterKeyStore<FixedWindow> windows;
     private final int maxRequests;        // 최대 요청 수
     private final int windowSeconds;      // 윈도우 크기 (초)
 
     public FixedWindowRateLimiter(int maxRequests, int windowSeconds) {
+        this(maxRequests, windowSeconds, LimiterKeyStore.DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param maxKeys 최대 키 수 (0 이하면 제한 없음)
+     */
+    public FixedWindowRateLimiter(int maxRequests, int windowSeconds, int maxKeys) {
         this.maxRequests = maxRequests;
         this.windowSeconds = windowSeconds;
+        // 윈도우 하나 동안 요청이 없던 키는 다음 요청에서 새 윈도우로 시작하므로 제거해도 무방
+        this.windows = new LimiterKeyStore<>(maxKeys, TimeUnit.SECONDS.toNanos(windowSeconds), System::nanoTime);
     }
 
     @Override
@@ -64,6 +72,11 @@ public class FixedWindowRateLimiter implements RateLimiter {
         log.debug("Reset all fixed windows");
     }
 
+    @Override
+    public KeyStoreStats getKeyStoreStats() {
+        return windows.getStats();
+    }
+
     /**
      * Fixed Window 내부 클래스
      */
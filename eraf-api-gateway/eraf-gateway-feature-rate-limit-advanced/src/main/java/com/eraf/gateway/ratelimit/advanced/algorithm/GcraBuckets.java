@@ -0,0 +1,132 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * GCRA (Generic Cell Rate Algorithm) 기반 버킷 저장소
+ *
+ * 키마다 다음 허용량이 비는 이론적 도착 시각(TAT, 나노초) 하나만 저장합니다.
+ * 요청은 TAT를 요청 비용만큼 미루되, 현재 시각보다 버스트 허용치 이상 앞서면 거부합니다.
+ * 토큰 버킷 (capacity 만큼 버스트 허용, rate 속도로 리필)과 미터형 리키 버킷은
+ * 같은 결정을 내리므로 두 limiter가 함께 사용합니다.
+ * 결정은 CAS 한 번으로 끝나며 락을 잡지 않습니다.
+ * 버킷이 다시 가득 찰 만큼 쉰 키는 초기 상태와 같으므로 그 시간이 지나면 저장소에서 제거합니다.
+ */
+final class GcraBuckets {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LimiterKeyStore<AtomicLong> buckets;
+    private final int capacity;
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final long baseNanos;
+
+    /**
+     * @param capacity  버킷 용량 (한 번에 허용되는 최대 요청 수, 0이면 모두 거부)
+     * @param rate      초당 리필(누수) 속도 (0 이하면 리필 없음)
+     * @param maxKeys   최대 키 수 (0 이하면 제한 없음)
+     * @param nanoClock 시간 소스 (나노초, 단조 증가)
+     */
+    GcraBuckets(int capacity, double rate, int maxKeys, LongSupplier nanoClock) {
+        this.capacity = Math.max(0, capacity);
+        // 리필이 없거나 매우 느린 경우 TAT 계산이 넘치지 않는 최대 간격으로 제한
+        long maxIntervalNanos = Long.MAX_VALUE / 4 / Math.max(1, this.capacity);
+        long intervalNanos = rate > 0 ? Math.round(Math.min(NANOS_PER_SECOND / rate, maxIntervalNanos)) : maxIntervalNanos;
+        this.emissionIntervalNanos = Math.max(1, intervalNanos);
+        this.toleranceNanos = emissionIntervalNanos * this.capacity;
+        this.nanoClock = nanoClock;
+        this.baseNanos = nanoClock.getAsLong();
+        this.buckets = new LimiterKeyStore<>(maxKeys, toleranceNanos, nanoClock);
+    }
+
+    /**
+     * 허용량 차감 시도
+     *
+     * @param key     제한 키
+     * @param permits 요청 비용
+     * @return 허용 여부
+     */
+    boolean tryAcquire(String key, int permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        if (permits > capacity) {
+            return false;
+        }
+
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(0));
+
+        long now = now();
+        long cost = permits * emissionIntervalNanos;
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + cost;
+            if (newTat - now > toleranceNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 지금 허용 가능한 요청 수
+     */
+    long getAvailable(String key) {
+        long backlog = backlogNanos(key);
+        return Math.max(0, (toleranceNanos - backlog) / emissionIntervalNanos);
+    }
+
+    /**
+     * 다음 요청 하나가 허용될 때까지 남은 시간 (나노초)
+     */
+    long nanosUntilAvailable(String key) {
+        return Math.max(0, backlogNanos(key) + emissionIntervalNanos - toleranceNanos);
+    }
+
+    /**
+     * 버킷이 완전히 비워질 (가득 찰) 때까지 남은 시간 (나노초)
+     */
+    long nanosUntilEmpty(String key) {
+        return backlogNanos(key);
+    }
+
+    void reset(String key) {
+        buckets.remove(key);
+    }
+
+    void resetAll() {
+        buckets.clear();
+    }
+
+    KeyStoreStats getStats() {
+        return buckets.getStats();
+    }
+
+    /**
+     * TAT가 현재 시각보다 앞선 정도 (사용 중인 버스트 허용치)
+     */
+    private long backlogNanos(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        return Math.max(0, bucket.get() - now());
+    }
+
+    /**
+     * 기준 시각 대비 경과 시간 (nanoTime 값 자체는 음수일 수 있으므로 상대값 사용)
+     */
+    private long now() {
+        return Math.max(0, nanoClock.getAsLong() - baseNanos);
+    }
+
+    static long toSecondsCeil(long nanos) {
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+}
@@ -0,0 +1,41 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rate Limiter 키 저장소 통계
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeyStoreStats {
+
+    /**
+     * 현재 키 수
+     */
+    private int keyCount;
+
+    /**
+     * 최대 키 수 (0이면 제한 없음)
+     */
+    private int maxKeys;
+
+    /**
+     * 유휴 만료 시간 (밀리초, 0이면 만료 없음)
+     */
+    private long idleTimeoutMillis;
+
+    /**
+     * 최대 키 수 초과로 제거된 키 수 (누적)
+     */
+    private long sizeEvictions;
+
+    /**
+     * 유휴 만료로 제거된 키 수 (누적)
+     */
+    private long idleEvictions;
+}
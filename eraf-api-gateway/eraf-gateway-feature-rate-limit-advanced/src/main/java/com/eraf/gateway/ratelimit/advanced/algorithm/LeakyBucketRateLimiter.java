@@ -2,9 +2,7 @@ package com.eraf.gateway.ratelimit.advanced.algorithm;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.LongSupplier;
 
 /**
  * Leaky Bucket 알고리즘 구현
@@ -13,104 +11,74 @@ import java.util.concurrent.LinkedBlockingQueue;
  * - 일정한 속도로 요청 처리 (누수)
  * - 버스트 트래픽을 평탄화
  * - 큐가 가득 차면 요청 거부
+ * - GCRA로 구현: 키당 long 하나, CAS 한 번으로 판정 (락 없음)
  */
 @Slf4j
 public class LeakyBucketRateLimiter implements RateLimiter {
 
-    private final ConcurrentMap<String, LeakyBucket> buckets = new ConcurrentHashMap<>();
-    private final int capacity;           // 버킷의 최대 용량
-    private final double leakRate;        // 초당 누수 속도
-    private final int windowSeconds;      // 윈도우 크기 (초)
+    private final GcraBuckets buckets;
 
     public LeakyBucketRateLimiter(int capacity, double leakRate, int windowSeconds) {
-        this.capacity = capacity;
-        this.leakRate = leakRate;
-        this.windowSeconds = windowSeconds;
+        this(capacity, leakRate, windowSeconds, LimiterKeyStore.DEFAULT_MAX_KEYS, System::nanoTime);
+    }
+
+    public LeakyBucketRateLimiter(int capacity, double leakRate, int windowSeconds, LongSupplier nanoClock) {
+        this(capacity, leakRate, windowSeconds, LimiterKeyStore.DEFAULT_MAX_KEYS, nanoClock);
+    }
+
+    /**
+     * @param windowSeconds 윈도우 크기 (초, 판정에는 사용하지 않음)
+     * @param maxKeys   최대 키 수 (0 이하면 제한 없음)
+     * @param nanoClock 시간 소스 (나노초, 예: {@link CachedNanoClock})
+     */
+    public LeakyBucketRateLimiter(int capacity, double leakRate, int windowSeconds, int maxKeys, LongSupplier nanoClock) {
+        this.buckets = new GcraBuckets(capacity, leakRate, maxKeys, nanoClock);
     }
 
     @Override
     public boolean allowRequest(String key) {
-        LeakyBucket bucket = buckets.computeIfAbsent(key, k -> new LeakyBucket(capacity, leakRate));
-        return bucket.tryAdd();
+        return buckets.tryAcquire(key, 1);
+    }
+
+    /**
+     * 요청 여러 개 분량을 한 번에 추가 (가중치가 있는 요청)
+     * 버킷에 자리가 모자라면 하나도 추가하지 않습니다.
+     *
+     * @param key     제한 키
+     * @param permits 추가할 요청 수
+     * @return 허용 여부
+     */
+    public boolean tryAcquire(String key, int permits) {
+        return buckets.tryAcquire(key, permits);
     }
 
     @Override
     public long getRemainingRequests(String key) {
-        LeakyBucket bucket = buckets.get(key);
-        if (bucket == null) {
-            return capacity;
-        }
-        return bucket.getRemainingCapacity();
+        return buckets.getAvailable(key);
     }
 
+    /**
+     * 버킷이 모두 비워질 때까지 남은 시간 (초)
+     */
     @Override
     public long getResetTimeSeconds(String key) {
-        LeakyBucket bucket = buckets.get(key);
-        if (bucket == null) {
-            return 0;
-        }
-        return bucket.getTimeUntilEmpty();
+        return GcraBuckets.toSecondsCeil(buckets.nanosUntilEmpty(key));
     }
 
     @Override
     public void reset(String key) {
-        buckets.remove(key);
+        buckets.reset(key);
         log.debug("Reset leaky bucket for key: {}", key);
     }
 
     @Override
     public void resetAll() {
-        buckets.clear();
+        buckets.resetAll();
         log.debug("Reset all leaky buckets");
     }
 
-    /**
-     * Leaky Bucket 내부 클래스
-     */
-    private static class LeakyBucket {
-        private final int capacity;
-        private final double leakRate;
-        private double water;              // 현재 물의 양
-        private long lastLeakTimestamp;
-
-        public LeakyBucket(int capacity, double leakRate) {
-            this.capacity = capacity;
-            this.leakRate = leakRate;
-            this.water = 0;
-            this.lastLeakTimestamp = System.currentTimeMillis();
-        }
-
-        public synchronized boolean tryAdd() {
-            leak();
-            if (water < capacity) {
-                water++;
-                return true;
-            }
-            return false;
-        }
-
-        public synchronized long getRemainingCapacity() {
-            leak();
-            return (long) (capacity - water);
-        }
-
-        public synchronized long getTimeUntilEmpty() {
-            leak();
-            if (water <= 0) {
-                return 0;
-            }
-            return (long) Math.ceil(water / leakRate);
-        }
-
-        private void leak() {
-            long now = System.currentTimeMillis();
-            long timePassed = now - lastLeakTimestamp;
-            double leaked = (timePassed / 1000.0) * leakRate;
-
-            if (leaked > 0) {
-                water = Math.max(0, water - leaked);
-                lastLeakTimestamp = now;
-            }
-        }
+    @Override
+    public KeyStoreStats getKeyStoreStats() {
+        return buckets.getStats();
     }
 }
@@ -0,0 +1,282 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import com.eraf.gateway.ratelimit.advanced.domain.TokenLease;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 임대 토큰 기반 하이브리드 Rate Limiter
+ *
+ * 공유 한도 (Redis)에서 토큰을 묶음으로 임대해 로컬에서 소비합니다.
+ * - 임대 토큰이 남아 있으면 Redis 왕복 없이 CAS 한 번으로 판정
+ * - 임대 크기는 키별로 관측한 요청 속도로 정함 (leaseIntervalMillis 동안 들어올 요청 수)
+ * - 임대 크기 상한은 한도의 maxLeaseFraction (정밀도와 Redis 호출 수의 절충)
+ * - 한도 초과 응답은 다시 임대해도 될 때까지 로컬에서 캐시 (거부 요청도 Redis를 부르지 않음)
+ * - 키별로 임대 요청은 한 번에 하나만 보냄 (동시에 토큰이 떨어진 요청들은 진행 중인 임대를 기다렸다가 그 토큰을 사용)
+ *
+ * 노드가 쓰지 않고 만료된 임대 토큰은 공유 한도로 돌아가지 않으므로,
+ * 오차는 항상 덜 허용하는 쪽이며 최대 (노드 수 x 임대 크기 상한)입니다.
+ */
+@Slf4j
+public class LeasedRateLimiter implements RateLimiter {
+
+    /**
+     * 키 상태 유휴 만료 시간 (만료되면 관측 속도를 잊고 최소 임대부터 다시 시작)
+     */
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LimiterKeyStore<LocalLease> leases;
+    private final LeaseSource source;
+    private final LongSupplier nanoClock;
+    private final int maxLeaseSize;
+    private final long leaseIntervalNanos;
+    private final LongAdder leaseCount = new LongAdder();
+    private final LongAdder leasedTokens = new LongAdder();
+
+    /**
+     * @param limit     공유 한도 (버킷 용량 또는 윈도우당 최대 요청 수, 임대 크기 상한 계산에 사용)
+     * @param settings  임대 설정
+     * @param maxKeys   최대 키 수 (0 이하면 제한 없음)
+     * @param source    공유 한도에서 토큰을 임대하는 함수
+     * @param nanoClock 시간 소스 (나노초)
+     */
+    public LeasedRateLimiter(int limit, Settings settings, int maxKeys, LeaseSource source, LongSupplier nanoClock) {
+        double fraction = Math.min(1.0, Math.max(0.0, settings.getMaxLeaseFraction()));
+        this.maxLeaseSize = (int) Math.max(1, Math.floor(limit * fraction));
+        this.leaseIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, settings.getLeaseIntervalMillis()));
+        this.source = source;
+        this.nanoClock = nanoClock;
+        this.leases = new LimiterKeyStore<>(maxKeys, IDLE_NANOS, nanoClock);
+    }
+
+    @Override
+    public boolean allowRequest(String key) {
+        LocalLease lease = leases.computeIfAbsent(key, k -> new LocalLease(nanoClock.getAsLong()));
+        lease.requests.increment();
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            if (lease.tryTake(now)) {
+                return true;
+            }
+            if (now - lease.deniedUntilNanos < 0) {
+                return false;
+            }
+
+            // 진행 중인 임대가 있으면 끝날 때까지 기다렸다가 새 토큰으로 다시 시도
+            CompletableFuture<Void> inFlight = lease.refilling.get();
+            if (inFlight != null) {
+                inFlight.join();
+                continue;
+            }
+            CompletableFuture<Void> refill = new CompletableFuture<>();
+            if (!lease.refilling.compareAndSet(null, refill)) {
+                continue;
+            }
+            try {
+                return refill(key, lease, now);
+            } finally {
+                lease.refilling.set(null);
+                refill.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 공유 한도에서 임대 (키별로 한 스레드만 실행)
+     */
+    private boolean refill(String key, LocalLease lease, long now) {
+        TokenLease grant = source.acquire(key, lease.nextLeaseSize(now, leaseIntervalNanos, maxLeaseSize));
+        leaseCount.increment();
+        long validUntil = now + TimeUnit.MILLISECONDS.toNanos(Math.max(0, grant.getValidMillis()));
+        lease.sharedRemaining = grant.getSharedRemaining();
+        if (!grant.isGranted()) {
+            lease.deny(validUntil);
+            return false;
+        }
+
+        leasedTokens.add(grant.getGranted());
+        // 한 개는 현재 요청이 바로 사용
+        lease.refill(grant.getGranted() - 1, now, validUntil);
+        return true;
+    }
+
+    /**
+     * 공유 한도의 남은 요청 수 추정치
+     * 마지막 임대 직후 공유 한도에 남은 양 + 이 노드가 아직 쓰지 않은 임대 토큰 수입니다.
+     * 마지막 임대 이후 다른 노드가 소비한 양은 반영되지 않으므로 실제보다 클 수 있고,
+     * 임대 결과가 남은 양을 알려주지 않으면 (-1) 이 노드의 임대 토큰 수만 반환합니다.
+     */
+    @Override
+    public long getRemainingRequests(String key) {
+        LocalLease lease = leases.get(key);
+        if (lease == null) {
+            return 0;
+        }
+        long unspent = nanoClock.getAsLong() - lease.expiresAtNanos < 0 ? lease.tokens.get() : 0;
+        long shared = lease.sharedRemaining;
+        return shared >= 0 ? shared + unspent : unspent;
+    }
+
+    /**
+     * 한도 초과 상태일 때 다시 임대를 시도할 때까지 남은 시간 (초)
+     */
+    @Override
+    public long getResetTimeSeconds(String key) {
+        LocalLease lease = leases.get(key);
+        if (lease == null) {
+            return 0;
+        }
+        long remaining = lease.deniedUntilNanos - nanoClock.getAsLong();
+        return remaining > 0 ? (remaining + 999_999_999L) / 1_000_000_000L : 0;
+    }
+
+    /**
+     * 로컬 임대 상태만 지웁니다 (남은 임대 토큰은 버려지고, 공유 한도는 그대로)
+     */
+    @Override
+    public void reset(String key) {
+        leases.remove(key);
+        log.debug("Reset token lease for key: {}", key);
+    }
+
+    @Override
+    public void resetAll() {
+        leases.clear();
+        log.debug("Reset all token leases");
+    }
+
+    @Override
+    public KeyStoreStats getKeyStoreStats() {
+        return leases.getStats();
+    }
+
+    /**
+     * 공유 한도에 보낸 임대 요청 수 (Redis 호출 수)
+     */
+    public long getLeaseCount() {
+        return leaseCount.sum();
+    }
+
+    /**
+     * 임대받은 토큰 합계
+     */
+    public long getLeasedTokens() {
+        return leasedTokens.sum();
+    }
+
+    /**
+     * 공유 한도에서 토큰을 임대하는 함수
+     */
+    @FunctionalInterface
+    public interface LeaseSource {
+        /**
+         * @param key       제한 키
+         * @param requested 임대할 토큰 수 (1 이상)
+         * @return 임대 결과 (남은 한도가 모자라면 requested보다 적게 임대될 수 있음, 공유 한도에 남은 양을 함께 반환할 수 있음)
+         */
+        TokenLease acquire(String key, int requested);
+    }
+
+    /**
+     * 임대 설정
+     */
+    @Getter
+    @Builder
+    public static class Settings {
+        /**
+         * 한 번에 임대할 수 있는 최대 토큰 수 (한도 대비 비율)
+         * 클수록 Redis 호출이 줄고, 작을수록 노드 간 한도 오차가 줄어듦
+         */
+        @Builder.Default
+        private final double maxLeaseFraction = 0.05;
+
+        /**
+         * 임대 한 번이 감당할 목표 시간 (밀리초)
+         * 관측된 요청 속도 x 이 시간만큼 임대 (상한은 maxLeaseFraction)
+         */
+        @Builder.Default
+        private final long leaseIntervalMillis = 100;
+
+        /**
+         * Token Bucket 임대 토큰의 유효 시간 (밀리초)
+         * 오래 쥐고 있던 토큰이 한꺼번에 쓰여 버스트가 되지 않도록 제한 (Fixed Window 임대는 윈도우 끝까지 유효)
+         */
+        @Builder.Default
+        private final long leaseTtlMillis = 1000;
+    }
+
+    /**
+     * 키별 로컬 임대 상태
+     */
+    private static final class LocalLease {
+        private final AtomicLong tokens = new AtomicLong();
+        private final LongAdder requests = new LongAdder();
+        private final AtomicReference<CompletableFuture<Void>> refilling = new AtomicReference<>();
+        private volatile long sharedRemaining = -1;
+        private volatile long expiresAtNanos;
+        private volatile long deniedUntilNanos;
+        private long lastLeaseNanos;
+        private double ratePerSecond;
+
+        LocalLease(long now) {
+            this.expiresAtNanos = now;
+            this.deniedUntilNanos = now;
+            this.lastLeaseNanos = now;
+        }
+
+        boolean tryTake(long now) {
+            if (now - expiresAtNanos >= 0) {
+                return false;
+            }
+            long current;
+            do {
+                current = tokens.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        /**
+         * 직전 임대 이후 들어온 요청 수로 속도를 갱신하고 다음 임대 크기를 정함 (지수 가중 평균)
+         */
+        synchronized int nextLeaseSize(long now, long intervalNanos, int maxSize) {
+            long elapsed = now - lastLeaseNanos;
+            long count = requests.sumThenReset();
+            if (elapsed > 0) {
+                double observed = count * 1e9 / elapsed;
+                ratePerSecond = ratePerSecond == 0 ? observed : (ratePerSecond + observed) / 2;
+                lastLeaseNanos = now;
+            }
+            double size = Math.ceil(ratePerSecond * intervalNanos / 1e9);
+            return (int) Math.max(1, Math.min(maxSize, size));
+        }
+
+        synchronized void refill(long granted, long now, long validUntil) {
+            if (now - expiresAtNanos >= 0) {
+                // 만료된 이전 임대 토큰은 버림
+                tokens.set(granted);
+            } else {
+                tokens.addAndGet(granted);
+            }
+            if (validUntil - expiresAtNanos > 0) {
+                expiresAtNanos = validUntil;
+            }
+            deniedUntilNanos = now;
+        }
+
+        void deny(long retryAt) {
+            deniedUntilNanos = retryAt;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 크기 제한과 유휴 만료가 있는 Rate Limiter 키 저장소
+ *
+ * CLOCK (second chance) 방식으로 동작합니다.
+ * - 조회된 항목에 참조 비트를 세우고, 새 키가 들어올 때마다 시계 바늘이 큐 앞쪽 항목을 몇 개씩 검사
+ * - 유휴 시간이 지난 항목은 제거, 최대 키 수를 넘었으면 참조 비트가 없는 항목부터 제거
+ * - 참조 비트가 있는 항목은 비트를 지우고 한 바퀴 더 유지 (자주 쓰이는 키 보호)
+ *
+ * 유휴 시간은 limiter 상태가 초기 상태로 돌아가는 시간으로 잡으면 제거해도 판정이 바뀌지 않습니다.
+ * 최대 키 수 초과로 제거된 키는 다음 요청에서 초기 상태로 다시 시작합니다.
+ * 최대 키 수는 동시 삽입 중 잠깐 넘을 수 있는 느슨한 상한입니다.
+ *
+ * @param <V> limiter 상태 타입
+ */
+public final class LimiterKeyStore<V> {
+
+    /**
+     * limiter당 기본 최대 키 수
+     */
+    public static final int DEFAULT_MAX_KEYS = 100_000;
+
+    /**
+     * 키 삽입마다 시계 바늘이 검사하는 항목 수
+     */
+    private static final int HAND_STEPS_PER_INSERT = 2;
+
+    private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<V>> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder idleEvictions = new LongAdder();
+
+    private final int maxKeys;
+    private final long idleNanos;
+    private final long touchGranularityNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param maxKeys   최대 키 수 (0 이하면 제한 없음)
+     * @param idleNanos 유휴 만료 시간 (나노초, 0 이하면 만료 없음)
+     * @param nanoClock 시간 소스 (나노초)
+     */
+    public LimiterKeyStore(int maxKeys, long idleNanos, LongSupplier nanoClock) {
+        this.maxKeys = maxKeys > 0 ? maxKeys : Integer.MAX_VALUE;
+        this.idleNanos = Math.max(0, idleNanos);
+        // 접근 시각은 이 간격보다 오래되었을 때만 갱신 (조회마다 쓰기 방지), 만료가 없으면 갱신하지 않음
+        this.touchGranularityNanos = this.idleNanos > 0 ? this.idleNanos / 16 : Long.MAX_VALUE;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 키 조회 (유휴 만료된 항목은 제거하고 null 반환)
+     */
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        long now = nanoClock.getAsLong();
+        if (isIdle(entry, now)) {
+            evict(entry, idleEvictions);
+            return null;
+        }
+        entry.touch(now, touchGranularityNanos);
+        return entry.value;
+    }
+
+    /**
+     * 키 조회, 없으면 생성
+     * 새 키가 생성되면 시계 바늘을 움직여 유휴/초과 항목을 정리합니다.
+     */
+    public V computeIfAbsent(String key, Function<String, V> factory) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        long now = nanoClock.getAsLong();
+        boolean[] created = new boolean[1];
+        Entry<V> entry = entries.compute(key, (k, existing) -> {
+            if (existing != null && !isIdle(existing, now)) {
+                return existing;
+            }
+            if (existing != null) {
+                existing.dead = true;
+                idleEvictions.increment();
+            }
+            created[0] = true;
+            return new Entry<>(k, factory.apply(k), now);
+        });
+
+        if (created[0]) {
+            clock.add(entry);
+            sweep(now);
+        } else {
+            entry.touch(now, touchGranularityNanos);
+        }
+        return entry.value;
+    }
+
+    public void remove(String key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) {
+            entry.dead = true;
+        }
+    }
+
+    public void clear() {
+        entries.values().forEach(entry -> entry.dead = true);
+        entries.clear();
+        clock.removeIf(entry -> entry.dead);
+    }
+
+    public void forEach(BiConsumer<String, V> action) {
+        entries.forEach((key, entry) -> action.accept(key, entry.value));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 저장소 통계
+     */
+    public KeyStoreStats getStats() {
+        return KeyStoreStats.builder()
+                .keyCount(entries.size())
+                .maxKeys(maxKeys == Integer.MAX_VALUE ? 0 : maxKeys)
+                .idleTimeoutMillis(idleNanos / 1_000_000)
+                .sizeEvictions(sizeEvictions.sum())
+                .idleEvictions(idleEvictions.sum())
+                .build();
+    }
+
+    /**
+     * 시계 바늘 이동
+     * 매번 몇 항목씩 유휴 여부를 검사하고, 최대 키 수를 넘었으면 넘지 않을 때까지 제거합니다.
+     * 한 번에 한 스레드만 수행하며, 이미 수행 중이면 건너뜁니다.
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int steps = HAND_STEPS_PER_INSERT;
+            // 모든 항목의 참조 비트를 지우고 한 바퀴 더 돌면 반드시 제거 대상이 나옴
+            long budget = 2L * entries.size() + steps;
+
+            while (budget-- > 0) {
+                boolean overCapacity = entries.size() > maxKeys;
+                if (!overCapacity && steps-- <= 0) {
+                    return;
+                }
+
+                Entry<V> entry = clock.poll();
+                if (entry == null) {
+                    return;
+                }
+                if (entry.dead) {
+                    continue;
+                }
+
+                if (isIdle(entry, now)) {
+                    evict(entry, idleEvictions);
+                } else if (overCapacity && !entry.referenced) {
+                    evict(entry, sizeEvictions);
+                } else {
+                    if (overCapacity) {
+                        entry.referenced = false;
+                    }
+                    clock.add(entry);
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private boolean isIdle(Entry<V> entry, long now) {
+        // 접근 시각이 최대 touchGranularity만큼 늦게 기록되므로 그만큼 여유를 둠
+        return idleNanos > 0 && now - entry.accessNanos > idleNanos + touchGranularityNanos;
+    }
+
+    private void evict(Entry<V> entry, LongAdder counter) {
+        if (entries.remove(entry.key, entry)) {
+            entry.dead = true;
+            counter.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final String key;
+        private final V value;
+        private volatile long accessNanos;
+        private volatile boolean referenced;
+        private volatile boolean dead;
+
+        Entry(String key, V value, long now) {
+            this.key = key;
+            this.value = value;
+            this.accessNanos = now;
+        }
+
+        void touch(long now, long granularityNanos) {
+            if (now - accessNanos > granularityNanos) {
+                accessNanos = now;
+            }
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+}
@@ -41,4 +41,9 @@ public interface RateLimiter {
      * 모든 제한 초기화
      */
     void resetAll();
+
+    /**
+     * 키 저장소 통계 (키 수, 제거 횟수)
+     */
+    KeyStoreStats getKeyStoreStats();
 }
@@ -0,0 +1,197 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding Window Counter 알고리즘 구현
+ *
+ * 특징:
+ * - 직전 윈도우와 현재 윈도우의 요청 수만 유지
+ * - 직전 윈도우 요청 수를 남은 겹침 비율만큼 가중해 슬라이딩 윈도우 요청 수를 근사
+ * - 키당 메모리 고정 (long 하나), CAS로 갱신하므로 락 없음
+ * - 직전 윈도우 요청이 고르게 분포했다고 가정하므로 정확한 Sliding Window보다 약간 느슨하거나 엄격할 수 있음
+ */
+@Slf4j
+public class SlidingWindowCounterRateLimiter implements RateLimiter {
+
+    /**
+     * 윈도우별 요청 수 비트 수
+     */
+    private static final int COUNT_BITS = 21;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * 윈도우 번호 비트 수 (기준 시각 대비, 비교는 순환 차이로 함)
+     */
+    private static final int WINDOW_BITS = 64 - 2 * COUNT_BITS;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+
+    /**
+     * 윈도우당 허용 가능한 최대 요청 수
+     */
+    public static final int MAX_REQUESTS_LIMIT = (int) COUNT_MASK;
+
+    private final LimiterKeyStore<AtomicLong> windows;
+    private final int maxRequests;        // 최대 요청 수
+    private final long windowMillis;      // 윈도우 크기 (밀리초)
+    private final LongSupplier clock;
+    private final long baseMillis;
+
+    public SlidingWindowCounterRateLimiter(int maxRequests, int windowSeconds) {
+        this(maxRequests, windowSeconds, LimiterKeyStore.DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param maxKeys 최대 키 수 (0 이하면 제한 없음)
+     */
+    public SlidingWindowCounterRateLimiter(int maxRequests, int windowSeconds, int maxKeys) {
+        this(maxRequests, windowSeconds, maxKeys, System::currentTimeMillis);
+    }
+
+    SlidingWindowCounterRateLimiter(int maxRequests, int windowSeconds, int maxKeys, LongSupplier clock) {
+        if (maxRequests > MAX_REQUESTS_LIMIT) {
+            throw new IllegalArgumentException(
+                    "maxRequests must not exceed " + MAX_REQUESTS_LIMIT + " for sliding window counter: " + maxRequests);
+        }
+        this.maxRequests = maxRequests;
+        this.windowMillis = windowSeconds * 1000L;
+        this.clock = clock;
+        this.baseMillis = clock.getAsLong();
+        // 두 윈도우 동안 요청이 없던 키는 직전/현재 카운터가 모두 비므로 제거해도 무방
+        this.windows = new LimiterKeyStore<>(maxKeys, TimeUnit.SECONDS.toNanos(2L * windowSeconds),
+                () -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()));
+    }
+
+    @Override
+    public boolean allowRequest(String key) {
+        AtomicLong window = windows.computeIfAbsent(key, k -> new AtomicLong(0));
+
+        long elapsed = elapsedMillis();
+        long current = elapsed / windowMillis;
+        long offset = elapsed % windowMillis;
+
+        while (true) {
+            long state = window.get();
+            long rolled = roll(state, current);
+            long previous = previousCount(rolled);
+            long count = currentCount(rolled);
+
+            if (weightedPrevious(previous, offset) + count >= maxRequests) {
+                return false;
+            }
+            if (window.compareAndSet(state, pack(current, previous, count + 1))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long getRemainingRequests(String key) {
+        AtomicLong window = windows.get(key);
+        if (window == null) {
+            return maxRequests;
+        }
+
+        long elapsed = elapsedMillis();
+        long rolled = roll(window.get(), elapsed / windowMillis);
+        long estimated = weightedPrevious(previousCount(rolled), elapsed % windowMillis) + currentCount(rolled);
+        return Math.max(0, maxRequests - estimated);
+    }
+
+    /**
+     * 다음 요청이 허용될 때까지 남은 시간 (초)
+     * 허용 가능한 상태면 0을 반환합니다.
+     */
+    @Override
+    public long getResetTimeSeconds(String key) {
+        AtomicLong window = windows.get(key);
+        if (window == null) {
+            return 0;
+        }
+
+        long elapsed = elapsedMillis();
+        long offset = elapsed % windowMillis;
+        long rolled = roll(window.get(), elapsed / windowMillis);
+        long previous = previousCount(rolled);
+        long count = currentCount(rolled);
+
+        if (weightedPrevious(previous, offset) + count < maxRequests) {
+            return 0;
+        }
+
+        long waitMillis;
+        if (count < maxRequests) {
+            // 현재 윈도우 안에서 직전 윈도우 가중치가 충분히 줄어드는 시점
+            long allowedAt = windowMillis - (maxRequests - count) * windowMillis / previous;
+            waitMillis = Math.max(1, allowedAt - offset + 1);
+        } else {
+            // 다음 윈도우에서 현재 윈도우 요청 수의 가중치가 한도 아래로 내려가는 시점
+            long allowedAt = windowMillis - maxRequests * windowMillis / count;
+            waitMillis = windowMillis - offset + allowedAt + 1;
+        }
+        return (waitMillis + 999) / 1000;
+    }
+
+    @Override
+    public void reset(String key) {
+        windows.remove(key);
+        log.debug("Reset sliding window counter for key: {}", key);
+    }
+
+    @Override
+    public void resetAll() {
+        windows.clear();
+        log.debug("Reset all sliding window counters");
+    }
+
+    @Override
+    public KeyStoreStats getKeyStoreStats() {
+        return windows.getStats();
+    }
+
+    private long elapsedMillis() {
+        return Math.max(0, clock.getAsLong() - baseMillis);
+    }
+
+    /**
+     * 저장된 상태를 현재 윈도우 기준으로 이동
+     * 직전 윈도우면 현재 요청 수가 직전 요청 수가 되고, 그보다 오래되었으면 모두 비웁니다.
+     */
+    private static long roll(long state, long current) {
+        long distance = (current - windowIndex(state)) & WINDOW_MASK;
+        if (distance == 0) {
+            return state;
+        }
+        if (distance == 1) {
+            return pack(current, currentCount(state), 0);
+        }
+        return pack(current, 0, 0);
+    }
+
+    /**
+     * 직전 윈도우 요청 수 중 슬라이딩 윈도우에 아직 걸쳐 있는 부분
+     */
+    private long weightedPrevious(long previous, long offset) {
+        return previous * (windowMillis - offset) / windowMillis;
+    }
+
+    private static long pack(long window, long previous, long count) {
+        return ((window & WINDOW_MASK) << (2 * COUNT_BITS)) | (previous << COUNT_BITS) | count;
+    }
+
+    private static long windowIndex(long state) {
+        return state >>> (2 * COUNT_BITS);
+    }
+
+    private static long previousCount(long state) {
+        return (state >>> COUNT_BITS) & COUNT_MASK;
+    }
+
+    private static long currentCount(long state) {
+        return state & COUNT_MASK;
+    }
+}
@@ -2,9 +2,8 @@ package com.eraf.gateway.ratelimit.advanced.algorithm;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Sliding Window 알고리즘 구현
@@ -13,18 +12,27 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  * - 시간 윈도우가 요청마다 이동
  * - 정확한 요청 수 제한
  * - 버스트 트래픽 방지
- * - 메모리 사용량이 높음
+ * - 메모리 사용량이 높음 (키당 허용 요청 수만큼 기록)
  */
 @Slf4j
 public class SlidingWindowRateLimiter implements RateLimiter {
 
-    private final ConcurrentMap<String, SlidingWindow> windows = new ConcurrentHashMap<>();
+    private final LimiterKeyStore<SlidingWindow> windows;
     private final int maxRequests;        // 최대 요청 수
     private final int windowSeconds;      // 윈도우 크기 (초)
 
     public SlidingWindowRateLimiter(int maxRequests, int windowSeconds) {
+        this(maxRequests, windowSeconds, LimiterKeyStore.DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param maxKeys 최대 키 수 (0 이하면 제한 없음)
+     */
+    public SlidingWindowRateLimiter(int maxRequests, int windowSeconds, int maxKeys) {
         this.maxRequests = maxRequests;
         this.windowSeconds = windowSeconds;
+        // 윈도우 크기만큼 요청이 없던 키는 기록이 모두 만료되었으므로 제거해도 무방
+        this.windows = new LimiterKeyStore<>(maxKeys, TimeUnit.SECONDS.toNanos(windowSeconds), System::nanoTime);
     }
 
     @Override
@@ -63,6 +71,11 @@ public class SlidingWindowRateLimiter implements RateLimiter {
         log.debug("Reset all sliding windows");
     }
 
+    @Override
+    public KeyStoreStats getKeyStoreStats() {
+        return windows.getStats();
+    }
+
     /**
      * Sliding Window 내부 클래스
      */
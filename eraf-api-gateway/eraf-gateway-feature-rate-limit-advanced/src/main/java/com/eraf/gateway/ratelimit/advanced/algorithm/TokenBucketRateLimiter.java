@@ -2,8 +2,7 @@ package com.eraf.gateway.ratelimit.advanced.algorithm;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
 
 /**
  * Token Bucket 알고리즘 구현
@@ -13,104 +12,75 @@ import java.util.concurrent.ConcurrentMap;
  * - 일정 속도로 토큰 생성
  * - 버스트 트래픽 허용 (버킷이 가득 찬 경우)
  * - 유연한 트래픽 처리
+ * - GCRA로 구현: 키당 long 하나, CAS 한 번으로 판정 (락 없음)
  */
 @Slf4j
 public class TokenBucketRateLimiter implements RateLimiter {
 
-    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
-    private final int capacity;           // 버킷의 최대 용량
-    private final double refillRate;      // 초당 토큰 리필 속도
-    private final int windowSeconds;      // 윈도우 크기 (초)
+    private final GcraBuckets buckets;
 
     public TokenBucketRateLimiter(int capacity, double refillRate, int windowSeconds) {
-        this.capacity = capacity;
-        this.refillRate = refillRate;
-        this.windowSeconds = windowSeconds;
+        this(capacity, refillRate, windowSeconds, LimiterKeyStore.DEFAULT_MAX_KEYS, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(int capacity, double refillRate, int windowSeconds, LongSupplier nanoClock) {
+        this(capacity, refillRate, windowSeconds, LimiterKeyStore.DEFAULT_MAX_KEYS, nanoClock);
+    }
+
+    /**
+     * @param windowSeconds 윈도우 크기 (초, 판정에는 사용하지 않음)
+     * @param maxKeys   최대 키 수 (0 이하면 제한 없음)
+     * @param nanoClock 시간 소스 (나노초, 예: {@link CachedNanoClock})
+     */
+    public TokenBucketRateLimiter(int capacity, double refillRate, int windowSeconds, int maxKeys, LongSupplier nanoClock) {
+        this.buckets = new GcraBuckets(capacity, refillRate, maxKeys, nanoClock);
     }
 
     @Override
     public boolean allowRequest(String key) {
-        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillRate));
-        return bucket.tryConsume();
+        return buckets.tryAcquire(key, 1);
+    }
+
+    /**
+     * 토큰 여러 개를 한 번에 소비 (가중치가 있는 요청)
+     * 토큰이 모자라면 하나도 소비하지 않습니다.
+     *
+     * @param key     제한 키
+     * @param permits 소비할 토큰 수
+     * @return 허용 여부
+     */
+    public boolean tryAcquire(String key, int permits) {
+        return buckets.tryAcquire(key, permits);
     }
 
     @Override
     public long getRemainingRequests(String key) {
-        TokenBucket bucket = buckets.get(key);
-        if (bucket == null) {
-            return capacity;
-        }
-        return bucket.getAvailableTokens();
+        return buckets.getAvailable(key);
     }
 
+    /**
+     * 다음 토큰이 생길 때까지 남은 시간 (초)
+     * 토큰이 남아 있으면 0을 반환합니다.
+     */
     @Override
     public long getResetTimeSeconds(String key) {
-        TokenBucket bucket = buckets.get(key);
-        if (bucket == null) {
-            return 0;
-        }
-        return bucket.getTimeUntilRefill();
+        return GcraBuckets.toSecondsCeil(buckets.nanosUntilAvailable(key));
     }
 
     @Override
     public void reset(String key) {
-        buckets.remove(key);
+        buckets.reset(key);
         log.debug("Reset token bucket for key: {}", key);
     }
 
     @Override
     public void resetAll() {
-        buckets.clear();
+        buckets.resetAll();
         log.debug("Reset all token buckets");
     }
 
-    /**
-     * Token Bucket 내부 클래스
-     */
-    private static class TokenBucket {
-        private final int capacity;
-        private final double refillRate;
-        private double tokens;
-        private long lastRefillTimestamp;
-
-        public TokenBucket(int capacity, double refillRate) {
-            this.capacity = capacity;
-            this.refillRate = refillRate;
-            this.tokens = capacity;
-            this.lastRefillTimestamp = System.currentTimeMillis();
-        }
-
-        public synchronized boolean tryConsume() {
-            refill();
-            if (tokens >= 1) {
-                tokens--;
-                return true;
-            }
-            return false;
-        }
-
-        public synchronized long getAvailableTokens() {
-            refill();
-            return (long) tokens;
-        }
-
-        public synchronized long getTimeUntilRefill() {
-            if (tokens >= capacity) {
-                return 0;
-            }
-            double tokensNeeded = 1 - tokens;
-            return (long) Math.ceil(tokensNeeded / refillRate);
-        }
-
-        private void refill() {
-            long now = System.currentTimeMillis();
-            long timePassed = now - lastRefillTimestamp;
-            double tokensToAdd = (timePassed / 1000.0) * refillRate;
-
-            if (tokensToAdd > 0) {
-                tokens = Math.min(capacity, tokens + tokensToAdd);
-                lastRefillTimestamp = now;
-            }
-        }
+    @Override
+    public KeyStoreStats getKeyStoreStats() {
+        return buckets.getStats();
     }
 }
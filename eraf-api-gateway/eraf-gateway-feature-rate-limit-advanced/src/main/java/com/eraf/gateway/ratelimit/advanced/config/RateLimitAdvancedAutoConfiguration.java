@@ -1,11 +1,14 @@
 package com.eraf.gateway.ratelimit.advanced.config;
 
+import com.eraf.gateway.ratelimit.advanced.algorithm.CachedNanoClock;
+import com.eraf.gateway.ratelimit.advanced.algorithm.LeasedRateLimiter;
 import com.eraf.gateway.ratelimit.advanced.domain.AdvancedRateLimitRule;
 import com.eraf.gateway.ratelimit.advanced.filter.AdvancedRateLimitFilter;
 import com.eraf.gateway.ratelimit.advanced.repository.RedisRateLimitRepository;
 import com.eraf.gateway.ratelimit.advanced.service.AdvancedRateLimitService;
 import com.eraf.gateway.ratelimit.domain.RateLimitRule;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -23,6 +26,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongSupplier;
 
 /**
  * 고급 Rate Limit AutoConfiguration
@@ -83,7 +87,7 @@ public class RateLimitAdvancedAutoConfiguration {
     /**
      * Redis Rate Limit Repository
      */
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     @ConditionalOnProperty(prefix = "eraf.gateway.rate-limit-advanced", name = "distributed-mode", havingValue = "true")
     @ConditionalOnMissingBean
     public RedisRateLimitRepository redisRateLimitRepository(RedisTemplate<String, String> rateLimitRedisTemplate) {
@@ -149,6 +153,17 @@ public class RateLimitAdvancedAutoConfiguration {
         return rules;
     }
 
+    /**
+     * 로컬 Rate Limiter용 캐시 시계 (clock-resolution-millis 설정 시)
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "eraf.gateway.rate-limit-advanced", name = "clock-resolution-millis")
+    public CachedNanoClock rateLimitCachedNanoClock(RateLimitAdvancedProperties properties) {
+        log.info("Cached rate limit clock created with resolution: {}ms", properties.getClockResolutionMillis());
+        return new CachedNanoClock(properties.getClockResolutionMillis());
+    }
+
     /**
      * Advanced Rate Limit Service (with Redis - distributed mode)
      */
@@ -158,12 +173,24 @@ public class RateLimitAdvancedAutoConfiguration {
     public AdvancedRateLimitService advancedRateLimitService(
             List<AdvancedRateLimitRule> rules,
             RateLimitAdvancedProperties properties,
-            RedisRateLimitRepository redisRepository) {
-
-        log.info("Creating advanced rate limit service with {} rules, distributed mode: {}",
-                rules.size(), properties.isDistributedMode());
-
-        return new AdvancedRateLimitService(rules, redisRepository, properties.isDistributedMode());
+            RedisRateLimitRepository redisRepository,
+            ObjectProvider<CachedNanoClock> cachedNanoClock) {
+
+        RateLimitAdvancedProperties.HybridConfig hybrid = properties.getHybrid();
+        log.info("Creating advanced rate limit service with {} rules, distributed mode: {}, hybrid mode: {}",
+                rules.size(), properties.isDistributedMode(), hybrid.isEnabled());
+
+        LeasedRateLimiter.Settings leaseSettings = hybrid.isEnabled()
+                ? LeasedRateLimiter.Settings.builder()
+                        .maxLeaseFraction(hybrid.getMaxLeaseFraction())
+                        .leaseIntervalMillis(hybrid.getLeaseIntervalMillis())
+                        .leaseTtlMillis(hybrid.getLeaseTtlMillis())
+                        .build()
+                : null;
+
+        return new AdvancedRateLimitService(rules, redisRepository, properties.isDistributedMode(),
+                nanoClock(properties, cachedNanoClock), properties.getMaxKeysPerLimiter(), properties.getMaxLimiters(),
+                leaseSettings);
     }
 
     /**
@@ -173,11 +200,20 @@ public class RateLimitAdvancedAutoConfiguration {
     @ConditionalOnMissingBean(AdvancedRateLimitService.class)
     @ConditionalOnProperty(prefix = "eraf.gateway.rate-limit-advanced", name = "distributed-mode", havingValue = "false", matchIfMissing = true)
     public AdvancedRateLimitService advancedRateLimitServiceLocal(
-            List<AdvancedRateLimitRule> rules) {
+            List<AdvancedRateLimitRule> rules,
+            RateLimitAdvancedProperties properties,
+            ObjectProvider<CachedNanoClock> cachedNanoClock) {
 
         log.info("Creating advanced rate limit service (local mode) with {} rules", rules.size());
 
-        return new AdvancedRateLimitService(rules, null, false);
+        return new AdvancedRateLimitService(rules, null, false, nanoClock(properties, cachedNanoClock),
+                properties.getMaxKeysPerLimiter(), properties.getMaxLimiters());
+    }
+
+    private static LongSupplier nanoClock(RateLimitAdvancedProperties properties,
+                                          ObjectProvider<CachedNanoClock> cachedNanoClock) {
+        CachedNanoClock clock = properties.getClockResolutionMillis() > 0 ? cachedNanoClock.getIfAvailable() : null;
+        return clock != null ? clock : System::nanoTime;
     }
 
     /**
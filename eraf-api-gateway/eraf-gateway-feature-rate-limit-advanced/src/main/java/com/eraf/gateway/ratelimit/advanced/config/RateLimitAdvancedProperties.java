@@ -51,11 +51,33 @@ public class RateLimitAdvancedProperties {
      */
     private boolean distributedMode = false;
 
+    /**
+     * 로컬 Token/Leaky Bucket 시계 해상도 (밀리초)
+     * 0이면 요청마다 System.nanoTime()을 읽고, 0보다 크면 해당 간격으로 갱신되는 캐시 시계를 사용
+     */
+    private long clockResolutionMillis = 0;
+
+    /**
+     * 로컬 limiter 하나가 추적하는 최대 키 수 (IP, API Key 등, 0이면 제한 없음)
+     * 초과하면 최근에 쓰이지 않은 키부터 제거되며, 제거된 키는 다음 요청에서 초기 상태로 시작
+     */
+    private int maxKeysPerLimiter = 100_000;
+
+    /**
+     * 로컬 limiter 최대 수 (규칙 x Consumer x 커스텀 한도 조합, 0이면 제한 없음)
+     */
+    private int maxLimiters = 10_000;
+
     /**
      * Redis 설정
      */
     private RedisConfig redis = new RedisConfig();
 
+    /**
+     * 하이브리드 모드 설정 (분산 모드에서 토큰 임대)
+     */
+    private HybridConfig hybrid = new HybridConfig();
+
     /**
      * 경로별 알고리즘 오버라이드
      * 예: "/api/v1/*" -> TOKEN_BUCKET
@@ -124,6 +146,35 @@ public class RateLimitAdvancedProperties {
         private List<String> clusterNodes = new ArrayList<>();
     }
 
+    /**
+     * 하이브리드 모드 설정
+     * 노드마다 Redis에서 토큰을 묶음으로 임대해 로컬에서 소비합니다 (Token/Leaky Bucket, Fixed Window).
+     * Sliding Window 계열은 요청마다 Redis에서 확인합니다.
+     */
+    @Data
+    public static class HybridConfig {
+        /**
+         * 하이브리드 모드 활성화 (distributed-mode가 true일 때만 적용)
+         */
+        private boolean enabled = false;
+
+        /**
+         * 한 번에 임대할 수 있는 최대 토큰 수 (한도 대비 비율)
+         * 클수록 Redis 호출이 줄고, 작을수록 노드 간 한도 오차가 줄어듦
+         */
+        private double maxLeaseFraction = 0.05;
+
+        /**
+         * 임대 한 번이 감당할 목표 시간 (밀리초, 관측된 요청 속도 x 이 시간만큼 임대)
+         */
+        private long leaseIntervalMillis = 100;
+
+        /**
+         * Token Bucket 임대 토큰의 유효 시간 (밀리초)
+         */
+        private long leaseTtlMillis = 1000;
+    }
+
     /**
      * Consumer별 설정
      */
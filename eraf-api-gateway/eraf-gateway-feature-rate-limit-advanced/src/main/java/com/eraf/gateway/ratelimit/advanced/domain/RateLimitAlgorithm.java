@@ -28,12 +28,21 @@ public enum RateLimitAlgorithm {
     /**
      * Sliding Window (슬라이딩 윈도우)
      * - 시간 윈도우가 요청마다 이동
-     * - 정확한 요청 수 제한
+     * - 요청 시각을 모두 기록하는 정확한 요청 수 제한
      * - 장점: 정확한 제한, 버스트 방지
-     * - 단점: 메모리 사용량 높음
+     * - 단점: 메모리 사용량 높음 (키당 허용 요청 수만큼 기록)
      */
     SLIDING_WINDOW,
 
+    /**
+     * Sliding Window Counter (슬라이딩 윈도우 카운터)
+     * - 직전/현재 고정 윈도우의 요청 수를 가중 합산해 슬라이딩 윈도우를 근사
+     * - 키당 메모리 고정, 락 없이 처리
+     * - 장점: 낮은 메모리 사용, 빠름, 윈도우 경계 버스트 완화
+     * - 단점: 근사치 (직전 윈도우 요청이 고르게 분포했다고 가정)
+     */
+    SLIDING_WINDOW_COUNTER,
+
     /**
      * Fixed Window (고정 윈도우)
      * - 고정된 시간 윈도우 사용
@@ -0,0 +1,48 @@
+package com.eraf.gateway.ratelimit.advanced.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Redis에서 한 번에 평가할 제한 하나
+ * 여러 개를 {@code RedisRateLimitRepository.evaluate}에 넘기면 스크립트 한 번으로 함께 판정합니다.
+ */
+@Getter
+@Builder
+public class RateLimitCheck {
+
+    /**
+     * 제한 키 (Redis Cluster에서는 함께 평가하는 키들이 같은 해시 태그를 가져야 함, 예: "rule-1:IP:{10.0.0.1}")
+     */
+    private final String key;
+
+    /**
+     * 제한이 속한 규칙 ID (규칙별 키 세대에 사용, null이면 규칙 세대 없음)
+     */
+    private final String ruleId;
+
+    /**
+     * 알고리즘 타입
+     */
+    private final RateLimitAlgorithm algorithm;
+
+    /**
+     * 윈도우당 최대 요청 수 (Leaky Bucket은 버킷 용량)
+     */
+    private final int maxRequests;
+
+    /**
+     * 버스트 크기 (Token Bucket 용량)
+     */
+    private final int burstSize;
+
+    /**
+     * 리필 속도 (초당 토큰 수)
+     */
+    private final double refillRate;
+
+    /**
+     * 시간 윈도우 (초)
+     */
+    private final int windowSeconds;
+}
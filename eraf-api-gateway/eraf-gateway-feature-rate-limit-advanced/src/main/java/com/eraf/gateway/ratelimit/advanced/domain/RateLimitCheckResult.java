@@ -0,0 +1,33 @@
+package com.eraf.gateway.ratelimit.advanced.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 제한 하나의 평가 결과
+ */
+@Getter
+@Builder
+public class RateLimitCheckResult {
+
+    /**
+     * 이 제한만 놓고 본 허용 여부
+     * (함께 평가한 제한이 모두 허용일 때만 요청이 소비됨)
+     */
+    private final boolean allowed;
+
+    /**
+     * 남은 요청 수
+     */
+    private final long remaining;
+
+    /**
+     * 한도가 모두 회복될 때까지 남은 시간 (밀리초)
+     */
+    private final long resetMillis;
+
+    /**
+     * 거부된 경우 다시 허용될 때까지 기다릴 시간 (밀리초, 허용이면 0)
+     */
+    private final long retryAfterMillis;
+}
@@ -0,0 +1,62 @@
+package com.eraf.gateway.ratelimit.advanced.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Redis Rate Limit 데이터 정리 진행 상황
+ * 리셋 자체는 즉시 적용되고, 남은 옛 키는 백그라운드에서 SCAN + UNLINK로 나눠 삭제합니다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResetProgress {
+
+    /**
+     * 삭제 대상 키 패턴 (SCAN MATCH)
+     */
+    private String pattern;
+
+    /**
+     * 리셋 후 사용 중인 키 세대 (규칙 리셋이면 그 규칙의 세대)
+     */
+    private long generation;
+
+    /**
+     * SCAN으로 확인한 키 수
+     */
+    private long scannedKeys;
+
+    /**
+     * UNLINK로 삭제한 키 수
+     */
+    private long deletedKeys;
+
+    /**
+     * 처리한 배치 수
+     */
+    private long batches;
+
+    /**
+     * 완료 여부
+     */
+    private boolean done;
+
+    /**
+     * 오류로 중단되었는지 여부 (남은 키는 TTL로 만료됨)
+     */
+    private boolean failed;
+
+    /**
+     * 시작 시각 (epoch 밀리초)
+     */
+    private long startedAtMillis;
+
+    /**
+     * 종료 시각 (epoch 밀리초, 진행 중이면 0)
+     */
+    private long finishedAtMillis;
+}
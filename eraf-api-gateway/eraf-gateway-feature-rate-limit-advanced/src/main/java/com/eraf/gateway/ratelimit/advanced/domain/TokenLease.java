@@ -0,0 +1,44 @@
+package com.eraf.gateway.ratelimit.advanced.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Redis에서 한 번에 임대한 토큰 묶음
+ * 게이트웨이 노드는 임대받은 토큰을 Redis 왕복 없이 로컬에서 소비합니다.
+ */
+@Getter
+@AllArgsConstructor
+public class TokenLease {
+
+    /**
+     * 임대받은 토큰 수 (0이면 한도 초과)
+     */
+    private final int granted;
+
+    /**
+     * granted > 0: 임대 토큰을 사용할 수 있는 시간 (밀리초)
+     * granted == 0: 다시 임대를 시도할 때까지 기다릴 시간 (밀리초)
+     */
+    private final long validMillis;
+
+    /**
+     * 임대 직후 공유 한도에 남은 양 (모르면 -1)
+     */
+    private final long sharedRemaining;
+
+    public TokenLease(int granted, long validMillis) {
+        this(granted, validMillis, -1);
+    }
+
+    /**
+     * 한도 초과 임대
+     */
+    public static TokenLease denied(long retryAfterMillis) {
+        return new TokenLease(0, retryAfterMillis, 0);
+    }
+
+    public boolean isGranted() {
+        return granted > 0;
+    }
+}
@@ -6,7 +6,6 @@ import com.eraf.gateway.common.filter.GatewayFilter;
 import com.eraf.gateway.common.util.GatewayResponseUtils;
 import com.eraf.gateway.ratelimit.advanced.service.AdvancedRateLimitService;
 import com.eraf.gateway.ratelimit.domain.RateLimitRule;
-import com.eraf.gateway.ratelimit.exception.RateLimitExceededException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletResponse;
@@ -39,6 +38,14 @@ public class AdvancedRateLimitFilter extends GatewayFilter {
         return enabled;
     }
 
+    /**
+     * 캐시 갱신 같은 내부 요청은 클라이언트 요청 수에 넣지 않음
+     */
+    @Override
+    protected boolean skipsInternalRequests() {
+        return true;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
@@ -50,24 +57,22 @@ public class AdvancedRateLimitFilter extends GatewayFilter {
         // 헤더 정보 추출
         Map<String, String> headers = extractHeaders(request);
 
-        try {
-            // IP 기반 Rate Limit 체크
-            rateLimitService.checkRateLimit(path, clientIp, RateLimitRule.RateLimitType.IP, headers);
-
-            // Rate Limit 정보를 응답 헤더에 추가
-            AdvancedRateLimitService.RateLimitInfo info = rateLimitService.getRateLimitInfo(
-                    path, clientIp, RateLimitRule.RateLimitType.IP);
+        // IP 기반 Rate Limit 판정 (판정과 헤더 정보를 한 번에 조회)
+        AdvancedRateLimitService.RateLimitDecision decision = rateLimitService.tryAcquire(
+                path, clientIp, RateLimitRule.RateLimitType.IP, headers);
 
-            if (info != null) {
-                addRateLimitHeaders(httpResponse, info);
-            }
-
-            chain.doFilter(request, response);
-
-        } catch (RateLimitExceededException e) {
+        if (!decision.isAllowed()) {
             log.warn("Rate limit exceeded for IP: {} on path: {}", clientIp, path);
-            handleRateLimitExceeded(httpResponse, e);
+            handleRateLimitExceeded(httpResponse, decision);
+            return;
         }
+
+        // Rate Limit 정보를 응답 헤더에 추가
+        if (decision.isLimited()) {
+            addRateLimitHeaders(httpResponse, decision);
+        }
+
+        chain.doFilter(request, response);
     }
 
     /**
@@ -89,7 +94,7 @@ public class AdvancedRateLimitFilter extends GatewayFilter {
     /**
      * Rate Limit 헤더 추가
      */
-    private void addRateLimitHeaders(HttpServletResponse response, AdvancedRateLimitService.RateLimitInfo info) {
+    private void addRateLimitHeaders(HttpServletResponse response, AdvancedRateLimitService.RateLimitDecision info) {
         // 표준 Rate Limit 헤더
         response.setHeader("X-RateLimit-Limit", String.valueOf(info.getLimit()));
         response.setHeader("X-RateLimit-Remaining", String.valueOf(info.getRemaining()));
@@ -107,14 +112,15 @@ public class AdvancedRateLimitFilter extends GatewayFilter {
     /**
      * Rate Limit 초과 처리
      */
-    private void handleRateLimitExceeded(HttpServletResponse response, RateLimitExceededException e) throws IOException {
+    private void handleRateLimitExceeded(HttpServletResponse response, AdvancedRateLimitService.RateLimitDecision decision)
+            throws IOException {
         // Retry-After 헤더 추가
-        response.setHeader("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+        response.setHeader("Retry-After", String.valueOf(decision.getRetryAfterSeconds()));
 
         // Rate Limit 헤더 추가
-        response.setHeader("X-RateLimit-Limit", String.valueOf(e.getLimit()));
+        response.setHeader("X-RateLimit-Limit", String.valueOf(decision.getLimit()));
         response.setHeader("X-RateLimit-Remaining", "0");
-        response.setHeader("RateLimit-Limit", String.valueOf(e.getLimit()));
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.getLimit()));
         response.setHeader("RateLimit-Remaining", "0");
 
         // 에러 응답
@@ -1,17 +1,38 @@
 package com.eraf.gateway.ratelimit.advanced.repository;
 
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitCheck;
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitCheckResult;
+import com.eraf.gateway.ratelimit.advanced.domain.TokenLease;
+import com.eraf.gateway.ratelimit.advanced.domain.ResetProgress;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
-import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 /**
  * Redis 기반 분산 Rate Limit Repository
  * Redis Lua 스크립트를 사용하여 원자적 연산 보장
+ *
+ * 키에는 세대 번호가 들어갑니다 (세대 0은 "rate-limit:", N은 "rate-limit:gN:").
+ * 전체 리셋은 세대 카운터를 올리는 것으로 즉시 끝나고, 옛 세대 키는 백그라운드에서 SCAN + UNLINK로 정리합니다.
+ * 규칙마다 별도의 세대 카운터도 있어 알고리즘 구간에 붙습니다 (규칙 세대 0은 "token:", N은 "token@N:").
+ * 규칙 리셋은 그 규칙의 카운터만 올리며 (O(1)), 옛 세대 키는 더 이상 읽히지 않고 TTL로 만료됩니다.
+ * 각 노드는 세대 번호를 캐시하고 주기적으로 다시 읽으므로, 다른 노드의 리셋은 갱신 주기 안에 반영됩니다.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -22,18 +43,63 @@ public class RedisRateLimitRepository {
     private static final String KEY_PREFIX = "rate-limit:";
 
     /**
-     * Token Bucket 알고리즘용 Lua 스크립트
-     * KEYS[1] = rate-limit key
+     * 현재 키 세대 카운터
+     */
+    private static final String GENERATION_KEY = KEY_PREFIX + "generation";
+
+    /**
+     * 규칙별 키 세대 카운터 (해시: 규칙 ID -> 세대)
+     */
+    private static final String RULE_GENERATIONS_KEY = KEY_PREFIX + "rule-generations";
+
+    /**
+     * 세대 번호 재조회 주기
+     */
+    private static final long GENERATION_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * SCAN 한 번에 요청할 키 수 (COUNT 힌트)
+     */
+    private static final int SCAN_COUNT = 1000;
+
+    /**
+     * UNLINK 한 번에 삭제할 키 수
+     */
+    private static final int UNLINK_BATCH_SIZE = 500;
+
+    /**
+     * 배치 사이 대기 시간 (운영 트래픽에 Redis를 양보)
+     */
+    private static final long BATCH_PAUSE_MILLIS = 5;
+
+    private final ExecutorService purgeExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "rate-limit-purge");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean refreshingGeneration = new AtomicBoolean();
+    private volatile long generation;
+    private volatile String keyPrefix = KEY_PREFIX;
+    private volatile Map<String, Long> ruleGenerations = Map.of();
+    private volatile long generationCheckedNanos = System.nanoTime() - GENERATION_REFRESH_NANOS;
+    private volatile PurgeTask lastPurge;
+
+    /**
+     * Token Bucket 임대용 Lua 스크립트
+     * 리필 후 요청한 수만큼 (남은 토큰이 모자라면 남은 만큼) 토큰을 한 번에 가져갑니다.
+     * KEYS[1] = rate-limit key ({@link #evaluate}의 Token Bucket 제한과 같은 키)
      * ARGV[1] = capacity
      * ARGV[2] = refill rate
      * ARGV[3] = current timestamp
-     * Returns: 0 if allowed, 1 if denied
+     * ARGV[4] = requested tokens
+     * Returns: {granted, 토큰 하나가 찰 때까지 남은 밀리초 (granted가 0일 때, 리필이 없으면 -1), 임대 후 버킷에 남은 토큰 수}
      */
-    private static final String TOKEN_BUCKET_SCRIPT = """
+    private static final String TOKEN_BUCKET_LEASE_SCRIPT = """
             local key = KEYS[1]
             local capacity = tonumber(ARGV[1])
             local refill_rate = tonumber(ARGV[2])
             local now = tonumber(ARGV[3])
+            local requested = tonumber(ARGV[4])
 
             local bucket = redis.call('HMGET', key, 'tokens', 'last_refill')
             local tokens = tonumber(bucket[1])
@@ -44,194 +110,614 @@ public class RedisRateLimitRepository {
                 last_refill = now
             else
                 local time_passed = math.max(0, now - last_refill) / 1000.0
-                local tokens_to_add = time_passed * refill_rate
-                tokens = math.min(capacity, tokens + tokens_to_add)
+                tokens = math.min(capacity, tokens + time_passed * refill_rate)
                 last_refill = now
             end
 
-            if tokens >= 1 then
-                tokens = tokens - 1
+            local granted = math.min(requested, math.floor(tokens))
+            if granted >= 1 then
+                tokens = tokens - granted
                 redis.call('HMSET', key, 'tokens', tokens, 'last_refill', last_refill)
                 redis.call('EXPIRE', key, 3600)
-                return 0
-            else
-                return 1
+                return {granted, 0, math.floor(tokens)}
+            end
+
+            if refill_rate <= 0 then
+                return {0, -1, 0}
             end
+            return {0, math.ceil((1 - tokens) * 1000 / refill_rate), 0}
             """;
 
     /**
-     * Fixed Window 알고리즘용 Lua 스크립트
-     * KEYS[1] = rate-limit key
+     * Fixed Window 임대용 Lua 스크립트
+     * 현재 윈도우에 남은 한도 안에서 요청한 수만큼 카운터를 한 번에 올립니다.
+     * KEYS[1] = rate-limit key ({@link #evaluate}의 Fixed Window 제한과 같은 키)
      * ARGV[1] = max requests
-     * ARGV[2] = window seconds
-     * Returns: 0 if allowed, 1 if denied
+     * ARGV[2] = window milliseconds
+     * ARGV[3] = requested tokens
+     * Returns: {granted, 윈도우가 끝날 때까지 남은 밀리초, 임대 후 윈도우에 남은 요청 수}
      */
-    private static final String FIXED_WINDOW_SCRIPT = """
+    private static final String FIXED_WINDOW_LEASE_SCRIPT = """
             local key = KEYS[1]
             local max_requests = tonumber(ARGV[1])
             local window = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
 
-            local current = redis.call('INCR', key)
-
-            if current == 1 then
-                redis.call('EXPIRE', key, window)
+            local current = tonumber(redis.call('GET', key) or '0')
+            local granted = math.max(0, math.min(requested, max_requests - current))
+            if granted > 0 then
+                redis.call('INCRBY', key, granted)
             end
 
-            if current <= max_requests then
-                return 0
-            else
-                return 1
+            local ttl = redis.call('PTTL', key)
+            if ttl < 0 then
+                if granted > 0 then
+                    redis.call('PEXPIRE', key, window)
+                end
+                ttl = window
             end
+            return {granted, ttl, math.max(0, max_requests - current - granted)}
             """;
 
     /**
-     * Sliding Window 알고리즘용 Lua 스크립트
-     * KEYS[1] = rate-limit key
-     * ARGV[1] = max requests
-     * ARGV[2] = window milliseconds
-     * ARGV[3] = current timestamp
-     * Returns: 0 if allowed, 1 if denied
+     * 여러 제한을 한 번에 평가하는 Lua 스크립트
+     * 모든 제한의 상태를 먼저 읽고, 전부 허용일 때만 각 제한을 소비합니다 (하나라도 거부면 아무것도 소비하지 않음).
+     * 제한별 키와 상태 형식은 임대 스크립트와 같으므로 두 경로가 같은 한도를 공유합니다.
+     * KEYS[2i-1] = i번째 제한 key
+     * KEYS[2i]   = i번째 제한의 직전 윈도우 key (Sliding Window Counter, 그 외에는 같은 key)
+     * ARGV[1] = current timestamp (밀리초)
+     * ARGV[2] = 제한 수 n
+     * ARGV[3] = 소비 여부 (1이면 모두 허용일 때 소비, 0이면 조회만)
+     * ARGV[4 + 4(i-1) ..] = 알고리즘 (token/fixed/sliding/sliding-counter), 한도, 리필 속도, 윈도우 (밀리초)
+     * Returns: 제한마다 {허용 여부 (1/0), 남은 요청 수, 한도 회복까지 밀리초, 재시도까지 밀리초}
      */
-    private static final String SLIDING_WINDOW_SCRIPT = """
-            local key = KEYS[1]
-            local max_requests = tonumber(ARGV[1])
-            local window = tonumber(ARGV[2])
-            local now = tonumber(ARGV[3])
-            local cutoff = now - window
+    private static final String MULTI_RULE_SCRIPT = """
+            local now = tonumber(ARGV[1])
+            local n = tonumber(ARGV[2])
+            local consume = ARGV[3] == '1'
+            local checks = {}
+            local all_allowed = true
 
-            redis.call('ZREMRANGEBYSCORE', key, 0, cutoff)
+            for i = 1, n do
+                local base = 3 + (i - 1) * 4
+                local c = {
+                    algorithm = ARGV[base + 1],
+                    limit = tonumber(ARGV[base + 2]),
+                    rate = tonumber(ARGV[base + 3]),
+                    window = tonumber(ARGV[base + 4]),
+                    key = KEYS[i * 2 - 1],
+                    previous_key = KEYS[i * 2]
+                }
 
-            local count = redis.call('ZCARD', key)
+                if c.algorithm == 'token' then
+                    local bucket = redis.call('HMGET', c.key, 'tokens', 'last_refill')
+                    local tokens = tonumber(bucket[1])
+                    local last_refill = tonumber(bucket[2])
+                    if tokens == nil then
+                        tokens = c.limit
+                    else
+                        tokens = math.min(c.limit, tokens + math.max(0, now - last_refill) / 1000.0 * c.rate)
+                    end
+                    c.level = tokens
+                    c.allowed = tokens >= 1
+                elseif c.algorithm == 'fixed' then
+                    c.level = tonumber(redis.call('GET', c.key) or '0')
+                    c.allowed = c.level < c.limit
+                elseif c.algorithm == 'sliding' then
+                    redis.call('ZREMRANGEBYSCORE', c.key, 0, now - c.window)
+                    c.level = redis.call('ZCARD', c.key)
+                    c.allowed = c.level < c.limit
+                else
+                    c.offset = now % c.window
+                    c.current = tonumber(redis.call('GET', c.key) or '0')
+                    c.previous = tonumber(redis.call('GET', c.previous_key) or '0')
+                    c.level = math.floor(c.previous * (c.window - c.offset) / c.window) + c.current
+                    c.allowed = c.level < c.limit
+                end
 
-            if count < max_requests then
-                redis.call('ZADD', key, now, now)
-                redis.call('EXPIRE', key, math.ceil(window / 1000))
-                return 0
-            else
-                return 1
+                if not c.allowed then
+                    all_allowed = false
+                end
+                checks[i] = c
             end
+
+            local apply = all_allowed and consume
+            local result = {}
+            for i = 1, n do
+                local c = checks[i]
+                local remaining, reset, retry
+
+                if c.algorithm == 'token' then
+                    local tokens = c.level
+                    if apply then
+                        tokens = tokens - 1
+                        redis.call('HMSET', c.key, 'tokens', tokens, 'last_refill', now)
+                        redis.call('EXPIRE', c.key, 3600)
+                    end
+                    remaining = math.floor(tokens)
+                    if c.rate > 0 then
+                        reset = math.ceil((c.limit - tokens) * 1000 / c.rate)
+                        retry = math.ceil(math.max(0, 1 - tokens) * 1000 / c.rate)
+                    else
+                        reset = c.window
+                        retry = c.window
+                    end
+                elseif c.algorithm == 'fixed' then
+                    local count = c.level
+                    if apply then
+                        count = redis.call('INCR', c.key)
+                        if count == 1 then
+                            redis.call('PEXPIRE', c.key, c.window)
+                        end
+                    end
+                    local ttl = redis.call('PTTL', c.key)
+                    if ttl < 0 then
+                        ttl = c.window
+                    end
+                    remaining = c.limit - count
+                    reset = ttl
+                    retry = ttl
+                elseif c.algorithm == 'sliding' then
+                    local count = c.level
+                    if apply then
+                        -- 같은 밀리초의 요청끼리 멤버가 겹치지 않도록 현재 개수를 붙임
+                        redis.call('ZADD', c.key, now, now .. '-' .. (count + 1))
+                        redis.call('PEXPIRE', c.key, c.window)
+                        count = count + 1
+                    end
+                    local oldest = redis.call('ZRANGE', c.key, 0, 0, 'WITHSCORES')
+                    remaining = c.limit - count
+                    reset = 0
+                    if oldest[2] then
+                        reset = math.max(0, tonumber(oldest[2]) + c.window - now)
+                    end
+                    retry = reset
+                else
+                    local current = c.current
+                    if apply then
+                        current = redis.call('INCR', c.key)
+                        redis.call('PEXPIRE', c.key, c.window * 2)
+                    end
+                    remaining = c.limit - (math.floor(c.previous * (c.window - c.offset) / c.window) + current)
+                    if current > 0 then
+                        reset = 2 * c.window - c.offset
+                    elseif c.previous > 0 then
+                        reset = c.window - c.offset
+                    else
+                        reset = 0
+                    end
+                    if current < c.limit and c.previous > 0 then
+                        -- 직전 윈도우 가중치가 (한도 - 현재 카운트) 아래로 줄어드는 시점
+                        retry = math.max(0, math.floor(c.window - (c.limit - current) * c.window / c.previous) + 1 - c.offset)
+                    else
+                        retry = c.window - c.offset
+                    end
+                end
+
+                local allowed = 0
+                if c.allowed then
+                    allowed = 1
+                    retry = 0
+                end
+                result[#result + 1] = allowed
+                result[#result + 1] = math.max(0, remaining)
+                result[#result + 1] = reset
+                result[#result + 1] = retry
+            end
+            return result
             """;
 
+    /*
+     * 스크립트 객체는 한 번만 만들어 재사용합니다.
+     * RedisTemplate은 스크립트 SHA1으로 EVALSHA를 먼저 보내고 (NOSCRIPT일 때만 EVAL로 본문 전송),
+     * DefaultRedisScript는 SHA1을 한 번 계산해 보관하므로 요청마다 스크립트 본문을 보내거나 해시하지 않습니다.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET_LEASE = RedisScript.of(TOKEN_BUCKET_LEASE_SCRIPT, List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> FIXED_WINDOW_LEASE = RedisScript.of(FIXED_WINDOW_LEASE_SCRIPT, List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> MULTI_RULE = RedisScript.of(MULTI_RULE_SCRIPT, List.class);
+
+    /**
+     * 여러 제한을 Redis 왕복 한 번으로 평가
+     * 모든 제한이 허용일 때만 요청을 소비하고, 제한마다 판정, 남은 요청 수, 리셋 시간을 함께 반환합니다.
+     * Redis Cluster에서는 스크립트의 모든 키가 같은 슬롯에 있어야 하므로 키들이 같은 해시 태그를 가져야 합니다.
+     *
+     * @param checks 평가할 제한 목록
+     * @return 제한별 결과 (checks와 같은 순서)
+     */
+    public List<RateLimitCheckResult> evaluate(List<RateLimitCheck> checks) {
+        return run(checks, true);
+    }
+
     /**
-     * Token Bucket 요청 허용 여부 확인
+     * 여러 제한의 현재 상태를 Redis 왕복 한 번으로 조회 (요청을 소비하지 않음)
+     * 판정은 지금 요청이 오면 허용될지 여부이고, 남은 요청 수와 리셋 시간은 {@link #evaluate}와 같은 기준입니다.
+     *
+     * @param checks 조회할 제한 목록
+     * @return 제한별 결과 (checks와 같은 순서)
      */
-    public boolean allowTokenBucket(String key, int capacity, double refillRate) {
+    public List<RateLimitCheckResult> inspect(List<RateLimitCheck> checks) {
+        return run(checks, false);
+    }
+
+    private List<RateLimitCheckResult> run(List<RateLimitCheck> checks, boolean consume) {
+        if (checks.isEmpty()) {
+            return List.of();
+        }
         try {
-            String fullKey = KEY_PREFIX + "token:" + key;
-            Long result = redisTemplate.execute(
-                    RedisScript.of(TOKEN_BUCKET_SCRIPT, Long.class),
-                    Collections.singletonList(fullKey),
-                    String.valueOf(capacity),
-                    String.valueOf(refillRate),
-                    String.valueOf(System.currentTimeMillis())
-            );
-            return result != null && result == 0;
+            String generationPrefix = keyPrefix();
+            long now = System.currentTimeMillis();
+            List<String> keys = new ArrayList<>(checks.size() * 2);
+            List<String> args = new ArrayList<>(3 + checks.size() * 4);
+            args.add(String.valueOf(now));
+            args.add(String.valueOf(checks.size()));
+            args.add(consume ? "1" : "0");
+
+            for (RateLimitCheck check : checks) {
+                String key = check.getKey();
+                String ruleId = check.getRuleId();
+                long windowMillis = check.getWindowSeconds() * 1000L;
+                switch (check.getAlgorithm()) {
+                    case TOKEN_BUCKET -> addCheck(keys, args, "token", limitPrefix(generationPrefix, "token", ruleId) + key,
+                            null, check.getBurstSize(), check.getRefillRate(), windowMillis);
+                    case LEAKY_BUCKET -> addCheck(keys, args, "token", limitPrefix(generationPrefix, "token", ruleId) + key,
+                            null, check.getMaxRequests(), check.getRefillRate(), windowMillis);
+                    case FIXED_WINDOW -> addCheck(keys, args, "fixed", limitPrefix(generationPrefix, "fixed", ruleId) + key,
+                            null, check.getMaxRequests(), 0, windowMillis);
+                    case SLIDING_WINDOW -> addCheck(keys, args, "sliding", limitPrefix(generationPrefix, "sliding", ruleId) + key,
+                            null, check.getMaxRequests(), 0, windowMillis);
+                    case SLIDING_WINDOW_COUNTER -> {
+                        long window = now / windowMillis;
+                        String prefix = limitPrefix(generationPrefix, "sliding-counter", ruleId) + hashTagged(key) + ":";
+                        addCheck(keys, args, "sliding-counter", prefix + window, prefix + (window - 1),
+                                check.getMaxRequests(), 0, windowMillis);
+                    }
+                }
+            }
+
+            List<?> result = redisTemplate.execute(MULTI_RULE, keys, args.toArray());
+            List<RateLimitCheckResult> results = new ArrayList<>(checks.size());
+            for (int i = 0; i < checks.size(); i++) {
+                int base = i * 4;
+                results.add(RateLimitCheckResult.builder()
+                        .allowed(scriptValue(result, base) == 1)
+                        .remaining(scriptValue(result, base + 1))
+                        .resetMillis(scriptValue(result, base + 2))
+                        .retryAfterMillis(scriptValue(result, base + 3))
+                        .build());
+            }
+            return results;
         } catch (Exception e) {
-            log.error("Redis error during token bucket check for key: {}", key, e);
+            log.error("Redis error during multi-rule check for {} rules", checks.size(), e);
             // Fail open - 레디스 오류 시 요청 허용
-            return true;
+            List<RateLimitCheckResult> results = new ArrayList<>(checks.size());
+            for (RateLimitCheck check : checks) {
+                results.add(RateLimitCheckResult.builder()
+                        .allowed(true)
+                        .remaining(check.getMaxRequests())
+                        .build());
+            }
+            return results;
         }
     }
 
+    private static void addCheck(List<String> keys, List<String> args, String algorithm, String key, String previousKey,
+                                 int limit, double rate, long windowMillis) {
+        keys.add(key);
+        keys.add(previousKey != null ? previousKey : key);
+        args.add(algorithm);
+        args.add(String.valueOf(limit));
+        args.add(String.valueOf(rate));
+        args.add(String.valueOf(windowMillis));
+    }
+
+    /**
+     * 키에 해시 태그가 없으면 키 전체를 해시 태그로 감쌈 (이미 있으면 그 태그로 슬롯이 정해지도록 그대로 사용)
+     */
+    private static String hashTagged(String key) {
+        int open = key.indexOf('{');
+        int close = open >= 0 ? key.indexOf('}', open + 1) : -1;
+        return close > open + 1 ? key : "{" + key + "}";
+    }
+
     /**
-     * Fixed Window 요청 허용 여부 확인
+     * Token Bucket에서 토큰 묶음 임대
+     * {@link #evaluate}와 같은 버킷에서 가져가므로 임대 노드와 요청당 확인 노드가 섞여도 한도가 공유됩니다.
+     *
+     * @param ruleId      규칙 ID (규칙 세대가 키에 들어감)
+     * @param requested   임대할 토큰 수
+     * @param leaseMillis 임대 토큰 사용 가능 시간 (밀리초)
      */
-    public boolean allowFixedWindow(String key, int maxRequests, int windowSeconds) {
+    public TokenLease leaseTokenBucket(String ruleId, String key, int capacity, double refillRate, int requested,
+                                       long leaseMillis) {
         try {
-            String fullKey = KEY_PREFIX + "fixed:" + key;
-            Long result = redisTemplate.execute(
-                    RedisScript.of(FIXED_WINDOW_SCRIPT, Long.class),
+            String fullKey = limitPrefix(keyPrefix(), "token", ruleId) + key;
+            List<?> result = redisTemplate.execute(
+                    TOKEN_BUCKET_LEASE,
                     Collections.singletonList(fullKey),
-                    String.valueOf(maxRequests),
-                    String.valueOf(windowSeconds)
+                    String.valueOf(capacity),
+                    String.valueOf(refillRate),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(requested)
             );
-            return result != null && result == 0;
+            int granted = (int) scriptValue(result, 0);
+            if (granted > 0) {
+                return new TokenLease(granted, leaseMillis, scriptValue(result, 2));
+            }
+            long retryAfterMillis = scriptValue(result, 1);
+            return TokenLease.denied(retryAfterMillis >= 0 ? retryAfterMillis : leaseMillis);
         } catch (Exception e) {
-            log.error("Redis error during fixed window check for key: {}", key, e);
-            return true;
+            log.error("Redis error during token bucket lease for key: {}", key, e);
+            // Fail open - 현재 요청만 허용하고 임대는 남기지 않음
+            return new TokenLease(1, 0);
         }
     }
 
     /**
-     * Sliding Window 요청 허용 여부 확인
+     * Fixed Window에서 토큰 묶음 임대
+     * 임대 토큰은 현재 윈도우가 끝날 때까지 유효합니다.
+     *
+     * @param ruleId    규칙 ID (규칙 세대가 키에 들어감)
+     * @param requested 임대할 토큰 수
      */
-    public boolean allowSlidingWindow(String key, int maxRequests, int windowSeconds) {
+    public TokenLease leaseFixedWindow(String ruleId, String key, int maxRequests, int windowSeconds, int requested) {
         try {
-            String fullKey = KEY_PREFIX + "sliding:" + key;
-            long windowMillis = windowSeconds * 1000L;
-            Long result = redisTemplate.execute(
-                    RedisScript.of(SLIDING_WINDOW_SCRIPT, Long.class),
+            String fullKey = limitPrefix(keyPrefix(), "fixed", ruleId) + key;
+            List<?> result = redisTemplate.execute(
+                    FIXED_WINDOW_LEASE,
                     Collections.singletonList(fullKey),
                     String.valueOf(maxRequests),
-                    String.valueOf(windowMillis),
-                    String.valueOf(System.currentTimeMillis())
+                    String.valueOf(windowSeconds * 1000L),
+                    String.valueOf(requested)
             );
-            return result != null && result == 0;
+            int granted = (int) scriptValue(result, 0);
+            long windowRemainingMillis = scriptValue(result, 1);
+            return granted > 0
+                    ? new TokenLease(granted, windowRemainingMillis, scriptValue(result, 2))
+                    : TokenLease.denied(windowRemainingMillis);
         } catch (Exception e) {
-            log.error("Redis error during sliding window check for key: {}", key, e);
-            return true;
+            log.error("Redis error during fixed window lease for key: {}", key, e);
+            return new TokenLease(1, 0);
+        }
+    }
+
+    private static long scriptValue(List<?> result, int index) {
+        if (result == null || result.size() <= index) {
+            throw new IllegalStateException("Unexpected script result: " + result);
         }
+        return ((Number) result.get(index)).longValue();
+    }
+
+    /**
+     * 특정 키 리셋
+     * 알고리즘별 키를 정확한 이름으로 UNLINK합니다 (패턴 검색 없음).
+     * Sliding Window Counter 키는 윈도우 번호가 붙으므로 {@link #reset(String, String, int)}를 사용합니다.
+     *
+     * @param ruleId 규칙 ID (현재 규칙 세대의 키를 삭제)
+     */
+    public void reset(String ruleId, String key) {
+        reset(ruleId, key, 0);
     }
 
     /**
-     * 남은 요청 수 조회 (Fixed Window)
+     * 특정 키 리셋 (Sliding Window Counter의 현재/직전 윈도우 키 포함)
+     *
+     * @param ruleId        규칙 ID (현재 규칙 세대의 키를 삭제)
+     * @param windowSeconds Sliding Window Counter 윈도우 크기 (초, 0이면 해당 키 제외)
      */
-    public long getRemainingRequests(String key, int maxRequests) {
+    public void reset(String ruleId, String key, int windowSeconds) {
         try {
-            String fullKey = KEY_PREFIX + "fixed:" + key;
-            String value = redisTemplate.opsForValue().get(fullKey);
-            if (value == null) {
-                return maxRequests;
+            String prefix = keyPrefix();
+            List<String> keys = new ArrayList<>(List.of(
+                    limitPrefix(prefix, "token", ruleId) + key,
+                    limitPrefix(prefix, "fixed", ruleId) + key,
+                    limitPrefix(prefix, "sliding", ruleId) + key));
+            if (windowSeconds > 0) {
+                long window = System.currentTimeMillis() / (windowSeconds * 1000L);
+                String counterPrefix = limitPrefix(prefix, "sliding-counter", ruleId) + hashTagged(key) + ":";
+                keys.add(counterPrefix + window);
+                keys.add(counterPrefix + (window - 1));
+            }
+            // 클러스터에서는 키마다 슬롯이 다를 수 있으므로 하나씩 삭제
+            for (String fullKey : keys) {
+                redisTemplate.unlink(fullKey);
             }
-            long current = Long.parseLong(value);
-            return Math.max(0, maxRequests - current);
+            log.debug("Reset rate limit for key: {}", key);
         } catch (Exception e) {
-            log.error("Redis error getting remaining requests for key: {}", key, e);
-            return maxRequests;
+            log.error("Redis error resetting key: {}", key, e);
         }
     }
 
     /**
-     * TTL 조회 (리셋까지 남은 시간)
+     * 모든 Rate Limit 데이터 리셋
+     * 세대 카운터를 올려 즉시 새 키를 사용하게 하고 (O(1)), 옛 세대 키는 백그라운드에서 나눠 삭제합니다.
+     * 정리가 끝나기 전에도 옛 키는 판정에 쓰이지 않으며, 정리가 실패해도 TTL로 만료됩니다.
+     *
+     * @return 정리 진행 상황 (시작 시점, 이후 {@link #getResetProgress()}로 확인)
      */
-    public long getTTL(String key, String algorithm) {
+    public ResetProgress resetAll() {
         try {
-            String fullKey = KEY_PREFIX + algorithm + ":" + key;
-            Long ttl = redisTemplate.getExpire(fullKey);
-            return ttl != null ? Math.max(0, ttl) : 0;
+            Long next = redisTemplate.opsForValue().increment(GENERATION_KEY);
+            long newGeneration = next != null ? next : generation + 1;
+            updateGeneration(newGeneration);
+            String currentPrefix = prefixFor(newGeneration);
+            log.info("Reset all rate limits, switched to key generation {}", newGeneration);
+
+            // 현재 세대 키와 세대 카운터를 제외한 모든 Rate Limit 키 정리
+            return purge(KEY_PREFIX + "*", newGeneration, key -> !key.startsWith(currentPrefix)
+                    && !key.equals(GENERATION_KEY) && !key.equals(RULE_GENERATIONS_KEY));
         } catch (Exception e) {
-            log.error("Redis error getting TTL for key: {}", key, e);
-            return 0;
+            log.error("Redis error resetting all keys", e);
+            return ResetProgress.builder().failed(true).done(true).build();
         }
     }
 
     /**
-     * 특정 키 리셋
+     * 특정 규칙의 Rate Limit 데이터 리셋
+     * 규칙 세대 카운터를 원자적으로 올려 (HINCRBY, O(1)) 그 규칙의 제한만 새 키를 사용하게 합니다.
+     * 키를 검색하지 않으므로 다른 규칙의 키를 건드리지 않으며, 옛 세대 키는 더 이상 읽히지 않고 TTL로 만료됩니다.
+     *
+     * @param ruleId 규칙 ID
+     * @return 리셋 결과 (generation은 새 규칙 세대, 정리할 작업이 없으므로 완료 상태)
      */
-    public void reset(String key) {
+    public ResetProgress resetRule(String ruleId) {
+        long startedAt = System.currentTimeMillis();
         try {
-            redisTemplate.delete(KEY_PREFIX + "*:" + key);
-            log.debug("Reset rate limit for key: {}", key);
+            Long next = redisTemplate.opsForHash().increment(RULE_GENERATIONS_KEY, ruleId, 1);
+            long newGeneration = next != null ? next : ruleGenerations.getOrDefault(ruleId, 0L) + 1;
+            updateRuleGeneration(ruleId, newGeneration);
+            log.info("Reset rate limits for rule: {}, switched to rule generation {}", ruleId, newGeneration);
+            return ResetProgress.builder()
+                    .generation(newGeneration)
+                    .done(true)
+                    .startedAtMillis(startedAt)
+                    .finishedAtMillis(System.currentTimeMillis())
+                    .build();
         } catch (Exception e) {
-            log.error("Redis error resetting key: {}", key, e);
+            log.error("Redis error resetting rule: {}", ruleId, e);
+            return ResetProgress.builder().failed(true).done(true).startedAtMillis(startedAt).build();
         }
     }
 
     /**
-     * 모든 Rate Limit 데이터 삭제
+     * 마지막 정리 작업의 진행 상황 (정리한 적이 없으면 null)
      */
-    public void resetAll() {
-        try {
-            var keys = redisTemplate.keys(KEY_PREFIX + "*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.debug("Reset all rate limits, deleted {} keys", keys.size());
+    public ResetProgress getResetProgress() {
+        PurgeTask task = lastPurge;
+        return task != null ? task.snapshot() : null;
+    }
+
+    /**
+     * 정리 스레드 종료
+     */
+    public void shutdown() {
+        purgeExecutor.shutdownNow();
+    }
+
+    /**
+     * 키 패턴에 맞는 키를 백그라운드에서 배치 삭제
+     * 정리 작업은 한 번에 하나씩 순서대로 실행됩니다.
+     */
+    private ResetProgress purge(String pattern, long generation, Predicate<String> shouldDelete) {
+        PurgeTask task = new PurgeTask(pattern, generation);
+        lastPurge = task;
+        purgeExecutor.execute(() -> runPurge(task, shouldDelete));
+        return task.snapshot();
+    }
+
+    private void runPurge(PurgeTask task, Predicate<String> shouldDelete) {
+        ScanOptions options = ScanOptions.scanOptions().match(task.pattern).count(SCAN_COUNT).build();
+        List<String> batch = new ArrayList<>(UNLINK_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                task.scannedKeys++;
+                if (shouldDelete.test(key)) {
+                    batch.add(key);
+                }
+                if (batch.size() >= UNLINK_BATCH_SIZE) {
+                    unlinkBatch(task, batch);
+                }
             }
+            if (!batch.isEmpty()) {
+                unlinkBatch(task, batch);
+            }
+            log.info("Rate limit purge finished: pattern={}, scanned={}, deleted={}",
+                    task.pattern, task.scannedKeys, task.deletedKeys);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.failed = true;
+            log.warn("Rate limit purge interrupted: pattern={}, deleted={}", task.pattern, task.deletedKeys);
         } catch (Exception e) {
-            log.error("Redis error resetting all keys", e);
+            task.failed = true;
+            log.error("Redis error during rate limit purge: pattern={}, deleted={}", task.pattern, task.deletedKeys, e);
+        } finally {
+            task.finishedAtMillis = System.currentTimeMillis();
+            task.done = true;
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void unlinkBatch(PurgeTask task, List<String> batch) throws InterruptedException {
+        // 배치는 파이프라인 한 번으로 전송하되, 클러스터에서는 다중 키 명령이 같은 슬롯이어야 하므로 키마다 UNLINK
+        RedisSerializer<String> serializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : batch) {
+                connection.keyCommands().unlink(serializer.serialize(key));
+            }
+            return null;
+        });
+        for (Object result : results) {
+            if (result instanceof Long count) {
+                task.deletedKeys += count;
+            }
+        }
+        task.batches++;
+        batch.clear();
+        if (task.batches % 100 == 0) {
+            log.info("Rate limit purge in progress: pattern={}, scanned={}, deleted={}",
+                    task.pattern, task.scannedKeys, task.deletedKeys);
+        }
+        TimeUnit.MILLISECONDS.sleep(BATCH_PAUSE_MILLIS);
+    }
+
+    /**
+     * 현재 세대의 키 접두사
+     * 세대 번호는 캐시해 두고 갱신 주기마다 한 요청만 Redis에서 다시 읽습니다.
+     */
+    private String keyPrefix() {
+        long now = System.nanoTime();
+        if (now - generationCheckedNanos >= GENERATION_REFRESH_NANOS && refreshingGeneration.compareAndSet(false, true)) {
+            try {
+                String value = redisTemplate.opsForValue().get(GENERATION_KEY);
+                updateGeneration(value != null ? Long.parseLong(value) : 0);
+                Map<Object, Object> rules = redisTemplate.opsForHash().entries(RULE_GENERATIONS_KEY);
+                rules.forEach((ruleId, ruleGeneration) ->
+                        updateRuleGeneration(ruleId.toString(), Long.parseLong(ruleGeneration.toString())));
+            } catch (Exception e) {
+                log.warn("Failed to refresh rate limit key generation, keeping generation {}", generation, e);
+            } finally {
+                generationCheckedNanos = now;
+                refreshingGeneration.set(false);
+            }
+        }
+        return keyPrefix;
+    }
+
+    private synchronized void updateGeneration(long newGeneration) {
+        // 세대는 앞으로만 이동 (늦게 도착한 조회 결과로 되돌아가지 않음)
+        if (newGeneration > generation) {
+            generation = newGeneration;
+            keyPrefix = prefixFor(newGeneration);
+        }
+    }
+
+    private synchronized void updateRuleGeneration(String ruleId, long newGeneration) {
+        // 규칙 세대도 앞으로만 이동하며, 조회 경로는 잠금 없이 읽도록 맵을 통째로 교체
+        if (newGeneration > ruleGenerations.getOrDefault(ruleId, 0L)) {
+            Map<String, Long> updated = new HashMap<>(ruleGenerations);
+            updated.put(ruleId, newGeneration);
+            ruleGenerations = Map.copyOf(updated);
+        }
+    }
+
+    /**
+     * 알고리즘 구간까지의 키 접두사 (규칙 세대가 0이거나 규칙이 없으면 "token:", N이면 "token@N:")
+     * 알고리즘 이름은 정해진 값이므로 "@N"이 붙은 구간은 세대 0의 키나 다른 규칙의 키와 겹치지 않습니다.
+     */
+    private String limitPrefix(String generationPrefix, String algorithm, String ruleId) {
+        Long ruleGeneration = ruleId != null ? ruleGenerations.get(ruleId) : null;
+        return ruleGeneration != null && ruleGeneration > 0
+                ? generationPrefix + algorithm + "@" + ruleGeneration + ":"
+                : generationPrefix + algorithm + ":";
+    }
+
+    private static String prefixFor(long generation) {
+        return generation == 0 ? KEY_PREFIX : KEY_PREFIX + "g" + generation + ":";
+    }
+
     /**
      * 헬스 체크
      */
@@ -244,4 +730,38 @@ public class RedisRateLimitRepository {
             return false;
         }
     }
+
+    /**
+     * 진행 중인 정리 작업 (정리 스레드 하나만 값을 씀)
+     */
+    private static final class PurgeTask {
+        private final String pattern;
+        private final long generation;
+        private final long startedAtMillis = System.currentTimeMillis();
+        private volatile long scannedKeys;
+        private volatile long deletedKeys;
+        private volatile long batches;
+        private volatile boolean done;
+        private volatile boolean failed;
+        private volatile long finishedAtMillis;
+
+        PurgeTask(String pattern, long generation) {
+            this.pattern = pattern;
+            this.generation = generation;
+        }
+
+        ResetProgress snapshot() {
+            return ResetProgress.builder()
+                    .pattern(pattern)
+                    .generation(generation)
+                    .scannedKeys(scannedKeys)
+                    .deletedKeys(deletedKeys)
+                    .batches(batches)
+                    .done(done)
+                    .failed(failed)
+                    .startedAtMillis(startedAtMillis)
+                    .finishedAtMillis(finishedAtMillis)
+                    .build();
+        }
+    }
 }
@@ -1,7 +1,11 @@
 package com.eraf.gateway.ratelimit.advanced.service;
 
+import com.eraf.gateway.common.path.PathPatternIndex;
 import com.eraf.gateway.ratelimit.advanced.algorithm.*;
 import com.eraf.gateway.ratelimit.advanced.domain.AdvancedRateLimitRule;
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitCheck;
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitCheckResult;
+import com.eraf.gateway.ratelimit.advanced.domain.ResetProgress;
 import com.eraf.gateway.ratelimit.advanced.domain.RateLimitAlgorithm;
 import com.eraf.gateway.ratelimit.advanced.repository.RedisRateLimitRepository;
 import com.eraf.gateway.ratelimit.domain.RateLimitRule;
@@ -10,68 +14,142 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 /**
  * 고급 Rate Limit 서비스
- * - 다양한 알고리즘 지원 (Token Bucket, Leaky Bucket, Sliding Window, Fixed Window)
+ * - 다양한 알고리즘 지원 (Token Bucket, Leaky Bucket, Sliding Window, Sliding Window Counter, Fixed Window)
  * - Redis 기반 분산 제한
+ * - 하이브리드 모드 (Redis에서 토큰을 묶음으로 임대해 로컬에서 소비)
  * - Consumer별 제한
  * - 헤더 기반 제한
  */
 @Slf4j
 public class AdvancedRateLimitService {
 
-    private final List<AdvancedRateLimitRule> rules;
+    /**
+     * 로컬 limiter 최대 수 기본값 (규칙 x Consumer x 커스텀 한도 조합)
+     */
+    public static final int DEFAULT_MAX_LIMITERS = 10_000;
+
+    /**
+     * 타입별 경로 패턴 인덱스 (우선순위 순)
+     */
+    private final Map<RateLimitRule.RateLimitType, PathPatternIndex<AdvancedRateLimitRule>> rulesByType;
     private final RedisRateLimitRepository redisRepository;
     private final boolean distributedMode;
-    private final Map<String, RateLimiter> localLimiters = new ConcurrentHashMap<>();
+    private final LimiterKeyStore<RateLimiter> localLimiters;
+    private final LongSupplier nanoClock;
+    private final int maxKeysPerLimiter;
+    private final LeasedRateLimiter.Settings leaseSettings;
 
     public AdvancedRateLimitService(
             List<AdvancedRateLimitRule> rules,
             RedisRateLimitRepository redisRepository,
             boolean distributedMode) {
-        this.rules = rules;
+        this(rules, redisRepository, distributedMode, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock 로컬 Token/Leaky Bucket의 시간 소스 (나노초, 예: {@link CachedNanoClock})
+     */
+    public AdvancedRateLimitService(
+            List<AdvancedRateLimitRule> rules,
+            RedisRateLimitRepository redisRepository,
+            boolean distributedMode,
+            LongSupplier nanoClock) {
+        this(rules, redisRepository, distributedMode, nanoClock, LimiterKeyStore.DEFAULT_MAX_KEYS, DEFAULT_MAX_LIMITERS);
+    }
+
+    /**
+     * @param nanoClock         로컬 Token/Leaky Bucket의 시간 소스 (나노초)
+     * @param maxKeysPerLimiter 로컬 limiter 하나가 추적하는 최대 키 수 (0 이하면 제한 없음)
+     * @param maxLimiters       로컬 limiter 최대 수 (0 이하면 제한 없음)
+     */
+    public AdvancedRateLimitService(
+            List<AdvancedRateLimitRule> rules,
+            RedisRateLimitRepository redisRepository,
+            boolean distributedMode,
+            LongSupplier nanoClock,
+            int maxKeysPerLimiter,
+            int maxLimiters) {
+        this(rules, redisRepository, distributedMode, nanoClock, maxKeysPerLimiter, maxLimiters, null);
+    }
+
+    /**
+     * @param leaseSettings 분산 모드에서 토큰 임대 설정 (null이면 요청마다 Redis 확인)
+     */
+    public AdvancedRateLimitService(
+            List<AdvancedRateLimitRule> rules,
+            RedisRateLimitRepository redisRepository,
+            boolean distributedMode,
+            LongSupplier nanoClock,
+            int maxKeysPerLimiter,
+            int maxLimiters,
+            LeasedRateLimiter.Settings leaseSettings) {
+        this.rulesByType = indexRules(rules);
         this.redisRepository = redisRepository;
         this.distributedMode = distributedMode && redisRepository != null;
+        this.nanoClock = nanoClock;
+        this.maxKeysPerLimiter = maxKeysPerLimiter;
+        this.leaseSettings = leaseSettings;
+        // limiter 자체는 유휴 만료 없이 개수만 제한 (제거되면 해당 limiter의 키 상태도 함께 사라짐)
+        this.localLimiters = new LimiterKeyStore<>(maxLimiters, 0, nanoClock);
+
+        if (this.distributedMode && leaseSettings != null) {
+            for (AdvancedRateLimitRule rule : rules) {
+                if (rule.getAlgorithm() == RateLimitAlgorithm.SLIDING_WINDOW
+                        || rule.getAlgorithm() == RateLimitAlgorithm.SLIDING_WINDOW_COUNTER) {
+                    log.info("Hybrid mode does not lease tokens for rule {} ({}), it is checked in Redis per request",
+                            rule.getId(), rule.getAlgorithm());
+                }
+            }
+        }
     }
 
     /**
-     * Rate Limit 체크
+     * 요청에 대한 Rate Limit 판정 (판정, 남은 요청 수, 리셋 시간을 한 번에 반환)
+     * Consumer별 제한이 있으면 그 제한을, 없으면 헤더 기반 제한을, 둘 다 없으면 기본 제한을 적용합니다.
+     * 분산 모드에서는 Redis 왕복 한 번으로 판정하고, 하이브리드/로컬 모드에서는 Redis 없이 판정합니다.
      *
      * @param path       요청 경로
      * @param identifier 식별자 (IP, API Key, User ID 등)
      * @param type       Rate Limit 타입
-     * @param headers    헤더 정보 (헤더 기반 제한용)
-     * @throws RateLimitExceededException 제한 초과 시
+     * @param headers    헤더 정보 (Consumer/헤더 기반 제한용)
+     * @return 판정 결과 (매칭되는 규칙이 없으면 {@link RateLimitDecision#UNLIMITED})
      */
-    public void checkRateLimit(String path, String identifier, RateLimitRule.RateLimitType type, Map<String, String> headers) {
+    public RateLimitDecision tryAcquire(String path, String identifier, RateLimitRule.RateLimitType type,
+                                        Map<String, String> headers) {
         AdvancedRateLimitRule rule = findMatchingRule(path, type);
         if (rule == null || !rule.isValid()) {
-            return;
+            return RateLimitDecision.UNLIMITED;
         }
 
-        // Consumer별 제한 확인
-        String consumerId = extractConsumerId(headers);
-        if (consumerId != null) {
-            AdvancedRateLimitRule.ConsumerLimit consumerLimit = rule.getConsumerLimit(consumerId);
-            if (consumerLimit != null) {
-                checkConsumerLimit(rule, consumerLimit, identifier, consumerId);
-                return;
-            }
-        }
+        Limit limit = applicableLimit(rule, identifier, headers);
+        return distributedMode ? acquireDistributed(limit) : acquireLocal(limit);
+    }
 
-        // 헤더 기반 제한 확인
-        Integer headerLimit = getHeaderBasedLimit(rule, headers);
-        if (headerLimit != null) {
-            checkWithCustomLimit(rule, identifier, headerLimit);
-            return;
+    /**
+     * Rate Limit 체크
+     *
+     * @param path       요청 경로
+     * @param identifier 식별자 (IP, API Key, User ID 등)
+     * @param type       Rate Limit 타입
+     * @param headers    헤더 정보 (헤더 기반 제한용)
+     * @throws RateLimitExceededException 제한 초과 시
+     */
+    public void checkRateLimit(String path, String identifier, RateLimitRule.RateLimitType type, Map<String, String> headers) {
+        RateLimitDecision decision = tryAcquire(path, identifier, type, headers);
+        if (!decision.isAllowed()) {
+            throw new RateLimitExceededException((int) decision.getRetryAfterSeconds(), decision.getLimit());
         }
-
-        // 기본 제한 확인
-        checkDefaultLimit(rule, identifier);
     }
 
     /**
@@ -82,7 +160,8 @@ public class AdvancedRateLimitService {
     }
 
     /**
-     * Rate Limit 정보 조회
+     * Rate Limit 정보 조회 (기본 제한, 요청을 소비하지 않음)
+     * 분산 모드에서는 Redis 왕복 한 번으로 남은 요청 수와 리셋 시간을 함께 조회합니다 (하이브리드 모드도 공유 한도 기준).
      */
     public RateLimitInfo getRateLimitInfo(String path, String identifier, RateLimitRule.RateLimitType type) {
         AdvancedRateLimitRule rule = findMatchingRule(path, type);
@@ -90,9 +169,18 @@ public class AdvancedRateLimitService {
             return null;
         }
 
-        String key = buildKey(rule, identifier);
-        long remaining = getRemainingRequests(rule, key);
-        long reset = getResetTime(rule, key);
+        RateLimitCheck check = defaultCheck(rule, identifier);
+        long remaining;
+        long reset;
+        if (distributedMode) {
+            RateLimitCheckResult result = redisRepository.inspect(List.of(check)).get(0);
+            remaining = result.getRemaining();
+            reset = toSecondsCeil(result.getResetMillis());
+        } else {
+            RateLimiter limiter = getOrCreateLimiter(rule);
+            remaining = limiter.getRemainingRequests(check.getKey());
+            reset = limiter.getResetTimeSeconds(check.getKey());
+        }
 
         return RateLimitInfo.builder()
                 .limit(rule.getMaxRequests())
@@ -103,114 +191,191 @@ public class AdvancedRateLimitService {
     }
 
     /**
-     * 기본 제한 체크
+     * 로컬 limiter별 키 저장소 통계
+     *
+     * @return limiter 키 (규칙 ID 등) -> 통계
      */
-    private void checkDefaultLimit(AdvancedRateLimitRule rule, String identifier) {
-        String key = buildKey(rule, identifier);
-        boolean allowed;
-
-        if (distributedMode) {
-            allowed = checkDistributed(rule, key);
-        } else {
-            allowed = checkLocal(rule, key);
-        }
-
-        if (!allowed) {
-            int retryAfterSeconds = (int) ((getResetTime(rule, key) - System.currentTimeMillis()) / 1000);
-            throw new RateLimitExceededException(
-                    retryAfterSeconds,
-                    rule.getMaxRequests()
-            );
-        }
+    public Map<String, KeyStoreStats> getLocalLimiterStats() {
+        Map<String, KeyStoreStats> stats = new TreeMap<>();
+        localLimiters.forEach((limiterKey, limiter) -> stats.put(limiterKey, limiter.getKeyStoreStats()));
+        return stats;
     }
 
     /**
-     * Consumer별 제한 체크
+     * 로컬 limiter 저장소 자체의 통계 (limiter 수, 제거 횟수)
      */
-    private void checkConsumerLimit(AdvancedRateLimitRule rule, AdvancedRateLimitRule.ConsumerLimit consumerLimit,
-                                     String identifier, String consumerId) {
-        String key = buildKey(rule, identifier + ":" + consumerId);
-        boolean allowed;
+    public KeyStoreStats getLocalLimiterStoreStats() {
+        return localLimiters.getStats();
+    }
 
-        if (distributedMode) {
-            allowed = checkDistributedWithConsumer(rule, key, consumerLimit);
-        } else {
-            allowed = checkLocalWithConsumer(rule, key, consumerLimit);
-        }
+    /**
+     * 모든 Rate Limit 상태 리셋 (로컬 limiter와 Redis)
+     * Redis는 키 세대를 바꿔 즉시 리셋하고, 옛 키는 백그라운드에서 정리합니다.
+     *
+     * @return Redis 정리 진행 상황 (분산 모드가 아니면 null)
+     */
+    public ResetProgress resetAll() {
+        localLimiters.forEach((limiterKey, limiter) -> limiter.resetAll());
+        log.info("Reset all local rate limiters");
+        return distributedMode ? redisRepository.resetAll() : null;
+    }
 
-        if (!allowed) {
-            int retryAfterSeconds = (int) ((getResetTime(rule, key) - System.currentTimeMillis()) / 1000);
-            int limit = consumerLimit.getMaxRequests();
-            throw new RateLimitExceededException(retryAfterSeconds, limit);
-        }
+    /**
+     * 특정 규칙의 Rate Limit 상태 리셋 (Consumer/커스텀 한도 포함)
+     * Redis는 규칙 세대를 올려 즉시 리셋합니다 (다른 노드는 세대 갱신 주기 안에 반영).
+     *
+     * @return Redis 리셋 결과 (분산 모드가 아니면 null)
+     */
+    public ResetProgress resetRule(String ruleId) {
+        localLimiters.forEach((limiterKey, limiter) -> {
+            String key = limiterKey.startsWith("lease:") ? limiterKey.substring("lease:".length()) : limiterKey;
+            if (key.equals(ruleId) || key.startsWith(ruleId + ":consumer:") || key.startsWith(ruleId + ":custom:")) {
+                limiter.resetAll();
+            }
+        });
+        log.info("Reset local rate limiters for rule: {}", ruleId);
+        return distributedMode ? redisRepository.resetRule(ruleId) : null;
     }
 
     /**
-     * 커스텀 제한으로 체크
+     * 마지막 Redis 정리 작업의 진행 상황 (없으면 null)
      */
-    private void checkWithCustomLimit(AdvancedRateLimitRule rule, String identifier, int customLimit) {
-        String key = buildKey(rule, identifier);
+    public ResetProgress getResetProgress() {
+        return distributedMode ? redisRepository.getResetProgress() : null;
+    }
 
-        // 간단하게 Fixed Window로 처리
-        boolean allowed;
-        if (distributedMode) {
-            allowed = redisRepository.allowFixedWindow(key, customLimit, rule.getWindowSeconds());
-        } else {
-            RateLimiter limiter = getOrCreateLimiter(rule, customLimit);
-            allowed = limiter.allowRequest(key);
+    /**
+     * 요청에 적용할 제한 (Consumer별 제한 > 헤더 기반 제한 > 기본 제한 순으로 하나만 적용)
+     * 제한마다 키가 다르므로 각자 따로 집계됩니다.
+     */
+    private Limit applicableLimit(AdvancedRateLimitRule rule, String identifier, Map<String, String> headers) {
+        // Consumer별 제한
+        String consumerId = extractConsumerId(headers);
+        AdvancedRateLimitRule.ConsumerLimit consumerLimit = consumerId != null ? rule.getConsumerLimit(consumerId) : null;
+        if (consumerLimit != null) {
+            RateLimitCheck check = RateLimitCheck.builder()
+                    .ruleId(rule.getId())
+                    .key(buildKey(rule, identifier) + ":" + consumerId)
+                    .algorithm(rule.getAlgorithm())
+                    .maxRequests(consumerLimit.getMaxRequests())
+                    .burstSize(consumerLimit.getBurstSize())
+                    .refillRate(consumerLimit.getRefillRate())
+                    .windowSeconds(rule.getWindowSeconds())
+                    .build();
+            return new Limit(rule.getId() + ":consumer:" + consumerId, check,
+                    () -> createLimiterForConsumer(rule, consumerLimit));
         }
 
-        if (!allowed) {
-            int retryAfterSeconds = (int) ((getResetTime(rule, key) - System.currentTimeMillis()) / 1000);
-            throw new RateLimitExceededException(
-                    retryAfterSeconds,
-                    customLimit
-            );
+        // 헤더 기반 제한 (간단하게 Fixed Window로 처리)
+        Integer headerLimit = getHeaderBasedLimit(rule, headers);
+        if (headerLimit != null) {
+            RateLimitCheck check = RateLimitCheck.builder()
+                    .ruleId(rule.getId())
+                    .key(buildKey(rule, identifier) + ":custom:" + headerLimit)
+                    .algorithm(RateLimitAlgorithm.FIXED_WINDOW)
+                    .maxRequests(headerLimit)
+                    .burstSize(headerLimit)
+                    .windowSeconds(rule.getWindowSeconds())
+                    .build();
+            return new Limit(rule.getId() + ":custom:" + headerLimit, check,
+                    () -> new FixedWindowRateLimiter(headerLimit, rule.getWindowSeconds(), maxKeysPerLimiter));
         }
+
+        // 기본 제한
+        return new Limit(rule.getId(), defaultCheck(rule, identifier), () -> createLimiter(rule));
     }
 
-    /**
-     * 분산 모드 체크
-     */
-    private boolean checkDistributed(AdvancedRateLimitRule rule, String key) {
-        return switch (rule.getAlgorithm()) {
-            case TOKEN_BUCKET -> redisRepository.allowTokenBucket(key, rule.getBurstSize(), rule.getRefillRate());
-            case LEAKY_BUCKET -> redisRepository.allowTokenBucket(key, rule.getMaxRequests(), rule.getRefillRate());
-            case SLIDING_WINDOW -> redisRepository.allowSlidingWindow(key, rule.getMaxRequests(), rule.getWindowSeconds());
-            case FIXED_WINDOW -> redisRepository.allowFixedWindow(key, rule.getMaxRequests(), rule.getWindowSeconds());
-        };
+    private RateLimitCheck defaultCheck(AdvancedRateLimitRule rule, String identifier) {
+        return RateLimitCheck.builder()
+                .ruleId(rule.getId())
+                .key(buildKey(rule, identifier))
+                .algorithm(rule.getAlgorithm())
+                .maxRequests(rule.getMaxRequests())
+                .burstSize(rule.getBurstSize())
+                .refillRate(rule.getRefillRate())
+                .windowSeconds(rule.getWindowSeconds())
+                .build();
     }
 
     /**
-     * Consumer별 분산 모드 체크
+     * 로컬 limiter로 판정 (Redis 없음)
      */
-    private boolean checkDistributedWithConsumer(AdvancedRateLimitRule rule, String key,
-                                                  AdvancedRateLimitRule.ConsumerLimit consumerLimit) {
-        return switch (rule.getAlgorithm()) {
-            case TOKEN_BUCKET -> redisRepository.allowTokenBucket(key, consumerLimit.getBurstSize(), consumerLimit.getRefillRate());
-            case LEAKY_BUCKET -> redisRepository.allowTokenBucket(key, consumerLimit.getMaxRequests(), consumerLimit.getRefillRate());
-            case SLIDING_WINDOW -> redisRepository.allowSlidingWindow(key, consumerLimit.getMaxRequests(), rule.getWindowSeconds());
-            case FIXED_WINDOW -> redisRepository.allowFixedWindow(key, consumerLimit.getMaxRequests(), rule.getWindowSeconds());
-        };
+    private RateLimitDecision acquireLocal(Limit limit) {
+        RateLimiter limiter = localLimiters.computeIfAbsent(limit.limiterKey, k -> limit.localFactory.get());
+        return acquire(limiter, limit.check);
     }
 
     /**
-     * 로컬 모드 체크
+     * 분산 모드 판정
+     * 임대 limiter가 있으면 로컬 임대 토큰으로 판정하고, 없으면 Redis 스크립트 한 번으로
+     * 판정과 남은 요청 수, 리셋 시간을 함께 가져옵니다.
      */
-    private boolean checkLocal(AdvancedRateLimitRule rule, String key) {
-        RateLimiter limiter = getOrCreateLimiter(rule);
-        return limiter.allowRequest(key);
+    private RateLimitDecision acquireDistributed(Limit limit) {
+        RateLimiter leased = getOrCreateLeasedLimiter(limit.limiterKey, limit.check);
+        if (leased != null) {
+            return acquire(leased, limit.check);
+        }
+
+        RateLimitCheckResult result = redisRepository.evaluate(List.of(limit.check)).get(0);
+        return decision(limit.check, result.isAllowed(), result.getRemaining(),
+                toSecondsCeil(result.getResetMillis()), toSecondsCeil(result.getRetryAfterMillis()));
+    }
+
+    private static RateLimitDecision acquire(RateLimiter limiter, RateLimitCheck check) {
+        String key = check.getKey();
+        boolean allowed = limiter.allowRequest(key);
+        long resetSeconds = limiter.getResetTimeSeconds(key);
+        return decision(check, allowed, allowed ? limiter.getRemainingRequests(key) : 0, resetSeconds, resetSeconds);
+    }
+
+    private static RateLimitDecision decision(RateLimitCheck check, boolean allowed, long remaining,
+                                              long resetSeconds, long retryAfterSeconds) {
+        return RateLimitDecision.builder()
+                .allowed(allowed)
+                .limit(check.getMaxRequests())
+                .remaining(remaining)
+                .resetTimeSeconds(resetSeconds)
+                // 거부 시 Retry-After는 최소 1초
+                .retryAfterSeconds(allowed ? 0 : Math.max(1, retryAfterSeconds))
+                .algorithm(check.getAlgorithm().name())
+                .build();
+    }
+
+    private static long toSecondsCeil(long millis) {
+        return millis > 0 ? (millis + 999) / 1000 : 0;
     }
 
     /**
-     * Consumer별 로컬 모드 체크
+     * 토큰 임대 Limiter 생성 또는 조회 (하이브리드 모드)
+     * 임대 설정이 없거나 SLIDING_WINDOW, SLIDING_WINDOW_COUNTER이면 null입니다.
+     * 슬라이딩 윈도우는 요청 시각마다 따로 판정해야 해서 묶음으로 나눠 줄 수 없으므로,
+     * 하이브리드 모드에서도 이 알고리즘의 제한은 요청마다 Redis 스크립트로 판정합니다 (생성 시 로그로 안내).
      */
-    private boolean checkLocalWithConsumer(AdvancedRateLimitRule rule, String key,
-                                            AdvancedRateLimitRule.ConsumerLimit consumerLimit) {
-        // Consumer별로 별도의 limiter 생성
-        String limiterKey = rule.getId() + ":consumer:" + consumerLimit.getConsumerId();
-        RateLimiter limiter = localLimiters.computeIfAbsent(limiterKey, k -> createLimiterForConsumer(rule, consumerLimit));
-        return limiter.allowRequest(key);
+    private RateLimiter getOrCreateLeasedLimiter(String limiterKey, RateLimitCheck check) {
+        if (leaseSettings == null) {
+            return null;
+        }
+        String ruleId = check.getRuleId();
+        int maxRequests = check.getMaxRequests();
+        int burstSize = check.getBurstSize();
+        double refillRate = check.getRefillRate();
+        int windowSeconds = check.getWindowSeconds();
+        long leaseTtlMillis = leaseSettings.getLeaseTtlMillis();
+        return switch (check.getAlgorithm()) {
+            case TOKEN_BUCKET -> getOrCreateLeasedLimiter(limiterKey, burstSize, (key, requested) ->
+                    redisRepository.leaseTokenBucket(ruleId, key, burstSize, refillRate, requested, leaseTtlMillis));
+            case LEAKY_BUCKET -> getOrCreateLeasedLimiter(limiterKey, maxRequests, (key, requested) ->
+                    redisRepository.leaseTokenBucket(ruleId, key, maxRequests, refillRate, requested, leaseTtlMillis));
+            case FIXED_WINDOW -> getOrCreateLeasedLimiter(limiterKey, maxRequests, (key, requested) ->
+                    redisRepository.leaseFixedWindow(ruleId, key, maxRequests, windowSeconds, requested));
+            // 슬라이딩 윈도우는 요청 시각별로 판정해야 하므로 묶음 임대 불가
+            case SLIDING_WINDOW, SLIDING_WINDOW_COUNTER -> null;
+        };
+    }
+
+    private RateLimiter getOrCreateLeasedLimiter(String limiterKey, int limit, LeasedRateLimiter.LeaseSource source) {
+        return localLimiters.computeIfAbsent("lease:" + limiterKey, k ->
+                new LeasedRateLimiter(limit, leaseSettings, maxKeysPerLimiter, source, nanoClock));
     }
 
     /**
@@ -220,25 +385,16 @@ public class AdvancedRateLimitService {
         return localLimiters.computeIfAbsent(rule.getId(), k -> createLimiter(rule));
     }
 
-    /**
-     * 커스텀 제한으로 Limiter 생성 또는 조회
-     */
-    private RateLimiter getOrCreateLimiter(AdvancedRateLimitRule rule, int customLimit) {
-        String key = rule.getId() + ":custom:" + customLimit;
-        return localLimiters.computeIfAbsent(key, k ->
-            new FixedWindowRateLimiter(customLimit, rule.getWindowSeconds())
-        );
-    }
-
     /**
      * Limiter 생성
      */
     private RateLimiter createLimiter(AdvancedRateLimitRule rule) {
         return switch (rule.getAlgorithm()) {
-            case TOKEN_BUCKET -> new TokenBucketRateLimiter(rule.getBurstSize(), rule.getRefillRate(), rule.getWindowSeconds());
-            case LEAKY_BUCKET -> new LeakyBucketRateLimiter(rule.getMaxRequests(), rule.getRefillRate(), rule.getWindowSeconds());
-            case SLIDING_WINDOW -> new SlidingWindowRateLimiter(rule.getMaxRequests(), rule.getWindowSeconds());
-            case FIXED_WINDOW -> new FixedWindowRateLimiter(rule.getMaxRequests(), rule.getWindowSeconds());
+            case TOKEN_BUCKET -> new TokenBucketRateLimiter(rule.getBurstSize(), rule.getRefillRate(), rule.getWindowSeconds(), maxKeysPerLimiter, nanoClock);
+            case LEAKY_BUCKET -> new LeakyBucketRateLimiter(rule.getMaxRequests(), rule.getRefillRate(), rule.getWindowSeconds(), maxKeysPerLimiter, nanoClock);
+            case SLIDING_WINDOW -> new SlidingWindowRateLimiter(rule.getMaxRequests(), rule.getWindowSeconds(), maxKeysPerLimiter);
+            case SLIDING_WINDOW_COUNTER -> new SlidingWindowCounterRateLimiter(rule.getMaxRequests(), rule.getWindowSeconds(), maxKeysPerLimiter);
+            case FIXED_WINDOW -> new FixedWindowRateLimiter(rule.getMaxRequests(), rule.getWindowSeconds(), maxKeysPerLimiter);
         };
     }
 
@@ -247,53 +403,53 @@ public class AdvancedRateLimitService {
      */
     private RateLimiter createLimiterForConsumer(AdvancedRateLimitRule rule, AdvancedRateLimitRule.ConsumerLimit consumerLimit) {
         return switch (rule.getAlgorithm()) {
-            case TOKEN_BUCKET -> new TokenBucketRateLimiter(consumerLimit.getBurstSize(), consumerLimit.getRefillRate(), rule.getWindowSeconds());
-            case LEAKY_BUCKET -> new LeakyBucketRateLimiter(consumerLimit.getMaxRequests(), consumerLimit.getRefillRate(), rule.getWindowSeconds());
-            case SLIDING_WINDOW -> new SlidingWindowRateLimiter(consumerLimit.getMaxRequests(), rule.getWindowSeconds());
-            case FIXED_WINDOW -> new FixedWindowRateLimiter(consumerLimit.getMaxRequests(), rule.getWindowSeconds());
+            case TOKEN_BUCKET -> new TokenBucketRateLimiter(consumerLimit.getBurstSize(), consumerLimit.getRefillRate(), rule.getWindowSeconds(), maxKeysPerLimiter, nanoClock);
+            case LEAKY_BUCKET -> new LeakyBucketRateLimiter(consumerLimit.getMaxRequests(), consumerLimit.getRefillRate(), rule.getWindowSeconds(), maxKeysPerLimiter, nanoClock);
+            case SLIDING_WINDOW -> new SlidingWindowRateLimiter(consumerLimit.getMaxRequests(), rule.getWindowSeconds(), maxKeysPerLimiter);
+            case SLIDING_WINDOW_COUNTER -> new SlidingWindowCounterRateLimiter(consumerLimit.getMaxRequests(), rule.getWindowSeconds(), maxKeysPerLimiter);
+            case FIXED_WINDOW -> new FixedWindowRateLimiter(consumerLimit.getMaxRequests(), rule.getWindowSeconds(), maxKeysPerLimiter);
         };
     }
 
     /**
-     * 남은 요청 수 조회
+     * 매칭되는 규칙 찾기 (경로에 매칭되는 규칙 중 우선순위가 가장 높은 유효한 규칙)
      */
-    private long getRemainingRequests(AdvancedRateLimitRule rule, String key) {
-        if (distributedMode) {
-            return redisRepository.getRemainingRequests(key, rule.getMaxRequests());
-        } else {
-            RateLimiter limiter = getOrCreateLimiter(rule);
-            return limiter.getRemainingRequests(key);
+    private AdvancedRateLimitRule findMatchingRule(String path, RateLimitRule.RateLimitType type) {
+        PathPatternIndex<AdvancedRateLimitRule> index = rulesByType.get(type);
+        if (index == null) {
+            return null;
         }
-    }
-
-    /**
-     * 리셋 시간 조회
-     */
-    private long getResetTime(AdvancedRateLimitRule rule, String key) {
-        if (distributedMode) {
-            return redisRepository.getTTL(key, rule.getAlgorithm().name().toLowerCase());
-        } else {
-            RateLimiter limiter = getOrCreateLimiter(rule);
-            return limiter.getResetTimeSeconds(key);
+        for (AdvancedRateLimitRule rule : index.match(path)) {
+            if (rule.isValid()) {
+                return rule;
+            }
         }
+        return null;
     }
 
     /**
-     * 매칭되는 규칙 찾기
+     * 규칙을 타입별 경로 패턴 인덱스로 컴파일 (같은 우선순위는 설정 순서 유지)
+     * 경로 패턴이 없는 규칙은 어떤 요청에도 매칭되지 않으므로 제외합니다.
      */
-    private AdvancedRateLimitRule findMatchingRule(String path, RateLimitRule.RateLimitType type) {
-        return rules.stream()
-                .filter(rule -> rule.isValid() && rule.getType() == type)
-                .filter(rule -> matchesPath(rule, path))
-                .min((r1, r2) -> Integer.compare(r1.getPriority(), r2.getPriority()))
-                .orElse(null);
-    }
+    private static Map<RateLimitRule.RateLimitType, PathPatternIndex<AdvancedRateLimitRule>> indexRules(
+            List<AdvancedRateLimitRule> rules) {
+        List<AdvancedRateLimitRule> ordered = new ArrayList<>(rules);
+        ordered.sort(Comparator.comparingInt(AdvancedRateLimitRule::getPriority));
+
+        Map<RateLimitRule.RateLimitType, PathPatternIndex.Builder<AdvancedRateLimitRule>> builders =
+                new EnumMap<>(RateLimitRule.RateLimitType.class);
+        for (AdvancedRateLimitRule rule : ordered) {
+            String pattern = rule.getPathPattern();
+            if (rule.getType() == null || pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            builders.computeIfAbsent(rule.getType(), type -> PathPatternIndex.builder()).add(pattern, rule);
+        }
 
-    /**
-     * 경로 매칭
-     */
-    private boolean matchesPath(AdvancedRateLimitRule rule, String path) {
-        return rule.toBasicRule().matchesPath(path);
+        Map<RateLimitRule.RateLimitType, PathPatternIndex<AdvancedRateLimitRule>> rulesByType =
+                new EnumMap<>(RateLimitRule.RateLimitType.class);
+        builders.forEach((type, builder) -> rulesByType.put(type, builder.build()));
+        return rulesByType;
     }
 
     /**
@@ -329,9 +485,63 @@ public class AdvancedRateLimitService {
 
     /**
      * Rate Limit 키 생성
+     * 식별자를 Redis 해시 태그로 감싸 같은 클라이언트의 키들이 클러스터에서 같은 슬롯에 배치되도록 합니다.
      */
     private String buildKey(AdvancedRateLimitRule rule, String identifier) {
-        return String.format("%s:%s:%s", rule.getId(), rule.getType(), identifier);
+        return rule.getId() + ":" + rule.getType() + ":{" + identifier + "}";
+    }
+
+    /**
+     * 요청에 적용되는 제한 하나 (로컬 limiter 키, Redis 평가 단위, 로컬 limiter 생성 함수)
+     */
+    private static final class Limit {
+        private final String limiterKey;
+        private final RateLimitCheck check;
+        private final Supplier<RateLimiter> localFactory;
+
+        Limit(String limiterKey, RateLimitCheck check, Supplier<RateLimiter> localFactory) {
+            this.limiterKey = limiterKey;
+            this.check = check;
+            this.localFactory = localFactory;
+        }
+    }
+
+    /**
+     * Rate Limit 판정 결과
+     */
+    @Getter
+    @Builder
+    public static class RateLimitDecision {
+        /**
+         * 매칭되는 규칙이 없어 제한하지 않음
+         */
+        public static final RateLimitDecision UNLIMITED = RateLimitDecision.builder()
+                .allowed(true)
+                .limit(-1)
+                .remaining(-1)
+                .build();
+
+        private final boolean allowed;
+        private final int limit;
+        private final long remaining;
+
+        /**
+         * 한도가 회복될 때까지 남은 시간 (초)
+         */
+        private final long resetTimeSeconds;
+
+        /**
+         * 거부 시 Retry-After 값 (초)
+         */
+        private final long retryAfterSeconds;
+        private final String algorithm;
+
+        /**
+         * 적용된 규칙이 있는지 여부 (헤더 출력 여부)
+         */
+        public boolean isLimited() {
+            return limit >= 0;
+        }
     }
 
     /**
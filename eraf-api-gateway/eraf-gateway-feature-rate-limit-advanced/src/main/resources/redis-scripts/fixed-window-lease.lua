@@ -0,0 +1,30 @@
+-- Fixed Window Lease Script
+-- Reserves a batch of requests in the same counter as multi-rule.lua so that
+-- a gateway node can spend them locally until the window ends.
+-- KEYS[1] = rate-limit key
+-- ARGV[1] = max requests
+-- ARGV[2] = window milliseconds
+-- ARGV[3] = requested tokens
+-- Returns: {granted, milliseconds until the window ends, requests left in the window after the lease}
+
+local key = KEYS[1]
+local max_requests = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+-- Grant as many as requested, or whatever is left in this window
+local current = tonumber(redis.call('GET', key) or '0')
+local granted = math.max(0, math.min(requested, max_requests - current))
+if granted > 0 then
+    redis.call('INCRBY', key, granted)
+end
+
+-- Set expiry on the first reservation of the window
+local ttl = redis.call('PTTL', key)
+if ttl < 0 then
+    if granted > 0 then
+        redis.call('PEXPIRE', key, window)
+    end
+    ttl = window
+end
+return {granted, ttl, math.max(0, max_requests - current - granted)}
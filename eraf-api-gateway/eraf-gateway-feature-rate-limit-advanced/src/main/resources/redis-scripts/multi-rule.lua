@@ -0,0 +1,146 @@
+-- Multi-Rule Rate Limiting Script
+-- Evaluates several limits in one round trip. All limits are read first and
+-- each one is consumed only if every limit allows the request.
+-- Keys and state use the same layout as the lease scripts.
+-- In Redis Cluster all keys must share a hash tag (e.g. "rule-1:IP:{10.0.0.1}").
+-- KEYS[2i-1] = key of the i-th limit
+-- KEYS[2i]   = previous window key of the i-th limit (sliding window counter, otherwise the same key)
+-- ARGV[1] = current timestamp (milliseconds)
+-- ARGV[2] = number of limits n
+-- ARGV[3] = consume flag (1: consume if all limits allow, 0: read only)
+-- ARGV[4 + 4(i-1) ..] = algorithm (token/fixed/sliding/sliding-counter), limit, refill rate, window milliseconds
+-- Returns: per limit {allowed (1/0), remaining, milliseconds until reset, milliseconds until retry}
+
+local now = tonumber(ARGV[1])
+local n = tonumber(ARGV[2])
+local consume = ARGV[3] == '1'
+local checks = {}
+local all_allowed = true
+
+for i = 1, n do
+    local base = 3 + (i - 1) * 4
+    local c = {
+        algorithm = ARGV[base + 1],
+        limit = tonumber(ARGV[base + 2]),
+        rate = tonumber(ARGV[base + 3]),
+        window = tonumber(ARGV[base + 4]),
+        key = KEYS[i * 2 - 1],
+        previous_key = KEYS[i * 2]
+    }
+
+    if c.algorithm == 'token' then
+        local bucket = redis.call('HMGET', c.key, 'tokens', 'last_refill')
+        local tokens = tonumber(bucket[1])
+        local last_refill = tonumber(bucket[2])
+        if tokens == nil then
+            tokens = c.limit
+        else
+            tokens = math.min(c.limit, tokens + math.max(0, now - last_refill) / 1000.0 * c.rate)
+        end
+        c.level = tokens
+        c.allowed = tokens >= 1
+    elseif c.algorithm == 'fixed' then
+        c.level = tonumber(redis.call('GET', c.key) or '0')
+        c.allowed = c.level < c.limit
+    elseif c.algorithm == 'sliding' then
+        redis.call('ZREMRANGEBYSCORE', c.key, 0, now - c.window)
+        c.level = redis.call('ZCARD', c.key)
+        c.allowed = c.level < c.limit
+    else
+        c.offset = now % c.window
+        c.current = tonumber(redis.call('GET', c.key) or '0')
+        c.previous = tonumber(redis.call('GET', c.previous_key) or '0')
+        c.level = math.floor(c.previous * (c.window - c.offset) / c.window) + c.current
+        c.allowed = c.level < c.limit
+    end
+
+    if not c.allowed then
+        all_allowed = false
+    end
+    checks[i] = c
+end
+
+local apply = all_allowed and consume
+local result = {}
+for i = 1, n do
+    local c = checks[i]
+    local remaining, reset, retry
+
+    if c.algorithm == 'token' then
+        local tokens = c.level
+        if apply then
+            tokens = tokens - 1
+            redis.call('HMSET', c.key, 'tokens', tokens, 'last_refill', now)
+            redis.call('EXPIRE', c.key, 3600)
+        end
+        remaining = math.floor(tokens)
+        if c.rate > 0 then
+            reset = math.ceil((c.limit - tokens) * 1000 / c.rate)
+            retry = math.ceil(math.max(0, 1 - tokens) * 1000 / c.rate)
+        else
+            reset = c.window
+            retry = c.window
+        end
+    elseif c.algorithm == 'fixed' then
+        local count = c.level
+        if apply then
+            count = redis.call('INCR', c.key)
+            if count == 1 then
+                redis.call('PEXPIRE', c.key, c.window)
+            end
+        end
+        local ttl = redis.call('PTTL', c.key)
+        if ttl < 0 then
+            ttl = c.window
+        end
+        remaining = c.limit - count
+        reset = ttl
+        retry = ttl
+    elseif c.algorithm == 'sliding' then
+        local count = c.level
+        if apply then
+            -- Suffix the count so requests in the same millisecond get distinct members
+            redis.call('ZADD', c.key, now, now .. '-' .. (count + 1))
+            redis.call('PEXPIRE', c.key, c.window)
+            count = count + 1
+        end
+        local oldest = redis.call('ZRANGE', c.key, 0, 0, 'WITHSCORES')
+        remaining = c.limit - count
+        reset = 0
+        if oldest[2] then
+            reset = math.max(0, tonumber(oldest[2]) + c.window - now)
+        end
+        retry = reset
+    else
+        local current = c.current
+        if apply then
+            current = redis.call('INCR', c.key)
+            redis.call('PEXPIRE', c.key, c.window * 2)
+        end
+        remaining = c.limit - (math.floor(c.previous * (c.window - c.offset) / c.window) + current)
+        if current > 0 then
+            reset = 2 * c.window - c.offset
+        elseif c.previous > 0 then
+            reset = c.window - c.offset
+        else
+            reset = 0
+        end
+        if current < c.limit and c.previous > 0 then
+            -- When the previous window's weight drops below (limit - current)
+            retry = math.max(0, math.floor(c.window - (c.limit - current) * c.window / c.previous) + 1 - c.offset)
+        else
+            retry = c.window - c.offset
+        end
+    end
+
+    local allowed = 0
+    if c.allowed then
+        allowed = 1
+        retry = 0
+    end
+    result[#result + 1] = allowed
+    result[#result + 1] = math.max(0, remaining)
+    result[#result + 1] = reset
+    result[#result + 1] = retry
+end
+return result
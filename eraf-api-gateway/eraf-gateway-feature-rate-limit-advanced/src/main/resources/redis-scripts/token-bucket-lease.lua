@@ -0,0 +1,47 @@
+-- Token Bucket Lease Script
+-- Takes a batch of tokens from the same bucket as multi-rule.lua so that
+-- a gateway node can spend them locally without a round trip per request.
+-- KEYS[1] = rate-limit key
+-- ARGV[1] = capacity
+-- ARGV[2] = refill rate (tokens per second)
+-- ARGV[3] = current timestamp (milliseconds)
+-- ARGV[4] = requested tokens
+-- Returns: {granted, milliseconds until one token is available (when granted is 0, -1 if no refill),
+--           tokens left in the bucket after the lease}
+
+local key = KEYS[1]
+local capacity = tonumber(ARGV[1])
+local refill_rate = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+local requested = tonumber(ARGV[4])
+
+-- Get current bucket state
+local bucket = redis.call('HMGET', key, 'tokens', 'last_refill')
+local tokens = tonumber(bucket[1])
+local last_refill = tonumber(bucket[2])
+
+-- Initialize if not exists
+if tokens == nil then
+    tokens = capacity
+    last_refill = now
+else
+    -- Calculate tokens to add based on time passed
+    local time_passed = math.max(0, now - last_refill) / 1000.0
+    tokens = math.min(capacity, tokens + time_passed * refill_rate)
+    last_refill = now
+end
+
+-- Grant as many whole tokens as requested, or whatever is left
+local granted = math.min(requested, math.floor(tokens))
+if granted >= 1 then
+    tokens = tokens - granted
+    redis.call('HMSET', key, 'tokens', tokens, 'last_refill', last_refill)
+    redis.call('EXPIRE', key, 3600)
+    return {granted, 0, math.floor(tokens)}
+end
+
+-- Denied: tell the caller how long to wait before leasing again
+if refill_rate <= 0 then
+    return {0, -1, 0}
+end
+return {0, math.ceil((1 - tokens) * 1000 / refill_rate), 0}
@@ -0,0 +1,44 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeakyBucketRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(0);
+    private final LeakyBucketRateLimiter limiter = new LeakyBucketRateLimiter(4, 2.0, 60, nanos::get);
+
+    @Test
+    void testBucketLeaksAtConstantRate() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.allowRequest("key"));
+        }
+        assertFalse(limiter.allowRequest("key"));
+
+        // 초당 2개 누수: 4개가 모두 빠지려면 2초
+        assertEquals(2, limiter.getResetTimeSeconds("key"));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1, limiter.getRemainingRequests("key"));
+        assertTrue(limiter.allowRequest("key"));
+        assertFalse(limiter.allowRequest("key"));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.getResetTimeSeconds("key"));
+        assertEquals(4, limiter.getRemainingRequests("key"));
+    }
+
+    @Test
+    void testTryAcquireWeightedRequests() {
+        assertTrue(limiter.tryAcquire("key", 4));
+        assertFalse(limiter.tryAcquire("key", 1));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertFalse(limiter.tryAcquire("key", 3));
+        assertTrue(limiter.tryAcquire("key", 2));
+    }
+}
@@ -0,0 +1,202 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import com.eraf.gateway.ratelimit.advanced.domain.TokenLease;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeasedRateLimiterTest {
+
+    private static final int LIMIT = 1000;
+    private static final long WINDOW_MILLIS = 60_000;
+
+    private final AtomicLong nanos = new AtomicLong(0);
+    private final SharedWindow shared = new SharedWindow(LIMIT);
+    private final LeasedRateLimiter.Settings settings = LeasedRateLimiter.Settings.builder()
+            .maxLeaseFraction(0.05)
+            .leaseIntervalMillis(100)
+            .build();
+
+    @Test
+    void testLeaseSizeFollowsTrafficUpToCap() {
+        LeasedRateLimiter limiter = newLimiter();
+
+        // 1ms마다 요청 (초당 1,000건) -> 100ms분 = 100건이지만 상한은 한도의 5% = 50건
+        for (int i = 0; i < 500; i++) {
+            assertTrue(limiter.allowRequest("key"));
+            nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        assertEquals(50, shared.largestRequest);
+        assertTrue(limiter.getLeaseCount() < 30, "lease count " + limiter.getLeaseCount());
+        assertEquals(limiter.getLeasedTokens(), shared.used);
+    }
+
+    @Test
+    void testQuietKeyLeasesOneTokenAtATime() {
+        LeasedRateLimiter limiter = newLimiter();
+
+        // 1초마다 요청 -> 100ms 동안 들어올 요청은 1건 미만
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.allowRequest("key"));
+            nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        }
+
+        assertEquals(1, shared.largestRequest);
+        assertEquals(10, limiter.getLeaseCount());
+    }
+
+    @Test
+    void testNodesSharingLimitNeverExceedIt() {
+        List<LeasedRateLimiter> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(newLimiter());
+        }
+
+        int allowed = 0;
+        for (int i = 0; i < 5000; i++) {
+            if (nodes.get(i % nodes.size()).allowRequest("key")) {
+                allowed++;
+            }
+            nanos.addAndGet(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+
+        assertTrue(allowed <= LIMIT, "allowed " + allowed);
+        // 노드가 쥐고 있는 임대 토큰만큼만 덜 허용
+        long unused = nodes.stream().mapToLong(node -> node.getRemainingRequests("key")).sum();
+        assertEquals(LIMIT, allowed + unused);
+    }
+
+    @Test
+    void testDenialIsCachedUntilRetry() {
+        LeasedRateLimiter limiter = newLimiter();
+        while (limiter.allowRequest("key")) {
+            nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        long leases = limiter.getLeaseCount();
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(limiter.allowRequest("key"));
+        }
+        // 거부된 요청은 Redis를 다시 부르지 않음
+        assertEquals(leases, limiter.getLeaseCount());
+        assertTrue(limiter.getResetTimeSeconds("key") > 0);
+
+        // 윈도우가 끝나면 다시 임대
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS));
+        shared.used = 0;
+        assertTrue(limiter.allowRequest("key"));
+        assertEquals(leases + 1, limiter.getLeaseCount());
+    }
+
+    @Test
+    void testExpiredLeaseTokensAreDropped() {
+        AtomicInteger calls = new AtomicInteger();
+        LeasedRateLimiter limiter = new LeasedRateLimiter(LIMIT, settings, LimiterKeyStore.DEFAULT_MAX_KEYS,
+                (key, requested) -> {
+                    calls.incrementAndGet();
+                    return new TokenLease(10, 1000);
+                }, nanos::get);
+
+        assertTrue(limiter.allowRequest("key"));
+        assertEquals(9, limiter.getRemainingRequests("key"));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.getRemainingRequests("key"));
+        assertTrue(limiter.allowRequest("key"));
+        assertEquals(2, calls.get());
+        assertEquals(9, limiter.getRemainingRequests("key"));
+    }
+
+    @Test
+    void testConcurrentRefillsAreCoalesced() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch leaseStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LeasedRateLimiter limiter = new LeasedRateLimiter(LIMIT, settings, LimiterKeyStore.DEFAULT_MAX_KEYS,
+                (key, requested) -> {
+                    calls.incrementAndGet();
+                    leaseStarted.countDown();
+                    await(release);
+                    return new TokenLease(10, 1000);
+                }, nanos::get);
+
+        int threads = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            results.add(executor.submit(() -> limiter.allowRequest("key")));
+            assertTrue(leaseStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> limiter.allowRequest("key")));
+            }
+
+            // 나머지 요청이 진행 중인 임대를 기다리기 시작한 뒤 임대 응답
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(5, limiter.getRemainingRequests("key"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRemainingIncludesSharedLimit() {
+        LeasedRateLimiter limiter = new LeasedRateLimiter(LIMIT, settings, LimiterKeyStore.DEFAULT_MAX_KEYS,
+                (key, requested) -> new TokenLease(10, 1000, 500), nanos::get);
+
+        assertTrue(limiter.allowRequest("key"));
+        // 임대 직후 공유 한도에 남은 500 + 이 노드가 쥐고 있는 9
+        assertEquals(509, limiter.getRemainingRequests("key"));
+        assertTrue(limiter.allowRequest("key"));
+        assertEquals(508, limiter.getRemainingRequests("key"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private LeasedRateLimiter newLimiter() {
+        return new LeasedRateLimiter(LIMIT, settings, LimiterKeyStore.DEFAULT_MAX_KEYS, shared::lease, nanos::get);
+    }
+
+    /**
+     * Redis Fixed Window 임대 스크립트와 같은 동작을 하는 공유 카운터
+     */
+    private static final class SharedWindow {
+        private final int limit;
+        private long used;
+        private int largestRequest;
+
+        SharedWindow(int limit) {
+            this.limit = limit;
+        }
+
+        synchronized TokenLease lease(String key, int requested) {
+            largestRequest = Math.max(largestRequest, requested);
+            int granted = (int) Math.max(0, Math.min(requested, limit - used));
+            used += granted;
+            return granted > 0 ? new TokenLease(granted, WINDOW_MILLIS) : TokenLease.denied(WINDOW_MILLIS);
+        }
+    }
+}
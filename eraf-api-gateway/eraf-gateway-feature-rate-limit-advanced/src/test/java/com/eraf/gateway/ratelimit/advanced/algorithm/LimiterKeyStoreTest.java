@@ -0,0 +1,100 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiterKeyStoreTest {
+
+    private final AtomicLong nanos = new AtomicLong(0);
+
+    @Test
+    void testSizeBoundEvictsUnreferencedKeysFirst() {
+        LimiterKeyStore<String> store = new LimiterKeyStore<>(100, 0, nanos::get);
+        for (int i = 0; i < 100; i++) {
+            store.computeIfAbsent("hot-" + i, k -> k);
+        }
+        // 기존 키가 다시 조회되어 참조 비트가 세워짐
+        for (int i = 0; i < 100; i++) {
+            assertEquals("hot-" + i, store.get("hot-" + i));
+        }
+
+        // 한 번씩만 등장하는 키가 대량으로 들어와도 크기는 상한 근처로 유지
+        for (int i = 0; i < 10_000; i++) {
+            store.computeIfAbsent("spoofed-" + i, k -> k);
+            assertTrue(store.size() <= 101, "size " + store.size());
+        }
+
+        KeyStoreStats stats = store.getStats();
+        assertEquals(100, stats.getMaxKeys());
+        assertTrue(stats.getSizeEvictions() >= 9_900);
+        assertEquals(0, stats.getIdleEvictions());
+    }
+
+    @Test
+    void testReferencedKeySurvivesOneSweep() {
+        LimiterKeyStore<String> store = new LimiterKeyStore<>(3, 0, nanos::get);
+        store.computeIfAbsent("a", k -> k);
+        store.computeIfAbsent("b", k -> k);
+        store.computeIfAbsent("c", k -> k);
+        store.get("a");
+
+        store.computeIfAbsent("d", k -> k);
+
+        assertEquals(3, store.size());
+        assertEquals(1, store.getStats().getSizeEvictions());
+        assertNotNull(store.get("a"));
+    }
+
+    @Test
+    void testIdleKeysExpire() {
+        LimiterKeyStore<String> store = new LimiterKeyStore<>(0, TimeUnit.SECONDS.toNanos(60), nanos::get);
+        store.computeIfAbsent("idle", k -> k);
+        store.computeIfAbsent("active", k -> k);
+
+        for (int i = 0; i < 10; i++) {
+            nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+            assertNotNull(store.get("active"));
+        }
+
+        // 조회 시 만료된 키는 없는 것으로 처리
+        assertNull(store.get("idle"));
+        assertNotNull(store.get("active"));
+        assertEquals(1, store.getStats().getIdleEvictions());
+    }
+
+    @Test
+    void testInsertsSweepIdleKeys() {
+        LimiterKeyStore<String> store = new LimiterKeyStore<>(0, TimeUnit.SECONDS.toNanos(1), nanos::get);
+        for (int i = 0; i < 1000; i++) {
+            store.computeIfAbsent("old-" + i, k -> k);
+        }
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        for (int i = 0; i < 1000; i++) {
+            store.computeIfAbsent("new-" + i, k -> k);
+        }
+
+        // 새 키 삽입마다 시계 바늘이 오래된 키를 함께 정리
+        assertEquals(1000, store.size());
+        assertEquals(1000, store.getStats().getIdleEvictions());
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        LimiterKeyStore<String> store = new LimiterKeyStore<>(10, 0, nanos::get);
+        store.computeIfAbsent("a", k -> k);
+        store.computeIfAbsent("b", k -> k);
+
+        store.remove("a");
+        assertNull(store.get("a"));
+        assertEquals(1, store.size());
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals("b", store.computeIfAbsent("b", k -> k));
+    }
+}
@@ -0,0 +1,117 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterRateLimiterTest {
+
+    private final AtomicLong time = new AtomicLong(1_700_000_000_000L);
+    private final SlidingWindowCounterRateLimiter limiter = new SlidingWindowCounterRateLimiter(10, 10, LimiterKeyStore.DEFAULT_MAX_KEYS, time::get);
+
+    @Test
+    void testLimitWithinSingleWindow() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.allowRequest("key"));
+        }
+        assertFalse(limiter.allowRequest("key"));
+        assertEquals(0, limiter.getRemainingRequests("key"));
+        assertEquals(10, limiter.getRemainingRequests("other"));
+    }
+
+    @Test
+    void testPreviousWindowWeightedByOverlap() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.allowRequest("key"));
+        }
+
+        // 다음 윈도우 30% 지점: 직전 윈도우 10건 중 7건이 아직 슬라이딩 윈도우에 걸쳐 있음
+        time.addAndGet(13_000);
+        assertEquals(3, limiter.getRemainingRequests("key"));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.allowRequest("key"));
+        }
+        assertFalse(limiter.allowRequest("key"));
+
+        // 고정 윈도우와 달리 경계 직후에도 버스트가 허용되지 않음
+        assertTrue(limiter.getResetTimeSeconds("key") > 0);
+    }
+
+    @Test
+    void testOldWindowsAreForgotten() {
+        for (int i = 0; i < 10; i++) {
+            limiter.allowRequest("key");
+        }
+
+        time.addAndGet(20_000);
+        assertEquals(10, limiter.getRemainingRequests("key"));
+        assertEquals(0, limiter.getResetTimeSeconds("key"));
+        assertTrue(limiter.allowRequest("key"));
+    }
+
+    @Test
+    void testResetTimeUntilNextAllowedRequest() {
+        for (int i = 0; i < 10; i++) {
+            limiter.allowRequest("key");
+        }
+
+        // 다음 윈도우가 시작되어 직전 10건의 가중치가 한도 아래로 줄어든 뒤 허용
+        long wait = limiter.getResetTimeSeconds("key");
+        assertEquals(11, wait);
+        time.addAndGet(TimeUnit.SECONDS.toMillis(wait) - 1_500);
+        assertFalse(limiter.allowRequest("key"));
+
+        time.addAndGet(1_500);
+        assertTrue(limiter.allowRequest("key"));
+    }
+
+    @Test
+    void testConcurrentRequestsAdmitExactlyMaxRequests() throws Exception {
+        SlidingWindowCounterRateLimiter concurrent = new SlidingWindowCounterRateLimiter(5000, 60, LimiterKeyStore.DEFAULT_MAX_KEYS, time::get);
+        int threads = 64;
+        int attemptsPerThread = 1000;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (concurrent.allowRequest("client")) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5000, allowed.get());
+        assertEquals(0, concurrent.getRemainingRequests("client"));
+    }
+
+    @Test
+    void testMaxRequestsAboveCounterCapacityRejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new SlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiter.MAX_REQUESTS_LIMIT + 1, 60));
+    }
+}
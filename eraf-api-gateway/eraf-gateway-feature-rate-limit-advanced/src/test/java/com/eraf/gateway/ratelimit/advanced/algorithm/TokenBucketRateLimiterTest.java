@@ -0,0 +1,112 @@
+package com.eraf.gateway.ratelimit.advanced.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(-5_000_000_000L);
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 10.0, 60, nanos::get);
+
+    @Test
+    void testBurstUpToCapacityThenRefill() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.allowRequest("key"));
+        }
+        assertFalse(limiter.allowRequest("key"));
+        assertEquals(0, limiter.getRemainingRequests("key"));
+        assertEquals(1, limiter.getResetTimeSeconds("key"));
+
+        // 초당 10개 리필: 100ms마다 토큰 하나
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        assertFalse(limiter.allowRequest("key"));
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(limiter.allowRequest("key"));
+        assertFalse(limiter.allowRequest("key"));
+
+        // 오래 쉬어도 용량 이상으로 쌓이지 않음
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(5, limiter.getRemainingRequests("key"));
+        assertEquals(0, limiter.getResetTimeSeconds("key"));
+    }
+
+    @Test
+    void testTryAcquireWeightedRequests() {
+        assertTrue(limiter.tryAcquire("key", 3));
+        assertEquals(2, limiter.getRemainingRequests("key"));
+
+        // 모자라면 하나도 소비하지 않음
+        assertFalse(limiter.tryAcquire("key", 3));
+        assertEquals(2, limiter.getRemainingRequests("key"));
+        assertTrue(limiter.tryAcquire("key", 2));
+
+        // 용량보다 큰 요청은 항상 거부
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertFalse(limiter.tryAcquire("key", 6));
+        assertTrue(limiter.tryAcquire("key", 5));
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        for (int i = 0; i < 5; i++) {
+            limiter.allowRequest("a");
+        }
+        assertFalse(limiter.allowRequest("a"));
+        assertTrue(limiter.allowRequest("b"));
+
+        limiter.reset("a");
+        assertTrue(limiter.allowRequest("a"));
+    }
+
+    @Test
+    void testConcurrentRequestsAdmitExactlyCapacity() throws Exception {
+        TokenBucketRateLimiter concurrent = new TokenBucketRateLimiter(5000, 1.0, 60, nanos::get);
+        int threads = 64;
+        int attemptsPerThread = 1000;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (concurrent.allowRequest("client")) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5000, allowed.get());
+        assertEquals(0, concurrent.getRemainingRequests("client"));
+    }
+
+    @Test
+    void testZeroCapacityDeniesAll() {
+        TokenBucketRateLimiter empty = new TokenBucketRateLimiter(0, 10.0, 60, nanos::get);
+        assertFalse(empty.allowRequest("key"));
+        assertEquals(0, empty.getRemainingRequests("key"));
+    }
+}
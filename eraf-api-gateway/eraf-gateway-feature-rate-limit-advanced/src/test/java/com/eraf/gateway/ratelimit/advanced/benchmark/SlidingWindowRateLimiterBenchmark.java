@@ -0,0 +1,110 @@
+package com.eraf.gateway.ratelimit.advanced.benchmark;
+
+import com.eraf.gateway.ratelimit.advanced.algorithm.RateLimiter;
+import com.eraf.gateway.ratelimit.advanced.algorithm.SlidingWindowCounterRateLimiter;
+import com.eraf.gateway.ratelimit.advanced.algorithm.SlidingWindowRateLimiter;
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 정확한 Sliding Window (요청 시각 기록)와 Sliding Window Counter (윈도우 카운터 근사) 비교
+ *
+ * - allowRequest: 8개 스레드가 키 1,000개에 요청할 때의 처리량 (분당 10,000건 한도)
+ * - fillToLimit: 키 100개를 한도까지 채운 뒤 남아 있는 힙 사용량 (키당 바이트, 보조 카운터로 출력)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlidingWindowRateLimiterBenchmark {
+
+    private static final int MAX_REQUESTS = 10_000;
+    private static final int WINDOW_SECONDS = 60;
+    private static final int KEY_COUNT = 1_000;
+    private static final int MEMORY_KEY_COUNT = 100;
+
+    @Param({"SLIDING_WINDOW", "SLIDING_WINDOW_COUNTER"})
+    private RateLimitAlgorithm algorithm;
+
+    private RateLimiter limiter;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = createLimiter(algorithm);
+        keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "rule-1:IP:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean allowRequest() {
+        return limiter.allowRequest(keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public RateLimiter fillToLimit(HeapUsage heap) {
+        RateLimiter filled = createLimiter(algorithm);
+        long before = heap.usedAfterGc();
+        for (int k = 0; k < MEMORY_KEY_COUNT; k++) {
+            String key = "client-" + k;
+            for (int i = 0; i < MAX_REQUESTS; i++) {
+                filled.allowRequest(key);
+            }
+        }
+        heap.bytesPerKey = (heap.usedAfterGc() - before) / MEMORY_KEY_COUNT;
+        return filled;
+    }
+
+    /**
+     * 한도까지 채운 limiter가 붙잡고 있는 키당 힙 사용량
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapUsage {
+
+        public long bytesPerKey;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            bytesPerKey = 0;
+        }
+
+        long usedAfterGc() {
+            Runtime runtime = Runtime.getRuntime();
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+
+    private static RateLimiter createLimiter(RateLimitAlgorithm algorithm) {
+        return algorithm == RateLimitAlgorithm.SLIDING_WINDOW
+                ? new SlidingWindowRateLimiter(MAX_REQUESTS, WINDOW_SECONDS)
+                : new SlidingWindowCounterRateLimiter(MAX_REQUESTS, WINDOW_SECONDS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SlidingWindowRateLimiterBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,76 @@
+package com.eraf.gateway.ratelimit.advanced.benchmark;
+
+import com.eraf.gateway.ratelimit.advanced.algorithm.CachedNanoClock;
+import com.eraf.gateway.ratelimit.advanced.algorithm.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * GCRA Token Bucket의 요청당 판정 비용
+ * 시간 소스 (요청마다 System.nanoTime() / 1ms 캐시 시계)와 키 수 (단일 키 경합 / 키 100,000개)를 비교합니다.
+ * 한도는 측정 중 대부분의 요청이 허용되도록 크게 잡아 CAS 갱신 경로를 측정합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TokenBucketRateLimiterBenchmark {
+
+    private static final int CAPACITY = 1_000_000_000;
+    private static final double REFILL_RATE = 1_000_000_000.0;
+
+    @Param({"nanoTime", "cached"})
+    private String clock;
+
+    @Param({"1", "100000"})
+    private int keyCount;
+
+    private CachedNanoClock cachedNanoClock;
+    private TokenBucketRateLimiter limiter;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LongSupplier nanoClock = System::nanoTime;
+        if ("cached".equals(clock)) {
+            cachedNanoClock = new CachedNanoClock(1);
+            nanoClock = cachedNanoClock;
+        }
+        limiter = new TokenBucketRateLimiter(CAPACITY, REFILL_RATE, 60, nanoClock);
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "rule-1:IP:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (cachedNanoClock != null) {
+            cachedNanoClock.shutdown();
+        }
+    }
+
+    @Benchmark
+    public boolean allowRequest() {
+        String key = keys[keyCount == 1 ? 0 : ThreadLocalRandom.current().nextInt(keyCount)];
+        return limiter.allowRequest(key);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenBucketRateLimiterBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,246 @@
+package com.eraf.gateway.ratelimit.advanced.repository;
+
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitAlgorithm;
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitCheck;
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitCheckResult;
+import com.eraf.gateway.ratelimit.advanced.domain.ResetProgress;
+import com.eraf.gateway.ratelimit.advanced.domain.TokenLease;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lua 스크립트를 실제 Redis에서 실행하는 테스트 (Docker가 없으면 건너뜀)
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisRateLimitRepositoryTest {
+
+    private static final String RULE = "rule-1";
+    private static final String CLIENT = RULE + ":IP:{10.0.0.1}";
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private RedisRateLimitRepository repository;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        repository = new RedisRateLimitRepository(redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    void testFixedWindowReturnsRemainingAndReset() {
+        RateLimitCheck check = fixedWindow(CLIENT, 3);
+
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            RateLimitCheckResult result = repository.evaluate(List.of(check)).get(0);
+            assertTrue(result.isAllowed());
+            assertEquals(remaining, result.getRemaining());
+            assertTrue(result.getResetMillis() > 0 && result.getResetMillis() <= 60_000, "reset " + result.getResetMillis());
+        }
+
+        RateLimitCheckResult denied = repository.evaluate(List.of(check)).get(0);
+        assertFalse(denied.isAllowed());
+        assertEquals(0, denied.getRemaining());
+        assertTrue(denied.getRetryAfterMillis() > 0);
+    }
+
+    @Test
+    void testRequestIsConsumedOnlyWhenAllLimitsAllow() {
+        RateLimitCheck strict = fixedWindow(CLIENT + ":custom:2", 2);
+        RateLimitCheck loose = tokenBucket(CLIENT, 10);
+
+        assertTrue(allAllowed(repository.evaluate(List.of(strict, loose))));
+        assertTrue(allAllowed(repository.evaluate(List.of(strict, loose))));
+
+        List<RateLimitCheckResult> denied = repository.evaluate(List.of(strict, loose));
+        assertFalse(denied.get(0).isAllowed());
+        assertTrue(denied.get(1).isAllowed());
+
+        // 거부된 요청은 다른 제한도 소비하지 않음
+        assertEquals(8, repository.inspect(List.of(loose)).get(0).getRemaining());
+    }
+
+    @Test
+    void testInspectDoesNotConsume() {
+        RateLimitCheck fixed = fixedWindow(CLIENT, 5);
+        RateLimitCheck sliding = check(CLIENT, RateLimitAlgorithm.SLIDING_WINDOW, 5, 5, 0);
+        RateLimitCheck counter = check(CLIENT, RateLimitAlgorithm.SLIDING_WINDOW_COUNTER, 5, 5, 0);
+        List<RateLimitCheck> checks = List.of(fixed, sliding, counter);
+
+        repository.evaluate(checks);
+        for (int i = 0; i < 3; i++) {
+            List<RateLimitCheckResult> results = repository.inspect(checks);
+            assertTrue(allAllowed(results));
+            results.forEach(result -> assertEquals(4, result.getRemaining()));
+        }
+        repository.evaluate(checks).forEach(result -> assertEquals(3, result.getRemaining()));
+    }
+
+    @Test
+    void testSlidingWindowDeniesAtLimit() {
+        RateLimitCheck check = check(CLIENT, RateLimitAlgorithm.SLIDING_WINDOW, 2, 2, 0);
+
+        assertTrue(repository.evaluate(List.of(check)).get(0).isAllowed());
+        assertTrue(repository.evaluate(List.of(check)).get(0).isAllowed());
+
+        RateLimitCheckResult denied = repository.evaluate(List.of(check)).get(0);
+        assertFalse(denied.isAllowed());
+        // 가장 오래된 요청이 윈도우를 벗어날 때까지
+        assertTrue(denied.getRetryAfterMillis() > 0 && denied.getRetryAfterMillis() <= 60_000);
+    }
+
+    @Test
+    void testTokenBucketLeaseGrantsUpToRemainingTokens() {
+        TokenLease first = repository.leaseTokenBucket(RULE, CLIENT, 10, 0.001, 6, 1000);
+        assertEquals(6, first.getGranted());
+
+        TokenLease second = repository.leaseTokenBucket(RULE, CLIENT, 10, 0.001, 6, 1000);
+        assertEquals(4, second.getGranted());
+
+        TokenLease denied = repository.leaseTokenBucket(RULE, CLIENT, 10, 0.001, 6, 1000);
+        assertFalse(denied.isGranted());
+        assertTrue(denied.getValidMillis() > 0);
+
+        // 요청당 평가와 같은 버킷
+        assertFalse(repository.evaluate(List.of(tokenBucket(CLIENT, 10))).get(0).isAllowed());
+    }
+
+    @Test
+    void testFixedWindowLeaseSharesCounterWithEvaluate() {
+        TokenLease lease = repository.leaseFixedWindow(RULE, CLIENT, 5, 60, 3);
+        assertEquals(3, lease.getGranted());
+        assertTrue(lease.getValidMillis() > 0 && lease.getValidMillis() <= 60_000);
+
+        RateLimitCheckResult result = repository.evaluate(List.of(fixedWindow(CLIENT, 5))).get(0);
+        assertTrue(result.isAllowed());
+        assertEquals(1, result.getRemaining());
+
+        assertEquals(1, repository.leaseFixedWindow(RULE, CLIENT, 5, 60, 3).getGranted());
+        assertFalse(repository.leaseFixedWindow(RULE, CLIENT, 5, 60, 3).isGranted());
+    }
+
+    @Test
+    void testResetAllSwitchesGeneration() {
+        RateLimitCheck check = fixedWindow(CLIENT, 1);
+        assertTrue(repository.evaluate(List.of(check)).get(0).isAllowed());
+        assertFalse(repository.evaluate(List.of(check)).get(0).isAllowed());
+
+        repository.resetAll();
+
+        assertTrue(repository.evaluate(List.of(check)).get(0).isAllowed());
+        assertEquals("1", redisTemplate.opsForValue().get("rate-limit:generation"));
+    }
+
+    @Test
+    void testResetRuleOnlyAffectsThatRule() {
+        RateLimitCheck reset = fixedWindow(CLIENT, 1);
+        // 식별자에 ':'가 있고 규칙 ID가 타입 이름과 같아도 다른 규칙의 키는 그대로
+        RateLimitCheck other = check("IP", "IP:IP:{2001:db8::1}", RateLimitAlgorithm.FIXED_WINDOW, 1, 1, 0);
+        assertTrue(repository.evaluate(List.of(reset)).get(0).isAllowed());
+        assertTrue(repository.evaluate(List.of(other)).get(0).isAllowed());
+
+        ResetProgress progress = repository.resetRule(RULE);
+        assertTrue(progress.isDone());
+        assertEquals(1, progress.getGeneration());
+
+        assertTrue(repository.evaluate(List.of(reset)).get(0).isAllowed());
+        assertFalse(repository.evaluate(List.of(other)).get(0).isAllowed());
+
+        // 임대도 새 규칙 세대의 키를 사용
+        assertFalse(repository.leaseFixedWindow(RULE, CLIENT, 1, 60, 1).isGranted());
+        assertEquals(2, repository.resetRule(RULE).getGeneration());
+        assertTrue(repository.leaseFixedWindow(RULE, CLIENT, 1, 60, 1).isGranted());
+    }
+
+    @Test
+    void testRuleGenerationIsSharedBetweenNodes() {
+        RedisRateLimitRepository otherNode = new RedisRateLimitRepository(redisTemplate);
+        try {
+            RateLimitCheck check = fixedWindow(CLIENT, 1);
+            assertTrue(otherNode.evaluate(List.of(check)).get(0).isAllowed());
+            assertFalse(repository.evaluate(List.of(check)).get(0).isAllowed());
+
+            repository.resetRule(RULE);
+
+            // 처음 만든 노드는 첫 조회에서 세대를 읽음 (이후에는 갱신 주기마다)
+            RedisRateLimitRepository newNode = new RedisRateLimitRepository(redisTemplate);
+            try {
+                assertTrue(newNode.evaluate(List.of(check)).get(0).isAllowed());
+                assertFalse(repository.evaluate(List.of(check)).get(0).isAllowed());
+            } finally {
+                newNode.shutdown();
+            }
+        } finally {
+            otherNode.shutdown();
+        }
+    }
+
+    private static boolean allAllowed(List<RateLimitCheckResult> results) {
+        return results.stream().allMatch(RateLimitCheckResult::isAllowed);
+    }
+
+    private static RateLimitCheck fixedWindow(String key, int maxRequests) {
+        return check(key, RateLimitAlgorithm.FIXED_WINDOW, maxRequests, maxRequests, 0);
+    }
+
+    private static RateLimitCheck tokenBucket(String key, int capacity) {
+        return check(key, RateLimitAlgorithm.TOKEN_BUCKET, capacity, capacity, 0.001);
+    }
+
+    private static RateLimitCheck check(String key, RateLimitAlgorithm algorithm, int maxRequests, int burstSize,
+                                        double refillRate) {
+        return check(RULE, key, algorithm, maxRequests, burstSize, refillRate);
+    }
+
+    private static RateLimitCheck check(String ruleId, String key, RateLimitAlgorithm algorithm, int maxRequests,
+                                        int burstSize, double refillRate) {
+        return RateLimitCheck.builder()
+                .ruleId(ruleId)
+                .key(key)
+                .algorithm(algorithm)
+                .maxRequests(maxRequests)
+                .burstSize(burstSize)
+                .refillRate(refillRate)
+                .windowSeconds(60)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.eraf.gateway.ratelimit.advanced.service;
+
+import com.eraf.gateway.ratelimit.advanced.domain.AdvancedRateLimitRule;
+import com.eraf.gateway.ratelimit.advanced.domain.RateLimitAlgorithm;
+import com.eraf.gateway.ratelimit.domain.RateLimitRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdvancedRateLimitServiceTest {
+
+    private static final String PATH = "/api/orders";
+    private static final String CLIENT_IP = "10.0.0.1";
+
+    @Test
+    void testConsumerLimitReplacesDefaultLimit() {
+        AdvancedRateLimitRule.ConsumerLimit consumerLimit = AdvancedRateLimitRule.ConsumerLimit.builder()
+                .consumerId("key-1")
+                .maxRequests(4)
+                .burstSize(4)
+                .build();
+        AdvancedRateLimitService service = service(rule(2, Map.of("key-1", consumerLimit), Map.of()));
+        Map<String, String> consumer = Map.of("X-API-Key", "key-1");
+
+        // Consumer 한도가 기본 한도보다 커도 Consumer 한도만 적용
+        for (int remaining = 3; remaining >= 0; remaining--) {
+            AdvancedRateLimitService.RateLimitDecision decision = acquire(service, consumer);
+            assertTrue(decision.isAllowed());
+            assertEquals(4, decision.getLimit());
+            assertEquals(remaining, decision.getRemaining());
+        }
+        assertFalse(acquire(service, consumer).isAllowed());
+
+        // Consumer 요청은 기본 한도를 소비하지 않음
+        assertTrue(acquire(service, Map.of()).isAllowed());
+        assertTrue(acquire(service, Map.of()).isAllowed());
+        assertFalse(acquire(service, Map.of()).isAllowed());
+    }
+
+    @Test
+    void testHeaderBasedLimitReplacesDefaultLimit() {
+        AdvancedRateLimitService service = service(rule(2, Map.of(), Map.of("Googlebot", 5)));
+        Map<String, String> bot = Map.of("User-Agent", "Googlebot");
+
+        AdvancedRateLimitService.RateLimitDecision first = acquire(service, bot);
+        assertEquals(5, first.getLimit());
+        assertEquals(4, first.getRemaining());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(acquire(service, bot).isAllowed());
+        }
+        assertFalse(acquire(service, bot).isAllowed());
+
+        AdvancedRateLimitService.RateLimitDecision plain = acquire(service, Map.of());
+        assertEquals(2, plain.getLimit());
+        assertEquals(1, plain.getRemaining());
+    }
+
+    @Test
+    void testConsumerLimitTakesPrecedenceOverHeaderLimit() {
+        AdvancedRateLimitRule.ConsumerLimit consumerLimit = AdvancedRateLimitRule.ConsumerLimit.builder()
+                .consumerId("key-1")
+                .maxRequests(7)
+                .burstSize(7)
+                .build();
+        AdvancedRateLimitService service = service(rule(2, Map.of("key-1", consumerLimit), Map.of("curl/8.0", 3)));
+
+        assertEquals(7, acquire(service, Map.of("X-API-Key", "key-1", "User-Agent", "curl/8.0")).getLimit());
+    }
+
+    @Test
+    void testRateLimitInfoDoesNotConsume() {
+        AdvancedRateLimitService service = service(rule(5, Map.of(), Map.of()));
+        acquire(service, Map.of());
+
+        for (int i = 0; i < 3; i++) {
+            AdvancedRateLimitService.RateLimitInfo info =
+                    service.getRateLimitInfo(PATH, CLIENT_IP, RateLimitRule.RateLimitType.IP);
+            assertEquals(5, info.getLimit());
+            assertEquals(4, info.getRemaining());
+        }
+    }
+
+    @Test
+    void testHighestPriorityValidRuleApplies() {
+        AdvancedRateLimitRule broad = rule("broad", "/api/**", 10, 2, true);
+        AdvancedRateLimitRule disabled = rule("disabled", "/api/orders", 1, 0, false);
+        AdvancedRateLimitRule orders = rule("orders", "/api/orders", 3, 1, true);
+        AdvancedRateLimitService service = new AdvancedRateLimitService(List.of(broad, disabled, orders), null, false);
+
+        // 비활성 규칙은 건너뛰고, 나머지 중 우선순위가 가장 높은 규칙 적용
+        assertEquals(3, acquire(service, Map.of()).getLimit());
+        assertEquals(10, service.tryAcquire("/api/users", CLIENT_IP, RateLimitRule.RateLimitType.IP, Map.of()).getLimit());
+        assertSame(AdvancedRateLimitService.RateLimitDecision.UNLIMITED,
+                service.tryAcquire("/static/app.js", CLIENT_IP, RateLimitRule.RateLimitType.IP, Map.of()));
+    }
+
+    private static AdvancedRateLimitService.RateLimitDecision acquire(AdvancedRateLimitService service,
+                                                                      Map<String, String> headers) {
+        return service.tryAcquire(PATH, CLIENT_IP, RateLimitRule.RateLimitType.IP, headers);
+    }
+
+    private static AdvancedRateLimitService service(AdvancedRateLimitRule rule) {
+        return new AdvancedRateLimitService(List.of(rule), null, false);
+    }
+
+    private static AdvancedRateLimitRule rule(int maxRequests, Map<String, AdvancedRateLimitRule.ConsumerLimit> consumers,
+                                              Map<String, Integer> headerLimits) {
+        return AdvancedRateLimitRule.builder()
+                .id("orders")
+                .pathPattern("/api/**")
+                .type(RateLimitRule.RateLimitType.IP)
+                .algorithm(RateLimitAlgorithm.FIXED_WINDOW)
+                .windowSeconds(60)
+                .maxRequests(maxRequests)
+                .burstSize(maxRequests)
+                .consumerLimits(consumers)
+                .headerBasedLimits(headerLimits)
+                .enabled(true)
+                .build();
+    }
+
+    private static AdvancedRateLimitRule rule(String id, String pathPattern, int maxRequests, int priority,
+                                              boolean enabled) {
+        return AdvancedRateLimitRule.builder()
+                .id(id)
+                .pathPattern(pathPattern)
+                .type(RateLimitRule.RateLimitType.IP)
+                .algorithm(RateLimitAlgorithm.FIXED_WINDOW)
+                .windowSeconds(60)
+                .maxRequests(maxRequests)
+                .burstSize(maxRequests)
+                .priority(priority)
+                .enabled(enabled)
+                .build();
+    }
+}
@@ -44,9 +44,10 @@ public class RateLimitAutoConfiguration {
     @ConditionalOnMissingBean
     public RateLimitService rateLimitService(
             RateLimitRuleRepository ruleRepository,
-            RateLimitRecordRepository recordRepository) {
+            RateLimitRecordRepository recordRepository,
+            RateLimitProperties properties) {
         log.info("Initializing RateLimitService");
-        return new RateLimitService(ruleRepository, recordRepository);
+        return new RateLimitService(ruleRepository, recordRepository, properties.getRuleRefreshSeconds());
     }
 
     @Bean
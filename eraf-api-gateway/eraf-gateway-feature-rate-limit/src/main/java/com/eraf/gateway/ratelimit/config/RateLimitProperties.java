@@ -28,6 +28,12 @@ public class RateLimitProperties {
      */
     private int defaultWindowSeconds = 60;
 
+    /**
+     * 규칙 스냅샷 갱신 주기 (초, 0이면 규칙 변경 시에만 갱신)
+     * 저장소(JPA 등)를 직접 변경한 경우 이 주기 내에 반영됩니다.
+     */
+    private int ruleRefreshSeconds = 30;
+
     /**
      * 제외 패턴
      */
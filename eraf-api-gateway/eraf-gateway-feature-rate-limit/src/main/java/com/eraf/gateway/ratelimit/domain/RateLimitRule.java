@@ -17,6 +17,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class RateLimitRule {
 
+    /**
+     * 공유 경로 매처 (스레드 안전, 패턴 캐시 사용)
+     */
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
     private String id;
 
     /**
@@ -107,7 +112,6 @@ public class RateLimitRule {
      * 특정 경로가 이 규칙의 적용 대상인지 확인
      */
     public boolean matchesPath(String path) {
-        AntPathMatcher pathMatcher = new AntPathMatcher();
-        return pathMatcher.match(pathPattern, path);
+        return PATH_MATCHER.match(pathPattern, path);
     }
 }
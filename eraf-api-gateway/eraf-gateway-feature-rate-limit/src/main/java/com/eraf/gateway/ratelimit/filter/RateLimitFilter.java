@@ -5,7 +5,6 @@ import com.eraf.gateway.common.exception.GatewayErrorCode;
 import com.eraf.gateway.common.filter.GatewayFilter;
 import com.eraf.gateway.common.util.GatewayResponseUtils;
 import com.eraf.gateway.ratelimit.domain.RateLimitRule;
-import com.eraf.gateway.ratelimit.exception.RateLimitExceededException;
 import com.eraf.gateway.ratelimit.service.RateLimitService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -32,6 +31,14 @@ public class RateLimitFilter extends GatewayFilter {
         return enabled;
     }
 
+    /**
+     * 캐시 갱신 같은 내부 요청은 클라이언트 요청 수에 넣지 않음
+     */
+    @Override
+    protected boolean skipsInternalRequests() {
+        return true;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
@@ -40,30 +47,28 @@ public class RateLimitFilter extends GatewayFilter {
         String path = request.getRequestURI();
         String clientIp = HttpUtils.getClientIp(request);
 
-        try {
-            // IP 기반 Rate Limit 체크
-            rateLimitService.checkRateLimit(path, clientIp, RateLimitRule.RateLimitType.IP);
-
-            // Rate Limit 정보를 응답 헤더에 추가
-            RateLimitService.RateLimitInfo info = rateLimitService.getRateLimitInfo(
-                    path, clientIp, RateLimitRule.RateLimitType.IP);
-
-            if (info != null) {
-                httpResponse.setHeader("X-RateLimit-Limit", String.valueOf(info.getLimit()));
-                httpResponse.setHeader("X-RateLimit-Remaining", String.valueOf(info.getRemaining()));
-                httpResponse.setHeader("X-RateLimit-Reset", String.valueOf(info.getResetTimeSeconds()));
-            }
+        // IP 기반 Rate Limit 판정 (판정과 헤더 정보를 한 번에 조회)
+        RateLimitService.RateLimitDecision decision = rateLimitService.tryAcquire(
+                path, clientIp, RateLimitRule.RateLimitType.IP);
 
-            chain.doFilter(request, response);
-
-        } catch (RateLimitExceededException e) {
+        if (!decision.isAllowed()) {
             log.warn("Rate limit exceeded for IP: {} on path: {}", clientIp, path);
 
-            httpResponse.setHeader("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
-            httpResponse.setHeader("X-RateLimit-Limit", String.valueOf(e.getLimit()));
+            httpResponse.setHeader("Retry-After", String.valueOf(decision.getResetTimeSeconds()));
+            httpResponse.setHeader("X-RateLimit-Limit", String.valueOf(decision.getLimit()));
             httpResponse.setHeader("X-RateLimit-Remaining", "0");
 
             GatewayResponseUtils.sendError(httpResponse, GatewayErrorCode.RATE_LIMIT_EXCEEDED);
+            return;
+        }
+
+        // Rate Limit 정보를 응답 헤더에 추가
+        if (decision.isLimited()) {
+            httpResponse.setHeader("X-RateLimit-Limit", String.valueOf(decision.getLimit()));
+            httpResponse.setHeader("X-RateLimit-Remaining", String.valueOf(decision.getRemaining()));
+            httpResponse.setHeader("X-RateLimit-Reset", String.valueOf(decision.getResetTimeSeconds()));
         }
+
+        chain.doFilter(request, response);
     }
 }
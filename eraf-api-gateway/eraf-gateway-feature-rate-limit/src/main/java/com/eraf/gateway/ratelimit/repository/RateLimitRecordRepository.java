@@ -40,6 +40,18 @@ public interface RateLimitRecordRepository {
      */
     boolean incrementAndCheck(String key, int windowSeconds, int maxRequests);
 
+    /**
+     * 요청 수 증가 후 현재 윈도우의 요청 수 반환 (atomic operation)
+     * 기본 구현은 incrementAndCheck 후 요청 수를 다시 조회하며, 구현체는 한 번에 처리하도록 재정의할 수 있습니다.
+     * @param key 식별 키
+     * @param windowSeconds 윈도우 크기 (초)
+     * @param maxRequests 최대 요청 수
+     * @return 증가 후 요청 수, 제한에 걸리면 -1
+     */
+    default int incrementAndGet(String key, int windowSeconds, int maxRequests) {
+        return incrementAndCheck(key, windowSeconds, maxRequests) ? getCurrentCount(key) : -1;
+    }
+
     /**
      * 현재 요청 수 조회
      */
@@ -1,91 +1,169 @@
 package com.eraf.gateway.ratelimit.service;
 
+import com.eraf.gateway.common.path.PathPatternIndex;
 import com.eraf.gateway.ratelimit.domain.RateLimitRecord;
 import com.eraf.gateway.ratelimit.domain.RateLimitRule;
 import com.eraf.gateway.ratelimit.exception.RateLimitExceededException;
 import com.eraf.gateway.ratelimit.repository.RateLimitRecordRepository;
 import com.eraf.gateway.ratelimit.repository.RateLimitRuleRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Rate Limiting 서비스
+ *
+ * 활성화된 규칙은 타입별 경로 패턴 인덱스로 컴파일한 스냅샷으로 메모리에 유지합니다.
+ * 이 서비스를 통한 규칙 변경 시 즉시 다시 읽고, 저장소가 직접 변경되는 경우를 위해
+ * {@code ruleRefreshSeconds}마다 다시 읽습니다 (요청 스레드 하나가 갱신하고 나머지는 기존 스냅샷 사용, 0이면 주기적 갱신 안 함).
  */
 @Slf4j
-@RequiredArgsConstructor
 public class RateLimitService {
 
+    /**
+     * 기본 규칙 스냅샷 갱신 주기 (초)
+     */
+    public static final int DEFAULT_RULE_REFRESH_SECONDS = 30;
+
     private final RateLimitRuleRepository ruleRepository;
     private final RateLimitRecordRepository recordRepository;
+    private final long ruleRefreshNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile RuleSnapshot ruleSnapshot;
+
+    public RateLimitService(RateLimitRuleRepository ruleRepository, RateLimitRecordRepository recordRepository) {
+        this(ruleRepository, recordRepository, DEFAULT_RULE_REFRESH_SECONDS);
+    }
+
+    public RateLimitService(RateLimitRuleRepository ruleRepository, RateLimitRecordRepository recordRepository,
+                            int ruleRefreshSeconds) {
+        this.ruleRepository = ruleRepository;
+        this.recordRepository = recordRepository;
+        this.ruleRefreshNanos = TimeUnit.SECONDS.toNanos(Math.max(0, ruleRefreshSeconds));
+    }
 
     /**
-     * 요청에 대한 Rate Limit 체크
+     * 요청에 대한 Rate Limit 판정 (한 번의 규칙 조회로 판정과 헤더 정보를 함께 반환)
+     * 경로에 매칭되는 모든 규칙을 우선순위 순으로 적용하며, 하나라도 초과하면 거부합니다.
+     * 허용된 경우 남은 요청 수가 가장 적은 규칙의 정보를 반환합니다.
+     *
      * @param path 요청 경로
      * @param identifier 식별자 (IP, API Key, User ID 등)
      * @param type Rate Limit 타입
-     * @throws RateLimitExceededException Rate Limit 초과 시
+     * @return 판정 결과 (매칭되는 규칙이 없으면 {@link RateLimitDecision#UNLIMITED})
      */
-    public void checkRateLimit(String path, String identifier, RateLimitRule.RateLimitType type) {
-        List<RateLimitRule> rules = ruleRepository.findEnabledByType(type);
+    public RateLimitDecision tryAcquire(String path, String identifier, RateLimitRule.RateLimitType type) {
+        List<RateLimitRule> rules = getRuleSnapshot().match(type, path);
+        if (rules.isEmpty()) {
+            return RateLimitDecision.UNLIMITED;
+        }
+
+        RateLimitRule reportRule = null;
+        int reportRemaining = Integer.MAX_VALUE;
+        String reportKey = null;
 
         for (RateLimitRule rule : rules) {
-            if (rule.matchesPath(path)) {
-                String key = RateLimitRecord.generateKey(rule.getId(), identifier);
-
-                boolean allowed = recordRepository.incrementAndCheck(
-                        key,
-                        rule.getWindowSeconds(),
-                        rule.getMaxRequests()
-                );
-
-                if (!allowed) {
-                    long retryAfter = recordRepository.getResetTimeSeconds(key, rule.getWindowSeconds());
-                    log.warn("Rate limit exceeded for key: {}, rule: {}", key, rule.getName());
-                    throw new RateLimitExceededException((int) retryAfter, rule.getMaxRequests());
-                }
+            String key = RateLimitRecord.generateKey(rule.getId(), identifier);
+            int count = recordRepository.incrementAndGet(key, rule.getWindowSeconds(), rule.getMaxRequests());
+
+            if (count < 0) {
+                long retryAfter = recordRepository.getResetTimeSeconds(key, rule.getWindowSeconds());
+                log.warn("Rate limit exceeded for key: {}, rule: {}", key, rule.getName());
+                return RateLimitDecision.builder()
+                        .allowed(false)
+                        .limit(rule.getMaxRequests())
+                        .remaining(0)
+                        .resetTimeSeconds(retryAfter)
+                        .windowSeconds(rule.getWindowSeconds())
+                        .build();
             }
+
+            int remaining = Math.max(0, rule.getMaxRequests() - count);
+            if (remaining < reportRemaining) {
+                reportRule = rule;
+                reportRemaining = remaining;
+                reportKey = key;
+            }
+        }
+
+        return RateLimitDecision.builder()
+                .allowed(true)
+                .limit(reportRule.getMaxRequests())
+                .remaining(reportRemaining)
+                .resetTimeSeconds(recordRepository.getResetTimeSeconds(reportKey, reportRule.getWindowSeconds()))
+                .windowSeconds(reportRule.getWindowSeconds())
+                .build();
+    }
+
+    /**
+     * 요청에 대한 Rate Limit 체크
+     * @param path 요청 경로
+     * @param identifier 식별자 (IP, API Key, User ID 등)
+     * @param type Rate Limit 타입
+     * @throws RateLimitExceededException Rate Limit 초과 시
+     */
+    public void checkRateLimit(String path, String identifier, RateLimitRule.RateLimitType type) {
+        RateLimitDecision decision = tryAcquire(path, identifier, type);
+        if (!decision.isAllowed()) {
+            throw new RateLimitExceededException((int) decision.getResetTimeSeconds(), decision.getLimit());
         }
     }
 
     /**
-     * 특정 식별자의 Rate Limit 정보 조회
+     * 특정 식별자의 Rate Limit 정보 조회 (요청 수를 증가시키지 않음)
      */
     public RateLimitInfo getRateLimitInfo(String path, String identifier, RateLimitRule.RateLimitType type) {
-        List<RateLimitRule> rules = ruleRepository.findEnabledByType(type);
-
-        for (RateLimitRule rule : rules) {
-            if (rule.matchesPath(path)) {
-                String key = RateLimitRecord.generateKey(rule.getId(), identifier);
-                int remaining = recordRepository.getRemainingRequests(key, rule.getMaxRequests());
-                long resetTime = recordRepository.getResetTimeSeconds(key, rule.getWindowSeconds());
+        for (RateLimitRule rule : getRuleSnapshot().match(type, path)) {
+            String key = RateLimitRecord.generateKey(rule.getId(), identifier);
+            int remaining = recordRepository.getRemainingRequests(key, rule.getMaxRequests());
+            long resetTime = recordRepository.getResetTimeSeconds(key, rule.getWindowSeconds());
 
-                return RateLimitInfo.builder()
-                        .limit(rule.getMaxRequests())
-                        .remaining(remaining)
-                        .resetTimeSeconds(resetTime)
-                        .windowSeconds(rule.getWindowSeconds())
-                        .build();
-            }
+            return RateLimitInfo.builder()
+                    .limit(rule.getMaxRequests())
+                    .remaining(remaining)
+                    .resetTimeSeconds(resetTime)
+                    .windowSeconds(rule.getWindowSeconds())
+                    .build();
         }
 
         return null;
     }
 
+    /**
+     * 규칙 스냅샷을 저장소에서 다시 읽음
+     * 저장소를 직접 변경한 경우 호출하면 다음 갱신 주기를 기다리지 않고 반영됩니다.
+     */
+    public void refreshRules() {
+        refreshLock.lock();
+        try {
+            ruleSnapshot = RuleSnapshot.load(ruleRepository);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
     /**
      * Rate Limit 규칙 생성
      */
     public RateLimitRule createRule(RateLimitRule rule) {
-        return ruleRepository.save(rule);
+        RateLimitRule saved = ruleRepository.save(rule);
+        refreshRules();
+        return saved;
     }
 
     /**
      * Rate Limit 규칙 수정
      */
     public RateLimitRule updateRule(RateLimitRule rule) {
-        return ruleRepository.save(rule);
+        RateLimitRule saved = ruleRepository.save(rule);
+        refreshRules();
+        return saved;
     }
 
     /**
@@ -93,6 +171,7 @@ public class RateLimitService {
      */
     public void deleteRule(String ruleId) {
         ruleRepository.deleteById(ruleId);
+        refreshRules();
     }
 
     /**
@@ -109,6 +188,104 @@ public class RateLimitService {
         return ruleRepository.findById(ruleId);
     }
 
+    /**
+     * 현재 규칙 스냅샷 (갱신 주기가 지났으면 한 스레드만 다시 읽고, 나머지는 기존 스냅샷 사용)
+     */
+    private RuleSnapshot getRuleSnapshot() {
+        RuleSnapshot current = ruleSnapshot;
+        if (current == null) {
+            refreshLock.lock();
+        } else if (!isStale(current) || !refreshLock.tryLock()) {
+            return current;
+        }
+
+        try {
+            if (ruleSnapshot == current) {
+                ruleSnapshot = RuleSnapshot.load(ruleRepository);
+            }
+            return ruleSnapshot;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean isStale(RuleSnapshot snapshot) {
+        return ruleRefreshNanos > 0 && System.nanoTime() - snapshot.loadedAt >= ruleRefreshNanos;
+    }
+
+    /**
+     * 활성화된 규칙 스냅샷 (타입별 경로 패턴 인덱스, 우선순위 순)
+     */
+    private static final class RuleSnapshot {
+        private final Map<RateLimitRule.RateLimitType, PathPatternIndex<RateLimitRule>> rulesByType;
+        private final long loadedAt;
+
+        private RuleSnapshot(Map<RateLimitRule.RateLimitType, PathPatternIndex<RateLimitRule>> rulesByType) {
+            this.rulesByType = rulesByType;
+            this.loadedAt = System.nanoTime();
+        }
+
+        static RuleSnapshot load(RateLimitRuleRepository ruleRepository) {
+            Map<RateLimitRule.RateLimitType, PathPatternIndex.Builder<RateLimitRule>> builders =
+                    new EnumMap<>(RateLimitRule.RateLimitType.class);
+            for (RateLimitRule rule : ruleRepository.findAllEnabledOrderByPriority()) {
+                if (rule.getType() == null) {
+                    continue;
+                }
+                // 경로 패턴이 없는 규칙은 어떤 요청에도 매칭되지 않음 (기존 matchesPath 동작 유지)
+                String pattern = rule.getPathPattern();
+                if (pattern == null || pattern.isEmpty()) {
+                    log.warn("Rate limit rule {} has no path pattern and is ignored", rule.getId());
+                    continue;
+                }
+                builders.computeIfAbsent(rule.getType(), type -> PathPatternIndex.builder()).add(pattern, rule);
+            }
+
+            Map<RateLimitRule.RateLimitType, PathPatternIndex<RateLimitRule>> rulesByType =
+                    new EnumMap<>(RateLimitRule.RateLimitType.class);
+            builders.forEach((type, builder) -> rulesByType.put(type, builder.build()));
+            return new RuleSnapshot(rulesByType);
+        }
+
+        List<RateLimitRule> match(RateLimitRule.RateLimitType type, String path) {
+            PathPatternIndex<RateLimitRule> index = rulesByType.get(type);
+            return index != null ? index.match(path) : Collections.emptyList();
+        }
+    }
+
+    /**
+     * Rate Limit 판정 결과
+     */
+    @lombok.Builder
+    @lombok.Getter
+    public static class RateLimitDecision {
+        /**
+         * 매칭되는 규칙이 없어 제한하지 않음
+         */
+        public static final RateLimitDecision UNLIMITED = RateLimitDecision.builder()
+                .allowed(true)
+                .limit(-1)
+                .remaining(-1)
+                .build();
+
+        private final boolean allowed;
+        private final int limit;
+        private final int remaining;
+
+        /**
+         * 윈도우 리셋까지 남은 시간 (초), 거부 시 Retry-After 값
+         */
+        private final long resetTimeSeconds;
+        private final int windowSeconds;
+
+        /**
+         * 적용된 규칙이 있는지 여부 (헤더 출력 여부)
+         */
+        public boolean isLimited() {
+            return limit >= 0;
+        }
+    }
+
     /**
      * Rate Limit 정보 DTO
      */
@@ -0,0 +1,63 @@
+package com.eraf.gateway.ratelimit.benchmark;
+
+import com.eraf.gateway.ratelimit.repository.InMemoryRateLimitRecordRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 64개 스레드가 동시에 {@link InMemoryRateLimitRecordRepository#incrementAndCheck}를 호출할 때의 처리량
+ * 키 1개 (모든 스레드가 같은 카운터에 경합)와 키 100,000개 (경합이 거의 없는 경우)를 비교합니다.
+ * 한도는 윈도우 내 요청 대부분이 허용되도록 크게 잡아 CAS 갱신 경로를 측정합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class RateLimitRecordContentionBenchmark {
+
+    private static final int WINDOW_SECONDS = 1;
+    private static final int MAX_REQUESTS = 8_000_000;
+
+    @Param({"1", "100000"})
+    private int keyCount;
+
+    private InMemoryRateLimitRecordRepository repository;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryRateLimitRecordRepository();
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "rule-1:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Benchmark
+    public boolean incrementAndCheck() {
+        String key = keys[keyCount == 1 ? 0 : ThreadLocalRandom.current().nextInt(keyCount)];
+        return repository.incrementAndCheck(key, WINDOW_SECONDS, MAX_REQUESTS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RateLimitRecordContentionBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.eraf.gateway.ratelimit.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRateLimitRecordRepositoryTest {
+
+    private final AtomicLong time = new AtomicLong(1_700_000_000_000L);
+    private final InMemoryRateLimitRecordRepository repository = new InMemoryRateLimitRecordRepository(time::get);
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    void testConcurrentIncrementsAdmitExactlyMaxRequests() throws Exception {
+        int threads = 64;
+        int attemptsPerThread = 1000;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (repository.incrementAndCheck("rule:client", 60, 5000)) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5000, allowed.get());
+        assertEquals(5000, repository.getCurrentCount("rule:client"));
+        assertEquals(0, repository.getRemainingRequests("rule:client", 5000));
+    }
+
+    @Test
+    void testWindowResetsAfterExpiry() {
+        assertTrue(repository.incrementAndCheck("key", 10, 2));
+        assertTrue(repository.incrementAndCheck("key", 10, 2));
+        assertFalse(repository.incrementAndCheck("key", 10, 2));
+        assertEquals(10, repository.getResetTimeSeconds("key", 10));
+
+        time.addAndGet(4_000);
+        assertEquals(6, repository.getResetTimeSeconds("key", 10));
+
+        time.addAndGet(6_001);
+        assertTrue(repository.incrementAndCheck("key", 10, 2));
+        assertEquals(1, repository.getCurrentCount("key"));
+    }
+
+    @Test
+    void testExpiredRecordsRemovedByTimerWheel() {
+        for (int i = 0; i < 100; i++) {
+            repository.incrementAndCheck("short:" + i, 1, 10);
+            repository.incrementAndCheck("long:" + i, 3600, 10);
+        }
+        assertEquals(200, repository.count());
+
+        time.addAndGet(2_000);
+        repository.cleanupExpired();
+        assertEquals(100, repository.count());
+        assertEquals(0, repository.getCurrentCount("short:0"));
+        assertEquals(1, repository.getCurrentCount("long:0"));
+
+        // 윈도우 크기가 휠 한 바퀴보다 길어도 만료 시각에 정리
+        time.addAndGet(TimeUnit.HOURS.toMillis(1));
+        repository.cleanupExpired();
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void testRenewedWindowIsNotExpiredByOldSchedule() {
+        assertTrue(repository.incrementAndCheck("key", 1, 10));
+
+        time.addAndGet(1_500);
+        assertTrue(repository.incrementAndCheck("key", 1, 10));
+
+        // 첫 윈도우의 만료 시각은 지났지만 두 번째 윈도우는 아직 유효
+        time.addAndGet(600);
+        repository.cleanupExpired();
+        assertEquals(1, repository.getCurrentCount("key"));
+
+        time.addAndGet(1_000);
+        repository.cleanupExpired();
+        assertEquals(0, repository.count());
+    }
+}
@@ -0,0 +1,101 @@
+package com.eraf.gateway.ratelimit.service;
+
+import com.eraf.gateway.ratelimit.domain.RateLimitRule;
+import com.eraf.gateway.ratelimit.repository.InMemoryRateLimitRecordRepository;
+import com.eraf.gateway.ratelimit.repository.InMemoryRateLimitRuleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitServiceTest {
+
+    private final InMemoryRateLimitRuleRepository ruleRepository = spy(new InMemoryRateLimitRuleRepository());
+    private final InMemoryRateLimitRecordRepository recordRepository = new InMemoryRateLimitRecordRepository();
+    private final RateLimitService rateLimitService = new RateLimitService(ruleRepository, recordRepository);
+
+    @AfterEach
+    void tearDown() {
+        recordRepository.shutdown();
+    }
+
+    @Test
+    void testTryAcquireReportsMostRestrictiveRule() {
+        ruleRepository.save(rule("api", "/api/**", 10, 60, 1));
+        ruleRepository.save(rule("orders", "/api/orders/*", 3, 10, 2));
+
+        RateLimitService.RateLimitDecision decision =
+                rateLimitService.tryAcquire("/api/orders/1", "10.0.0.1", RateLimitRule.RateLimitType.IP);
+
+        assertTrue(decision.isAllowed());
+        assertTrue(decision.isLimited());
+        assertEquals(3, decision.getLimit());
+        assertEquals(2, decision.getRemaining());
+        assertEquals(10, decision.getWindowSeconds());
+    }
+
+    @Test
+    void testTryAcquireDeniesWhenAnyRuleExceeded() {
+        ruleRepository.save(rule("api", "/api/**", 10, 60, 1));
+        ruleRepository.save(rule("orders", "/api/orders/*", 2, 10, 2));
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(rateLimitService.tryAcquire("/api/orders/1", "10.0.0.1", RateLimitRule.RateLimitType.IP).isAllowed());
+        }
+        RateLimitService.RateLimitDecision denied =
+                rateLimitService.tryAcquire("/api/orders/1", "10.0.0.1", RateLimitRule.RateLimitType.IP);
+
+        assertFalse(denied.isAllowed());
+        assertEquals(2, denied.getLimit());
+        assertEquals(0, denied.getRemaining());
+        assertTrue(denied.getResetTimeSeconds() > 0 && denied.getResetTimeSeconds() <= 10);
+
+        // 다른 경로는 더 넓은 규칙만 적용
+        assertTrue(rateLimitService.tryAcquire("/api/users", "10.0.0.1", RateLimitRule.RateLimitType.IP).isAllowed());
+    }
+
+    @Test
+    void testRulesLoadedOnceAndRefreshedOnChange() {
+        ruleRepository.save(rule("api", "/api/**", 10, 60, 1));
+
+        for (int i = 0; i < 5; i++) {
+            rateLimitService.tryAcquire("/api/users", "10.0.0." + i, RateLimitRule.RateLimitType.IP);
+        }
+        verify(ruleRepository, times(1)).findAllEnabledOrderByPriority();
+
+        assertFalse(rateLimitService.tryAcquire("/static/app.js", "10.0.0.1", RateLimitRule.RateLimitType.IP).isLimited());
+        rateLimitService.createRule(rule("static", "/static/**", 100, 60, 3));
+        assertTrue(rateLimitService.tryAcquire("/static/app.js", "10.0.0.1", RateLimitRule.RateLimitType.IP).isLimited());
+    }
+
+    @Test
+    void testNoMatchingRuleIsUnlimited() {
+        ruleRepository.save(rule("api", "/api/**", 10, 60, 1));
+
+        assertSame(RateLimitService.RateLimitDecision.UNLIMITED,
+                rateLimitService.tryAcquire("/api/users", "key-1", RateLimitRule.RateLimitType.API_KEY));
+    }
+
+    @Test
+    void testRuleWithoutPathPatternMatchesNothing() {
+        ruleRepository.save(rule("empty", "", 1, 60, 1));
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(rateLimitService.tryAcquire("/api/users", "10.0.0.1", RateLimitRule.RateLimitType.IP).isLimited());
+        }
+    }
+
+    private static RateLimitRule rule(String id, String pathPattern, int maxRequests, int windowSeconds, int priority) {
+        return RateLimitRule.builder()
+                .id(id)
+                .name(id)
+                .pathPattern(pathPattern)
+                .type(RateLimitRule.RateLimitType.IP)
+                .maxRequests(maxRequests)
+                .windowSeconds(windowSeconds)
+                .enabled(true)
+                .priority(priority)
+                .build();
+    }
+}
@@ -1,6 +1,6 @@
 package com.eraf.gateway.validation.repository;
 
-import org.springframework.util.AntPathMatcher;
+import com.eraf.gateway.common.path.PathPatternIndex;
 import com.eraf.gateway.common.repository.GatewayRepository;
 import com.eraf.gateway.validation.domain.ValidationRule;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +20,11 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ValidationRuleRepository implements GatewayRepository<ValidationRule> {
 
     private final ConcurrentHashMap<String, ValidationRule> rules = new ConcurrentHashMap<>();
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * 경로 패턴으로 컴파일된 규칙 (규칙 변경 시 다시 빌드하여 교체)
+     */
+    private volatile PathPatternIndex<ValidationRule> pathIndex = PathPatternIndex.empty();
 
     /**
      * 경로와 메서드에 매칭되는 검증 규칙 조회
@@ -30,8 +34,8 @@ public class ValidationRuleRepository implements GatewayRepository<ValidationRul
      * @return 매칭되는 검증 규칙 (없으면 빈 Optional)
      */
     public Optional<ValidationRule> findByPathAndMethod(String path, String method) {
-        for (ValidationRule rule : rules.values()) {
-            if (pathMatcher.match(rule.getPathPattern(), path) && rule.matchesMethod(method)) {
+        for (ValidationRule rule : pathIndex.match(path)) {
+            if (rule.matchesMethod(method)) {
                 return Optional.of(rule);
             }
         }
@@ -114,6 +118,7 @@ public class ValidationRuleRepository implements GatewayRepository<ValidationRul
         }
 
         rules.put(rule.getPathPattern(), rule);
+        rebuildPathIndex();
         log.debug("Saved validation rule for path: {}", rule.getPathPattern());
         return rule;
     }
@@ -124,6 +129,7 @@ public class ValidationRuleRepository implements GatewayRepository<ValidationRul
     @Override
     public void delete(String pathPattern) {
         rules.remove(pathPattern);
+        rebuildPathIndex();
         log.debug("Deleted validation rule for path: {}", pathPattern);
     }
 
@@ -133,6 +139,7 @@ public class ValidationRuleRepository implements GatewayRepository<ValidationRul
     @Override
     public void deleteAll() {
         rules.clear();
+        rebuildPathIndex();
         log.debug("Deleted all validation rules");
     }
 
@@ -151,4 +158,14 @@ public class ValidationRuleRepository implements GatewayRepository<ValidationRul
     public long count() {
         return rules.size();
     }
+
+    /**
+     * 현재 규칙으로 경로 인덱스 재구성
+     * 동시에 변경되더라도 마지막 재구성이 최신 규칙을 반영하도록 동기화
+     */
+    private synchronized void rebuildPathIndex() {
+        PathPatternIndex.Builder<ValidationRule> builder = PathPatternIndex.builder();
+        rules.values().forEach(rule -> builder.add(rule.getPathPattern(), rule));
+        pathIndex = builder.build();
+    }
 }
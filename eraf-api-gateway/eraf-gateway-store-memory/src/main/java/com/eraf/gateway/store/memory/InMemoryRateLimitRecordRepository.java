@@ -1,84 +1,170 @@
 package com.eraf.gateway.store.memory;
 
+import com.eraf.gateway.common.util.ExpiryTimerWheel;
 import com.eraf.gateway.domain.RateLimitRecord;
 import com.eraf.gateway.repository.RateLimitRecordRepository;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * In-Memory Rate Limit Record Repository 구현체
- * 슬라이딩 윈도우 알고리즘 사용
+ *
+ * 키마다 윈도우 시작 시각과 요청 수를 하나의 long에 담아두고 CAS로 갱신하므로,
+ * 서로 다른 키의 요청은 경합하지 않고 같은 키의 요청도 락 없이 처리됩니다.
+ * 만료된 윈도우는 타이머 휠로 윈도우 종료 시각에 맞춰 정리합니다 (1초 간격).
  */
+@Slf4j
 public class InMemoryRateLimitRecordRepository implements RateLimitRecordRepository {
 
-    private final Map<String, RateLimitRecord> storage = new ConcurrentHashMap<>();
+    /**
+     * 요청 수 비트 수 (상위 비트는 기준 시각 대비 윈도우 시작 시각, 밀리초)
+     */
+    private static final int COUNT_BITS = 23;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * 저장소에서 제거된 카운터 (갱신 중이던 요청은 새 카운터로 재시도)
+     */
+    private static final long REMOVED = -1L;
+
+    private static final int WHEEL_SLOTS = 1024;
+    private static final long WHEEL_TICK_MILLIS = 1000;
+
+    /**
+     * save()로 저장된 레코드의 보관 기간 (윈도우 크기를 알 수 없으므로 고정)
+     */
+    private static final long SAVED_RECORD_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final long baseMillis;
+    private final ExpiryTimerWheel<Expiry> expiryWheel;
+    private final ScheduledExecutorService expiryExecutor;
+
+    public InMemoryRateLimitRecordRepository() {
+        this(System::currentTimeMillis);
+    }
+
+    InMemoryRateLimitRecordRepository(LongSupplier clock) {
+        this.clock = clock;
+        this.baseMillis = clock.getAsLong();
+        this.expiryWheel = new ExpiryTimerWheel<>(WHEEL_SLOTS, WHEEL_TICK_MILLIS, baseMillis, this::expire);
+
+        this.expiryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rate-limit-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        expiryExecutor.scheduleAtFixedRate(this::cleanupExpired, WHEEL_TICK_MILLIS, WHEEL_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
 
     @Override
     public Optional<RateLimitRecord> findByKey(String key) {
-        return Optional.ofNullable(storage.get(key));
+        AtomicLong counter = counters.get(key);
+        long state = counter != null ? counter.get() : REMOVED;
+        if (state == REMOVED) {
+            return Optional.empty();
+        }
+
+        // 마지막 요청 시각은 추적하지 않으므로 윈도우 시작 시각으로 대신함
+        Instant windowStart = Instant.ofEpochMilli(baseMillis + windowStart(state));
+        return Optional.of(RateLimitRecord.builder()
+                .key(key)
+                .requestCount(count(state))
+                .windowStart(windowStart)
+                .lastRequest(windowStart)
+                .build());
     }
 
     @Override
     public RateLimitRecord save(RateLimitRecord record) {
-        storage.put(record.getKey(), record);
+        long now = clock.getAsLong();
+        long start = record.getWindowStart() != null ? record.getWindowStart().toEpochMilli() : now;
+        long offset = Math.max(0, start - baseMillis);
+        AtomicLong counter = new AtomicLong(pack(offset, record.getRequestCount()));
+
+        AtomicLong previous = counters.put(record.getKey(), counter);
+        if (previous != null) {
+            previous.set(REMOVED);
+        }
+        expiryWheel.schedule(new Expiry(record.getKey(), counter, offset), now + SAVED_RECORD_RETENTION_MILLIS);
         return record;
     }
 
     @Override
     public void deleteByKey(String key) {
-        storage.remove(key);
+        AtomicLong counter = counters.remove(key);
+        if (counter != null) {
+            counter.set(REMOVED);
+        }
     }
 
     @Override
     public void cleanupExpired() {
-        // 기본적으로 1시간 이상 지난 레코드 정리
-        Instant threshold = Instant.now().minusSeconds(3600);
-        storage.entrySet().removeIf(entry ->
-                entry.getValue().getLastRequest().isBefore(threshold)
-        );
+        int removed = expiryWheel.advance(clock.getAsLong());
+        if (removed > 0) {
+            log.debug("Cleaned up {} expired rate limit records", removed);
+        }
     }
 
     @Override
-    public synchronized boolean incrementAndCheck(String key, int windowSeconds, int maxRequests) {
-        RateLimitRecord record = storage.get(key);
-
-        if (record == null) {
-            // 새 레코드 생성
-            record = RateLimitRecord.builder()
-                    .key(key)
-                    .requestCount(1)
-                    .windowStart(Instant.now())
-                    .lastRequest(Instant.now())
-                    .build();
-            storage.put(key, record);
-            return true;
+    public boolean incrementAndCheck(String key, int windowSeconds, int maxRequests) {
+        long windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        long now = Math.max(0, clock.getAsLong() - baseMillis);
+
+        while (true) {
+            AtomicLong counter = counters.get(key);
+            if (counter == null) {
+                // 새로운 레코드 생성
+                AtomicLong created = new AtomicLong(pack(now, 1));
+                counter = counters.putIfAbsent(key, created);
+                if (counter == null) {
+                    scheduleExpiry(key, created, now, windowMillis);
+                    return true;
+                }
+            }
+
+            long state = counter.get();
+            while (state != REMOVED) {
+                if (now > windowStart(state) + windowMillis) {
+                    // 윈도우가 만료되었으면 리셋
+                    if (counter.compareAndSet(state, pack(now, 1))) {
+                        scheduleExpiry(key, counter, now, windowMillis);
+                        return true;
+                    }
+                } else {
+                    // 최대 요청 수 초과 체크
+                    long count = state & COUNT_MASK;
+                    if (count >= maxRequests) {
+                        return false;
+                    }
+                    // 요청 수 증가 (표현 가능한 최대값에서는 더 증가시키지 않음)
+                    if (count == COUNT_MASK || counter.compareAndSet(state, state + 1)) {
+                        return true;
+                    }
+                }
+                state = counter.get();
+            }
+
+            // 제거된 카운터: 저장소에서 빠진 것을 확인하고 새 카운터로 재시도
+            counters.remove(key, counter);
         }
-
-        // 윈도우 만료 확인
-        if (record.isWindowExpired(windowSeconds)) {
-            record.resetWindow();
-            storage.put(key, record);
-            return true;
-        }
-
-        // 요청 수 확인
-        if (record.getRequestCount() >= maxRequests) {
-            return false;
-        }
-
-        // 요청 수 증가
-        record.incrementCount();
-        storage.put(key, record);
-        return true;
     }
 
     @Override
     public int getCurrentCount(String key) {
-        RateLimitRecord record = storage.get(key);
-        return record != null ? record.getRequestCount() : 0;
+        AtomicLong counter = counters.get(key);
+        long state = counter != null ? counter.get() : REMOVED;
+        return state != REMOVED ? count(state) : 0;
     }
 
     @Override
@@ -89,13 +175,77 @@ public class InMemoryRateLimitRecordRepository implements RateLimitRecordReposit
 
     @Override
     public long getResetTimeSeconds(String key, int windowSeconds) {
-        RateLimitRecord record = storage.get(key);
-        if (record == null) {
+        AtomicLong counter = counters.get(key);
+        long state = counter != null ? counter.get() : REMOVED;
+        if (state == REMOVED) {
             return windowSeconds;
         }
 
-        Instant windowEnd = record.getWindowStart().plusSeconds(windowSeconds);
-        long remaining = windowEnd.getEpochSecond() - Instant.now().getEpochSecond();
+        long windowEnd = baseMillis + windowStart(state) + TimeUnit.SECONDS.toMillis(windowSeconds);
+        long remaining = TimeUnit.MILLISECONDS.toSeconds(windowEnd) - TimeUnit.MILLISECONDS.toSeconds(clock.getAsLong());
         return Math.max(0, remaining);
     }
+
+    /**
+     * 저장된 레코드 수
+     */
+    public long count() {
+        return counters.size();
+    }
+
+    /**
+     * 만료 정리 스레드 종료
+     */
+    public void shutdown() {
+        expiryExecutor.shutdown();
+    }
+
+    private void scheduleExpiry(String key, AtomicLong counter, long windowStart, long windowMillis) {
+        // 윈도우 종료 직후 (now > windowStart + window) 정리
+        expiryWheel.schedule(new Expiry(key, counter, windowStart), baseMillis + windowStart + windowMillis + 1);
+    }
+
+    /**
+     * 예약된 윈도우가 그대로 남아 있으면 제거
+     * 그 사이 새 윈도우가 시작되었으면 새 윈도우의 만료가 따로 예약되어 있으므로 무시합니다.
+     */
+    private void expire(Expiry expiry) {
+        AtomicLong counter = expiry.counter;
+        long state;
+        do {
+            state = counter.get();
+            if (state == REMOVED || windowStart(state) != expiry.windowStart) {
+                return;
+            }
+        } while (!counter.compareAndSet(state, REMOVED));
+
+        counters.remove(expiry.key, counter);
+    }
+
+    private static long pack(long windowStart, long count) {
+        return (windowStart << COUNT_BITS) | Math.min(Math.max(count, 0), COUNT_MASK);
+    }
+
+    private static long windowStart(long state) {
+        return state >>> COUNT_BITS;
+    }
+
+    private static int count(long state) {
+        return (int) (state & COUNT_MASK);
+    }
+
+    /**
+     * 만료 예약 (키, 카운터, 예약 당시 윈도우 시작 시각)
+     */
+    private static final class Expiry {
+        private final String key;
+        private final AtomicLong counter;
+        private final long windowStart;
+
+        Expiry(String key, AtomicLong counter, long windowStart) {
+            this.key = key;
+            this.counter = counter;
+            this.windowStart = windowStart;
+        }
+    }
 }